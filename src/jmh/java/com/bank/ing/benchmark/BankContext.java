@@ -0,0 +1,35 @@
+package com.bank.ing.benchmark;
+
+import com.bank.ing.Application;
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.service.AccountService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+
+/**
+ * Application context of the benchmarks: the full service layer on the in-memory H2 database, without the web
+ * server and with logging limited to warnings so that the measured code does not print.
+ */
+final class BankContext {
+
+    private BankContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=warn", "spring.main.banner-mode=off", "spring.devtools.restart.enabled=false")
+                .properties(properties)
+                .run();
+    }
+
+    static long createAccount(ConfigurableApplicationContext context, BigDecimal initialDepositAmount) {
+        return context.getBean(AccountService.class).createNewAccount(RequestCreationAccountDTO.builder()
+                .customerId(1L)
+                .initialDepositAmount(initialDepositAmount)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.ing.benchmark;
+
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import com.bank.ing.dto.response.ResponseAccountDTO;
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.Customer;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import com.bank.ing.service.mapper.DtoMapper;
+import com.bank.ing.utils.OperationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions of {@link DtoMapper} between the request/response DTOs and the entities, on every request path.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DtoMapperBenchmark {
+
+    private RequestCreationAccountDTO requestCreationAccountDTO;
+    private RequestTransferOperationDTO requestTransferOperationDTO;
+    private Account account;
+    private Operation operation;
+
+    @Setup
+    public void setUp() {
+        requestCreationAccountDTO = RequestCreationAccountDTO.builder()
+                .customerId(1L)
+                .initialDepositAmount(BigDecimal.valueOf(10_000, 2))
+                .build();
+        requestTransferOperationDTO = RequestTransferOperationDTO.builder()
+                .senderAccountId(1L)
+                .receiverAccountId(2L)
+                .value(BigDecimal.valueOf(1_250, 2))
+                .build();
+        account = Account.builder()
+                .id(1L)
+                .customer(Customer.builder().id(1L).build())
+                .balance(Money.ofMinorUnits(10_000))
+                .initialDepositAmount(Money.ofMinorUnits(10_000))
+                .creationTimestamp(LocalDateTime.now())
+                .build();
+        operation = Operation.builder()
+                .id(1L)
+                .type(OperationType.TRANSFER.name())
+                .senderAccount(account)
+                .receiverAccount(Account.builder().id(2L).build())
+                .value(Money.ofMinorUnits(1_250))
+                .operationDateTime(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public Account toAccountEntity() {
+        return DtoMapper.toAccountEntity(requestCreationAccountDTO);
+    }
+
+    @Benchmark
+    public ResponseAccountDTO toResponseAccountDTO() {
+        return DtoMapper.toResponseAccountDTO(account);
+    }
+
+    @Benchmark
+    public Operation toTransferOperationEntity() {
+        return DtoMapper.toTransferOperationEntity(requestTransferOperationDTO);
+    }
+
+    @Benchmark
+    public ResponseDepositWithdrawTransferDTO toResponseOperationDTO() {
+        return DtoMapper.toResponseOperationDTO(operation);
+    }
+}
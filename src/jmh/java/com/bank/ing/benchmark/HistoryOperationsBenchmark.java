@@ -0,0 +1,125 @@
+package com.bank.ing.benchmark;
+
+import com.bank.ing.dto.response.ResponseHistoryOperationsDTO;
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.ledger.JdbcLedgerSink;
+import com.bank.ing.money.Money;
+import com.bank.ing.service.HistoryCursor;
+import com.bank.ing.service.OperationService;
+import com.bank.ing.utils.OperationType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.bank.ing.configuration.Constants.HISTORY_DEFAULT_LIMIT;
+
+/**
+ * {@link OperationService#historyOperations(long, int, String)} on accounts with {@code historySize} operations: the
+ * first page, and a page from the middle of the history as a client paging through it would request it. The
+ * operations are inserted with JDBC batches before the measurement, one per minute. The JDBC statements, the
+ * entities hydrated and the operations returned per request are printed at the end of each trial, from the Hibernate
+ * statistics.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryOperationsBenchmark {
+
+    private static final int LIMIT = Integer.parseInt(HISTORY_DEFAULT_LIMIT);
+    private static final int INSERT_BATCH_SIZE = 1_000;
+    private static final long FIRST_OPERATION_ID = 1_000_000_000L;
+
+    @Param({"100", "10000", "100000"})
+    private int historySize;
+
+    private ConfigurableApplicationContext context;
+    private OperationService operationService;
+    private long accountId;
+    private String middleCursor;
+    private Statistics statistics;
+    private long requests;
+    private long operations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BankContext.start("spring.jpa.properties.hibernate.generate_statistics=true");
+        operationService = context.getBean(OperationService.class);
+        accountId = BankContext.createAccount(context, BigDecimal.ZERO);
+        Account account = Account.builder().id(accountId).build();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        LocalDateTime operationDateTime = LocalDateTime.now().minusMinutes(historySize);
+        List<Operation> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        Operation middle = null;
+        for (int i = 0; i < historySize; i++) {
+            Operation operation = Operation.builder()
+                    .id(FIRST_OPERATION_ID + i)
+                    .type(OperationType.DEPOSIT.name())
+                    .receiverAccount(account)
+                    .value(Money.ofMinorUnits(100))
+                    .operationDateTime(operationDateTime.plusMinutes(i))
+                    .build();
+            if (i == historySize / 2) {
+                middle = operation;
+            }
+            batch.add(operation);
+            if (batch.size() == INSERT_BATCH_SIZE || i == historySize - 1) {
+                jdbcTemplate.batchUpdate(JdbcLedgerSink.INSERT_OPERATION_SQL, batch, batch.size(),
+                        JdbcLedgerSink::setOperation);
+                batch.clear();
+            }
+        }
+        middleCursor = HistoryCursor.after(middle).encode();
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nhistorySize=%d requests=%d statements/request=%.2f entities/request=%.2f "
+                        + "operations/request=%.2f%n", historySize, requests,
+                (double) statistics.getPrepareStatementCount() / requests,
+                (double) statistics.getEntityLoadCount() / requests, (double) operations / requests);
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseHistoryOperationsDTO firstPage() {
+        return counted(operationService.historyOperations(accountId, LIMIT, null));
+    }
+
+    @Benchmark
+    public ResponseHistoryOperationsDTO middlePage() {
+        return counted(operationService.historyOperations(accountId, LIMIT, middleCursor));
+    }
+
+    private ResponseHistoryOperationsDTO counted(ResponseHistoryOperationsDTO history) {
+        requests++;
+        operations += history.getOperationDTOList().size();
+        return history;
+    }
+}
@@ -0,0 +1,214 @@
+package com.bank.ing.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import com.bank.ing.repository.OperationHistoryQueries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The account history queries on a large {@code operation} table: the former {@code OR} query against the
+ * {@code UNION ALL} query, with and without the sender/receiver indexes. One hot account takes part in
+ * {@value #HOT_ACCOUNT_SHARE_PERCENT}% of the operations, the others are spread over the remaining accounts. The
+ * table lives in a file H2 database in a temporary directory, removed at the end of the trial. The H2 query cache is
+ * disabled, a repeated query would otherwise be answered from the previous result. The plan of the deep page query
+ * is printed at the end of each trial.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryQueryBenchmark {
+
+    private static final long HOT_ACCOUNT = 1;
+    private static final int HOT_ACCOUNT_SHARE_PERCENT = 1;
+    private static final int PAGE_SIZE = 50;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private static final String OR_HISTORY = "SELECT " + OperationHistoryQueries.HISTORY_COLUMNS + " FROM operation "
+            + "WHERE operation_id_sender = :accountId OR operation_id_receiver = :accountId"
+            + OperationHistoryQueries.HISTORY_ORDER;
+    private static final String OR_HISTORY_PAGE = OR_HISTORY + " LIMIT :limit";
+
+    @Param({"1000000"})
+    private long operations;
+
+    @Param({"100000"})
+    private int accounts;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private Path directory;
+    private SingleConnectionDataSource dataSource;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private MapSqlParameterSource hotPage;
+    private MapSqlParameterSource coldPage;
+    private MapSqlParameterSource hotDeepPage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.INFO);
+        directory = Files.createTempDirectory("history-benchmark");
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:file:" + directory.resolve("bank") + ";CACHE_SIZE=262144;QUERY_CACHE_SIZE=0", "sa", "", true);
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.getJdbcTemplate().execute("CREATE TABLE operation (operation_id BIGINT PRIMARY KEY, "
+                + "operation_type VARCHAR(255), operation_id_sender BIGINT, operation_id_receiver BIGINT, "
+                + "operation_value BIGINT, operation_date_time TIMESTAMP)");
+        populate(dataSource.getConnection());
+        if (indexed) {
+            jdbcTemplate.getJdbcTemplate().execute("CREATE INDEX idx_operation_sender_date_time ON operation "
+                    + "(operation_id_sender, operation_date_time DESC, operation_id DESC)");
+            jdbcTemplate.getJdbcTemplate().execute("CREATE INDEX idx_operation_receiver_date_time ON operation "
+                    + "(operation_id_receiver, operation_date_time DESC, operation_id DESC)");
+        }
+        hotPage = page(HOT_ACCOUNT);
+        coldPage = page(HOT_ACCOUNT + 1 + accounts / 2);
+        hotDeepPage = deepPageCursor(HOT_ACCOUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%nplan of the UNION ALL deep page, indexed=%s:%n%s%n", indexed, jdbcTemplate.queryForObject(
+                "EXPLAIN " + OperationHistoryQueries.HISTORY_PAGE_AFTER, hotDeepPage, String.class));
+        dataSource.destroy();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void orFullHistoryHot() {
+        query(OR_HISTORY, hotPage);
+    }
+
+    @Benchmark
+    public void orFirstPageHot() {
+        query(OR_HISTORY_PAGE, hotPage);
+    }
+
+    @Benchmark
+    public void orFirstPageCold() {
+        query(OR_HISTORY_PAGE, coldPage);
+    }
+
+    @Benchmark
+    public void unionAllFirstPageHot() {
+        query(OperationHistoryQueries.HISTORY_PAGE, hotPage);
+    }
+
+    @Benchmark
+    public void unionAllFirstPageCold() {
+        query(OperationHistoryQueries.HISTORY_PAGE, coldPage);
+    }
+
+    @Benchmark
+    public void unionAllDeepPageHot() {
+        query(OperationHistoryQueries.HISTORY_PAGE_AFTER, hotDeepPage);
+    }
+
+    @Benchmark
+    public void unionAllFullHistoryHot() {
+        query(OperationHistoryQueries.HISTORY_EXPORT, hotPage);
+    }
+
+    /**
+     * Reads every row of the result, as the history service does.
+     */
+    private void query(String sql, MapSqlParameterSource parameters) {
+        jdbcTemplate.query(sql, parameters, resultSet -> { });
+    }
+
+    /**
+     * Operations one to three seconds apart. Every hundredth operation involves the hot account, a third of them
+     * as a withdrawal (sender and receiver both set to the account).
+     */
+    private void populate(Connection connection) throws SQLException {
+        Random random = new Random(42);
+        LocalDateTime dateTime = LocalDateTime.of(2015, 1, 1, 0, 0);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO operation VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= operations; id++) {
+                long sender = HOT_ACCOUNT + 1 + random.nextInt(accounts);
+                long receiver = HOT_ACCOUNT + 1 + random.nextInt(accounts);
+                String type = "TRANSFER";
+                if (random.nextInt(100) < HOT_ACCOUNT_SHARE_PERCENT) {
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            sender = HOT_ACCOUNT;
+                            break;
+                        case 1:
+                            receiver = HOT_ACCOUNT;
+                            break;
+                        default:
+                            sender = HOT_ACCOUNT;
+                            receiver = HOT_ACCOUNT;
+                            type = "WITHDRAW";
+                    }
+                }
+                dateTime = dateTime.plusSeconds(1 + random.nextInt(3));
+                insert.setLong(1, id);
+                insert.setString(2, type);
+                insert.setLong(3, sender);
+                insert.setLong(4, receiver);
+                insert.setLong(5, 1 + random.nextInt(100_000));
+                insert.setTimestamp(6, Timestamp.valueOf(dateTime));
+                insert.addBatch();
+                if (id % INSERT_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+    }
+
+    private MapSqlParameterSource page(long accountId) {
+        return new MapSqlParameterSource("accountId", accountId).addValue("limit", PAGE_SIZE + 1);
+    }
+
+    /**
+     * Cursor in the middle of the account history, as a client paging through it would send it.
+     */
+    private MapSqlParameterSource deepPageCursor(long accountId) {
+        List<Map<String, Object>> history = jdbcTemplate.queryForList(OR_HISTORY, page(accountId));
+        Map<String, Object> middle = history.get(history.size() / 2);
+        return page(accountId)
+                .addValue("operationDateTime", middle.get("OPERATION_DATE_TIME"))
+                .addValue("operationId", middle.get("OPERATION_ID"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.ing.benchmark;
+
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.dto.response.ResponseHistoryOperationsDTO;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a {@link ResponseHistoryOperationsDTO} page of {@code operations} operations, with an
+ * {@link ObjectMapper} configured as the one of the web layer.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HistorySerializationBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int operations;
+
+    private ObjectMapper objectMapper;
+    private ResponseHistoryOperationsDTO page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.now();
+        List<ResponseDepositWithdrawTransferDTO> operationDTOList = new ArrayList<>(operations);
+        for (int i = 0; i < operations; i++) {
+            operationDTOList.add(ResponseDepositWithdrawTransferDTO.builder()
+                    .id((long) i)
+                    .typeOperation(OperationType.TRANSFER.name())
+                    .senderAccountId(1L)
+                    .receiverAccountId(2L)
+                    .value(Money.ofMinorUnits(1_000 + i))
+                    .creationTimestamp(now.minusMinutes(i))
+                    .build());
+        }
+        page = ResponseHistoryOperationsDTO.builder()
+                .accountId(1L)
+                .operationDTOList(operationDTOList)
+                .next("MjAyMS0wMy0yOFQxMDoxNTozMHwxMjM0NQ")
+                .creationTimestamp(now)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] writeHistoryPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.ing.benchmark;
+
+import com.bank.ing.entity.Operation;
+import com.bank.ing.ledger.LedgerEngine;
+import com.bank.ing.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How the transfer throughput of the {@link LedgerEngine} scales with the number of shards. One client thread per
+ * core keeps {@value #PIPELINE_DEPTH} transfers between random accounts in flight and waits for all of them before
+ * sending the next ones. Persistence is discarded so only the engine itself is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class LedgerEngineBenchmark {
+
+    private static final int PIPELINE_DEPTH = 256;
+    private static final int SHARD_QUEUE_CAPACITY = 65_536;
+    private static final Money INITIAL_BALANCE = Money.parse("1000000");
+    private static final Money AMOUNT = Money.parse("1");
+
+    @Param({"1", "2", "4", "8"})
+    private int shards;
+
+    @Param({"100000"})
+    private int accounts;
+
+    private LedgerEngine ledgerEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AtomicLong operationIds = new AtomicLong();
+        ledgerEngine = new LedgerEngine(shards, SHARD_QUEUE_CAPACITY, Duration.ofSeconds(30),
+                accountId -> Optional.of(INITIAL_BALANCE), entry -> { }, operationIds::incrementAndGet);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        ledgerEngine.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public Operation transfers() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Operation>[] pending = new CompletableFuture[PIPELINE_DEPTH];
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            long sender = 1 + random.nextInt(accounts);
+            long receiver = 1 + (sender + random.nextInt(accounts - 1)) % accounts;
+            pending[i] = ledgerEngine.transferAsync(sender, receiver, AMOUNT);
+        }
+        Operation last = null;
+        for (CompletableFuture<Operation> transfer : pending) {
+            last = transfer.join();
+        }
+        return last;
+    }
+}
@@ -0,0 +1,282 @@
+package com.bank.ing.benchmark;
+
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.bank.ing.controller.AccountController.ACCOUNT_BALANCE_GET_END_POINT_V1;
+import static com.bank.ing.controller.AccountController.ACCOUNT_CREATION_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.DEPOSIT_POST_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.HISTORY_OPERATION_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.TRANSFER_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.WITHDRAW_POST_END_POINT_V1;
+
+/**
+ * Drives a running application over HTTP at a fixed arrival rate with a mix of transfer, deposit, withdraw, balance
+ * and history requests. The load follows an open model: request {@code i} is due at {@code start + i / rate}
+ * whatever the responses, and its latency is measured from that due time rather than from the actual send, so a
+ * server that stalls is charged for the requests queued behind the stall (no coordinated omission).
+ * <p>
+ * Accounts are created first, then requests run for {@code warmup} seconds without being recorded and for
+ * {@code duration} seconds recorded. Per request type the report gives the count, the 4xx rejections (insufficient
+ * balance for instance), the errors (5xx, timeouts and connection failures) and the latency percentiles.
+ * <p>
+ * Start the application, then run with: {@code mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.bank.ing.benchmark.LoadGenerator [-Dexec.args="url=http://localhost:8080 rate=200
+ * duration=60 warmup=10 accounts=100 mix=transfer:40,deposit:15,withdraw:15,balance:20,history:10"]}
+ * <p>
+ * To compare the request thread modes, run the same load against the application started with
+ * {@code --bank.server.threads=platform} and then, on a Java 21 runtime, with {@code --bank.server.threads=virtual},
+ * raising the rate until the errors or the p99 latency climb. The reactive stack is compared the same way, with
+ * {@code --spring.profiles.active=reactive}.
+ */
+public class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final BigDecimal INITIAL_AMOUNT = BigDecimal.valueOf(1_000_000);
+
+    enum RequestType {
+        TRANSFER, DEPOSIT, WITHDRAW, BALANCE, HISTORY
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "load-generator");
+                thread.setDaemon(true);
+                return thread;
+            }))
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<RequestType, Recorder> recorders = new EnumMap<>(RequestType.class);
+    private final Map<RequestType, LongAdder> rejected = new EnumMap<>(RequestType.class);
+    private final Map<RequestType, LongAdder> errors = new EnumMap<>(RequestType.class);
+    private final ConcurrentLinkedQueue<String> errorSamples = new ConcurrentLinkedQueue<>();
+    private final String url;
+    private volatile boolean recording;
+
+    private LoadGenerator(String url) {
+        this.url = url;
+        for (RequestType type : RequestType.values()) {
+            recorders.put(type, new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            rejected.put(type, new LongAdder());
+            errors.put(type, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of("url", "http://localhost:8080", "rate", "200",
+                "duration", "60", "warmup", "10", "accounts", "100",
+                "mix", "transfer:40,deposit:15,withdraw:15,balance:20,history:10"));
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2 || !options.containsKey(option[0])) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(option[0], option[1]);
+        }
+        LoadGenerator loadGenerator = new LoadGenerator(options.get("url"));
+        RequestType[] schedule = schedule(options.get("mix"));
+        int accounts = Integer.parseInt(options.get("accounts"));
+        if (accounts < 2) {
+            throw new IllegalArgumentException("Transfers need at least 2 accounts");
+        }
+        long[] accountIds = loadGenerator.createAccounts(accounts);
+        int rate = Integer.parseInt(options.get("rate"));
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int duration = Integer.parseInt(options.get("duration"));
+
+        System.out.printf("url=%s rate=%d/s warmup=%ds duration=%ds accounts=%d mix=%s%n", options.get("url"), rate,
+                warmup, duration, accountIds.length, options.get("mix"));
+        loadGenerator.run(schedule, accountIds, rate, warmup, false);
+        long elapsed = loadGenerator.run(schedule, accountIds, rate, duration, true);
+        loadGenerator.report(elapsed);
+    }
+
+    /**
+     * One slot per percent of the mix, the request type of every request is drawn from it.
+     */
+    private static RequestType[] schedule(String mix) {
+        Map<RequestType, Integer> weights = new EnumMap<>(RequestType.class);
+        int total = 0;
+        for (String part : mix.split(",")) {
+            String[] weight = part.split(":");
+            int value = Integer.parseInt(weight[1].trim());
+            weights.put(RequestType.valueOf(weight[0].trim().toUpperCase()), value);
+            total += value;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Empty request mix " + mix);
+        }
+        RequestType[] schedule = new RequestType[total];
+        int slot = 0;
+        for (Map.Entry<RequestType, Integer> weight : weights.entrySet()) {
+            for (int i = 0; i < weight.getValue(); i++) {
+                schedule[slot++] = weight.getKey();
+            }
+        }
+        return schedule;
+    }
+
+    private long[] createAccounts(int accounts) throws Exception {
+        long[] accountIds = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            HttpResponse<Void> response = httpClient.send(post(ACCOUNT_CREATION_END_POINT_V1,
+                    RequestCreationAccountDTO.builder().customerId(1L).initialDepositAmount(INITIAL_AMOUNT).build()),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Could not create an account, status " + response.statusCode());
+            }
+            String location = response.headers().firstValue("Location").orElseThrow();
+            accountIds[i] = Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+        }
+        return accountIds;
+    }
+
+    /**
+     * Sends requests at {@code rate} per second for {@code seconds}, then waits for the last responses. Returns the
+     * nanoseconds elapsed until the last response, longer than {@code seconds} when the application falls behind.
+     */
+    private long run(RequestType[] schedule, long[] accountIds, int rate, int seconds, boolean record)
+            throws JsonProcessingException {
+        Random random = new Random(42);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (long) rate * seconds;
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[(int) Math.min(total, rate * 60L)];
+        recording = record;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long due = start + i * interval;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            RequestType type = schedule[random.nextInt(schedule.length)];
+            int account = random.nextInt(accountIds.length);
+            int otherAccount = (account + 1 + random.nextInt(accountIds.length - 1)) % accountIds.length;
+            int slot = (int) (i % inFlight.length);
+            if (inFlight[slot] != null) {
+                inFlight[slot].join();
+            }
+            inFlight[slot] = send(type, request(type, accountIds[account], accountIds[otherAccount]), due);
+        }
+        for (CompletableFuture<?> future : inFlight) {
+            if (future != null) {
+                future.join();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private HttpRequest request(RequestType type, long accountId, long otherAccountId)
+            throws JsonProcessingException {
+        switch (type) {
+            case TRANSFER:
+                return post(TRANSFER_GET_END_POINT_V1, RequestTransferOperationDTO.builder()
+                        .senderAccountId(accountId).receiverAccountId(otherAccountId).value(BigDecimal.ONE).build());
+            case DEPOSIT:
+                return post(DEPOSIT_POST_END_POINT_V1.replace("{accountId}", Long.toString(accountId)),
+                        RequestDepositAccountDTO.builder().accountId(accountId).depositAmount(BigDecimal.ONE).build());
+            case WITHDRAW:
+                return post(WITHDRAW_POST_END_POINT_V1.replace("{accountId}", Long.toString(accountId)),
+                        RequestWithdrawAccountDTO.builder().accountId(accountId).withdrawAmount(BigDecimal.ONE).build());
+            case BALANCE:
+                return get(ACCOUNT_BALANCE_GET_END_POINT_V1.replace("{id}", Long.toString(accountId)));
+            default:
+                return get(HISTORY_OPERATION_GET_END_POINT_V1.replace("{accountId}", Long.toString(accountId)));
+        }
+    }
+
+    private CompletableFuture<?> send(RequestType type, HttpRequest request, long due) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    long latency = System.nanoTime() - due;
+                    if (!recording) {
+                        return null;
+                    }
+                    recorders.get(type).recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+                    if (failure != null) {
+                        errors.get(type).increment();
+                        sampleError(type + " " + failure);
+                    } else if (response.statusCode() >= 500) {
+                        errors.get(type).increment();
+                        sampleError(type + " status " + response.statusCode());
+                    } else if (response.statusCode() >= 400) {
+                        rejected.get(type).increment();
+                    }
+                    return null;
+                });
+    }
+
+    private void sampleError(String error) {
+        if (errorSamples.size() < 10) {
+            errorSamples.add(error);
+        }
+    }
+
+    private void report(long elapsed) {
+        System.out.printf("%n%-10s %9s %9s %9s %10s %10s %10s %10s%n", "request", "count", "rejected", "errors",
+                "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        long allRejected = 0;
+        long allErrors = 0;
+        for (RequestType type : RequestType.values()) {
+            Histogram histogram = recorders.get(type).getIntervalHistogram();
+            all.add(histogram);
+            allRejected += rejected.get(type).sum();
+            allErrors += errors.get(type).sum();
+            if (histogram.getTotalCount() > 0) {
+                print(type.name().toLowerCase(), histogram, rejected.get(type).sum(), errors.get(type).sum());
+            }
+        }
+        print("all", all, allRejected, allErrors);
+        System.out.printf("%nelapsed=%.1fs throughput=%.0f/s rejection rate=%.2f%% error rate=%.2f%%%n", elapsed / 1e9,
+                all.getTotalCount() * 1e9 / elapsed, 100.0 * allRejected / Math.max(1, all.getTotalCount()),
+                100.0 * allErrors / Math.max(1, all.getTotalCount()));
+        errorSamples.forEach(error -> System.out.println("error: " + error));
+    }
+
+    private static void print(String name, Histogram histogram, long rejected, long errors) {
+        System.out.printf("%-10s %9d %9d %9d %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(), rejected,
+                errors, histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6);
+    }
+
+    private HttpRequest post(String path, Object body) throws JsonProcessingException {
+        return HttpRequest.newBuilder(URI.create(url + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(url + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+}
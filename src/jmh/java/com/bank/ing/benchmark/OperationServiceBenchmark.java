@@ -0,0 +1,91 @@
+package com.bank.ing.benchmark;
+
+import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.service.OperationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer, deposit and withdraw through {@link OperationService} against the in-memory database, in every ledger
+ * mode. This is the whole unit of work of a request: concurrency strategy, account update through
+ * {@code AccountService} and operation insert. The accounts hold enough money for withdrawals and transfers never to
+ * be rejected.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperationServiceBenchmark {
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000000");
+
+    @Param({"jpa", "atomic", "engine"})
+    private String ledgerMode;
+
+    private ConfigurableApplicationContext context;
+    private OperationService operationService;
+    private RequestTransferOperationDTO transfer;
+    private RequestDepositAccountDTO deposit;
+    private RequestWithdrawAccountDTO withdraw;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BankContext.start("bank.ledger.mode=" + ledgerMode);
+        operationService = context.getBean(OperationService.class);
+        long senderAccountId = BankContext.createAccount(context, INITIAL_BALANCE);
+        long receiverAccountId = BankContext.createAccount(context, INITIAL_BALANCE);
+        transfer = RequestTransferOperationDTO.builder()
+                .senderAccountId(senderAccountId)
+                .receiverAccountId(receiverAccountId)
+                .value(BigDecimal.ONE)
+                .build();
+        deposit = RequestDepositAccountDTO.builder()
+                .accountId(receiverAccountId)
+                .depositAmount(BigDecimal.ONE)
+                .build();
+        withdraw = RequestWithdrawAccountDTO.builder()
+                .accountId(senderAccountId)
+                .withdrawAmount(BigDecimal.ONE)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseDepositWithdrawTransferDTO transfer() {
+        return operationService.transferOperation(transfer);
+    }
+
+    @Benchmark
+    public ResponseDepositWithdrawTransferDTO deposit() {
+        return operationService.depositMoney(deposit);
+    }
+
+    @Benchmark
+    public ResponseDepositWithdrawTransferDTO withdraw() {
+        return operationService.withdrawMoney(withdraw);
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.ing.configuration;
+
+import com.bank.ing.repository.AccountRepository;
+import com.bank.ing.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.ing.service.concurrency.OptimisticAccountConcurrencyStrategy;
+import com.bank.ing.service.concurrency.PessimisticOrderedAccountConcurrencyStrategy;
+import com.bank.ing.service.concurrency.StripedLockAccountConcurrencyStrategy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Selects the {@link AccountConcurrencyStrategy} with {@code bank.concurrency.strategy}.
+ */
+@Configuration
+@EnableConfigurationProperties(AccountConcurrencyProperties.class)
+public class AccountConcurrencyConfiguration {
+
+    private static final String PREFIX = "bank.concurrency";
+
+    @Bean
+    @ConditionalOnProperty(prefix = PREFIX, name = "strategy", havingValue = "optimistic", matchIfMissing = true)
+    public AccountConcurrencyStrategy optimisticAccountConcurrencyStrategy(TransactionTemplate transactionTemplate,
+                                                                           AccountConcurrencyProperties properties) {
+        return new OptimisticAccountConcurrencyStrategy(transactionTemplate, properties.getMaxAttempts(),
+                properties.getInitialBackoff(), properties.getMaxBackoff());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = PREFIX, name = "strategy", havingValue = "pessimistic")
+    public AccountConcurrencyStrategy pessimisticAccountConcurrencyStrategy(TransactionTemplate transactionTemplate,
+                                                                            AccountRepository accountRepository,
+                                                                            AccountConcurrencyProperties properties) {
+        return new PessimisticOrderedAccountConcurrencyStrategy(transactionTemplate, accountRepository,
+                properties.getLockWaitThreshold());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = PREFIX, name = "strategy", havingValue = "striped")
+    public AccountConcurrencyStrategy stripedAccountConcurrencyStrategy(TransactionTemplate transactionTemplate,
+                                                                        AccountConcurrencyProperties properties) {
+        return new StripedLockAccountConcurrencyStrategy(transactionTemplate, properties.getStripes(),
+                properties.getLockTimeout(), properties.getLockWaitThreshold());
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.concurrency")
+public class AccountConcurrencyProperties {
+
+    /**
+     * Strategy protecting account balances against concurrent updates: optimistic, pessimistic or striped.
+     */
+    private String strategy = "optimistic";
+
+    /**
+     * Optimistic strategy: attempts of a unit of work before it is aborted.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Optimistic strategy: backoff before the first retry, doubled on every following retry.
+     */
+    private Duration initialBackoff = Duration.ofMillis(2);
+
+    /**
+     * Optimistic strategy: upper bound of the backoff between two attempts.
+     */
+    private Duration maxBackoff = Duration.ofMillis(100);
+
+    /**
+     * Striped strategy: number of locks accounts are hashed to.
+     */
+    private int stripes = 1024;
+
+    /**
+     * Striped strategy: maximum wait for the account locks before the unit of work is aborted.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Pessimistic and striped strategies: acquisition time of the account locks above which it is counted on
+     * {@code bank.concurrency.lock.waits}, around the time of an uncontended acquisition.
+     */
+    private Duration lockWaitThreshold = Duration.ofMillis(1);
+}
@@ -0,0 +1,19 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bank.account-import")
+public class AccountImportProperties {
+
+    /**
+     * Accounts of an import created in one transaction, with one customer query and one JDBC batch.
+     */
+    private int chunkSize = 1_000;
+
+    /**
+     * Rejected lines listed in the import response, the others are only counted.
+     */
+    private int maxReportedErrors = 1_000;
+}
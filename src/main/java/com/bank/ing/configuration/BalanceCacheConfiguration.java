@@ -0,0 +1,21 @@
+package com.bank.ing.configuration;
+
+import com.bank.ing.service.cache.AccountBalanceCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Account balance cache, disabled with {@code bank.cache.balance.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.cache.balance", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(BalanceCacheProperties.class)
+public class BalanceCacheConfiguration {
+
+    @Bean
+    public AccountBalanceCache accountBalanceCache(BalanceCacheProperties properties) {
+        return new AccountBalanceCache(properties.getMaximumSize(), properties.getSegments());
+    }
+}
@@ -0,0 +1,24 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bank.cache.balance")
+public class BalanceCacheProperties {
+
+    /**
+     * Whether account balances read through the JPA and atomic ledger modes are cached in process.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached balances, the least recently read ones are evicted first.
+     */
+    private int maximumSize = 100_000;
+
+    /**
+     * Number of independently locked LRU segments the cache is split into.
+     */
+    private int segments = 64;
+}
@@ -0,0 +1,17 @@
+package com.bank.ing.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Periodic balance checkpoints, disabled with {@code bank.checkpoint.enabled=false}. Balance as-of queries still work
+ * without checkpoints, they then replay the account from its creation.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.checkpoint", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableScheduling
+@EnableConfigurationProperties(BalanceCheckpointProperties.class)
+public class BalanceCheckpointConfiguration {
+}
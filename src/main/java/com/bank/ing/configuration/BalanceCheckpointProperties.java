@@ -0,0 +1,27 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.checkpoint")
+public class BalanceCheckpointProperties {
+
+    /**
+     * Whether balance checkpoints are written periodically.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between two checkpoint runs.
+     */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * Age an operation must reach before it is checkpointed: operation timestamps are taken before their commit.
+     * Operations held by an asynchronous writer are waited for regardless of this delay.
+     */
+    private Duration settleDelay = Duration.ofMinutes(1);
+}
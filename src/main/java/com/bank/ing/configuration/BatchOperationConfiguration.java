@@ -0,0 +1,9 @@
+package com.bank.ing.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({BatchOperationProperties.class, AccountImportProperties.class})
+public class BatchOperationConfiguration {
+}
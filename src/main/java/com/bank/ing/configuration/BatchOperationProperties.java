@@ -0,0 +1,19 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bank.batch")
+public class BatchOperationProperties {
+
+    /**
+     * Operations of a batch request applied in one transaction.
+     */
+    private int chunkSize = 100;
+
+    /**
+     * Largest batch request accepted.
+     */
+    private int maxOperations = 5000;
+}
@@ -10,9 +10,25 @@ public final class Constants {
     public static final String VALUE_INVALID = "Invalid value";
     public static final String VALUE_FORMAT_INVALID = "Invalid value format";
     public static final String MESSAGE_NULL_REQUEST_ACCOUNT_DTO_ERROR = "Request account dto is null";
+    public static final String BATCH_OPERATIONS_INVALID = "Invalid operations";
     public static final String MESSAGE_NULL_REQUEST_OPERATION_DTO_ERROR = "Request operation dto is null";
     public static final String CUSTOMER_NOT_FOUND_ID = "Customer not found id={}";
     public static final String ACCOUNT_NOT_FOUND_ERROR = "Account not found id={}";
-    public static final String INSUFFICIENT_BALANCE_ERROR = "Insufficiente balance in Account id=%d";
+    public static final String IMPORT_MALFORMED_RECORD = "Malformed record, expected customer_id and initial_amount";
+    public static final String IMPORT_CUSTOMER_NOT_FOUND = "Customer not found";
+    public static final String BATCH_TOO_LARGE_ERROR = "Batch of {} operations exceeds the maximum of {}";
+    public static final String INVALID_HISTORY_CURSOR = "Invalid history cursor={}";
+    public static final String INVALID_HISTORY_LIMIT = "Invalid history limit={}, expected between 1 and {}";
+    public static final String HISTORY_DEFAULT_LIMIT = "50";
+    public static final int HISTORY_MAX_LIMIT = 500;
+    public static final String INVALID_CUSTOMER_CURSOR = "Invalid customer cursor={}";
+    public static final String INVALID_CUSTOMER_LIMIT = "Invalid customer limit={}, expected between 1 and {}";
+    public static final String CUSTOMER_DEFAULT_LIMIT = "100";
+    public static final int CUSTOMER_MAX_LIMIT = 1000;
+    public static final String INVALID_STATEMENT_MONTH = "Invalid statement month={}, only past months have statements";
+    public static final String ACCOUNT_NOT_CREATED_AT_ERROR = "Account id={} not created at {}";
+    public static final String INVALID_IDEMPOTENCY_KEY = "Invalid idempotency key={}";
+    public static final String IDEMPOTENCY_KEY_REUSED_ERROR = "Idempotency key={} already used with a different request";
+    public static final String INSUFFICIENT_BALANCE_ERROR = "Insufficiente balance in Account id={}";
 
 }
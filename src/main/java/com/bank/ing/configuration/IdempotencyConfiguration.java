@@ -0,0 +1,19 @@
+package com.bank.ing.configuration;
+
+import com.bank.ing.service.idempotency.IdempotencyCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Idempotency keys of the deposit, withdraw and transfer endpoints.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfiguration {
+
+    @Bean
+    public IdempotencyCache idempotencyCache(IdempotencyProperties properties) {
+        return new IdempotencyCache(properties.getMaximumSize(), properties.getTimeToLive());
+    }
+}
@@ -0,0 +1,27 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Maximum number of idempotency keys kept in memory, the oldest ones are evicted first and then read from the
+     * database.
+     */
+    private int maximumSize = 100_000;
+
+    /**
+     * How long an idempotency key is remembered, older keys are deleted and can be used again.
+     */
+    private Duration timeToLive = Duration.ofHours(24);
+
+    /**
+     * How often the expired idempotency keys are deleted from the database.
+     */
+    private Duration cleanupInterval = Duration.ofHours(1);
+}
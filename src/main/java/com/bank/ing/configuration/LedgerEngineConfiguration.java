@@ -0,0 +1,103 @@
+package com.bank.ing.configuration;
+
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.JournalEpoch;
+import com.bank.ing.ledger.JdbcLedgerSink;
+import com.bank.ing.ledger.JournalLedgerSink;
+import com.bank.ing.ledger.LedgerEngine;
+import com.bank.ing.repository.AccountRepository;
+import com.bank.ing.repository.JournalEpochRepository;
+import com.bank.ing.service.OperationIdAllocator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+/**
+ * Ledger engine mode, enabled with {@code bank.ledger.mode=engine}: balances live in the shards of the
+ * {@link LedgerEngine} and the database is written asynchronously by the {@link JdbcLedgerSink}. With
+ * {@code bank.ledger.engine.journal.enabled=true} the entries are first appended to the {@link JournalLedgerSink},
+ * the database tables becoming an optional projection of the journal.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.ledger", name = "mode", havingValue = "engine")
+@EnableConfigurationProperties(LedgerEngineProperties.class)
+public class LedgerEngineConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression("!${bank.ledger.engine.journal.enabled:false} or ${bank.ledger.engine.journal.jpa-projection:true}")
+    public JdbcLedgerSink jdbcLedgerSink(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                         LedgerEngineProperties properties) {
+        return new JdbcLedgerSink(jdbcTemplate, transactionTemplate,
+                properties.getPersistenceQueueCapacity(), properties.getPersistenceBatchSize());
+    }
+
+    /**
+     * Down once the database sink dead-lettered a batch: the tables then miss operations the engine applied.
+     */
+    @Bean
+    public HealthIndicator ledgerSinkHealthIndicator(ObjectProvider<JdbcLedgerSink> jdbcLedgerSink) {
+        return () -> {
+            JdbcLedgerSink sink = jdbcLedgerSink.getIfAvailable();
+            if (sink == null || sink.isHealthy()) {
+                return Health.up().build();
+            }
+            return Health.down().withDetail("deadLetteredBatches", sink.deadLetteredBatches()).build();
+        };
+    }
+
+    /**
+     * The journal is tied to the epoch of the database, created with its schema: a journal left by a previous
+     * database is retired instead of replayed. The entries journaled after the last sequence the database projection
+     * wrote are projected again while the bean is created, before the engine takes new commands.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "bank.ledger.engine.journal", name = "enabled", havingValue = "true")
+    public JournalLedgerSink journalLedgerSink(LedgerEngineProperties properties,
+                                               JournalEpochRepository journalEpochRepository,
+                                               ObjectProvider<JdbcLedgerSink> jdbcLedgerSink) throws IOException {
+        LedgerEngineProperties.Journal journal = properties.getJournal();
+        String epoch = journalEpochRepository.findAll().stream()
+                .findFirst()
+                .orElseGet(() -> journalEpochRepository.save(new JournalEpoch(UUID.randomUUID().toString())))
+                .getEpoch();
+        return new JournalLedgerSink(Paths.get(journal.getDirectory()), epoch,
+                (int) journal.getSegmentSize().toBytes(), journal.getFlushInterval(), journal.getSnapshotInterval(),
+                jdbcLedgerSink.getIfAvailable());
+    }
+
+    /**
+     * Balances known to the journal win over the database, which may lag behind or not be written at all. Transfers
+     * the journal recovered half applied are completed before the engine serves requests.
+     */
+    @Bean(destroyMethod = "close")
+    public LedgerEngine ledgerEngine(LedgerEngineProperties properties, AccountRepository accountRepository,
+                                     ObjectProvider<JournalLedgerSink> journalLedgerSink,
+                                     ObjectProvider<JdbcLedgerSink> jdbcLedgerSink,
+                                     OperationIdAllocator operationIdAllocator) {
+        JournalLedgerSink journal = journalLedgerSink.getIfAvailable();
+        if (journal == null) {
+            return new LedgerEngine(properties.getShards(), properties.getShardQueueCapacity(),
+                    properties.getCommandTimeout(),
+                    accountId -> accountRepository.findById(accountId).map(Account::getBalance),
+                    jdbcLedgerSink.getObject(), operationIdAllocator::nextId);
+        }
+        LedgerEngine ledgerEngine = new LedgerEngine(properties.getShards(), properties.getShardQueueCapacity(),
+                properties.getCommandTimeout(),
+                accountId -> journal.balanceOf(accountId)
+                        .or(() -> accountRepository.findById(accountId).map(Account::getBalance)),
+                journal, operationIdAllocator::nextId);
+        ledgerEngine.completeTransfers(journal.pendingTransfers());
+        return ledgerEngine;
+    }
+}
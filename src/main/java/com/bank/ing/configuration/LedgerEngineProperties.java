@@ -0,0 +1,75 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.ledger.engine")
+public class LedgerEngineProperties {
+
+    /**
+     * Number of single-writer shards, accounts are assigned to a shard by id.
+     */
+    private int shards = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum pending commands per shard before submitters block.
+     */
+    private int shardQueueCapacity = 16_384;
+
+    /**
+     * Maximum pending ledger entries waiting to be persisted before shards block.
+     */
+    private int persistenceQueueCapacity = 65_536;
+
+    /**
+     * Maximum ledger entries written to the database in one JDBC batch.
+     */
+    private int persistenceBatchSize = 500;
+
+    /**
+     * How long a request waits for its command to be applied by the owning shard.
+     */
+    private Duration commandTimeout = Duration.ofSeconds(5);
+
+    private final Journal journal = new Journal();
+
+    @Data
+    public static class Journal {
+
+        /**
+         * Append the ledger entries to a memory-mapped journal, the balances are then recovered from it on restart.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory of the journal segments and snapshots.
+         */
+        private String directory = "data/ledger-journal";
+
+        /**
+         * Size of a journal segment file, a new segment is started when the current one is full.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * How often the current segment is synced to disk.
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        /**
+         * How often the balances are snapshotted, a restart replays the journal records after the latest snapshot.
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(1);
+
+        /**
+         * Also write the journaled entries to the account and operation tables, read by the balance and history
+         * endpoints.
+         */
+        private boolean jpaProjection = true;
+    }
+}
@@ -0,0 +1,128 @@
+package com.bank.ing.configuration;
+
+import com.bank.ing.service.cache.AccountBalanceCache;
+import com.bank.ing.service.cache.CacheMetrics;
+import com.bank.ing.service.cache.SecondLevelCacheMetrics;
+import com.bank.ing.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.ing.service.concurrency.ContentionMetrics;
+import com.bank.ing.service.metrics.OperationMetrics;
+import com.bank.ing.service.readmodel.AccountReadModel;
+import com.bank.ing.service.readmodel.ReadModelProjector;
+import com.bank.ing.service.writebehind.OperationWriteBehind;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the bank, exposed with the other Actuator metrics on {@code /actuator/prometheus}: timers and
+ * outcome counters of the ledger operations, and the counters the strategies and caches already keep. The connection
+ * pool gauges ({@code hikaricp.connections.*}) are bound by Spring Boot.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public OperationMetrics operationMetrics(MeterRegistry meterRegistry) {
+        return new OperationMetrics(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder contentionMeterBinder(AccountConcurrencyStrategy accountConcurrencyStrategy) {
+        ContentionMetrics metrics = accountConcurrencyStrategy.metrics();
+        String strategy = accountConcurrencyStrategy.name();
+        return registry -> {
+            FunctionCounter.builder("bank.concurrency.executions", metrics, ContentionMetrics::getExecutions)
+                    .tag("strategy", strategy)
+                    .register(registry);
+            FunctionCounter.builder("bank.concurrency.retries", metrics, ContentionMetrics::getRetries)
+                    .tag("strategy", strategy)
+                    .register(registry);
+            FunctionCounter.builder("bank.concurrency.aborts", metrics, ContentionMetrics::getAborts)
+                    .tag("strategy", strategy)
+                    .register(registry);
+            FunctionTimer.builder("bank.concurrency.lock.waits", metrics, ContentionMetrics::getLockWaits,
+                    ContentionMetrics::getLockWaitMillis, TimeUnit.MILLISECONDS)
+                    .description("Account lock acquisitions slower than bank.concurrency.lock-wait-threshold")
+                    .tag("strategy", strategy)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder balanceCacheMeterBinder(ObjectProvider<AccountBalanceCache> accountBalanceCache) {
+        return registry -> accountBalanceCache.ifAvailable(cache -> {
+            CacheMetrics metrics = cache.metrics();
+            FunctionCounter.builder("cache.gets", metrics, CacheMetrics::getHits)
+                    .tags("cache", "balance", "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", metrics, CacheMetrics::getMisses)
+                    .tags("cache", "balance", "result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", metrics, CacheMetrics::getEvictions)
+                    .tag("cache", "balance")
+                    .register(registry);
+            Gauge.builder("cache.size", cache, AccountBalanceCache::size)
+                    .tag("cache", "balance")
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMeterBinder(ObjectProvider<SecondLevelCacheMetrics> secondLevelCacheMetrics) {
+        return registry -> secondLevelCacheMetrics.ifAvailable(metrics -> {
+            for (String region : metrics.regions()) {
+                FunctionCounter.builder("cache.gets", metrics, m -> m.getHits(region))
+                        .tags("cache", region, "result", "hit")
+                        .register(registry);
+                FunctionCounter.builder("cache.gets", metrics, m -> m.getMisses(region))
+                        .tags("cache", region, "result", "miss")
+                        .register(registry);
+                FunctionCounter.builder("cache.puts", metrics, m -> m.getPuts(region))
+                        .tag("cache", region)
+                        .register(registry);
+                Gauge.builder("cache.hit.ratio", metrics, m -> m.getHitRatio(region))
+                        .tag("cache", region)
+                        .description("Share of the gets served from the cache since startup")
+                        .register(registry);
+            }
+        });
+    }
+
+    @Bean
+    public MeterBinder writeBehindMeterBinder(ObjectProvider<OperationWriteBehind> operationWriteBehind) {
+        return registry -> operationWriteBehind.ifAvailable(writeBehind -> {
+            Gauge.builder("bank.operation.write.behind.pending", writeBehind, OperationWriteBehind::pending)
+                    .register(registry);
+            FunctionCounter.builder("bank.operation.write.behind.written", writeBehind, OperationWriteBehind::written)
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder readModelMeterBinder(ObjectProvider<ReadModelProjector> readModelProjector,
+                                            ObjectProvider<AccountReadModel> accountReadModel) {
+        return registry -> {
+            readModelProjector.ifAvailable(projector -> {
+                TimeGauge.builder("bank.read.model.lag", projector, TimeUnit.NANOSECONDS, ReadModelProjector::lagNanos)
+                        .description("Age of the oldest committed event not projected yet")
+                        .register(registry);
+                Gauge.builder("bank.read.model.pending", projector, ReadModelProjector::pending)
+                        .register(registry);
+                FunctionCounter.builder("bank.read.model.projected", projector, ReadModelProjector::projected)
+                        .register(registry);
+            });
+            accountReadModel.ifAvailable(readModel ->
+                    FunctionCounter.builder("bank.read.model.fallbacks", readModel, AccountReadModel::fallbacks)
+                            .description("Reads served from the write tables")
+                            .register(registry));
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.bank.ing.configuration;
+
+import com.bank.ing.service.OperationIdAllocator;
+import com.bank.ing.service.writebehind.OperationWriteBehind;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind of operation rows, enabled with {@code bank.operation.write-behind.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.operation.write-behind", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(OperationWriteBehindProperties.class)
+public class OperationWriteBehindConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public OperationWriteBehind operationWriteBehind(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                                     OperationIdAllocator operationIdAllocator,
+                                                     OperationWriteBehindProperties properties) {
+        return new OperationWriteBehind(jdbcTemplate, transactionTemplate, operationIdAllocator::nextId,
+                properties.getCapacity(), properties.getFlushSize(), properties.getFlushInterval());
+    }
+}
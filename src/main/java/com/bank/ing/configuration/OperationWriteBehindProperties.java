@@ -0,0 +1,32 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.operation.write-behind")
+public class OperationWriteBehindProperties {
+
+    /**
+     * Whether operation rows of the JPA and atomic ledger modes are written by a background writer after the
+     * balance change commits, instead of in the request transaction.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum operations waiting to be written, a request finding the buffer full writes its operation itself.
+     */
+    private int capacity = 65_536;
+
+    /**
+     * Maximum operations written in one JDBC batch.
+     */
+    private int flushSize = 1_000;
+
+    /**
+     * How long the writer waits for a batch to fill up before writing it.
+     */
+    private Duration flushInterval = Duration.ofMillis(50);
+}
@@ -0,0 +1,118 @@
+package com.bank.ing.configuration;
+
+import com.bank.ing.controller.reactive.ReactiveAccountHandler;
+import com.bank.ing.controller.reactive.ReactiveCustomerHandler;
+import com.bank.ing.controller.reactive.ReactiveOperationHandler;
+import com.bank.ing.dto.response.ResponseErrorDTO;
+import com.bank.ing.exception.BankException;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static com.bank.ing.controller.AccountController.ACCOUNT_BALANCE_AS_OF_GET_END_POINT_V1;
+import static com.bank.ing.controller.AccountController.ACCOUNT_BALANCE_GET_END_POINT_V1;
+import static com.bank.ing.controller.AccountController.ACCOUNT_CREATION_END_POINT_V1;
+import static com.bank.ing.controller.CustomerController.CUSTOMER_EXPORT_GET_END_POINT_V1;
+import static com.bank.ing.controller.CustomerController.OPERATION_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.DEPOSIT_POST_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.HISTORY_EXPORT_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.HISTORY_OPERATION_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.TRANSFER_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.WITHDRAW_POST_END_POINT_V1;
+
+/**
+ * Reactive stack, enabled with the {@code reactive} profile: the account, operation and customer endpoints are served
+ * by WebFlux functional handlers on Netty, which read and write the database through R2DBC instead of JPA. The
+ * servlet controllers are disabled, the other beans, the JDBC datasource and the schema created by Hibernate are
+ * unchanged.
+ * <p>
+ * The R2DBC connection pool and transaction manager are not beans: a connection factory bean makes the JDBC
+ * datasource auto-configuration back off, a second transaction manager would make every {@code @Transactional}
+ * ambiguous. The reactive services use them through the {@link DatabaseClient} and {@link TransactionalOperator}.
+ */
+@Configuration
+@Profile(ReactiveConfiguration.PROFILE)
+@EnableConfigurationProperties(ReactiveProperties.class)
+public class ReactiveConfiguration implements DisposableBean {
+
+    public static final String PROFILE = "reactive";
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveConfiguration(ReactiveProperties properties, DataSourceProperties dataSourceProperties) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword())
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(properties.getMaxConnections())
+                .build());
+    }
+
+    /**
+     * Spring MVC is on the classpath as well, Netty is picked explicitly over a reactive Tomcat.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public TransactionalOperator transactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+    }
+
+    /**
+     * Same paths as the servlet controllers, a {@link BankException} is rendered as by the
+     * {@code ControllerExceptionHandler}.
+     */
+    @Bean
+    public RouterFunction<ServerResponse> reactiveRoutes(ReactiveAccountHandler accountHandler,
+                                                         ReactiveOperationHandler operationHandler,
+                                                         ReactiveCustomerHandler customerHandler) {
+        return RouterFunctions.route()
+                .POST(ACCOUNT_CREATION_END_POINT_V1, accountHandler::postAccount)
+                .GET(ACCOUNT_BALANCE_GET_END_POINT_V1, accountHandler::getBalance)
+                .GET(ACCOUNT_BALANCE_AS_OF_GET_END_POINT_V1, accountHandler::getBalanceAsOf)
+                .GET(HISTORY_OPERATION_GET_END_POINT_V1, operationHandler::getTransactions)
+                .GET(HISTORY_EXPORT_GET_END_POINT_V1, operationHandler::exportTransactions)
+                .POST(DEPOSIT_POST_END_POINT_V1, operationHandler::postDeposit)
+                .POST(WITHDRAW_POST_END_POINT_V1, operationHandler::postWithdraw)
+                .POST(TRANSFER_GET_END_POINT_V1, operationHandler::postOperation)
+                .GET(OPERATION_END_POINT_V1, customerHandler::getCustomers)
+                .GET(CUSTOMER_EXPORT_GET_END_POINT_V1, customerHandler::exportCustomers)
+                .onError(BankException.class, (error, request) -> {
+                    BankException be = (BankException) error;
+                    return ServerResponse.status(be.getErrorCode().getStatus())
+                            .bodyValue(ResponseErrorDTO.builder()
+                                    .code(be.getErrorCode())
+                                    .message(be.getMessage())
+                                    .build());
+                })
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,19 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bank.reactive")
+public class ReactiveProperties {
+
+    /**
+     * R2DBC url of the database, the in-memory H2 database of the JDBC datasource: same tables, same rows.
+     */
+    private String url = "r2dbc:h2:mem:///bankDb";
+
+    /**
+     * Maximum pooled R2DBC connections.
+     */
+    private int maxConnections = 16;
+}
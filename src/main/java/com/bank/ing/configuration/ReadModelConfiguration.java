@@ -0,0 +1,37 @@
+package com.bank.ing.configuration;
+
+import com.bank.ing.repository.AccountHistoryRepository;
+import com.bank.ing.repository.AccountSummaryRepository;
+import com.bank.ing.service.readmodel.AccountReadModel;
+import com.bank.ing.service.readmodel.ReadModelProjector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Read model of the balances and histories, enabled with {@code bank.read-model.enabled=true}. Only the servlet
+ * stack publishes the operation events it is projected from.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.read-model", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadModelProperties.class)
+public class ReadModelConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ReadModelProjector readModelProjector(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                                 ReadModelProperties properties) {
+        return new ReadModelProjector(jdbcTemplate, transactionTemplate, properties.getCapacity(),
+                properties.getBatchSize());
+    }
+
+    @Bean
+    public AccountReadModel accountReadModel(AccountSummaryRepository accountSummaryRepository,
+                                             AccountHistoryRepository accountHistoryRepository,
+                                             ReadModelProjector readModelProjector, ReadModelProperties properties) {
+        return new AccountReadModel(accountSummaryRepository, accountHistoryRepository, readModelProjector,
+                properties.getMaxLag());
+    }
+}
@@ -0,0 +1,32 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.read-model")
+public class ReadModelProperties {
+
+    /**
+     * Whether balances and histories are read from the account_summary and account_history tables, projected from
+     * the committed operations by a background writer.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum committed events waiting to be projected, the read model goes out of sync when it is exceeded.
+     */
+    private int capacity = 262_144;
+
+    /**
+     * Maximum events applied in one transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Staleness bound of the reads: while the projection lags by more, reads are served from the write tables.
+     */
+    private Duration maxLag = Duration.ofSeconds(1);
+}
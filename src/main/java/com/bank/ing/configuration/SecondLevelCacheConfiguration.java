@@ -0,0 +1,107 @@
+package com.bank.ing.configuration;
+
+import com.bank.ing.entity.Customer;
+import com.bank.ing.service.cache.SecondLevelCacheMetrics;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache, disabled with {@code bank.cache.second-level.enabled=false}: customers and the
+ * customer queries are held in process by Ehcache, behind the JCache region factory of Hibernate. Every region is
+ * created here with its size and time to live, Hibernate fails at startup on a region it has no cache for instead
+ * of creating an unbounded one. Hibernate writes to the customer table update the cached customers and drop the
+ * cached query results, rows changed outside Hibernate are served until their time to live expires. The region hit
+ * and miss meters need the Hibernate statistics, enabled with {@code bank.cache.second-level.statistics-enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.cache.second-level", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfiguration {
+
+    /**
+     * Last write time of each table, checked before a cached query result is served: one entry per table, it must
+     * not expire.
+     */
+    private static final long UPDATE_TIMESTAMPS_MAXIMUM_SIZE = 100;
+
+    /**
+     * Region of the cacheable queries without a region of their own, there are none.
+     */
+    private static final long DEFAULT_QUERY_RESULTS_MAXIMUM_SIZE = 100;
+
+    /**
+     * The cache manager is private to the application context, each context of the tests gets its own.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create("urn:bank:second-level-cache:" + UUID.randomUUID()),
+                ConfigurationBuilder.newConfigurationBuilder()
+                        .withCache(Customer.CACHE_REGION,
+                                region(properties.getCustomerMaximumSize(), properties.getCustomerTimeToLive()))
+                        .withCache(Customer.QUERY_CACHE_REGION,
+                                region(properties.getQueryMaximumSize(), properties.getQueryTimeToLive()))
+                        .withCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                                region(DEFAULT_QUERY_RESULTS_MAXIMUM_SIZE, properties.getQueryTimeToLive()))
+                        .withCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                                region(UPDATE_TIMESTAMPS_MAXIMUM_SIZE, null))
+                        .build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheHibernatePropertiesCustomizer(
+            CacheManager secondLevelCacheManager, SecondLevelCacheProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            if (properties.isStatisticsEnabled()) {
+                // region hit and miss counters, without the metrics Hibernate would log at the end of every session
+                hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+                hibernateProperties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.cache.second-level", name = "statistics-enabled", havingValue = "true")
+    public SecondLevelCacheMetrics secondLevelCacheMetrics(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new SecondLevelCacheMetrics(
+                () -> entityManagerFactory.getObject().unwrap(SessionFactory.class).getStatistics(),
+                List.of(Customer.CACHE_REGION, Customer.QUERY_CACHE_REGION));
+    }
+
+    private static CacheConfiguration<Object, Object> region(long maximumSize, Duration timeToLive) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(maximumSize))
+                .withExpiry(timeToLive == null
+                        ? ExpiryPolicyBuilder.noExpiration()
+                        : ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))
+                .build();
+    }
+}
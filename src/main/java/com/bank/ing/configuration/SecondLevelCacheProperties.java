@@ -0,0 +1,44 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.cache.second-level")
+public class SecondLevelCacheProperties {
+
+    /**
+     * Whether customers and customer queries are held in the in-process Hibernate second-level cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether the Hibernate statistics are collected to publish the hits, misses and puts of the regions. They are
+     * kept for every session, not only for the cache, so they are off unless the cache is being tuned.
+     */
+    private boolean statisticsEnabled = false;
+
+    /**
+     * Maximum number of cached customers, the least recently used ones are evicted first.
+     */
+    private long customerMaximumSize = 10_000;
+
+    /**
+     * Time a cached customer is served before it is read again, the bound on the staleness of customers changed
+     * outside Hibernate.
+     */
+    private Duration customerTimeToLive = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of cached customer query results.
+     */
+    private long queryMaximumSize = 1_000;
+
+    /**
+     * Time a cached customer query result is served, results are also dropped by any Hibernate write to the
+     * customer table.
+     */
+    private Duration queryTimeToLive = Duration.ofMinutes(1);
+}
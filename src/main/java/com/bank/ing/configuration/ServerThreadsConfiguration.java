@@ -0,0 +1,70 @@
+package com.bank.ing.configuration;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual thread mode, enabled with {@code bank.server.threads=virtual}: Tomcat runs every request on its own virtual
+ * thread instead of a pooled platform thread, and so does the async request processing (history exports). A request
+ * blocked on JDBC then only holds a connection, not a thread, and the number of in-flight requests is bounded by
+ * {@code server.tomcat.max-connections} rather than {@code server.tomcat.threads.max}.
+ * <p>
+ * The application is compiled for Java 11, the virtual thread API is looked up at startup and the mode fails fast on
+ * an older runtime.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.server", name = "threads", havingValue = "virtual")
+@EnableConfigurationProperties(ServerThreadsProperties.class)
+public class ServerThreadsConfiguration {
+
+    private static final String THREAD_NAME_PREFIX = "virtual-";
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Replaces the pooled executor Spring MVC runs the {@code StreamingResponseBody} and other async results on.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    /**
+     * {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())}, through reflection.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            throw new IllegalStateException("bank.server.threads=virtual needs a Java 21 runtime, running Java "
+                    + Runtime.version(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the virtual thread executor", e);
+        }
+    }
+}
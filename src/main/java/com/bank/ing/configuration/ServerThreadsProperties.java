@@ -0,0 +1,15 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bank.server")
+public class ServerThreadsProperties {
+
+    /**
+     * Threads running the HTTP requests and the async request processing: platform (the Tomcat thread pool) or
+     * virtual (one virtual thread per task, needs a Java 21 runtime).
+     */
+    private String threads = "platform";
+}
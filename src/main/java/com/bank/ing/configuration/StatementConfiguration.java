@@ -0,0 +1,14 @@
+package com.bank.ing.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Monthly statement job, run on {@code POST /v1/statements/{month}} or on the {@code bank.statement.cron} schedule.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(StatementProperties.class)
+public class StatementConfiguration {
+}
@@ -0,0 +1,34 @@
+package com.bank.ing.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bank.statement")
+public class StatementProperties {
+
+    /**
+     * Directory of the statement files, one sub-directory per month.
+     */
+    private String directory = "data/statements";
+
+    /**
+     * Account id ranges written at the same time, each worker holds a database connection while it writes its range.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Account ids per range: the statements of a range are read with one query per table and written to one file.
+     */
+    private long rangeSize = 10_000;
+
+    /**
+     * Operation rows fetched per round trip while a range is streamed.
+     */
+    private int fetchSize = 1_000;
+
+    /**
+     * When the statements of the previous month are written, {@code -} never.
+     */
+    private String cron = "-";
+}
@@ -1,28 +1,44 @@
 package com.bank.ing.controller;
 
+import com.bank.ing.configuration.ReactiveConfiguration;
 import com.bank.ing.dto.request.RequestCreationAccountDTO;
 import com.bank.ing.dto.response.ResponseAccountBalanceDTO;
 import com.bank.ing.dto.response.ResponseAccountDTO;
+import com.bank.ing.dto.response.ResponseAccountImportDTO;
+import com.bank.ing.service.AccountImportService;
 import com.bank.ing.service.AccountService;
+import com.bank.ing.service.BalanceCheckpointService;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.LocalDateTime;
 
 @RestController
+@Profile("!" + ReactiveConfiguration.PROFILE)
 @RequiredArgsConstructor
 public class AccountController {
 
     public static final String ACCOUNT_CREATION_END_POINT_V1 = "/v1/accounts";
     public static final String ACCOUNT_BALANCE_GET_END_POINT_V1 = ACCOUNT_CREATION_END_POINT_V1 + "/{id}";
+    public static final String ACCOUNT_BALANCE_AS_OF_GET_END_POINT_V1 = ACCOUNT_BALANCE_GET_END_POINT_V1 + "/balance";
+    public static final String ACCOUNT_IMPORT_END_POINT_V1 = ACCOUNT_CREATION_END_POINT_V1 + "/import";
+    public static final String TEXT_CSV_VALUE = "text/csv";
     private final AccountService accountService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final AccountImportService accountImportService;
 
     @PostMapping(
             path     = ACCOUNT_CREATION_END_POINT_V1,
@@ -51,6 +67,28 @@ public class AccountController {
         return ResponseEntity.created(uri).build();
     }
 
+    @PostMapping(
+            path     = ACCOUNT_IMPORT_END_POINT_V1,
+            consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @ApiOperation(
+            value = "Import accounts",
+            notes = "Creates the accounts of a text/csv upload, one customer_id,initial_amount per line after an optional header, " +
+                    "or of an application/x-ndjson upload, one account creation request per line.\n" +
+                    "Rejected lines are reported with their line number, the other lines are still imported.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Upload imported, with the created and rejected counts and the rejected lines."),
+            @ApiResponse(code = 415, message = "Upload neither text/csv nor application/x-ndjson.")
+    })
+    public ResponseEntity<ResponseAccountImportDTO> importAccounts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                   InputStream upload) throws IOException {
+        AccountImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? AccountImportService.Format.NDJSON
+                : AccountImportService.Format.CSV;
+        return ResponseEntity.ok(accountImportService.importAccounts(upload, format));
+    }
+
 
 
     @GetMapping(
@@ -66,4 +104,25 @@ public class AccountController {
     public ResponseEntity<ResponseAccountBalanceDTO> getBalance(@PathVariable("id") final long accountId) {
         return ResponseEntity.ok(accountService.retrieveBalance(accountId));
     }
+
+    @GetMapping(
+            path     = ACCOUNT_BALANCE_AS_OF_GET_END_POINT_V1,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @ApiOperation(
+            value = "Get account balance at a date",
+            notes = "Given an account id and an ISO date time asOf, retrieves the balance once every operation up to asOf is applied. " +
+                    "Without asOf, retrieves the current balance.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Account balance."),
+            @ApiResponse(code = 404, message = "Account not found, or not created yet at asOf.")
+    })
+    public ResponseEntity<ResponseAccountBalanceDTO> getBalanceAsOf(@PathVariable("id") final long accountId,
+                                                                    @RequestParam(value = "asOf", required = false)
+                                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime asOf) {
+        if (asOf == null) {
+            return ResponseEntity.ok(accountService.retrieveBalance(accountId));
+        }
+        return ResponseEntity.ok(balanceCheckpointService.retrieveBalanceAsOf(accountId, asOf));
+    }
 }
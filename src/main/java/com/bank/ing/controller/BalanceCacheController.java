@@ -0,0 +1,46 @@
+package com.bank.ing.controller;
+
+import com.bank.ing.dto.response.ResponseCacheMetricsDTO;
+import com.bank.ing.service.cache.AccountBalanceCache;
+import com.bank.ing.service.cache.CacheMetrics;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "bank.cache.balance", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceCacheController {
+
+    public static final String BALANCE_CACHE_METRICS_GET_END_POINT_V1 = "/v1/metrics/balance-cache";
+
+    private final AccountBalanceCache accountBalanceCache;
+
+    @GetMapping(
+            path     = BALANCE_CACHE_METRICS_GET_END_POINT_V1,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @ApiOperation(
+            value = "Retrieves account balance cache metrics.",
+            notes = "Size, hits, misses and evictions of the balance cache configured with bank.cache.balance.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Cache metrics")
+    })
+    public ResponseEntity<ResponseCacheMetricsDTO> getBalanceCacheMetrics() {
+        CacheMetrics metrics = accountBalanceCache.metrics();
+        return ResponseEntity.ok(ResponseCacheMetricsDTO.builder()
+                .size(accountBalanceCache.size())
+                .maximumSize(accountBalanceCache.maximumSize())
+                .hits(metrics.getHits())
+                .misses(metrics.getMisses())
+                .hitRatio(metrics.getHitRatio())
+                .evictions(metrics.getEvictions())
+                .build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.bank.ing.controller;
+
+import com.bank.ing.dto.response.ResponseContentionMetricsDTO;
+import com.bank.ing.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.ing.service.concurrency.ContentionMetrics;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class ConcurrencyController {
+
+    public static final String CONCURRENCY_METRICS_GET_END_POINT_V1 = "/v1/metrics/concurrency";
+
+    private final AccountConcurrencyStrategy accountConcurrencyStrategy;
+
+    @GetMapping(
+            path     = CONCURRENCY_METRICS_GET_END_POINT_V1,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @ApiOperation(
+            value = "Retrieves account contention metrics.",
+            notes = "Retries, lock waits and aborts of the account concurrency strategy selected with bank.concurrency.strategy.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Contention metrics")
+    })
+    public ResponseEntity<ResponseContentionMetricsDTO> getContentionMetrics() {
+        ContentionMetrics metrics = accountConcurrencyStrategy.metrics();
+        return ResponseEntity.ok(ResponseContentionMetricsDTO.builder()
+                .strategy(accountConcurrencyStrategy.name())
+                .executions(metrics.getExecutions())
+                .retries(metrics.getRetries())
+                .aborts(metrics.getAborts())
+                .lockWaits(metrics.getLockWaits())
+                .lockWaitMillis(metrics.getLockWaitMillis())
+                .build());
+    }
+}
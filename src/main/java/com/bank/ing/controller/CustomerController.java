@@ -1,37 +1,63 @@
 package com.bank.ing.controller;
 
-import com.bank.ing.repository.CustomerRepository;
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.response.ResponseCustomersDTO;
+import com.bank.ing.service.CustomerService;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static com.bank.ing.configuration.Constants.CUSTOMER_DEFAULT_LIMIT;
 
 
 @RestController
+@Profile("!" + ReactiveConfiguration.PROFILE)
 @RequiredArgsConstructor
 public class CustomerController {
 
     public static final String OPERATION_END_POINT_V1 = "/v1/customers";
+    public static final String CUSTOMER_EXPORT_GET_END_POINT_V1 = OPERATION_END_POINT_V1 + "/export";
 
-    private final CustomerRepository customerRepository;
+    private final CustomerService customerService;
 
     @GetMapping(
             path     = OPERATION_END_POINT_V1,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
     @ApiOperation(
-            value = "Retrieves all customers.",
-            notes = "Retrieves all customers in a bank.")
+            value = "Retrieves customers.",
+            notes = "Retrieves the customers of the bank in id order, one page of at most limit customers. Pass the next token of a page as cursor to get the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of customers"),
+            @ApiResponse(code = 400, message = "Invalid limit or cursor.")
+    })
+    public ResponseEntity<ResponseCustomersDTO> getCustomers(@RequestParam(value = "limit", defaultValue = CUSTOMER_DEFAULT_LIMIT) final int limit,
+                                                             @RequestParam(value = "cursor", required = false) final String cursor) {
+        return ResponseEntity.ok(customerService.customers(limit, cursor));
+    }
+
+    @GetMapping(
+            path     = CUSTOMER_EXPORT_GET_END_POINT_V1,
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @ApiOperation(
+            value = "Exports all customers.",
+            notes = "Streams every customer of the bank as newline delimited JSON, in id order.")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of operations"),
-            @ApiResponse(code = 404, message = "Not found.")
+            @ApiResponse(code = 200, message = "Stream of customers, one per line")
     })
-    public ResponseEntity getCustomers() {
-        return ResponseEntity.ok(customerRepository.findAll());
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(customerService.exportCustomers());
     }
 
 }
@@ -0,0 +1,46 @@
+package com.bank.ing.controller;
+
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.response.ResponseStatementJobDTO;
+import com.bank.ing.service.statement.StatementJob;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+
+@RestController
+@Profile("!" + ReactiveConfiguration.PROFILE)
+@RequiredArgsConstructor
+public class StatementController {
+
+    public static final String STATEMENT_POST_END_POINT_V1 = "/v1/statements/{month}";
+
+    private final StatementJob statementJob;
+
+    @PostMapping(
+            path     = STATEMENT_POST_END_POINT_V1,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @ApiOperation(
+            value = "Writes monthly statements",
+            notes = "Given a past month yyyy-MM, writes the statement of every account to the statement directory, " +
+                    "one NDJSON file per range of account ids.\n" +
+                    "Ranges written by a previous run of the month are skipped, a failed run is resumed by running it again.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Statements written, with the range counts and the throughput of the run."),
+            @ApiResponse(code = 400, message = "Invalid month, or a month that is not over.")
+    })
+    public ResponseEntity<ResponseStatementJobDTO> postStatements(@PathVariable("month")
+                                                                  @DateTimeFormat(pattern = "yyyy-MM") final YearMonth month) {
+        return ResponseEntity.ok(statementJob.run(month));
+    }
+}
@@ -1,25 +1,37 @@
 package com.bank.ing.controller;
 
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.request.RequestBatchOperationDTO;
 import com.bank.ing.dto.request.RequestDepositAccountDTO;
 import com.bank.ing.dto.request.RequestTransferOperationDTO;
 import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
+import com.bank.ing.dto.response.ResponseBatchOperationsDTO;
 import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
 import com.bank.ing.dto.response.ResponseHistoryOperationsDTO;
+import com.bank.ing.service.BatchOperationService;
+import com.bank.ing.service.OperationExportService;
 import com.bank.ing.service.OperationService;
+import com.bank.ing.service.idempotency.IdempotencyKey;
+import com.bank.ing.service.idempotency.IdempotencyService;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.net.URI;
 
+import static com.bank.ing.configuration.Constants.HISTORY_DEFAULT_LIMIT;
+
 
 @RestController
+@Profile("!" + ReactiveConfiguration.PROFILE)
 @RequiredArgsConstructor
 public class TransactionController {
 
@@ -28,8 +40,14 @@ public class TransactionController {
     public static final String HISTORY_OPERATION_GET_END_POINT_V1 = OPERATION_END_POINT_V1  + "/history/{accountId}";
     public static final String DEPOSIT_POST_END_POINT_V1  = OPERATION_END_POINT_V1  + "/deposit/{accountId}";
     public static final String WITHDRAW_POST_END_POINT_V1 = OPERATION_END_POINT_V1  + "/withdraw/{accountId}";
+    public static final String BATCH_POST_END_POINT_V1    = OPERATION_END_POINT_V1  + "/batch";
+    public static final String HISTORY_EXPORT_GET_END_POINT_V1 = HISTORY_OPERATION_GET_END_POINT_V1 + "/export";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     private final OperationService operationService;
+    private final BatchOperationService batchOperationService;
+    private final OperationExportService operationExportService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping(
             path     = HISTORY_OPERATION_GET_END_POINT_V1,
@@ -37,13 +55,34 @@ public class TransactionController {
     )
     @ApiOperation(
             value = "Retrieves transactions history for a given account.",
-            notes = "Given an account id, retrieves the operations/Deposit/withdraw/transfers where this account has participated.")
+            notes = "Given an account id, retrieves the operations/Deposit/withdraw/transfers where this account has participated, " +
+                    "most recent first, one page of at most limit operations. Pass the next token of a page as cursor to get the following page.")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "List of operations"),
+            @ApiResponse(code = 400, message = "Invalid limit or cursor."),
+            @ApiResponse(code = 404, message = "Account not found.")
+    })
+    public ResponseEntity<ResponseHistoryOperationsDTO> getTransactions(@PathVariable("accountId") final long accountId,
+                                                                        @RequestParam(value = "limit", defaultValue = HISTORY_DEFAULT_LIMIT) final int limit,
+                                                                        @RequestParam(value = "cursor", required = false) final String cursor) {
+        return ResponseEntity.ok(operationService.historyOperations(accountId, limit, cursor));
+    }
+
+    @GetMapping(
+            path     = HISTORY_EXPORT_GET_END_POINT_V1,
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @ApiOperation(
+            value = "Exports the whole transactions history of a given account.",
+            notes = "Streams every operation of the account as newline delimited JSON, most recent first.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stream of operations, one per line"),
             @ApiResponse(code = 404, message = "Account not found.")
     })
-    public ResponseEntity<ResponseHistoryOperationsDTO> getTransactions(@PathVariable("accountId") final long accountId) {
-        return ResponseEntity.ok(operationService.historyOperations(accountId));
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable("accountId") final long accountId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(operationExportService.exportHistory(accountId));
     }
 
 
@@ -56,14 +95,18 @@ public class TransactionController {
     )
     @ApiOperation(
             value = "Creates deposit",
-            notes = "Deposit money from a customer to his account, is allowed when superior to €0.01.")
+            notes = "Deposit money from a customer to his account, is allowed when superior to €0.01. A retried request with the same Idempotency-Key header returns the operation already created.")
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Transfer created."),
             @ApiResponse(code = 404, message = "Sender/receiver account not found."),
-            @ApiResponse(code = 400, message = "Sender/receiver account id negative, Insufficient balance to transfer, Same account used in the transfer operation")
+            @ApiResponse(code = 400, message = "Sender/receiver account id negative, Insufficient balance to transfer, Same account used in the transfer operation"),
+            @ApiResponse(code = 422, message = "Idempotency key already used with a different request.")
     })
-    public ResponseEntity postDeposit(@Valid @RequestBody RequestDepositAccountDTO requestOperationDTO) {
-        ResponseDepositWithdrawTransferDTO responseDepositWithdrawTransferDTO = operationService.depositMoney(requestOperationDTO);
+    public ResponseEntity postDeposit(@Valid @RequestBody RequestDepositAccountDTO requestOperationDTO,
+                                      @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        IdempotencyKey key = IdempotencyKey.of(idempotencyKey, DEPOSIT_POST_END_POINT_V1, requestOperationDTO);
+        ResponseDepositWithdrawTransferDTO responseDepositWithdrawTransferDTO =
+                idempotencyService.execute(key, () -> operationService.depositMoney(requestOperationDTO, key));
 
         URI uri =
                 ServletUriComponentsBuilder
@@ -83,14 +126,18 @@ public class TransactionController {
     )
     @ApiOperation(
             value = "Create withdraw",
-            notes = "Withdraw money from a customer account, is allowed when no overdraft used.")
+            notes = "Withdraw money from a customer account, is allowed when no overdraft used. A retried request with the same Idempotency-Key header returns the operation already created.")
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Transfer created."),
             @ApiResponse(code = 404, message = "Sender/receiver account not found."),
-            @ApiResponse(code = 400, message = "Sender/receiver account id negative, Insufficient balance to transfer, Same account used in the transfer operation")
+            @ApiResponse(code = 400, message = "Sender/receiver account id negative, Insufficient balance to transfer, Same account used in the transfer operation"),
+            @ApiResponse(code = 422, message = "Idempotency key already used with a different request.")
     })
-    public ResponseEntity postWithdraw(@Valid @RequestBody RequestWithdrawAccountDTO requestWithdrawAccountDTO) {
-        ResponseDepositWithdrawTransferDTO responseDepositWithdrawTransferDTO = operationService.withdrawMoney(requestWithdrawAccountDTO);
+    public ResponseEntity postWithdraw(@Valid @RequestBody RequestWithdrawAccountDTO requestWithdrawAccountDTO,
+                                       @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        IdempotencyKey key = IdempotencyKey.of(idempotencyKey, WITHDRAW_POST_END_POINT_V1, requestWithdrawAccountDTO);
+        ResponseDepositWithdrawTransferDTO responseDepositWithdrawTransferDTO =
+                idempotencyService.execute(key, () -> operationService.withdrawMoney(requestWithdrawAccountDTO, key));
         URI uri =
                 ServletUriComponentsBuilder
                         .fromCurrentRequest()
@@ -108,14 +155,18 @@ public class TransactionController {
     )
     @ApiOperation(
             value = "Creates new transfer",
-            notes = "Transfer amounts between any two accounts, including those owned by different customers.")
+            notes = "Transfer amounts between any two accounts, including those owned by different customers. A retried request with the same Idempotency-Key header returns the operation already created.")
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Transfer created."),
             @ApiResponse(code = 404, message = "Sender/receiver account not found."),
-            @ApiResponse(code = 400, message = "Sender/receiver account id negative, Insufficient balance to transfer, Same account used in the transfer operation")
+            @ApiResponse(code = 400, message = "Sender/receiver account id negative, Insufficient balance to transfer, Same account used in the transfer operation"),
+            @ApiResponse(code = 422, message = "Idempotency key already used with a different request.")
     })
-    public ResponseEntity postOperation(@Valid @RequestBody RequestTransferOperationDTO requestTransferOperationDTO) {
-        ResponseDepositWithdrawTransferDTO responseDepositWithdrawTransferDTO = operationService.transferOperation(requestTransferOperationDTO);
+    public ResponseEntity postOperation(@Valid @RequestBody RequestTransferOperationDTO requestTransferOperationDTO,
+                                        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        IdempotencyKey key = IdempotencyKey.of(idempotencyKey, TRANSFER_GET_END_POINT_V1, requestTransferOperationDTO);
+        ResponseDepositWithdrawTransferDTO responseDepositWithdrawTransferDTO =
+                idempotencyService.execute(key, () -> operationService.transferOperation(requestTransferOperationDTO, key));
 
         URI uri =
                 ServletUriComponentsBuilder
@@ -126,4 +177,21 @@ public class TransactionController {
 
         return ResponseEntity.created(uri).build();
     }
+
+
+    @PostMapping(
+            path = BATCH_POST_END_POINT_V1,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @ApiOperation(
+            value = "Creates a batch of transfers, deposits and withdraws",
+            notes = "Applies the operations in chunked transactions, each operation is created or rejected on its own.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Result of every operation of the batch."),
+            @ApiResponse(code = 400, message = "Empty batch, batch too large or invalid operation fields")
+    })
+    public ResponseEntity<ResponseBatchOperationsDTO> postBatch(@Valid @RequestBody RequestBatchOperationDTO requestBatchOperationDTO) {
+        return ResponseEntity.ok(batchOperationService.applyOperations(requestBatchOperationDTO));
+    }
 }
@@ -0,0 +1,52 @@
+package com.bank.ing.controller.reactive;
+
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.exception.InvalidRequestAccountException;
+import com.bank.ing.service.reactive.ReactiveAccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+
+import static com.bank.ing.controller.reactive.RequestBodies.created;
+import static com.bank.ing.controller.reactive.RequestBodies.dateTimeQueryParam;
+import static com.bank.ing.controller.reactive.RequestBodies.longPathVariable;
+import static com.bank.ing.controller.reactive.RequestBodies.validBody;
+
+/**
+ * Reactive counterpart of the {@code AccountController}.
+ */
+@Component
+@Profile(ReactiveConfiguration.PROFILE)
+@RequiredArgsConstructor
+public class ReactiveAccountHandler {
+
+    private final ReactiveAccountService reactiveAccountService;
+    private final Validator validator;
+
+    public Mono<ServerResponse> postAccount(ServerRequest request) {
+        return validBody(request, RequestCreationAccountDTO.class, validator, InvalidRequestAccountException::new)
+                .flatMap(reactiveAccountService::createNewAccount)
+                .flatMap(account -> created(request, account.getId()));
+    }
+
+    public Mono<ServerResponse> getBalance(ServerRequest request) {
+        return reactiveAccountService.retrieveBalance(longPathVariable(request, "id"))
+                .flatMap(balance -> ServerResponse.ok().bodyValue(balance));
+    }
+
+    public Mono<ServerResponse> getBalanceAsOf(ServerRequest request) {
+        long accountId = longPathVariable(request, "id");
+        LocalDateTime asOf = dateTimeQueryParam(request, "asOf");
+        return (asOf == null
+                ? reactiveAccountService.retrieveBalance(accountId)
+                : reactiveAccountService.retrieveBalanceAsOf(accountId, asOf))
+                .flatMap(balance -> ServerResponse.ok().bodyValue(balance));
+    }
+}
@@ -0,0 +1,38 @@
+package com.bank.ing.controller.reactive;
+
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.CustomerDTO;
+import com.bank.ing.service.reactive.ReactiveCustomerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import static com.bank.ing.configuration.Constants.CUSTOMER_DEFAULT_LIMIT;
+import static com.bank.ing.controller.reactive.RequestBodies.intQueryParam;
+
+/**
+ * Reactive counterpart of the {@code CustomerController}.
+ */
+@Component
+@Profile(ReactiveConfiguration.PROFILE)
+@RequiredArgsConstructor
+public class ReactiveCustomerHandler {
+
+    private final ReactiveCustomerService reactiveCustomerService;
+
+    public Mono<ServerResponse> getCustomers(ServerRequest request) {
+        return reactiveCustomerService.customers(intQueryParam(request, "limit", CUSTOMER_DEFAULT_LIMIT),
+                request.queryParam("cursor").orElse(null))
+                .flatMap(customers -> ServerResponse.ok().bodyValue(customers));
+    }
+
+    public Mono<ServerResponse> exportCustomers(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reactiveCustomerService.exportCustomers(), CustomerDTO.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bank.ing.controller.reactive;
+
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.exception.InvalidRequestOperationException;
+import com.bank.ing.service.idempotency.IdempotencyKey;
+import com.bank.ing.service.reactive.ReactiveIdempotencyService;
+import com.bank.ing.service.reactive.ReactiveOperationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+
+import static com.bank.ing.configuration.Constants.HISTORY_DEFAULT_LIMIT;
+import static com.bank.ing.controller.TransactionController.DEPOSIT_POST_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.IDEMPOTENCY_KEY_HEADER;
+import static com.bank.ing.controller.TransactionController.TRANSFER_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.WITHDRAW_POST_END_POINT_V1;
+import static com.bank.ing.controller.reactive.RequestBodies.created;
+import static com.bank.ing.controller.reactive.RequestBodies.intQueryParam;
+import static com.bank.ing.controller.reactive.RequestBodies.longPathVariable;
+import static com.bank.ing.controller.reactive.RequestBodies.validBody;
+
+/**
+ * Reactive counterpart of the {@code TransactionController}. Batches are only served by the servlet stack.
+ */
+@Component
+@Profile(ReactiveConfiguration.PROFILE)
+@RequiredArgsConstructor
+public class ReactiveOperationHandler {
+
+    private final ReactiveOperationService reactiveOperationService;
+    private final ReactiveIdempotencyService reactiveIdempotencyService;
+    private final Validator validator;
+
+    public Mono<ServerResponse> getTransactions(ServerRequest request) {
+        return reactiveOperationService.historyOperations(longPathVariable(request, "accountId"),
+                intQueryParam(request, "limit", HISTORY_DEFAULT_LIMIT), request.queryParam("cursor").orElse(null))
+                .flatMap(history -> ServerResponse.ok().bodyValue(history));
+    }
+
+    public Mono<ServerResponse> exportTransactions(ServerRequest request) {
+        return reactiveOperationService.exportHistory(longPathVariable(request, "accountId"))
+                .flatMap(operations -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(operations, ResponseDepositWithdrawTransferDTO.class));
+    }
+
+    public Mono<ServerResponse> postDeposit(ServerRequest request) {
+        return validBody(request, RequestDepositAccountDTO.class, validator, InvalidRequestOperationException::new)
+                .flatMap(body -> {
+                    IdempotencyKey key = idempotencyKey(request, DEPOSIT_POST_END_POINT_V1, body);
+                    return reactiveIdempotencyService.execute(key, reactiveOperationService.depositMoney(body, key));
+                })
+                .flatMap(operation -> created(request, operation.getId()));
+    }
+
+    public Mono<ServerResponse> postWithdraw(ServerRequest request) {
+        return validBody(request, RequestWithdrawAccountDTO.class, validator, InvalidRequestOperationException::new)
+                .flatMap(body -> {
+                    IdempotencyKey key = idempotencyKey(request, WITHDRAW_POST_END_POINT_V1, body);
+                    return reactiveIdempotencyService.execute(key, reactiveOperationService.withdrawMoney(body, key));
+                })
+                .flatMap(operation -> created(request, operation.getId()));
+    }
+
+    public Mono<ServerResponse> postOperation(ServerRequest request) {
+        return validBody(request, RequestTransferOperationDTO.class, validator, InvalidRequestOperationException::new)
+                .flatMap(body -> {
+                    IdempotencyKey key = idempotencyKey(request, TRANSFER_GET_END_POINT_V1, body);
+                    return reactiveIdempotencyService.execute(key, reactiveOperationService.transferOperation(body, key));
+                })
+                .flatMap(operation -> created(request, operation.getId()));
+    }
+
+    private static IdempotencyKey idempotencyKey(ServerRequest request, String endpoint, Object body) {
+        return IdempotencyKey.of(request.headers().firstHeader(IDEMPOTENCY_KEY_HEADER), endpoint, body);
+    }
+}
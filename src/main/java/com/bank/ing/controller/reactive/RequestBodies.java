@@ -0,0 +1,76 @@
+package com.bank.ing.controller.reactive;
+
+import com.bank.ing.exception.BankException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Request reading shared by the reactive handlers, the functional counterpart of {@code @Valid @RequestBody},
+ * {@code @PathVariable} and {@code @RequestParam}.
+ */
+@Log4j2
+final class RequestBodies {
+
+    private RequestBodies() {
+    }
+
+    /**
+     * The validated body, an empty or invalid body fails with the exception of {@code invalid}.
+     */
+    static <T> Mono<T> validBody(ServerRequest request, Class<T> type, Validator validator,
+                                 Supplier<? extends BankException> invalid) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(invalid))
+                .flatMap(body -> {
+                    Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    if (violations.isEmpty()) {
+                        return Mono.just(body);
+                    }
+                    if (log.isDebugEnabled()) {
+                        log.debug("Invalid request {}: {}", body, violations);
+                    }
+                    return Mono.error(invalid.get());
+                });
+    }
+
+    static long longPathVariable(ServerRequest request, String name) {
+        try {
+            return Long.parseLong(request.pathVariable(name));
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Invalid path variable " + name);
+        }
+    }
+
+    static int intQueryParam(ServerRequest request, String name, String defaultValue) {
+        try {
+            return Integer.parseInt(request.queryParam(name).orElse(defaultValue));
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Invalid query parameter " + name);
+        }
+    }
+
+    static LocalDateTime dateTimeQueryParam(ServerRequest request, String name) {
+        try {
+            return request.queryParam(name).map(LocalDateTime::parse).orElse(null);
+        } catch (DateTimeParseException e) {
+            throw new ServerWebInputException("Invalid query parameter " + name);
+        }
+    }
+
+    /**
+     * 201 with the location of the created resource under the request path, as the servlet controllers answer.
+     */
+    static Mono<ServerResponse> created(ServerRequest request, long id) {
+        return ServerResponse.created(request.uriBuilder().path("/{id}").build(id)).build();
+    }
+}
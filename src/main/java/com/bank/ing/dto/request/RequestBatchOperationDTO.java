@@ -0,0 +1,25 @@
+package com.bank.ing.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+import static com.bank.ing.configuration.Constants.BATCH_OPERATIONS_INVALID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RequestBatchOperationDTO {
+
+    @JsonProperty("operations")
+    @NotEmpty(message = BATCH_OPERATIONS_INVALID)
+    private List<@Valid @NotNull RequestBatchOperationItemDTO> operations;
+}
@@ -1,12 +1,13 @@
 package com.bank.ing.dto.response;
 
+import com.bank.ing.money.Money;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -18,7 +19,14 @@ public class ResponseAccountBalanceDTO {
     private Long id;
 
     @JsonProperty("balance")
-    private BigDecimal balance;
+    private Money balance;
+
+    /**
+     * Date the balance is computed at, absent for the current balance.
+     */
+    @JsonProperty("as_of")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime asOf;
 
     @JsonProperty("created_at")
     private LocalDateTime creationTimestamp;
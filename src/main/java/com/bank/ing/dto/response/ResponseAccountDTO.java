@@ -1,12 +1,12 @@
 package com.bank.ing.dto.response;
 
+import com.bank.ing.money.Money;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -21,7 +21,7 @@ public class ResponseAccountDTO {
     private Long id;
 
     @JsonProperty("balance")
-    private BigDecimal balance;
+    private Money balance;
 
     @JsonProperty("created_at")
     private LocalDateTime creationTimestamp;
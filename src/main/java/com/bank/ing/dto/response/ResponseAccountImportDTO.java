@@ -0,0 +1,34 @@
+package com.bank.ing.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResponseAccountImportDTO {
+
+    @JsonProperty("created")
+    private long created;
+
+    @JsonProperty("rejected")
+    private long rejected;
+
+    /**
+     * Rejected lines, up to {@code bank.account-import.max-reported-errors} of them.
+     */
+    @JsonProperty("errors")
+    @Builder.Default
+    private List<ResponseAccountImportErrorDTO> errors = new ArrayList<>();
+
+    @JsonProperty("created_at")
+    private LocalDateTime creationTimestamp;
+}
@@ -0,0 +1,24 @@
+package com.bank.ing.dto.response;
+
+import com.bank.ing.exception.ErrorCode;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResponseAccountImportErrorDTO {
+
+    @JsonProperty("line")
+    private long line;
+
+    @JsonProperty("error")
+    private String error;
+
+    @JsonProperty("error_code")
+    private ErrorCode errorCode;
+}
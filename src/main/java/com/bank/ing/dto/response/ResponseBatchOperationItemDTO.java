@@ -0,0 +1,35 @@
+package com.bank.ing.dto.response;
+
+import com.bank.ing.exception.ErrorCode;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResponseBatchOperationItemDTO {
+
+    public static final String STATUS_CREATED = "CREATED";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    @JsonProperty("index")
+    private int index;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("operation")
+    private ResponseDepositWithdrawTransferDTO operation;
+
+    @JsonProperty("error")
+    private String error;
+
+    @JsonProperty("error_code")
+    private ErrorCode errorCode;
+}
@@ -0,0 +1,31 @@
+package com.bank.ing.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResponseBatchOperationsDTO {
+
+    @JsonProperty("created")
+    private long created;
+
+    @JsonProperty("rejected")
+    private long rejected;
+
+    @JsonProperty("results")
+    @Builder.Default
+    private List<ResponseBatchOperationItemDTO> results = new ArrayList<>();
+
+    @JsonProperty("created_at")
+    private LocalDateTime creationTimestamp;
+}
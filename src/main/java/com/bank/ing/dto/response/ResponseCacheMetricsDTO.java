@@ -0,0 +1,32 @@
+package com.bank.ing.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResponseCacheMetricsDTO {
+
+    @JsonProperty("size")
+    private int size;
+
+    @JsonProperty("maximum_size")
+    private int maximumSize;
+
+    @JsonProperty("hits")
+    private long hits;
+
+    @JsonProperty("misses")
+    private long misses;
+
+    @JsonProperty("hit_ratio")
+    private double hitRatio;
+
+    @JsonProperty("evictions")
+    private long evictions;
+}
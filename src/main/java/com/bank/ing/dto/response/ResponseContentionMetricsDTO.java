@@ -0,0 +1,32 @@
+package com.bank.ing.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResponseContentionMetricsDTO {
+
+    @JsonProperty("strategy")
+    private String strategy;
+
+    @JsonProperty("executions")
+    private long executions;
+
+    @JsonProperty("retries")
+    private long retries;
+
+    @JsonProperty("aborts")
+    private long aborts;
+
+    @JsonProperty("lock_waits")
+    private long lockWaits;
+
+    @JsonProperty("lock_wait_ms")
+    private long lockWaitMillis;
+}
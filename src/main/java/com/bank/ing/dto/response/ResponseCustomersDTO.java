@@ -0,0 +1,32 @@
+package com.bank.ing.dto.response;
+
+import com.bank.ing.dto.CustomerDTO;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResponseCustomersDTO {
+
+    @JsonProperty("customers")
+    @Builder.Default
+    private List<CustomerDTO> customers = new ArrayList<>();
+
+    /**
+     * Cursor of the next page, absent on the last page.
+     */
+    @JsonProperty("next")
+    private String next;
+
+    @JsonProperty("created_at")
+    private LocalDateTime creationTimestamp;
+}
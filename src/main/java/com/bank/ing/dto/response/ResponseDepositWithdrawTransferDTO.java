@@ -1,12 +1,12 @@
 package com.bank.ing.dto.response;
 
+import com.bank.ing.money.Money;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -28,8 +28,17 @@ public class ResponseDepositWithdrawTransferDTO {
     private Long receiverAccountId;
 
     @JsonProperty("value")
-    private BigDecimal value;
+    private Money value;
 
     @JsonProperty("created_at")
     private LocalDateTime creationTimestamp;
+
+    /**
+     * Constructor of the history export result set mapping, the value column holds minor units.
+     */
+    public ResponseDepositWithdrawTransferDTO(Long id, String typeOperation, Long senderAccountId, Long receiverAccountId,
+                                              Long valueMinorUnits, LocalDateTime creationTimestamp) {
+        this(id, typeOperation, senderAccountId, receiverAccountId, Money.ofMinorUnits(valueMinorUnits),
+                creationTimestamp);
+    }
 }
@@ -0,0 +1,21 @@
+package com.bank.ing.dto.response;
+
+import com.bank.ing.exception.ErrorCode;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResponseErrorDTO {
+
+    @JsonProperty("code")
+    private ErrorCode code;
+
+    @JsonProperty("message")
+    private String message;
+}
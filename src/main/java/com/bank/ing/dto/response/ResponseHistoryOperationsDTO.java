@@ -22,6 +22,12 @@ public class ResponseHistoryOperationsDTO {
     @JsonProperty("operations")
     private List<ResponseDepositWithdrawTransferDTO> operationDTOList = new ArrayList<>();
 
+    /**
+     * Cursor of the next page, absent on the last page.
+     */
+    @JsonProperty("next")
+    private String next;
+
     @JsonProperty("created_at")
     private LocalDateTime creationTimestamp;
 }
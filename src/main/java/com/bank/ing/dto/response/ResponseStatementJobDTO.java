@@ -0,0 +1,56 @@
+package com.bank.ing.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResponseStatementJobDTO {
+
+    @JsonProperty("month")
+    private YearMonth month;
+
+    @JsonProperty("ranges")
+    private long ranges;
+
+    /**
+     * Ranges already written by a previous run of the month, not read again.
+     */
+    @JsonProperty("skipped_ranges")
+    private long skippedRanges;
+
+    /**
+     * Ranges left unwritten after an error, written by the next run of the month.
+     */
+    @JsonProperty("failed_ranges")
+    private long failedRanges;
+
+    @JsonProperty("accounts")
+    private long accounts;
+
+    /**
+     * Operation lines written, a transfer between two accounts of the month appears in both statements.
+     */
+    @JsonProperty("operations")
+    private long operations;
+
+    @JsonProperty("duration_ms")
+    private long durationMillis;
+
+    @JsonProperty("accounts_per_second")
+    private double accountsPerSecond;
+
+    @JsonProperty("rows_per_second")
+    private double rowsPerSecond;
+
+    @JsonProperty("created_at")
+    private LocalDateTime creationTimestamp;
+}
@@ -1,13 +1,15 @@
 package com.bank.ing.entity;
 
+import com.bank.ing.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -26,7 +28,7 @@ public class Account {
 
     @NotNull
     @Column(name = PREFIX_TABLE + "initial_deposit_amount")
-    private BigDecimal initialDepositAmount;
+    private Money initialDepositAmount;
 
     @NotNull
     @Column(name = PREFIX_TABLE + "creation_timestamp", columnDefinition = "TIMESTAMP")
@@ -34,9 +36,18 @@ public class Account {
 
     @NotNull
     @Column(name = PREFIX_TABLE + "balance")
-    private BigDecimal balance;
+    private Money balance;
 
-    @ManyToOne
+    @Version
+    @Column(name = PREFIX_TABLE + "version")
+    private Long version;
+
+    /**
+     * Lazy: balance reads and updates load the account without its customer, only the customer id is ever read.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = PREFIX_TABLE + "id_customer")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Customer customer;
 }
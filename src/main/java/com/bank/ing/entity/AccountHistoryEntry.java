@@ -0,0 +1,77 @@
+package com.bank.ing.entity;
+
+import com.bank.ing.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One operation of an account history in the read model, numbered per account in projection order. A transfer has
+ * an entry in the history of each of its two accounts. History pages read the {@code (account, seq DESC)} index in
+ * order and stop after one page: H2 does not scan the ascending primary key backwards, it would sort every entry of
+ * the account.
+ */
+@Entity
+@Table(name = "account_history", indexes = @Index(name = "idx_account_history_seq",
+        columnList = "history_account_id, history_seq DESC"))
+@IdClass(AccountHistoryEntry.Key.class)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class AccountHistoryEntry {
+
+    public static final String PREFIX_TABLE = "history_";
+
+    @Id
+    @Column(name = PREFIX_TABLE + "account_id")
+    private Long accountId;
+
+    @Id
+    @Column(name = PREFIX_TABLE + "seq")
+    private Long seq;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "operation_id")
+    private Long operationId;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "operation_type")
+    private String type;
+
+    @Column(name = PREFIX_TABLE + "sender_account_id")
+    private Long senderAccountId;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "receiver_account_id")
+    private Long receiverAccountId;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "value")
+    private Money value;
+
+    /**
+     * Balance of the account once this entry is applied.
+     */
+    @NotNull
+    @Column(name = PREFIX_TABLE + "balance")
+    private Money balance;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "operation_date_time", columnDefinition = "TIMESTAMP")
+    private LocalDateTime operationDateTime;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long accountId;
+        private Long seq;
+    }
+}
@@ -0,0 +1,45 @@
+package com.bank.ing.entity;
+
+import com.bank.ing.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * Read model of an account: its balance once every projected operation is applied, and the sequence number of the
+ * latest entry of its {@link AccountHistoryEntry history}. Written by the read model projector only.
+ */
+@Entity
+@Table(name = "account_summary")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class AccountSummary {
+
+    public static final String PREFIX_TABLE = "summary_";
+
+    @Id
+    @Column(name = PREFIX_TABLE + "account_id")
+    private Long accountId;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "customer_id")
+    private Long customerId;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "balance")
+    private Money balance;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "last_seq")
+    private Long lastSeq;
+
+    @Column(name = PREFIX_TABLE + "last_operation_date_time", columnDefinition = "TIMESTAMP")
+    private LocalDateTime lastOperationDateTime;
+}
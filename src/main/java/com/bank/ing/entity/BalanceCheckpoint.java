@@ -0,0 +1,48 @@
+package com.bank.ing.entity;
+
+import com.bank.ing.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of an account once every operation up to {@code checkpointDateTime} (inclusive) is applied. The primary
+ * key {@code (account, date time)} also serves the "latest checkpoint before" lookups.
+ */
+@Entity
+@Table(name = "balance_checkpoint")
+@IdClass(BalanceCheckpoint.Key.class)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BalanceCheckpoint {
+
+    public static final String PREFIX_TABLE = "checkpoint_";
+
+    @Id
+    @Column(name = PREFIX_TABLE + "account_id")
+    private Long accountId;
+
+    @Id
+    @Column(name = PREFIX_TABLE + "date_time", columnDefinition = "TIMESTAMP")
+    private LocalDateTime checkpointDateTime;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "balance")
+    private Money balance;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long accountId;
+        private LocalDateTime checkpointDateTime;
+    }
+}
@@ -4,7 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
@@ -12,6 +15,8 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.CACHE_REGION)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +25,12 @@ public class Customer {
 
     public static final String PREFIX_TABLE = "customer_";
 
+    /**
+     * Second-level cache regions of the customers and of the customer queries.
+     */
+    public static final String CACHE_REGION = "customer";
+    public static final String QUERY_CACHE_REGION = "customer-queries";
+
     @Id
     @Column(name = PREFIX_TABLE + "id")
     private Long id;
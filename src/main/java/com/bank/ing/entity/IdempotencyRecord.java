@@ -0,0 +1,72 @@
+package com.bank.ing.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * Operation created for an {@code Idempotency-Key}. The record is inserted in the transaction of the operation, the
+ * primary key makes a concurrent request with the same key fail instead of applying the operation a second time.
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = {
+        @Index(name = "idx_idempotency_key_created_at", columnList = IdempotencyRecord.PREFIX_TABLE + "created_at")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class IdempotencyRecord implements Persistable<String> {
+
+    public static final String PREFIX_TABLE = "idempotency_";
+    public static final int KEY_MAX_LENGTH = 255;
+
+    @Id
+    @Column(name = PREFIX_TABLE + "key", length = KEY_MAX_LENGTH)
+    private String key;
+
+    /**
+     * Fingerprint of the endpoint and request body the key was first used with.
+     */
+    @NotNull
+    @Column(name = PREFIX_TABLE + "request_hash", length = 64)
+    private String requestHash;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "operation_id")
+    private Long operationId;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "operation_type")
+    private String operationType;
+
+    /**
+     * JSON body of the response first returned for the key, replayed unchanged.
+     */
+    @NotNull
+    @Column(name = PREFIX_TABLE + "response", length = 1024)
+    private String response;
+
+    @NotNull
+    @Column(name = PREFIX_TABLE + "created_at", columnDefinition = "TIMESTAMP")
+    private LocalDateTime createdAt;
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    /**
+     * Always inserted, never merged: a key already recorded makes the insert fail.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bank.ing.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Identity of the database the ledger journal is written against, created with the schema. A journal recorded
+ * against another epoch holds the balances of accounts that no longer exist and is not replayed. The row also holds
+ * the journal sequence up to which the database tables are written.
+ */
+@Entity
+@Table(name = "ledger_journal_epoch")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class JournalEpoch {
+
+    public static final String PREFIX_TABLE = "journal_";
+
+    @Id
+    @Column(name = PREFIX_TABLE + "epoch", length = 36)
+    private String epoch;
+
+    @Column(name = PREFIX_TABLE + "projected_sequence", nullable = false)
+    private long projectedSequence;
+
+    public JournalEpoch(String epoch) {
+        this(epoch, 0);
+    }
+}
@@ -1,16 +1,25 @@
 package com.bank.ing.entity;
 
+import com.bank.ing.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_operation_sender_date_time",
+                columnList = "operation_id_sender, operation_date_time DESC, operation_id DESC"),
+        @Index(name = "idx_operation_receiver_date_time",
+                columnList = "operation_id_receiver, operation_date_time DESC, operation_id DESC"),
+        @Index(name = "idx_operation_date_time", columnList = "operation_date_time")
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,27 +27,42 @@ import java.time.LocalDateTime;
 public class Operation {
 
     public static final String PREFIX_TABLE = "operation_";
+    public static final String SEQUENCE_NAME = "operation_sequence";
+
+    /**
+     * Ids reserved per sequence call, the pooled optimizer hands them out without touching the database.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
 
     @Id
     @Column(name = PREFIX_TABLE + "id")
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
+    @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
     @Column(name = PREFIX_TABLE + "type")
     private String type;
 
-    @ManyToOne
+    /**
+     * The accounts are lazy: an operation is written with references to them and read back as history DTOs, nothing
+     * reads more than their id.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = PREFIX_TABLE + "id_sender")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Account senderAccount;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = PREFIX_TABLE + "id_receiver")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Account receiverAccount;
 
     @NotNull
     @Column(name = PREFIX_TABLE + "value")
-    private BigDecimal value;
+    private Money value;
 
     @NotNull
     @Column(name = PREFIX_TABLE + "date_time", columnDefinition = "TIMESTAMP")
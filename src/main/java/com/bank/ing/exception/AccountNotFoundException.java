@@ -1,7 +1,7 @@
 package com.bank.ing.exception;
 
-public class AccountNotFoundException extends RuntimeException {
+public class AccountNotFoundException extends BankException {
     public AccountNotFoundException() {
-        super("Account not found exception");
+        super(ErrorCode.ACCOUNT_NOT_FOUND, "Account not found exception");
     }
 }
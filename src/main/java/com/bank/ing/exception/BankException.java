@@ -0,0 +1,20 @@
+package com.bank.ing.exception;
+
+/**
+ * Domain failure of a request, rendered by {@link ControllerExceptionHandler} from its {@link ErrorCode}. These are
+ * expected outcomes, a declined payment is one, so they capture no stack trace: filling it in would cost more than
+ * the rest of the failed request. The message of a subclass is constant, the details are logged where it is thrown.
+ */
+public abstract class BankException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    protected BankException(ErrorCode errorCode, String message) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
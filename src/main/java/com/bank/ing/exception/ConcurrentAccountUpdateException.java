@@ -0,0 +1,7 @@
+package com.bank.ing.exception;
+
+public class ConcurrentAccountUpdateException extends BankException {
+    public ConcurrentAccountUpdateException() {
+        super(ErrorCode.CONCURRENT_ACCOUNT_UPDATE, "Concurrent account update exception");
+    }
+}
@@ -1,7 +1,7 @@
 package com.bank.ing.exception;
 
-public class CustomerNotFoundException extends RuntimeException {
+public class CustomerNotFoundException extends BankException {
     public CustomerNotFoundException() {
-        super("Customer not found exception");
+        super(ErrorCode.CUSTOMER_NOT_FOUND, "Customer not found exception");
     }
 }
@@ -0,0 +1,31 @@
+package com.bank.ing.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Error codes of the API, returned with the HTTP status of each in the body of a failed request.
+ */
+public enum ErrorCode {
+
+    ACCOUNT_NOT_FOUND(HttpStatus.NOT_FOUND),
+    CUSTOMER_NOT_FOUND(HttpStatus.NOT_FOUND),
+    INSUFFICIENT_BALANCE(HttpStatus.BAD_REQUEST),
+    TRANSFER_NOT_ALLOWED(HttpStatus.BAD_REQUEST),
+    INVALID_REQUEST_ACCOUNT(HttpStatus.BAD_REQUEST),
+    INVALID_REQUEST_OPERATION(HttpStatus.BAD_REQUEST),
+    INVALID_REQUEST_CUSTOMER(HttpStatus.BAD_REQUEST),
+    INVALID_REQUEST_STATEMENT(HttpStatus.BAD_REQUEST),
+    CONCURRENT_ACCOUNT_UPDATE(HttpStatus.CONFLICT),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY),
+    LEDGER_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,7 @@
+package com.bank.ing.exception;
+
+public class IdempotencyKeyReusedException extends BankException {
+    public IdempotencyKeyReusedException() {
+        super(ErrorCode.IDEMPOTENCY_KEY_REUSED, "Idempotency key reused with a different request exception");
+    }
+}
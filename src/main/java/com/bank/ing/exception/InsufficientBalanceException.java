@@ -1,7 +1,7 @@
 package com.bank.ing.exception;
 
-public class InsufficientBalanceException extends RuntimeException {
+public class InsufficientBalanceException extends BankException {
     public InsufficientBalanceException() {
-        super("Insufficient balance exception");
+        super(ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance exception");
     }
 }
@@ -1,7 +1,7 @@
 package com.bank.ing.exception;
 
-public class InvalidRequestAccountException extends IllegalArgumentException {
+public class InvalidRequestAccountException extends BankException {
     public InvalidRequestAccountException() {
-        super("Invalid request account exception");
+        super(ErrorCode.INVALID_REQUEST_ACCOUNT, "Invalid request account exception");
     }
 }
@@ -0,0 +1,7 @@
+package com.bank.ing.exception;
+
+public class InvalidRequestCustomerException extends BankException {
+    public InvalidRequestCustomerException() {
+        super(ErrorCode.INVALID_REQUEST_CUSTOMER, "Invalid request customer exception");
+    }
+}
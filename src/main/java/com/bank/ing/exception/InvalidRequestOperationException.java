@@ -1,7 +1,7 @@
 package com.bank.ing.exception;
 
-public class InvalidRequestOperationException extends IllegalArgumentException {
+public class InvalidRequestOperationException extends BankException {
     public InvalidRequestOperationException() {
-        super("Invalid request operation exception");
+        super(ErrorCode.INVALID_REQUEST_OPERATION, "Invalid request operation exception");
     }
 }
@@ -0,0 +1,7 @@
+package com.bank.ing.exception;
+
+public class InvalidRequestStatementException extends BankException {
+    public InvalidRequestStatementException() {
+        super(ErrorCode.INVALID_REQUEST_STATEMENT, "Invalid request statement exception");
+    }
+}
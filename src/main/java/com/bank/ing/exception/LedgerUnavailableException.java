@@ -0,0 +1,7 @@
+package com.bank.ing.exception;
+
+public class LedgerUnavailableException extends BankException {
+    public LedgerUnavailableException() {
+        super(ErrorCode.LEDGER_UNAVAILABLE, "Ledger unavailable exception");
+    }
+}
@@ -1,7 +1,7 @@
 package com.bank.ing.exception;
 
-public class TransferNotAllowedException extends RuntimeException {
+public class TransferNotAllowedException extends BankException {
     public TransferNotAllowedException() {
-        super("Transfer Not Allowed exception");
+        super(ErrorCode.TRANSFER_NOT_ALLOWED, "Transfer Not Allowed exception");
     }
 }
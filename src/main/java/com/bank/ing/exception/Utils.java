@@ -5,9 +5,58 @@ import lombok.extern.log4j.Log4j2;
 import java.util.Arrays;
 import java.util.function.Supplier;
 
+/**
+ * Checks throwing a domain exception when their condition holds. The fixed-arity overloads allocate nothing when the
+ * condition does not hold: pass a non-capturing exception constructor reference and a log message with {@code {}}
+ * placeholders, the message is only formatted on failure.
+ */
 @UtilityClass
 @Log4j2
 public class Utils {
+
+    public static void throwsOnCondition(boolean conditionToThrowsException,
+                                         Supplier<? extends RuntimeException> exceptionSupplier) {
+        if (conditionToThrowsException) {
+            throw exceptionSupplier.get();
+        }
+    }
+
+    public static void throwsOnCondition(boolean conditionToThrowsException,
+                                         Supplier<? extends RuntimeException> exceptionSupplier,
+                                         String logMessage) {
+        if (conditionToThrowsException) {
+            log.error(logMessage);
+            throw exceptionSupplier.get();
+        }
+    }
+
+    public static void throwsOnCondition(boolean conditionToThrowsException,
+                                         Supplier<? extends RuntimeException> exceptionSupplier,
+                                         String logMessage, Object argument) {
+        if (conditionToThrowsException) {
+            log.error(logMessage, argument);
+            throw exceptionSupplier.get();
+        }
+    }
+
+    public static void throwsOnCondition(boolean conditionToThrowsException,
+                                         Supplier<? extends RuntimeException> exceptionSupplier,
+                                         String logMessage, long argument) {
+        if (conditionToThrowsException) {
+            log.error(logMessage, argument);
+            throw exceptionSupplier.get();
+        }
+    }
+
+    public static void throwsOnCondition(boolean conditionToThrowsException,
+                                         Supplier<? extends RuntimeException> exceptionSupplier,
+                                         String logMessage, long firstArgument, long secondArgument) {
+        if (conditionToThrowsException) {
+            log.error(logMessage, firstArgument, secondArgument);
+            throw exceptionSupplier.get();
+        }
+    }
+
     public static void throwsOnCondition(boolean conditionToThrowsException,
                                    Supplier<? extends RuntimeException> exceptionSupplier,
                                    String ... logMessages) {
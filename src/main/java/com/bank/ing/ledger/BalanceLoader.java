@@ -0,0 +1,14 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.money.Money;
+
+import java.util.Optional;
+
+/**
+ * Source of the balance an account has when its shard sees it for the first time.
+ */
+@FunctionalInterface
+public interface BalanceLoader {
+
+    Optional<Money> load(long accountId);
+}
@@ -0,0 +1,266 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes ledger entries to the {@code account} and {@code operation} tables from a single background thread,
+ * in JDBC batches. Balance updates of the same account within a batch are coalesced, only the latest is written.
+ * <p>
+ * The engine has already acknowledged every entry. A batch failing on a transient error (lock timeout, lost or
+ * unavailable connection) is retried with exponential backoff until it is written; meanwhile the queue fills up and
+ * {@link #append} blocks the shards, the engine stops accepting work instead of letting the database silently fall
+ * behind. A batch failing for good (constraint violation, bad row) would block the shards forever: it is written to
+ * the {@value #DEAD_LETTER_LOGGER} log instead and the sink reports itself unhealthy until restarted. Operations are
+ * tracked from their append to the write of their row, so that balance checkpoints stop before the oldest of them,
+ * dead-lettered operations included.
+ * <p>
+ * As the projection of the journal, the sequence of the last journaled entry of a batch is written in the transaction
+ * of the batch: entries still queued when the process stops are journaled after it and projected again on start.
+ */
+@Log4j2
+public class JdbcLedgerSink implements LedgerSink, JournalProjection, PendingOperations, AutoCloseable {
+
+    static final String UPDATE_BALANCE_SQL =
+            "UPDATE account SET account_balance = ?, account_version = account_version + 1 WHERE account_id = ?";
+    public static final String INSERT_OPERATION_SQL =
+            "INSERT INTO operation (operation_id, operation_type, operation_id_sender, operation_id_receiver, " +
+                    "operation_value, operation_date_time) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String UPDATE_PROJECTED_SEQUENCE_SQL =
+            "UPDATE ledger_journal_epoch SET journal_projected_sequence = ? WHERE journal_projected_sequence < ?";
+    static final String SELECT_PROJECTED_SEQUENCE_SQL =
+            "SELECT COALESCE(MAX(journal_projected_sequence), 0) FROM ledger_journal_epoch";
+
+    static final String DEAD_LETTER_LOGGER = "com.bank.ing.ledger.dead-letter";
+
+    private static final Logger deadLetterLog = LogManager.getLogger(DEAD_LETTER_LOGGER);
+    private static final long INITIAL_RETRY_BACKOFF_MILLIS = 50;
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<QueuedEntry> entries;
+    private final int batchSize;
+    private final PendingOperationTracker pendingOperations = new PendingOperationTracker();
+    private final Thread writer;
+    private volatile boolean running = true;
+    /**
+     * Written by the writer thread only.
+     */
+    private volatile long deadLetteredBatches;
+
+    public JdbcLedgerSink(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          int queueCapacity, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entries = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.writer = new Thread(this::run, "ledger-persister");
+        this.writer.start();
+    }
+
+    @Override
+    public void append(LedgerEntry entry) {
+        enqueue(entry, 0);
+    }
+
+    @Override
+    public void project(LedgerEntry entry, long sequence) {
+        enqueue(entry, sequence);
+    }
+
+    @Override
+    public long projectedSequence() {
+        return jdbcTemplate.queryForObject(SELECT_PROJECTED_SEQUENCE_SQL, Long.class);
+    }
+
+    private void enqueue(LedgerEntry entry, long sequence) {
+        if (entry.getOperation() != null) {
+            pendingOperations.add(entry.getOperation());
+        }
+        try {
+            entries.put(new QueuedEntry(entry, sequence));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while persisting ledger entry - {}", entry);
+        }
+    }
+
+    @Override
+    public Optional<LocalDateTime> oldestPendingOperationDateTime() {
+        return pendingOperations.oldestPendingOperationDateTime();
+    }
+
+    /**
+     * False once a batch was dead-lettered: the database then misses entries the engine has applied.
+     */
+    public boolean isHealthy() {
+        return deadLetteredBatches == 0;
+    }
+
+    public long deadLetteredBatches() {
+        return deadLetteredBatches;
+    }
+
+    /**
+     * Stops the writer once every pending entry has been flushed.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join();
+    }
+
+    private void run() {
+        List<QueuedEntry> batch = new ArrayList<>(batchSize);
+        boolean interrupted = false;
+        while (running || !entries.isEmpty()) {
+            QueuedEntry first = null;
+            try {
+                first = interrupted ? entries.poll() : entries.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+                running = false;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            entries.drainTo(batch, batchSize - 1);
+            interrupted |= flush(batch);
+            batch.clear();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Binds the parameters of {@link #INSERT_OPERATION_SQL}.
+     */
+    public static void setOperation(PreparedStatement ps, Operation operation) throws SQLException {
+        ps.setLong(1, operation.getId());
+        ps.setString(2, operation.getType());
+        if (operation.getSenderAccount() == null) {
+            ps.setNull(3, Types.BIGINT);
+        } else {
+            ps.setLong(3, operation.getSenderAccount().getId());
+        }
+        ps.setLong(4, operation.getReceiverAccount().getId());
+        ps.setLong(5, operation.getValue().minorUnits());
+        ps.setTimestamp(6, Timestamp.valueOf(operation.getOperationDateTime()));
+    }
+
+    /**
+     * Writes the batch, retrying transient failures until the database accepts it.
+     *
+     * @return whether the writer was interrupted while backing off
+     */
+    private boolean flush(List<QueuedEntry> batch) {
+        Map<Long, Money> balances = new LinkedHashMap<>();
+        List<Operation> operations = new ArrayList<>();
+        long sequence = 0;
+        for (QueuedEntry queued : batch) {
+            LedgerEntry entry = queued.entry;
+            balances.put(entry.getAccountId(), entry.getBalance());
+            if (entry.completedOperation() != null) {
+                operations.add(entry.completedOperation());
+            }
+            sequence = Math.max(sequence, queued.sequence);
+        }
+        long backoffMillis = INITIAL_RETRY_BACKOFF_MILLIS;
+        boolean interrupted = false;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(balances, operations, sequence);
+                pendingOperations.removeAll(operations);
+                log.debug("Persisted {} balances and {} operations", balances.size(), operations.size());
+                return interrupted;
+            } catch (TransientDataAccessException | RecoverableDataAccessException
+                    | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+                log.error("Could not persist {} balances and {} operations, attempt {}, retrying in {} ms, "
+                        + "accounts={}", balances.size(), operations.size(), attempt, backoffMillis,
+                        balances.keySet(), e);
+            } catch (RuntimeException e) {
+                deadLetter(balances, operations, sequence, e);
+                return interrupted;
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            backoffMillis = Math.min(MAX_RETRY_BACKOFF_MILLIS, backoffMillis * 2);
+        }
+    }
+
+    /**
+     * Logs every balance and operation of a batch the database rejects for good, so that they can be written by hand.
+     */
+    private void deadLetter(Map<Long, Money> balances, List<Operation> operations, long sequence, RuntimeException e) {
+        deadLetteredBatches++;
+        log.error("Dead-lettered {} balances and {} operations up to journal sequence {}, the ledger sink is unhealthy",
+                balances.size(), operations.size(), sequence, e);
+        balances.forEach((accountId, balance) ->
+                deadLetterLog.error("balance accountId={} balance={}", accountId, balance));
+        for (Operation operation : operations) {
+            deadLetterLog.error("operation id={} type={} senderAccountId={} receiverAccountId={} value={} dateTime={}",
+                    operation.getId(), operation.getType(),
+                    operation.getSenderAccount() == null ? null : operation.getSenderAccount().getId(),
+                    operation.getReceiverAccount().getId(), operation.getValue(), operation.getOperationDateTime());
+        }
+    }
+
+    private void write(Map<Long, Money> balances, List<Operation> operations, long sequence) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, balances.entrySet(), balances.size(), (ps, balance) -> {
+                ps.setLong(1, balance.getValue().minorUnits());
+                ps.setLong(2, balance.getKey());
+            });
+            if (!operations.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_OPERATION_SQL, operations, operations.size(),
+                        JdbcLedgerSink::setOperation);
+            }
+            if (sequence > 0) {
+                jdbcTemplate.update(UPDATE_PROJECTED_SEQUENCE_SQL, sequence, sequence);
+            }
+        });
+    }
+
+    /**
+     * Entry waiting for the writer, with its journal sequence, 0 when it is not journaled.
+     */
+    private static final class QueuedEntry {
+
+        private final LedgerEntry entry;
+        private final long sequence;
+
+        private QueuedEntry(LedgerEntry entry, long sequence) {
+            this.entry = entry;
+            this.sequence = sequence;
+        }
+    }
+}
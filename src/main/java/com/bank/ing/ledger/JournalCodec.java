@@ -0,0 +1,128 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of a journal record: {@code [payload length][CRC32 of the payload][payload]}. The payload holds the
+ * record sequence, the account and its new balance, then the operation when the entry completes one or debits the
+ * sender of a transfer, as told by the record kind. A zero length
+ * marks the end of the written part of a segment, a record whose checksum does not match was torn by a crash.
+ */
+final class JournalCodec {
+
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    /**
+     * Size of a record completing an operation, the largest one: amounts are longs of minor units, so every record
+     * of a kind has the same size.
+     */
+    static final int MAX_RECORD_SIZE = HEADER_SIZE + Long.BYTES * 8 + Byte.BYTES * 2 + Integer.BYTES;
+
+    private static final byte BALANCE = 0;
+    private static final byte OPERATION = 1;
+    private static final byte TRANSFER_DEBIT = 2;
+    private static final long NO_SENDER = -1;
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Writes the record of {@code entry} at the position of {@code buffer}, which must have
+     * {@link #MAX_RECORD_SIZE} bytes remaining.
+     */
+    static void encode(ByteBuffer buffer, long sequence, LedgerEntry entry) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.putLong(sequence);
+        buffer.putLong(entry.getAccountId());
+        buffer.putLong(entry.getBalance().minorUnits());
+        Operation operation = entry.getOperation();
+        buffer.put(operation == null ? BALANCE : entry.isTransferDebit() ? TRANSFER_DEBIT : OPERATION);
+        if (operation != null) {
+            buffer.putLong(operation.getId());
+            buffer.put((byte) OperationType.valueOf(operation.getType()).ordinal());
+            buffer.putLong(operation.getSenderAccount() == null ? NO_SENDER : operation.getSenderAccount().getId());
+            buffer.putLong(operation.getReceiverAccount().getId());
+            buffer.putLong(operation.getValue().minorUnits());
+            buffer.putLong(operation.getOperationDateTime().toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(operation.getOperationDateTime().getNano());
+        }
+        int end = buffer.position();
+        buffer.putInt(start, end - start - HEADER_SIZE);
+        buffer.putInt(start + Integer.BYTES, checksum(buffer, start + HEADER_SIZE, end));
+    }
+
+    /**
+     * Size of the valid record at the position of {@code buffer}, 0 at the end of the written records or on a torn
+     * record. The position is left unchanged.
+     */
+    static int validRecordSize(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return 0;
+        }
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > MAX_RECORD_SIZE || length > buffer.remaining() - HEADER_SIZE) {
+            return 0;
+        }
+        int end = start + HEADER_SIZE + length;
+        return buffer.getInt(start + Integer.BYTES) == checksum(buffer, start + HEADER_SIZE, end)
+                ? HEADER_SIZE + length
+                : 0;
+    }
+
+    static long sequenceAt(ByteBuffer buffer) {
+        return buffer.getLong(buffer.position() + HEADER_SIZE);
+    }
+
+    /**
+     * Reads the valid record at the position of {@code buffer} and moves past it.
+     */
+    static LedgerEntry decode(ByteBuffer buffer) {
+        buffer.position(buffer.position() + HEADER_SIZE + Long.BYTES);
+        long accountId = buffer.getLong();
+        Money balance = Money.ofMinorUnits(buffer.getLong());
+        byte kind = buffer.get();
+        if (kind == BALANCE) {
+            return new LedgerEntry(accountId, balance, null);
+        }
+        long operationId = buffer.getLong();
+        OperationType type = OPERATION_TYPES[buffer.get()];
+        long senderAccountId = buffer.getLong();
+        long receiverAccountId = buffer.getLong();
+        Money value = Money.ofMinorUnits(buffer.getLong());
+        LocalDateTime operationDateTime = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        return new LedgerEntry(accountId, balance,
+                operation(operationId, type, senderAccountId, receiverAccountId, value, operationDateTime),
+                kind == TRANSFER_DEBIT);
+    }
+
+    static Operation operation(long id, OperationType type, long senderAccountId, long receiverAccountId, Money value,
+                               LocalDateTime operationDateTime) {
+        return Operation.builder()
+                .id(id)
+                .type(type.name())
+                .senderAccount(senderAccountId == NO_SENDER ? null : Account.builder().id(senderAccountId).build())
+                .receiverAccount(Account.builder().id(receiverAccountId).build())
+                .value(value)
+                .operationDateTime(operationDateTime)
+                .build();
+    }
+
+    static int checksum(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        ByteBuffer range = buffer.duplicate();
+        range.limit(to).position(from);
+        crc.update(range);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,320 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only binary journal of the ledger entries, made of memory-mapped segment files. Every entry gets the next
+ * sequence number and is appended to the current segment, a full segment is synced and a new one started. The
+ * balances derived from the journal are snapshotted periodically, a restart loads the latest snapshot and replays
+ * only the records after it.
+ * <p>
+ * Appends write to the page cache only, the segment is synced every {@code flushInterval}: a machine crash loses at
+ * most the entries of the last interval, a process crash loses none. Segments are never deleted, they are the audit
+ * trail of every balance change. Once journaled, entries are handed to the optional {@code projection} in sequence
+ * order, which keeps the database tables up to date. The projection records the last sequence it wrote: on start,
+ * the entries journaled after it, still queued for the database when the process stopped, are projected again before
+ * the journal takes new entries.
+ * <p>
+ * The two legs of a transfer are two records, the debit carrying the transfer. Transfers debited but not credited
+ * are tracked with the balances and snapshotted with them: after a crash between the two records, the recovered
+ * {@link #pendingTransfers()} are completed by the engine instead of losing the debited amount.
+ * <p>
+ * The journal belongs to the database it was written against, identified by an epoch kept in {@value #EPOCH_FILE}.
+ * A journal of another epoch is moved aside to a {@code retired-} directory and a new journal is started: its balances
+ * would otherwise be given to the new accounts reusing the ids of the old ones.
+ * <p>
+ * The journal state is guarded by a {@link ReentrantLock} rather than a monitor: rolling and syncing segments block on
+ * the file system, which would pin a virtual thread to its carrier inside a {@code synchronized} block.
+ */
+@Log4j2
+public class JournalLedgerSink implements LedgerSink, AutoCloseable {
+
+    static final String EPOCH_FILE = "journal.epoch";
+    static final String RETIRED_PREFIX = "retired-";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final JournalProjection projection;
+    private final Map<Long, Money> balances;
+    private final Map<Long, Operation> pendingTransfers;
+    private final ScheduledExecutorService maintenance;
+    private final ReentrantLock lock = new ReentrantLock();
+    private JournalSegment segment;
+    private long lastSequence;
+    private volatile long lastSnapshotSequence;
+
+    public JournalLedgerSink(Path directory, String epoch, int segmentSize, Duration flushInterval,
+                             Duration snapshotInterval, JournalProjection projection) throws IOException {
+        if (segmentSize < JournalCodec.MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal segments must hold at least one record");
+        }
+        this.directory = Files.createDirectories(directory);
+        claim(epoch);
+        this.segmentSize = segmentSize;
+        this.projection = projection;
+        Optional<JournalSnapshot> snapshot = JournalSnapshot.loadLatest(directory);
+        this.balances = snapshot.map(JournalSnapshot::balances).orElseGet(HashMap::new);
+        this.pendingTransfers = snapshot.map(JournalSnapshot::pendingTransfers).orElseGet(HashMap::new);
+        this.lastSnapshotSequence = snapshot.map(JournalSnapshot::sequence).orElse(0L);
+        this.lastSequence = lastSnapshotSequence;
+        recover();
+        if (projection != null) {
+            catchUpProjection();
+        }
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "ledger-journal"));
+        maintenance.scheduleWithFixedDelay(this::force,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::snapshot,
+                snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void append(LedgerEntry entry) {
+        lock.lock();
+        try {
+            long sequence = lastSequence + 1;
+            if (!segment.append(sequence, entry)) {
+                roll(sequence);
+                segment.append(sequence, entry);
+            }
+            lastSequence = sequence;
+            apply(entry);
+            if (projection != null) {
+                projection.project(entry, sequence);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Balance of the account derived from the journal, empty when the journal never saw it.
+     */
+    public Optional<Money> balanceOf(long accountId) {
+        lock.lock();
+        try {
+            return Optional.ofNullable(balances.get(accountId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Transfers whose sender debit was journaled without the credit of their receiver, in operation id order.
+     */
+    public List<Operation> pendingTransfers() {
+        lock.lock();
+        try {
+            return pendingTransfers.values().stream()
+                    .sorted(Comparator.comparing(Operation::getId))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands every journaled entry after {@code afterSequence} to {@code consumer}, in journal order.
+     */
+    public void replay(long afterSequence, ObjLongConsumer<LedgerEntry> consumer) throws IOException {
+        force();
+        List<Path> paths = segments();
+        for (int i = 0; i < paths.size(); i++) {
+            if (i + 1 < paths.size() && JournalSegment.firstSequenceOf(paths.get(i + 1)) <= afterSequence + 1) {
+                continue;
+            }
+            try (JournalSegment replayed = JournalSegment.open(directory, JournalSegment.firstSequenceOf(paths.get(i)),
+                    segmentSize)) {
+                replayed.scan(afterSequence, consumer);
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot of the balances when entries were appended since the previous one.
+     */
+    public void snapshot() {
+        long sequence;
+        Map<Long, Money> copy;
+        Map<Long, Operation> pendingCopy;
+        lock.lock();
+        try {
+            sequence = lastSequence;
+            if (sequence == lastSnapshotSequence) {
+                return;
+            }
+            segment.force();
+            copy = new HashMap<>(balances);
+            pendingCopy = new HashMap<>(pendingTransfers);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            JournalSnapshot.write(directory, sequence, copy, pendingCopy);
+            lastSnapshotSequence = sequence;
+            log.info("Snapshotted {} ledger balances at journal sequence {}", copy.size(), sequence);
+        } catch (IOException e) {
+            log.error("Could not snapshot the ledger journal at sequence {}", sequence, e);
+        }
+    }
+
+    /**
+     * Stops the maintenance thread, then syncs and snapshots the journal so that the next start replays nothing.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        maintenance.shutdown();
+        maintenance.awaitTermination(1, TimeUnit.MINUTES);
+        snapshot();
+        lock.lock();
+        try {
+            segment.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays the segments not covered by the snapshot and reopens the last one for appends after its last valid
+     * record.
+     */
+    private void recover() throws IOException {
+        List<Path> paths = segments();
+        int first = 0;
+        while (first + 1 < paths.size() && JournalSegment.firstSequenceOf(paths.get(first + 1)) <= lastSequence + 1) {
+            first++;
+        }
+        long replayed = 0;
+        for (int i = first; i < paths.size(); i++) {
+            long firstSequence = JournalSegment.firstSequenceOf(paths.get(i));
+            if (firstSequence > lastSequence + 1) {
+                throw new IOException(String.format("Ledger journal segment %s follows a gap after sequence %d",
+                        paths.get(i), lastSequence));
+            }
+            JournalSegment opened = JournalSegment.open(directory, firstSequence, segmentSize);
+            long before = lastSequence;
+            lastSequence = Math.max(lastSequence, opened.scan(lastSequence, (entry, sequence) -> apply(entry)));
+            replayed += lastSequence - before;
+            if (segment != null) {
+                segment.close();
+            }
+            segment = opened;
+        }
+        if (segment == null) {
+            segment = JournalSegment.open(directory, lastSequence + 1, segmentSize);
+        }
+        segment.truncateTail();
+        log.info("Ledger journal recovered at sequence {}: {} balances, {} records replayed after the snapshot, "
+                + "{} transfers pending", lastSequence, balances.size(), replayed, pendingTransfers.size());
+    }
+
+    /**
+     * Hands the entries journaled after the last one the projection wrote to it again.
+     */
+    private void catchUpProjection() throws IOException {
+        long projectedSequence = projection.projectedSequence();
+        if (projectedSequence >= lastSequence) {
+            return;
+        }
+        replay(projectedSequence, projection::project);
+        log.warn("Projected the ledger journal entries {} to {} again, the database had not written them",
+                projectedSequence + 1, lastSequence);
+    }
+
+    /**
+     * Applies a journaled entry to the balances and pending transfers. Lock held, or during recovery.
+     */
+    private void apply(LedgerEntry entry) {
+        balances.put(entry.getAccountId(), entry.getBalance());
+        if (entry.isTransferDebit()) {
+            pendingTransfers.put(entry.getOperation().getId(), entry.getOperation());
+        } else if (entry.getOperation() != null) {
+            pendingTransfers.remove(entry.getOperation().getId());
+        }
+    }
+
+    /**
+     * Retires the journal files of another epoch, then records {@code epoch} as the epoch of the directory.
+     */
+    private void claim(String epoch) throws IOException {
+        Path epochFile = directory.resolve(EPOCH_FILE);
+        String previousEpoch = Files.exists(epochFile) ? Files.readString(epochFile).trim() : null;
+        if (epoch.equals(previousEpoch)) {
+            return;
+        }
+        List<Path> journalFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            journalFiles = files.filter(path -> !path.getFileName().toString().startsWith(RETIRED_PREFIX))
+                    .collect(Collectors.toList());
+        }
+        if (!journalFiles.isEmpty()) {
+            Path retired = Files.createDirectories(directory.resolve(RETIRED_PREFIX
+                    + (previousEpoch == null ? "unknown-" + System.currentTimeMillis() : previousEpoch)));
+            for (Path file : journalFiles) {
+                Files.move(file, retired.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.warn("Ledger journal of epoch {} retired to {}, the database is epoch {}", previousEpoch, retired,
+                    epoch);
+        }
+        Path temporary = directory.resolve(EPOCH_FILE + ".tmp");
+        Files.writeString(temporary, epoch);
+        Files.move(temporary, epochFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void roll(long firstSequence) {
+        try {
+            segment.close();
+            segment = JournalSegment.open(directory, firstSequence, segmentSize);
+            log.debug("Started ledger journal segment {}", segment.path());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start a ledger journal segment", e);
+        }
+    }
+
+    private void force() {
+        JournalSegment current;
+        lock.lock();
+        try {
+            current = segment;
+        } finally {
+            lock.unlock();
+        }
+        current.force();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().collect(Collectors.toList());
+        }
+    }
+}
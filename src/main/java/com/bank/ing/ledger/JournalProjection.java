@@ -0,0 +1,18 @@
+package com.bank.ing.ledger;
+
+/**
+ * Database projection of the ledger journal. It records the journal sequence of the entries it has written, so that
+ * a restart can hand it the journaled entries it never wrote.
+ */
+public interface JournalProjection {
+
+    /**
+     * Projects a journaled entry. Entries are handed over in journal sequence order.
+     */
+    void project(LedgerEntry entry, long sequence);
+
+    /**
+     * Journal sequence up to which every entry is written, 0 when none is.
+     */
+    long projectedSequence();
+}
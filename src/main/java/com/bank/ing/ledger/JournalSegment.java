@@ -0,0 +1,117 @@
+package com.bank.ing.ledger;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Journal file of a fixed size mapped in memory. Records are appended sequentially from the start, the unused tail of
+ * the file stays zero-filled. The segment name holds the sequence of its first record, so segments sort in journal
+ * order and a replay can skip the segments entirely covered by a snapshot.
+ */
+final class JournalSegment implements AutoCloseable {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path path;
+    private final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps the segment starting at {@code firstSequence}, creating it with {@code size} bytes when it does not exist.
+     */
+    static JournalSegment open(Path directory, long firstSequence, int size) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        return new JournalSegment(path, firstSequence, channel, buffer);
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Hands the records after {@code afterSequence} to {@code consumer} in order and leaves the position after the
+     * last valid record. Returns the sequence of that record, or {@code firstSequence - 1} for an empty segment.
+     * Sequences are contiguous: a valid record after a gap was written before a crash that lost the gap, it is
+     * dropped along with everything after it.
+     */
+    long scan(long afterSequence, ObjLongConsumer<LedgerEntry> consumer) {
+        buffer.position(0);
+        long lastSequence = firstSequence - 1;
+        int size;
+        while ((size = JournalCodec.validRecordSize(buffer)) > 0 && JournalCodec.sequenceAt(buffer) == lastSequence + 1) {
+            int next = buffer.position() + size;
+            lastSequence++;
+            if (lastSequence > afterSequence) {
+                consumer.accept(JournalCodec.decode(buffer), lastSequence);
+            }
+            buffer.position(next);
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Appends the record of {@code entry}, false when the segment has no room left for it.
+     */
+    boolean append(long sequence, LedgerEntry entry) {
+        if (buffer.remaining() < JournalCodec.MAX_RECORD_SIZE) {
+            return false;
+        }
+        JournalCodec.encode(buffer, sequence, entry);
+        return true;
+    }
+
+    /**
+     * Zeroes what a crash left after the last valid record, so that the records appended from now on are followed by
+     * the end marker. Only the dirty bytes are written, a clean tail is just read.
+     */
+    void truncateTail() {
+        int position = buffer.position();
+        while (position < buffer.limit()) {
+            if (position % Long.BYTES == 0 && position + Long.BYTES <= buffer.limit() && buffer.getLong(position) == 0) {
+                position += Long.BYTES;
+            } else {
+                buffer.put(position++, (byte) 0);
+            }
+        }
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,181 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Balances of every journaled account after the record {@code sequence}, with the transfers whose sender was debited
+ * but whose receiver was not credited yet at that point. A snapshot is written to a temporary file,
+ * synced, then atomically renamed, so a crash leaves either the previous snapshot or the new one. The previous
+ * snapshot is kept as a fallback when the latest cannot be read.
+ */
+@Log4j2
+final class JournalSnapshot {
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snapshot";
+    /**
+     * "LSN2": balances are longs of minor units since the second version of the format.
+     */
+    private static final int MAGIC_V2 = 0x4c534e32;
+    /**
+     * "LSN3": the pending transfers follow the balances.
+     */
+    private static final int MAGIC = 0x4c534e33;
+    private static final int RETAINED_SNAPSHOTS = 2;
+
+    private final long sequence;
+    private final Map<Long, Money> balances;
+    private final Map<Long, Operation> pendingTransfers;
+
+    private JournalSnapshot(long sequence, Map<Long, Money> balances, Map<Long, Operation> pendingTransfers) {
+        this.sequence = sequence;
+        this.balances = balances;
+        this.pendingTransfers = pendingTransfers;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    Map<Long, Money> balances() {
+        return balances;
+    }
+
+    /**
+     * Pending transfers by operation id.
+     */
+    Map<Long, Operation> pendingTransfers() {
+        return pendingTransfers;
+    }
+
+    static void write(Path directory, long sequence, Map<Long, Money> balances,
+                      Map<Long, Operation> pendingTransfers) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc)));
+            output.writeInt(MAGIC);
+            output.writeLong(sequence);
+            output.writeInt(balances.size());
+            for (Map.Entry<Long, Money> balance : balances.entrySet()) {
+                output.writeLong(balance.getKey());
+                output.writeLong(balance.getValue().minorUnits());
+            }
+            output.writeInt(pendingTransfers.size());
+            for (Operation transfer : pendingTransfers.values()) {
+                output.writeLong(transfer.getId());
+                output.writeLong(transfer.getSenderAccount().getId());
+                output.writeLong(transfer.getReceiverAccount().getId());
+                output.writeLong(transfer.getValue().minorUnits());
+                output.writeLong(transfer.getOperationDateTime().toEpochSecond(ZoneOffset.UTC));
+                output.writeInt(transfer.getOperationDateTime().getNano());
+            }
+            output.flush();
+            output.writeLong(crc.getValue());
+            output.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        List<Path> snapshots = list(directory);
+        for (Path previous : snapshots.subList(Math.min(RETAINED_SNAPSHOTS, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(previous);
+        }
+    }
+
+    /**
+     * Latest readable snapshot of the directory, empty when there is none.
+     */
+    static Optional<JournalSnapshot> loadLatest(Path directory) throws IOException {
+        for (Path path : list(directory)) {
+            try {
+                return Optional.of(read(path));
+            } catch (IOException e) {
+                log.warn("Skipping unreadable ledger snapshot {} - {}", path, e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static JournalSnapshot read(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream input = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path)), crc))) {
+            int magic = input.readInt();
+            if (magic != MAGIC && magic != MAGIC_V2) {
+                throw new IOException("not a ledger snapshot");
+            }
+            long sequence = input.readLong();
+            int count = input.readInt();
+            if (count < 0) {
+                throw new IOException("corrupted balance count");
+            }
+            Map<Long, Money> balances = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                long accountId = input.readLong();
+                balances.put(accountId, Money.ofMinorUnits(input.readLong()));
+            }
+            Map<Long, Operation> pendingTransfers = new HashMap<>();
+            int pending = magic == MAGIC ? input.readInt() : 0;
+            if (pending < 0) {
+                throw new IOException("corrupted pending transfer count");
+            }
+            for (int i = 0; i < pending; i++) {
+                long operationId = input.readLong();
+                long senderAccountId = input.readLong();
+                long receiverAccountId = input.readLong();
+                Money value = Money.ofMinorUnits(input.readLong());
+                LocalDateTime operationDateTime = LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(),
+                        ZoneOffset.UTC);
+                pendingTransfers.put(operationId, JournalCodec.operation(operationId, OperationType.TRANSFER,
+                        senderAccountId, receiverAccountId, value, operationDateTime));
+            }
+            long expected = crc.getValue();
+            if (input.readLong() != expected) {
+                throw new IOException("checksum mismatch");
+            }
+            return new JournalSnapshot(sequence, balances, pendingTransfers);
+        }
+    }
+
+    /**
+     * Snapshots of the directory, latest first.
+     */
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.exception.InsufficientBalanceException;
+import com.bank.ing.exception.LedgerUnavailableException;
+import com.bank.ing.exception.TransferNotAllowedException;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import static com.bank.ing.configuration.Constants.INSUFFICIENT_BALANCE_ERROR;
+import static com.bank.ing.exception.Utils.throwsOnCondition;
+
+/**
+ * In-memory ledger where account balances are partitioned by id into single-writer shards.
+ * <p>
+ * A command is applied by the shard owning its account, the resulting {@link LedgerEntry} is handed to a
+ * {@link LedgerSink} which persists it asynchronously. A transfer between two shards first checks the receiver
+ * exists, then debits the sender on its shard and finally credits the receiver on its shard: credits cannot fail,
+ * so the transfer always completes once the debit is accepted. The debit entry carries the transfer, a sink that
+ * recovers a debit without its credit hands the transfer back to {@link #completeTransfers}.
+ */
+@Log4j2
+public class LedgerEngine implements AutoCloseable {
+
+    private final LedgerShard[] shards;
+    private final LongSupplier operationIds;
+    private final Duration commandTimeout;
+    private final AtomicLong inFlight = new AtomicLong();
+    private volatile boolean open = true;
+
+    public LedgerEngine(int shardCount, int shardQueueCapacity, Duration commandTimeout,
+                        BalanceLoader balanceLoader, LedgerSink sink, LongSupplier operationIds) {
+        this.shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, shardQueueCapacity, balanceLoader, sink);
+        }
+        this.operationIds = operationIds;
+        this.commandTimeout = commandTimeout;
+    }
+
+    public Operation deposit(long accountId, Money value) {
+        return await(depositAsync(accountId, value));
+    }
+
+    public Operation withdraw(long accountId, Money value) {
+        return await(withdrawAsync(accountId, value));
+    }
+
+    public Operation transfer(long senderAccountId, long receiverAccountId, Money value) {
+        return await(transferAsync(senderAccountId, receiverAccountId, value));
+    }
+
+    public Money balance(long accountId) {
+        return await(track(command -> shardOf(accountId).submit(shard -> shard.balanceOf(accountId))));
+    }
+
+    public CompletableFuture<Operation> depositAsync(long accountId, Money value) {
+        return track(command -> shardOf(accountId).submit(shard -> {
+            command.start();
+            Money balance = shard.balanceOf(accountId).plus(value);
+            Operation operation = newOperation(OperationType.DEPOSIT, null, accountId, value);
+            shard.apply(accountId, balance, operation);
+            return operation;
+        }));
+    }
+
+    public CompletableFuture<Operation> withdrawAsync(long accountId, Money value) {
+        return track(command -> shardOf(accountId).submit(shard -> {
+            command.start();
+            Money balance = shard.balanceOf(accountId);
+            throwsOnCondition(balance.isLessThan(value),
+                    InsufficientBalanceException::new,
+                    INSUFFICIENT_BALANCE_ERROR, accountId);
+            Operation operation = newOperation(OperationType.WITHDRAW, accountId, accountId, value);
+            shard.apply(accountId, balance.minus(value), operation);
+            return operation;
+        }));
+    }
+
+    public CompletableFuture<Operation> transferAsync(long senderAccountId, long receiverAccountId, Money value) {
+        LedgerShard senderShard = shardOf(senderAccountId);
+        LedgerShard receiverShard = shardOf(receiverAccountId);
+        if (senderShard == receiverShard) {
+            return track(command -> senderShard.submit(shard -> {
+                command.start();
+                Money senderBalance = debitableBalance(shard, senderAccountId, receiverAccountId, value);
+                Money receiverBalance = shard.balanceOf(receiverAccountId).plus(value);
+                Operation operation = newOperation(OperationType.TRANSFER, senderAccountId, receiverAccountId, value);
+                shard.applyTransferDebit(senderAccountId, senderBalance.minus(value), operation);
+                shard.apply(receiverAccountId, receiverBalance, operation);
+                return operation;
+            }));
+        }
+        return track(command -> receiverShard.submit(shard -> shard.balanceOf(receiverAccountId))
+                .thenCompose(receiverBalance -> senderShard.submitContinuation(shard -> {
+                    command.start();
+                    Money senderBalance = debitableBalance(shard, senderAccountId, receiverAccountId, value);
+                    Operation operation = newOperation(OperationType.TRANSFER, senderAccountId, receiverAccountId, value);
+                    shard.applyTransferDebit(senderAccountId, senderBalance.minus(value), operation);
+                    return operation;
+                }))
+                .thenCompose(operation -> receiverShard.submitContinuation(shard -> credit(shard, operation))));
+    }
+
+    /**
+     * Credits the receivers of transfers whose sender was debited before a crash, so that no debited amount is lost.
+     */
+    public void completeTransfers(Collection<Operation> transfers) {
+        for (Operation transfer : transfers) {
+            await(track(command -> shardOf(transfer.getReceiverAccount().getId())
+                    .submitContinuation(shard -> {
+                        command.start();
+                        return credit(shard, transfer);
+                    })));
+        }
+        if (!transfers.isEmpty()) {
+            log.warn("Completed {} transfers debited before the ledger stopped", transfers.size());
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Stops accepting commands, waits for the in-flight ones (including the credit half of transfers) to complete,
+     * then stops the shard writers.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        open = false;
+        long deadline = System.nanoTime() + commandTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        for (LedgerShard shard : shards) {
+            shard.close();
+        }
+        log.info("Ledger engine stopped with {} commands still in flight", inFlight.get());
+    }
+
+    private Money debitableBalance(LedgerShard shard, long senderAccountId, long receiverAccountId, Money value) {
+        Money senderBalance = shard.balanceOf(senderAccountId);
+        throwsOnCondition(senderBalance.isLessThan(value),
+                InsufficientBalanceException::new,
+                INSUFFICIENT_BALANCE_ERROR, senderAccountId);
+        throwsOnCondition(senderAccountId == receiverAccountId, TransferNotAllowedException::new);
+        return senderBalance;
+    }
+
+    private static Operation credit(LedgerShard shard, Operation transfer) {
+        long receiverAccountId = transfer.getReceiverAccount().getId();
+        shard.apply(receiverAccountId, shard.balanceOf(receiverAccountId).plus(transfer.getValue()), transfer);
+        return transfer;
+    }
+
+    private Operation newOperation(OperationType type, Long senderAccountId, long receiverAccountId, Money value) {
+        return Operation.builder()
+                .id(operationIds.getAsLong())
+                .type(type.name())
+                .senderAccount(senderAccountId == null ? null : Account.builder().id(senderAccountId).build())
+                .receiverAccount(Account.builder().id(receiverAccountId).build())
+                .value(value)
+                .operationDateTime(LocalDateTime.now())
+                .build();
+    }
+
+    private LedgerShard shardOf(long accountId) {
+        return shards[(int) Math.floorMod(accountId, (long) shards.length)];
+    }
+
+    private <T> CompletableFuture<T> track(Function<LedgerCommand<T>, CompletableFuture<T>> steps) {
+        inFlight.incrementAndGet();
+        if (!open) {
+            inFlight.decrementAndGet();
+            return CompletableFuture.failedFuture(new LedgerUnavailableException());
+        }
+        LedgerCommand<T> command = new LedgerCommand<>();
+        steps.apply(command).whenComplete((value, error) -> {
+            inFlight.decrementAndGet();
+            if (error == null) {
+                command.complete(value);
+            } else {
+                command.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+        return command;
+    }
+
+    /**
+     * Waits for a command returned by one of the asynchronous methods, with the same timeout and failures as the
+     * synchronous methods. A command still waiting for its shard when the timeout expires is cancelled and fails
+     * with {@link LedgerUnavailableException}; one that already started changing balances is waited for, so that a
+     * failure is never reported for a command that applies.
+     */
+    public <T> T await(CompletableFuture<T> command) {
+        try {
+            return command.get(commandTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (cancel(command)) {
+                throw new LedgerUnavailableException();
+            }
+            return awaitStarted(command);
+        } catch (TimeoutException e) {
+            if (cancel(command)) {
+                log.error("Ledger command not applied within {}, cancelled", commandTimeout);
+                throw new LedgerUnavailableException();
+            }
+            log.warn("Ledger command started but not completed within {}, waiting for it", commandTimeout);
+            return awaitStarted(command);
+        }
+    }
+
+    private static boolean cancel(CompletableFuture<?> command) {
+        return !(command instanceof LedgerCommand) || ((LedgerCommand<?>) command).cancelIfPending();
+    }
+
+    private static <T> T awaitStarted(CompletableFuture<T> command) {
+        try {
+            return command.join();
+        } catch (CompletionException e) {
+            throw failure(e);
+        }
+    }
+
+    private static RuntimeException failure(Exception e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    /**
+     * Result of a command, which can be cancelled until the shard starts changing balances for it: the step that
+     * changes balances calls {@link #start()} first and fails without changing anything once the command is
+     * cancelled, {@link #cancelIfPending()} succeeds only as long as that step has not started.
+     */
+    private static final class LedgerCommand<T> extends CompletableFuture<T> {
+
+        private static final int PENDING = 0;
+        private static final int STARTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        void start() {
+            if (!state.compareAndSet(PENDING, STARTED)) {
+                throw new LedgerUnavailableException();
+            }
+        }
+
+        boolean cancelIfPending() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+    }
+}
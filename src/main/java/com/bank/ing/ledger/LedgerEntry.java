@@ -0,0 +1,35 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * New balance of an account after a command was applied, with the operation to record when the command completed.
+ */
+@Value
+@AllArgsConstructor
+public class LedgerEntry {
+
+    long accountId;
+    Money balance;
+    Operation operation;
+
+    /**
+     * True for the debit of the sender of a transfer: {@code operation} is then the transfer, completed by the credit
+     * entry of the receiver. A debit without its credit is a transfer still to be completed.
+     */
+    boolean transferDebit;
+
+    public LedgerEntry(long accountId, Money balance, Operation operation) {
+        this(accountId, balance, operation, false);
+    }
+
+    /**
+     * Operation to record with this entry, null for entries completing none.
+     */
+    public Operation completedOperation() {
+        return transferDebit ? null : operation;
+    }
+}
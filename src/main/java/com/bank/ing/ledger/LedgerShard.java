@@ -0,0 +1,170 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Operation;
+import com.bank.ing.exception.AccountNotFoundException;
+import com.bank.ing.exception.LedgerUnavailableException;
+import com.bank.ing.money.Money;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import static com.bank.ing.configuration.Constants.ACCOUNT_NOT_FOUND_ERROR;
+
+/**
+ * Owns the balances of a subset of accounts. Every command touching those balances runs on the shard writer thread,
+ * so the balances map is never accessed concurrently and needs no locking.
+ * <p>
+ * Enqueueing and {@link #close()} are ordered by a read-write lock, so no command lands behind the poison pill: a
+ * command is either run by the writer or refused with {@link LedgerUnavailableException}.
+ */
+@Log4j2
+final class LedgerShard {
+
+    private static final Command<Void> POISON_PILL = new Command<>(shard -> null);
+
+    private final BlockingQueue<Command<?>> commands = new LinkedBlockingQueue<>();
+    private final ReentrantReadWriteLock closing = new ReentrantReadWriteLock();
+    private final Map<Long, Money> balances = new HashMap<>();
+    private final Semaphore capacity;
+    private final BalanceLoader balanceLoader;
+    private final LedgerSink sink;
+    private final Thread writer;
+    private volatile boolean accepting = true;
+
+    LedgerShard(int index, int queueCapacity, BalanceLoader balanceLoader, LedgerSink sink) {
+        this.capacity = new Semaphore(queueCapacity);
+        this.balanceLoader = balanceLoader;
+        this.sink = sink;
+        this.writer = new Thread(this::run, "ledger-shard-" + index);
+        this.writer.start();
+    }
+
+    /**
+     * Submits a command from a request thread, blocking while the shard is saturated.
+     */
+    <T> CompletableFuture<T> submit(Function<LedgerShard, T> command) {
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new LedgerUnavailableException());
+        }
+        CompletableFuture<T> result = enqueue(command);
+        result.whenComplete((value, error) -> capacity.release());
+        return result;
+    }
+
+    /**
+     * Submits the continuation of a command already admitted by another shard. It never blocks, so two shards
+     * handing work to each other cannot deadlock on full queues.
+     */
+    <T> CompletableFuture<T> submitContinuation(Function<LedgerShard, T> command) {
+        return enqueue(command);
+    }
+
+    /**
+     * Balance of an account owned by this shard, loaded on first access. Writer thread only.
+     */
+    Money balanceOf(long accountId) {
+        Money balance = balances.get(accountId);
+        if (balance == null) {
+            balance = balanceLoader.load(accountId).orElseThrow(() -> {
+                log.error(ACCOUNT_NOT_FOUND_ERROR, accountId);
+                throw new AccountNotFoundException();
+            });
+            balances.put(accountId, balance);
+        }
+        return balance;
+    }
+
+    /**
+     * Records the new balance of an account and hands it to the sink. Writer thread only.
+     */
+    void apply(long accountId, Money balance, Operation operation) {
+        balances.put(accountId, balance);
+        sink.append(new LedgerEntry(accountId, balance, operation));
+    }
+
+    /**
+     * Records the debited balance of the sender of {@code transfer}, which the credit of the receiver completes.
+     * Writer thread only.
+     */
+    void applyTransferDebit(long accountId, Money balance, Operation transfer) {
+        balances.put(accountId, balance);
+        sink.append(new LedgerEntry(accountId, balance, transfer, true));
+    }
+
+    /**
+     * Stops accepting commands and stops the writer once it has run the ones already queued. Commands an interrupted
+     * writer left behind are failed rather than left pending forever.
+     */
+    void close() throws InterruptedException {
+        closing.writeLock().lock();
+        try {
+            accepting = false;
+            commands.add(POISON_PILL);
+        } finally {
+            closing.writeLock().unlock();
+        }
+        writer.join();
+        Command<?> left;
+        while ((left = commands.poll()) != null) {
+            left.fail(new LedgerUnavailableException());
+        }
+    }
+
+    private <T> CompletableFuture<T> enqueue(Function<LedgerShard, T> function) {
+        closing.readLock().lock();
+        try {
+            if (!accepting) {
+                return CompletableFuture.failedFuture(new LedgerUnavailableException());
+            }
+            Command<T> command = new Command<>(function);
+            commands.add(command);
+            return command.result;
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    private void run() {
+        try {
+            Command<?> command;
+            while ((command = commands.take()) != POISON_PILL) {
+                command.run(this);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Ledger shard {} stopped", writer.getName());
+    }
+
+    private static final class Command<T> {
+
+        private final Function<LedgerShard, T> function;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Command(Function<LedgerShard, T> function) {
+            this.function = function;
+        }
+
+        void run(LedgerShard shard) {
+            try {
+                result.complete(function.apply(shard));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        void fail(RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
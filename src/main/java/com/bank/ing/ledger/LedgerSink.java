@@ -0,0 +1,10 @@
+package com.bank.ing.ledger;
+
+/**
+ * Asynchronous persistence target of the ledger engine.
+ * Entries of a given account are appended in the order its shard applied them.
+ */
+public interface LedgerSink {
+
+    void append(LedgerEntry entry);
+}
@@ -0,0 +1,36 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Operation;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Operations of an asynchronous writer between their acceptance and their write, ordered by date-time.
+ */
+public final class PendingOperationTracker implements PendingOperations {
+
+    private final NavigableSet<Operation> operations = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Operation::getOperationDateTime).thenComparing(Operation::getId));
+
+    public void add(Operation operation) {
+        operations.add(operation);
+    }
+
+    public void remove(Operation operation) {
+        operations.remove(operation);
+    }
+
+    public void removeAll(Collection<Operation> written) {
+        written.forEach(this::remove);
+    }
+
+    @Override
+    public Optional<LocalDateTime> oldestPendingOperationDateTime() {
+        return operations.stream().findFirst().map(Operation::getOperationDateTime);
+    }
+}
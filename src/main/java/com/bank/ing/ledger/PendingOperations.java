@@ -0,0 +1,16 @@
+package com.bank.ing.ledger;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Asynchronous writer of {@code operation} rows, which holds operations whose balance change is already visible but
+ * whose row is not written yet.
+ */
+public interface PendingOperations {
+
+    /**
+     * Date-time of the oldest operation accepted and not written yet, empty when every accepted operation is written.
+     */
+    Optional<LocalDateTime> oldestPendingOperationDateTime();
+}
@@ -0,0 +1,113 @@
+package com.bank.ing.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Amount of money held as a primitive {@code long} of minor units (cents). Amounts are validated to at most 12
+ * integer and 2 fraction digits, well within the range of a long: balance arithmetic is plain long arithmetic, it
+ * still fails with an {@link ArithmeticException} on overflow instead of wrapping around.
+ * <p>
+ * Stored in {@code BIGINT} columns by {@link MoneyConverter}, written to JSON as a decimal number with two fraction
+ * digits.
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long MINOR_UNITS_PER_UNIT = 100;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Exact conversion of a decimal amount, throws an {@link ArithmeticException} when it has more than
+     * {@value #SCALE} fraction digits or does not fit in a long of minor units.
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinorUnits(amount.movePointRight(SCALE).longValueExact());
+    }
+
+    /**
+     * Exact conversion of a decimal string such as {@code "12.5"}, see {@link #of(BigDecimal)}.
+     */
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinorUnits(Math.negateExact(minorUnits));
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof Money && minorUnits == ((Money) other).minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * Plain decimal notation with {@value #SCALE} fraction digits, {@code -12.05} for -1205 minor units.
+     */
+    @Override
+    public String toString() {
+        long units = Math.abs(minorUnits / MINOR_UNITS_PER_UNIT);
+        long cents = Math.abs(minorUnits % MINOR_UNITS_PER_UNIT);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(units).append('.');
+        if (cents < 10) {
+            text.append('0');
+        }
+        return text.append(cents).toString();
+    }
+}
@@ -0,0 +1,42 @@
+package com.bank.ing.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Reads a {@link Money} from a JSON number, or a string holding one. Amounts with more than two fraction digits are
+ * rejected rather than rounded.
+ */
+public class MoneyJsonDeserializer extends StdScalarDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        BigDecimal amount;
+        if (parser.hasToken(JsonToken.VALUE_NUMBER_INT) || parser.hasToken(JsonToken.VALUE_NUMBER_FLOAT)) {
+            amount = parser.getDecimalValue();
+        } else if (parser.hasToken(JsonToken.VALUE_STRING)) {
+            try {
+                amount = new BigDecimal(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), "not a decimal amount");
+            }
+        } else {
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+        try {
+            return Money.of(amount);
+        } catch (ArithmeticException e) {
+            return (Money) context.handleWeirdNumberValue(Money.class, amount,
+                    "more than %d fraction digits or out of range", Money.SCALE);
+        }
+    }
+}
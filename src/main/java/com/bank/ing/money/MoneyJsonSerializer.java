@@ -0,0 +1,23 @@
+package com.bank.ing.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link Money} as a JSON number with two fraction digits, {@code 12.50}, without going through a
+ * {@code BigDecimal}.
+ */
+public class MoneyJsonSerializer extends StdSerializer<Money> {
+
+    public MoneyJsonSerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeNumber(value.toString());
+    }
+}
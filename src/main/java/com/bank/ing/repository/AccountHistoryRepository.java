@@ -0,0 +1,30 @@
+package com.bank.ing.repository;
+
+import com.bank.ing.entity.AccountHistoryEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccountHistoryRepository extends JpaRepository<AccountHistoryEntry, AccountHistoryEntry.Key> {
+
+    String HISTORY_ORDER = " ORDER BY history_account_id, history_seq DESC LIMIT :limit";
+
+    /**
+     * First page of an account history in the read model, most recent first.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM account_history WHERE history_account_id = :accountId"
+            + HISTORY_ORDER)
+    List<AccountHistoryEntry> findHistory(@Param("accountId") long accountId, @Param("limit") int limit);
+
+    /**
+     * Page of an account history in the read model, made of the entries numbered below {@code seq}.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM account_history WHERE history_account_id = :accountId "
+            + "AND history_seq < :seq" + HISTORY_ORDER)
+    List<AccountHistoryEntry> findHistoryBefore(@Param("accountId") long accountId, @Param("seq") long seq,
+                                                @Param("limit") int limit);
+}
@@ -1,9 +1,37 @@
 package com.bank.ing.repository;
 
 import com.bank.ing.entity.Account;
+import com.bank.ing.money.Money;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") long id);
+
+    /**
+     * Adds to the balance in a single statement, returns 0 when the account does not exist.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :value, a.version = a.version + 1 where a.id = :id")
+    int credit(@Param("id") long id, @Param("value") Money value);
+
+    /**
+     * Subtracts from the balance in a single statement when it covers the value,
+     * returns 0 when the account does not exist or its balance is insufficient.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :value, a.version = a.version + 1 " +
+            "where a.id = :id and a.balance >= :value")
+    int debit(@Param("id") long id, @Param("value") Money value);
 }
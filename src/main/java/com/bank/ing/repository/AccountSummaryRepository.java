@@ -0,0 +1,20 @@
+package com.bank.ing.repository;
+
+import com.bank.ing.entity.AccountSummary;
+import com.bank.ing.money.Money;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AccountSummaryRepository extends JpaRepository<AccountSummary, Long> {
+
+    /**
+     * Read model balance of the account, empty until its opening is projected.
+     */
+    @Query("select s.balance from AccountSummary s where s.accountId = :accountId")
+    Optional<Money> findBalance(@Param("accountId") long accountId);
+}
@@ -0,0 +1,28 @@
+package com.bank.ing.repository;
+
+import com.bank.ing.entity.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, BalanceCheckpoint.Key> {
+
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndCheckpointDateTimeLessThanEqualOrderByCheckpointDateTimeDesc(
+            long accountId, LocalDateTime dateTime);
+
+    /**
+     * Upper bound of the last checkpoint run that found operations, the next run starts from there.
+     */
+    @Query("select max(c.checkpointDateTime) from BalanceCheckpoint c")
+    Optional<LocalDateTime> findLastCheckpointDateTime();
+
+    @Modifying
+    @Query(nativeQuery = true, value = OperationHistoryQueries.WRITE_CHECKPOINTS)
+    int writeCheckpoints(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
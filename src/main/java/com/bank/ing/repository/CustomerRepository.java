@@ -1,9 +1,41 @@
 package com.bank.ing.repository;
 
+import com.bank.ing.dto.CustomerDTO;
 import com.bank.ing.entity.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    /**
+     * Customers with an id above {@code after}, in id order, as many as the page size of {@code page}: a range
+     * scan of the primary key that only reads the listed columns, no entity is managed and no count is run. Pages
+     * are kept in the customer query cache region.
+     */
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Customer.QUERY_CACHE_REGION)})
+    @Query("SELECT new com.bank.ing.dto.CustomerDTO(c.id, c.name) FROM Customer c WHERE c.id > :after ORDER BY c.id")
+    List<CustomerDTO> findPageAfter(@Param("after") long after, Pageable page);
+
+    /**
+     * Every customer in id order as a forward-only cursor, the stream must be consumed and closed inside a
+     * transaction.
+     */
+    @Query("SELECT new com.bank.ing.dto.CustomerDTO(c.id, c.name) FROM Customer c ORDER BY c.id")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<CustomerDTO> streamAll();
 }
@@ -0,0 +1,9 @@
+package com.bank.ing.repository;
+
+import com.bank.ing.entity.JournalEpoch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalEpochRepository extends JpaRepository<JournalEpoch, String> {
+}
@@ -0,0 +1,43 @@
+package com.bank.ing.repository;
+
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+
+import javax.persistence.ColumnResult;
+import javax.persistence.ConstructorResult;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.NamedNativeQueries;
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.SqlResultSetMapping;
+import java.time.LocalDateTime;
+
+/**
+ * Named native history queries and their constructor result set mapping. JPA only reads these annotations on
+ * managed types, this mapped superclass carries them so that the entity does not depend on the DTOs it is read as.
+ */
+@MappedSuperclass
+@NamedNativeQueries({
+        @NamedNativeQuery(name = OperationHistoryMappings.FIND_HISTORY, query = OperationHistoryQueries.HISTORY_PAGE,
+                resultSetMapping = OperationHistoryMappings.HISTORY_DTO_MAPPING),
+        @NamedNativeQuery(name = OperationHistoryMappings.FIND_HISTORY_AFTER,
+                query = OperationHistoryQueries.HISTORY_PAGE_AFTER,
+                resultSetMapping = OperationHistoryMappings.HISTORY_DTO_MAPPING),
+        @NamedNativeQuery(name = OperationHistoryMappings.STREAM_HISTORY, query = OperationHistoryQueries.HISTORY_EXPORT,
+                resultSetMapping = OperationHistoryMappings.HISTORY_DTO_MAPPING)
+})
+@SqlResultSetMapping(name = OperationHistoryMappings.HISTORY_DTO_MAPPING, classes = @ConstructorResult(
+        targetClass = ResponseDepositWithdrawTransferDTO.class,
+        columns = {
+                @ColumnResult(name = "operation_id", type = Long.class),
+                @ColumnResult(name = "operation_type", type = String.class),
+                @ColumnResult(name = "operation_id_sender", type = Long.class),
+                @ColumnResult(name = "operation_id_receiver", type = Long.class),
+                @ColumnResult(name = "operation_value", type = Long.class),
+                @ColumnResult(name = "operation_date_time", type = LocalDateTime.class)
+        }))
+abstract class OperationHistoryMappings {
+
+    static final String HISTORY_DTO_MAPPING = "Operation.historyDTO";
+    static final String FIND_HISTORY = "Operation.findHistory";
+    static final String FIND_HISTORY_AFTER = "Operation.findHistoryAfter";
+    static final String STREAM_HISTORY = "Operation.streamHistory";
+}
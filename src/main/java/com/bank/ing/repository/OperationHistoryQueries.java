@@ -0,0 +1,90 @@
+package com.bank.ing.repository;
+
+/**
+ * Native account history queries. An {@code OR} over the sender and receiver columns cannot be answered from one
+ * index, so the history is the {@code UNION ALL} of a sender branch and a receiver branch: each branch reads its
+ * {@code (account, operation_date_time, operation_id)} index in order and stops after {@code :limit} rows, only the
+ * two short branches are merged. The receiver branch skips the operations the account also sent (withdrawals), they
+ * are already returned by the sender branch.
+ */
+public final class OperationHistoryQueries {
+
+    public static final String HISTORY_ORDER = " ORDER BY operation_date_time DESC, operation_id DESC";
+
+    public static final String HISTORY_COLUMNS = "operation_id, operation_type, operation_id_sender, "
+            + "operation_id_receiver, operation_value, operation_date_time";
+
+    private static final String SENDER_BRANCH = "SELECT " + HISTORY_COLUMNS + " FROM operation "
+            + "WHERE operation_id_sender = :accountId";
+
+    private static final String RECEIVER_BRANCH = "SELECT " + HISTORY_COLUMNS + " FROM operation "
+            + "WHERE operation_id_receiver = :accountId "
+            + "AND (operation_id_sender IS NULL OR operation_id_sender <> :accountId)";
+
+    /**
+     * Operations strictly older than the {@code (:operationDateTime, :operationId)} cursor, the first bound lets the
+     * index be range-scanned from the cursor position.
+     */
+    private static final String AFTER_CURSOR = " AND operation_date_time <= :operationDateTime "
+            + "AND (operation_date_time < :operationDateTime OR operation_id < :operationId)";
+
+    /**
+     * Branch orders start with the constant account column: the order is then exactly the index order and H2 reads
+     * the index instead of sorting every row of the account.
+     */
+    private static final String SENDER_BRANCH_ORDER = " ORDER BY operation_id_sender, operation_date_time DESC, operation_id DESC";
+
+    private static final String RECEIVER_BRANCH_ORDER = " ORDER BY operation_id_receiver, operation_date_time DESC, operation_id DESC";
+
+    private static final String LIMIT = " LIMIT :limit";
+
+    public static final String HISTORY_PAGE = "SELECT " + HISTORY_COLUMNS + " FROM ("
+            + "(" + SENDER_BRANCH + SENDER_BRANCH_ORDER + LIMIT + ") UNION ALL "
+            + "(" + RECEIVER_BRANCH + RECEIVER_BRANCH_ORDER + LIMIT + ")) history"
+            + HISTORY_ORDER + LIMIT;
+
+    public static final String HISTORY_PAGE_AFTER = "SELECT " + HISTORY_COLUMNS + " FROM ("
+            + "(" + SENDER_BRANCH + AFTER_CURSOR + SENDER_BRANCH_ORDER + LIMIT + ") UNION ALL "
+            + "(" + RECEIVER_BRANCH + AFTER_CURSOR + RECEIVER_BRANCH_ORDER + LIMIT + ")) history"
+            + HISTORY_ORDER + LIMIT;
+
+    public static final String HISTORY_EXPORT = "SELECT " + HISTORY_COLUMNS + " FROM ("
+            + SENDER_BRANCH + " UNION ALL " + RECEIVER_BRANCH + ") history"
+            + HISTORY_ORDER;
+
+    /**
+     * Balance change of an account over the operations in {@code (:from, :to]}: each branch is a range scan of its
+     * index. Withdrawals are only counted by the sender branch.
+     */
+    public static final String BALANCE_DELTA = "SELECT "
+            + "(SELECT COALESCE(SUM(operation_value), 0) FROM operation WHERE operation_id_receiver = :accountId "
+            + "AND (operation_id_sender IS NULL OR operation_id_sender <> :accountId) "
+            + "AND operation_date_time > :from AND operation_date_time <= :to) - "
+            + "(SELECT COALESCE(SUM(operation_value), 0) FROM operation WHERE operation_id_sender = :accountId "
+            + "AND operation_date_time > :from AND operation_date_time <= :to)";
+
+    /**
+     * Writes a checkpoint at {@code :to} for every account with operations in {@code (:from, :to]}: its latest
+     * checkpoint, or its initial deposit when it has none yet, plus the balance change of the window. Accounts
+     * without operations keep their previous checkpoint.
+     */
+    public static final String WRITE_CHECKPOINTS = "INSERT INTO balance_checkpoint "
+            + "(checkpoint_account_id, checkpoint_date_time, checkpoint_balance) "
+            + "SELECT delta.account_id, :to, COALESCE(checkpoint.checkpoint_balance, account.account_initial_deposit_amount) "
+            + "+ delta.balance_delta FROM ("
+            + "SELECT account_id, SUM(balance_delta) AS balance_delta FROM ("
+            + "SELECT operation_id_receiver AS account_id, operation_value AS balance_delta FROM operation "
+            + "WHERE operation_date_time > :from AND operation_date_time <= :to "
+            + "AND (operation_id_sender IS NULL OR operation_id_sender <> operation_id_receiver) "
+            + "UNION ALL "
+            + "SELECT operation_id_sender AS account_id, -operation_value AS balance_delta FROM operation "
+            + "WHERE operation_date_time > :from AND operation_date_time <= :to AND operation_id_sender IS NOT NULL"
+            + ") operations GROUP BY account_id) delta "
+            + "JOIN account ON account.account_id = delta.account_id "
+            + "LEFT JOIN balance_checkpoint checkpoint ON checkpoint.checkpoint_account_id = delta.account_id "
+            + "AND checkpoint.checkpoint_date_time = (SELECT MAX(previous.checkpoint_date_time) "
+            + "FROM balance_checkpoint previous WHERE previous.checkpoint_account_id = delta.account_id)";
+
+    private OperationHistoryQueries() {
+    }
+}
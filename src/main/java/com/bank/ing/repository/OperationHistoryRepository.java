@@ -0,0 +1,32 @@
+package com.bank.ing.repository;
+
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Account history read straight into response DTOs by the native history queries: only the operation columns are
+ * read, no operation, account or customer entity is hydrated and nothing is added to the persistence context.
+ */
+public interface OperationHistoryRepository {
+
+    /**
+     * First page of an account history, most recent first.
+     */
+    List<ResponseDepositWithdrawTransferDTO> findHistory(long accountId, int limit);
+
+    /**
+     * Page of an account history following the operation {@code (operationDateTime, id)}: the keyset predicate
+     * replaces an offset, a deep page costs the same as the first one.
+     */
+    List<ResponseDepositWithdrawTransferDTO> findHistoryAfter(long accountId, LocalDateTime operationDateTime,
+                                                              long operationId, int limit);
+
+    /**
+     * Whole account history, most recent first, as a forward-only cursor. The stream must be consumed and closed
+     * inside a transaction.
+     */
+    Stream<ResponseDepositWithdrawTransferDTO> streamHistory(long accountId);
+}
@@ -0,0 +1,55 @@
+package com.bank.ing.repository;
+
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * Spring Data would run a DTO return type as a tuple projection, the history queries are executed here with their
+ * constructor result set mapping ({@link OperationHistoryMappings}) instead.
+ */
+class OperationHistoryRepositoryImpl implements OperationHistoryRepository {
+
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ResponseDepositWithdrawTransferDTO> findHistory(long accountId, int limit) {
+        return entityManager.createNamedQuery(OperationHistoryMappings.FIND_HISTORY)
+                .setParameter("accountId", accountId)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ResponseDepositWithdrawTransferDTO> findHistoryAfter(long accountId, LocalDateTime operationDateTime,
+                                                                     long operationId, int limit) {
+        return entityManager.createNamedQuery(OperationHistoryMappings.FIND_HISTORY_AFTER)
+                .setParameter("accountId", accountId)
+                .setParameter("operationDateTime", operationDateTime)
+                .setParameter("operationId", operationId)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<ResponseDepositWithdrawTransferDTO> streamHistory(long accountId) {
+        return entityManager.createNamedQuery(OperationHistoryMappings.STREAM_HISTORY)
+                .setParameter("accountId", accountId)
+                .setHint(HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HINT_READONLY, true)
+                .getResultStream();
+    }
+}
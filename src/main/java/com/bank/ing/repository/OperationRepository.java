@@ -2,12 +2,20 @@ package com.bank.ing.repository;
 
 import com.bank.ing.entity.Operation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
 
 @Repository
-public interface OperationRepository extends JpaRepository<Operation, Long> {
-    Optional<List<Operation>> findAllBySenderAccount_IdOrReceiverAccount_IdOrderByOperationDateTimeDesc(long senderAccountId, long receiverAccountId);
+public interface OperationRepository extends JpaRepository<Operation, Long>, OperationHistoryRepository {
+
+    /**
+     * Balance change of an account over the operations in {@code (from, to]}, in minor units.
+     */
+    @Query(nativeQuery = true, value = OperationHistoryQueries.BALANCE_DELTA)
+    long sumBalanceDelta(@Param("accountId") long accountId,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,286 @@
+package com.bank.ing.service;
+
+import com.bank.ing.configuration.AccountImportProperties;
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.dto.response.ResponseAccountImportDTO;
+import com.bank.ing.dto.response.ResponseAccountImportErrorDTO;
+import com.bank.ing.exception.ErrorCode;
+import com.bank.ing.money.Money;
+import com.bank.ing.service.readmodel.AccountOpenedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.bank.ing.configuration.Constants.IMPORT_CUSTOMER_NOT_FOUND;
+import static com.bank.ing.configuration.Constants.IMPORT_MALFORMED_RECORD;
+
+/**
+ * Creates the accounts of a CSV or NDJSON upload, read line by line from the request body. Records are parsed and
+ * validated as they are read and created in chunks of {@code bank.account-import.chunk-size}, one transaction per
+ * chunk: the customers of a chunk are resolved with one query, its account ids are taken from the sequence with one
+ * query and its accounts are inserted as one JDBC batch. A rejected line (malformed, invalid amount, unknown
+ * customer) is reported with its line number and the import goes on. Heap use depends on the chunk size, not on
+ * the size of the upload.
+ */
+@Service
+@Log4j2
+public class AccountImportService {
+
+    public enum Format {
+        /**
+         * {@code customer_id,initial_amount} per line, with an optional header line.
+         */
+        CSV,
+        /**
+         * One account creation request per line, as sent to {@code POST /v1/accounts}.
+         */
+        NDJSON
+    }
+
+    static final String CSV_HEADER = "customer_id,initial_amount";
+    static final String SELECT_CUSTOMERS_SQL = "SELECT customer_id FROM customer WHERE customer_id IN (:customerIds)";
+    static final String NEXT_ACCOUNT_IDS_SQL = "SELECT NEXT VALUE FOR hibernate_sequence FROM SYSTEM_RANGE(1, ?)";
+    static final String INSERT_ACCOUNT_SQL = "INSERT INTO account (account_id, account_id_customer, "
+            + "account_initial_deposit_amount, account_balance, account_creation_timestamp, account_version) "
+            + "VALUES (?, ?, ?, ?, ?, 0)";
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final AccountImportProperties accountImportProperties;
+
+    /**
+     * True when {@code bank.read-model.enabled=true}, the read model is then told about every imported account.
+     */
+    @Value("${bank.read-model.enabled:false}")
+    private boolean publishAccountEvents;
+
+    public AccountImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                Validator validator, ObjectMapper objectMapper,
+                                ApplicationEventPublisher applicationEventPublisher,
+                                AccountImportProperties accountImportProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(RequestCreationAccountDTO.class);
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.accountImportProperties = accountImportProperties;
+    }
+
+    /**
+     * Imports every line of the upload. Chunks created before a database failure stay created.
+     */
+    public ResponseAccountImportDTO importAccounts(InputStream upload, Format format) throws IOException {
+        long start = System.nanoTime();
+        int chunkSize = Math.max(1, accountImportProperties.getChunkSize());
+        ImportResult result = new ImportResult(accountImportProperties.getMaxReportedErrors());
+        List<AccountRecord> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(upload, StandardCharsets.UTF_8),
+                READ_BUFFER_SIZE);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || format == Format.CSV && lineNumber == 1 && isCsvHeader(line)) {
+                continue;
+            }
+            AccountRecord record = format == Format.CSV
+                    ? parseCsv(lineNumber, line, result)
+                    : parseNdjson(lineNumber, line, result);
+            if (record != null) {
+                chunk.add(record);
+            }
+            if (chunk.size() == chunkSize) {
+                createChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            createChunk(chunk, result);
+        }
+        log.info("Imported {} accounts from {} lines, {} rejected, in {} ms", result.created, lineNumber,
+                result.rejected, (System.nanoTime() - start) / 1_000_000);
+        return ResponseAccountImportDTO.builder()
+                .created(result.created)
+                .rejected(result.rejected)
+                .errors(result.errors.stream()
+                        .sorted(Comparator.comparingLong(ResponseAccountImportErrorDTO::getLine))
+                        .collect(Collectors.toList()))
+                .creationTimestamp(getCurrentTimestamp())
+                .build();
+    }
+
+    private AccountRecord parseCsv(long lineNumber, String line, ImportResult result) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 2) {
+            result.reject(lineNumber, ErrorCode.INVALID_REQUEST_ACCOUNT, IMPORT_MALFORMED_RECORD);
+            return null;
+        }
+        RequestCreationAccountDTO request;
+        try {
+            request = RequestCreationAccountDTO.builder()
+                    .customerId(Long.parseLong(fields[0].trim()))
+                    .initialDepositAmount(new BigDecimal(fields[1].trim()))
+                    .build();
+        } catch (NumberFormatException e) {
+            result.reject(lineNumber, ErrorCode.INVALID_REQUEST_ACCOUNT, IMPORT_MALFORMED_RECORD);
+            return null;
+        }
+        return validRecord(lineNumber, request, result);
+    }
+
+    private AccountRecord parseNdjson(long lineNumber, String line, ImportResult result) {
+        RequestCreationAccountDTO request;
+        try {
+            request = requestReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            result.reject(lineNumber, ErrorCode.INVALID_REQUEST_ACCOUNT, IMPORT_MALFORMED_RECORD);
+            return null;
+        }
+        // a JSON null line reads as no request at all, the other non-object lines fail to bind above
+        if (request == null) {
+            result.reject(lineNumber, ErrorCode.INVALID_REQUEST_ACCOUNT, IMPORT_MALFORMED_RECORD);
+            return null;
+        }
+        return validRecord(lineNumber, request, result);
+    }
+
+    /**
+     * Applies the validation of {@code POST /v1/accounts} to the record.
+     */
+    private AccountRecord validRecord(long lineNumber, RequestCreationAccountDTO request, ImportResult result) {
+        Set<ConstraintViolation<RequestCreationAccountDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            result.reject(lineNumber, ErrorCode.INVALID_REQUEST_ACCOUNT, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return new AccountRecord(lineNumber, request.getCustomerId(), Money.of(request.getInitialDepositAmount()));
+    }
+
+    private void createChunk(List<AccountRecord> chunk, ImportResult result) {
+        LocalDateTime creationTimestamp = getCurrentTimestamp();
+        int created = transactionTemplate.execute(status -> {
+            Set<Long> customerIds = existingCustomers(chunk);
+            List<AccountRecord> accepted = new ArrayList<>(chunk.size());
+            for (AccountRecord record : chunk) {
+                if (customerIds.contains(record.customerId)) {
+                    accepted.add(record);
+                } else {
+                    result.reject(record.lineNumber, ErrorCode.CUSTOMER_NOT_FOUND, IMPORT_CUSTOMER_NOT_FOUND);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return 0;
+            }
+            List<Long> accountIds = jdbcTemplate.queryForList(NEXT_ACCOUNT_IDS_SQL, Long.class, accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                accepted.get(i).accountId = accountIds.get(i);
+            }
+            Timestamp timestamp = Timestamp.valueOf(creationTimestamp);
+            jdbcTemplate.batchUpdate(INSERT_ACCOUNT_SQL, accepted, accepted.size(), (ps, record) -> {
+                ps.setLong(1, record.accountId);
+                ps.setLong(2, record.customerId);
+                ps.setLong(3, record.initialDepositAmount.minorUnits());
+                ps.setLong(4, record.initialDepositAmount.minorUnits());
+                ps.setTimestamp(5, timestamp);
+            });
+            if (publishAccountEvents) {
+                for (AccountRecord record : accepted) {
+                    applicationEventPublisher.publishEvent(new AccountOpenedEvent(record.accountId,
+                            record.customerId, record.initialDepositAmount, creationTimestamp));
+                }
+            }
+            return accepted.size();
+        });
+        result.created += created;
+        log.debug("Imported a chunk of {} accounts, {} created", chunk.size(), created);
+    }
+
+    private Set<Long> existingCustomers(List<AccountRecord> chunk) {
+        Set<Long> customerIds = new HashSet<>();
+        for (AccountRecord record : chunk) {
+            customerIds.add(record.customerId);
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(SELECT_CUSTOMERS_SQL,
+                Map.of("customerIds", customerIds), Long.class));
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return CSV_HEADER.equalsIgnoreCase(line.replace(" ", "").trim());
+    }
+
+    LocalDateTime getCurrentTimestamp() {
+        return LocalDateTime.now();
+    }
+
+    private static final class AccountRecord {
+
+        private final long lineNumber;
+        private final long customerId;
+        private final Money initialDepositAmount;
+        private long accountId;
+
+        private AccountRecord(long lineNumber, long customerId, Money initialDepositAmount) {
+            this.lineNumber = lineNumber;
+            this.customerId = customerId;
+            this.initialDepositAmount = initialDepositAmount;
+        }
+    }
+
+    private static final class ImportResult {
+
+        private final int maxReportedErrors;
+        private final List<ResponseAccountImportErrorDTO> errors = new ArrayList<>();
+        private long created;
+        private long rejected;
+
+        private ImportResult(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(long lineNumber, ErrorCode errorCode, String error) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(ResponseAccountImportErrorDTO.builder()
+                        .line(lineNumber)
+                        .error(error)
+                        .errorCode(errorCode)
+                        .build());
+            }
+        }
+    }
+}
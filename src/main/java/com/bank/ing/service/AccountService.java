@@ -6,18 +6,26 @@ import com.bank.ing.dto.response.ResponseAccountDTO;
 import com.bank.ing.entity.Account;
 import com.bank.ing.entity.Customer;
 import com.bank.ing.exception.*;
+import com.bank.ing.ledger.LedgerEngine;
+import com.bank.ing.money.Money;
 import com.bank.ing.repository.AccountRepository;
 import com.bank.ing.repository.CustomerRepository;
+import com.bank.ing.service.cache.AccountBalanceCache;
 import com.bank.ing.service.mapper.DtoMapper;
+import com.bank.ing.service.metrics.OperationMetrics;
+import com.bank.ing.service.readmodel.AccountOpenedEvent;
+import com.bank.ing.service.readmodel.AccountReadModel;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.validation.Valid;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
@@ -33,6 +41,33 @@ public class AccountService {
     private final AccountRepository accountRepository;
     private final CustomerRepository customerRepository;
 
+    /**
+     * Present when {@code bank.ledger.mode=engine}, the engine then holds the authoritative balances.
+     */
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    /**
+     * Present unless {@code bank.cache.balance.enabled=false}, serves balance reads outside of the engine mode.
+     */
+    @Autowired(required = false)
+    private AccountBalanceCache accountBalanceCache;
+
+    @Autowired(required = false)
+    private OperationMetrics operationMetrics;
+
+    /**
+     * Present when {@code bank.read-model.enabled=true}, serves balance reads while it is fresh enough.
+     */
+    @Autowired(required = false)
+    private AccountReadModel accountReadModel;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${bank.read-model.enabled:false}")
+    private boolean publishAccountEvents;
+
     public ResponseAccountDTO createNewAccount(@Valid RequestCreationAccountDTO requestCreationAccountDTO) {
         log.debug("Creating a new account - {}", requestCreationAccountDTO);
         throwsOnCondition(Objects.isNull(requestCreationAccountDTO), InvalidRequestAccountException::new,
@@ -41,6 +76,10 @@ public class AccountService {
         Account account = toAccountEntity(requestCreationAccountDTO);
         fillMissingFields(account, customer);
         account = accountRepository.save(account);
+        if (publishAccountEvents) {
+            applicationEventPublisher.publishEvent(new AccountOpenedEvent(account.getId(), customer.getId(),
+                    account.getBalance(), account.getCreationTimestamp()));
+        }
         log.debug("Created account - {}", account);
         return DtoMapper.toResponseAccountDTO(account);
     }
@@ -48,7 +87,33 @@ public class AccountService {
 
 
     public ResponseAccountBalanceDTO retrieveBalance(Long accountId) {
+        return operationMetrics == null
+                ? findBalance(accountId)
+                : operationMetrics.record(OperationMetrics.BALANCE, () -> findBalance(accountId));
+    }
+
+    private ResponseAccountBalanceDTO findBalance(Long accountId) {
         log.debug("Retrieving balance from accountId = {}", accountId);
+        if (ledgerEngine != null) {
+            return ResponseAccountBalanceDTO.builder()
+                    .id(accountId)
+                    .balance(ledgerEngine.balance(accountId))
+                    .creationTimestamp(getCurrentTimestamp())
+                    .build();
+        }
+        if (accountReadModel != null) {
+            Money balance = accountReadModel.balance(accountId);
+            if (balance != null) {
+                return ResponseAccountBalanceDTO.builder()
+                        .id(accountId)
+                        .balance(balance)
+                        .creationTimestamp(getCurrentTimestamp())
+                        .build();
+            }
+        }
+        if (accountBalanceCache != null) {
+            return retrieveCachedBalance(accountId);
+        }
         Account account = getAccountById(accountId);
         return ResponseAccountBalanceDTO.builder()
                 .id(account.getId())
@@ -57,44 +122,157 @@ public class AccountService {
                 .build();
     }
 
+    private ResponseAccountBalanceDTO retrieveCachedBalance(long accountId) {
+        Money balance = accountBalanceCache.get(accountId);
+        if (balance == null) {
+            long stamp = accountBalanceCache.stamp(accountId);
+            Account account = getAccountById(accountId);
+            accountBalanceCache.fill(accountId, account.getBalance(), account.getVersion(), stamp);
+            balance = account.getBalance();
+        }
+        return ResponseAccountBalanceDTO.builder()
+                .id(accountId)
+                .balance(balance)
+                .creationTimestamp(getCurrentTimestamp())
+                .build();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transfer(@NonNull Account senderAccount, @NonNull Account receiverAccount, Money value) {
+        applyTransfer(senderAccount, receiverAccount, value);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deposit(@NonNull Account account, Money value) {
+        applyDeposit(account, value);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void withdraw(@NonNull Account account, Money value) {
+        applyWithdraw(account, value);
+    }
+
+    /**
+     * Credits the account with a single conditional statement, the account is never loaded.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void depositAtomically(long accountId, Money value) {
+        applyDepositAtomically(accountId, value);
+    }
+
+    /**
+     * Debits the account with a single conditional statement, the balance check and the update cannot interleave
+     * with another transaction.
+     */
     @Transactional(propagation = Propagation.MANDATORY)
-    public void transfer(@NonNull Account senderAccount, @NonNull Account receiverAccount, BigDecimal value) {
-        log.debug("Starting transfer senderAccount: [{}] receiverAccount: [{}] value: [{}]",
-                senderAccount, receiverAccount, value);
-        throwsOnCondition(senderAccount.getBalance().compareTo(value) < 0,
+    public void withdrawAtomically(long accountId, Money value) {
+        applyWithdrawAtomically(accountId, value);
+    }
+
+    /**
+     * Moves the value with one conditional statement per account. Statements run in ascending account id order,
+     * so opposed transfers lock the two rows in the same order and cannot deadlock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transferAtomically(long senderAccountId, long receiverAccountId, Money value) {
+        applyTransferAtomically(senderAccountId, receiverAccountId, value);
+    }
+
+    /*
+     * The apply methods below are the bodies of the transactional methods above, for the operation service which
+     * calls them inside the unit of work of its concurrency strategy. They are not intercepted by the transaction
+     * proxy, so a rejection does not mark the transaction rollback-only: a batch rolls the rejected operation back
+     * to its savepoint and commits the others, any other caller lets the rejection through and rolls back.
+     */
+
+    void applyTransfer(@NonNull Account senderAccount, @NonNull Account receiverAccount, Money value) {
+        log.debug("Starting transfer senderAccountId: [{}] receiverAccountId: [{}] value: [{}]",
+                senderAccount.getId(), receiverAccount.getId(), value);
+        throwsOnCondition(senderAccount.getBalance().isLessThan(value),
                 InsufficientBalanceException::new,
-                String.format(INSUFFICIENT_BALANCE_ERROR, senderAccount.getId()));
+                INSUFFICIENT_BALANCE_ERROR, senderAccount.getId());
         throwsOnCondition(senderAccount.equals(receiverAccount), TransferNotAllowedException::new);
-        senderAccount.setBalance(senderAccount.getBalance().subtract(value));
-        receiverAccount.setBalance(receiverAccount.getBalance().add(value));
+        senderAccount.setBalance(senderAccount.getBalance().minus(value));
+        receiverAccount.setBalance(receiverAccount.getBalance().plus(value));
         accountRepository.save(senderAccount);
         accountRepository.save(receiverAccount);
-        log.debug("Executed transfer senderAccount: [{}] receiverAccount: [{}] value: [{}]",
-                senderAccount, receiverAccount, value);
+        cacheAfterCommit(senderAccount);
+        cacheAfterCommit(receiverAccount);
+        log.debug("Executed transfer senderAccountId: [{}] receiverAccountId: [{}] value: [{}]",
+                senderAccount.getId(), receiverAccount.getId(), value);
     }
 
-    @Transactional(propagation = Propagation.MANDATORY)
-    public void deposit(@NonNull Account account, BigDecimal value) {
-        log.debug("Starting deposit : [{}] value: [{}]",
-                account, value);
-        account.setBalance(account.getBalance().add(value));
+    void applyDeposit(@NonNull Account account, Money value) {
+        log.debug("Starting deposit accountId: [{}] value: [{}]",
+                account.getId(), value);
+        account.setBalance(account.getBalance().plus(value));
         accountRepository.save(account);
-        log.debug("Executed deposit Account: [{}] value: [{}]",
-                account, value);
+        cacheAfterCommit(account);
+        log.debug("Executed deposit accountId: [{}] value: [{}]",
+                account.getId(), value);
     }
 
-
-    @Transactional(propagation = Propagation.MANDATORY)
-    public void withdraw(@NonNull Account account, BigDecimal value) {
-        log.debug("Starting withdraw : [{}] value: [{}]",
-                account, value);
-        throwsOnCondition(account.getBalance().compareTo(value) < 0,
+    void applyWithdraw(@NonNull Account account, Money value) {
+        log.debug("Starting withdraw accountId: [{}] value: [{}]",
+                account.getId(), value);
+        throwsOnCondition(account.getBalance().isLessThan(value),
                 InsufficientBalanceException::new,
-                String.format(INSUFFICIENT_BALANCE_ERROR, account.getId()));
-        account.setBalance(account.getBalance().subtract(value));
+                INSUFFICIENT_BALANCE_ERROR, account.getId());
+        account.setBalance(account.getBalance().minus(value));
         accountRepository.save(account);
-        log.debug("Executed withdraw Account: [{}] value: [{}]",
-                account, value);
+        cacheAfterCommit(account);
+        log.debug("Executed withdraw accountId: [{}] value: [{}]",
+                account.getId(), value);
+    }
+
+    void applyDepositAtomically(long accountId, Money value) {
+        if (log.isDebugEnabled()) {
+            log.debug("Starting atomic deposit accountId: [{}] value: [{}]", accountId, value);
+        }
+        if (accountRepository.credit(accountId, value) == 0) {
+            log.error(ACCOUNT_NOT_FOUND_ERROR, accountId);
+            throw new AccountNotFoundException();
+        }
+        invalidateAfterCommit(accountId);
+    }
+
+    void applyWithdrawAtomically(long accountId, Money value) {
+        if (log.isDebugEnabled()) {
+            log.debug("Starting atomic withdraw accountId: [{}] value: [{}]", accountId, value);
+        }
+        debit(accountId, value);
+    }
+
+    void applyTransferAtomically(long senderAccountId, long receiverAccountId, Money value) {
+        if (log.isDebugEnabled()) {
+            log.debug("Starting atomic transfer senderAccountId: [{}] receiverAccountId: [{}] value: [{}]",
+                    senderAccountId, receiverAccountId, value);
+        }
+        throwsOnCondition(senderAccountId == receiverAccountId, TransferNotAllowedException::new);
+        if (senderAccountId < receiverAccountId) {
+            debit(senderAccountId, value);
+            applyDepositAtomically(receiverAccountId, value);
+        } else {
+            applyDepositAtomically(receiverAccountId, value);
+            debit(senderAccountId, value);
+        }
+    }
+
+    /**
+     * Reference to an account usable as an association, without loading it.
+     */
+    Account getAccountReference(long accountId) {
+        return accountRepository.getOne(accountId);
+    }
+
+    /**
+     * Existence check that reads the primary key index only, the account is not loaded.
+     */
+    void checkAccountExists(long accountId) {
+        if (!accountRepository.existsById(accountId)) {
+            log.error(ACCOUNT_NOT_FOUND_ERROR, accountId);
+            throw new AccountNotFoundException();
+        }
     }
 
     Account getAccountById(Long accountId) {
@@ -106,6 +284,36 @@ public class AccountService {
                 });
     }
 
+    private void debit(long accountId, Money value) {
+        if (accountRepository.debit(accountId, value) == 0) {
+            if (!accountRepository.existsById(accountId)) {
+                log.error(ACCOUNT_NOT_FOUND_ERROR, accountId);
+                throw new AccountNotFoundException();
+            }
+            log.error(INSUFFICIENT_BALANCE_ERROR, accountId);
+            throw new InsufficientBalanceException();
+        }
+        invalidateAfterCommit(accountId);
+    }
+
+    /**
+     * The entity version is incremented at flush, before the commit, so the cache gets the committed version.
+     */
+    private void cacheAfterCommit(Account account) {
+        if (accountBalanceCache != null) {
+            accountBalanceCache.putAfterCommit(account);
+        }
+    }
+
+    /**
+     * Conditional updates do not return the new balance, the cached one is dropped instead.
+     */
+    private void invalidateAfterCommit(long accountId) {
+        if (accountBalanceCache != null) {
+            accountBalanceCache.invalidateAfterCommit(accountId);
+        }
+    }
+
     private void fillMissingFields(Account account, Customer customer) {
         account.setCustomer(customer);
         account.setBalance(account.getInitialDepositAmount());
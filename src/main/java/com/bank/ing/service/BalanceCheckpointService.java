@@ -0,0 +1,116 @@
+package com.bank.ing.service;
+
+import com.bank.ing.configuration.BalanceCheckpointProperties;
+import com.bank.ing.dto.response.ResponseAccountBalanceDTO;
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.BalanceCheckpoint;
+import com.bank.ing.exception.AccountNotFoundException;
+import com.bank.ing.ledger.PendingOperations;
+import com.bank.ing.money.Money;
+import com.bank.ing.repository.BalanceCheckpointRepository;
+import com.bank.ing.repository.OperationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Optional;
+
+import static com.bank.ing.configuration.Constants.ACCOUNT_NOT_CREATED_AT_ERROR;
+
+/**
+ * Balances at a past date: the latest checkpoint before the date plus the operations between the checkpoint and the
+ * date. Checkpoints are written incrementally, each run only reads the operations since the previous run.
+ * <p>
+ * A closed window is never read again, so it must not miss an operation row written late: the settle delay covers
+ * transactions still in flight, and a window never reaches the oldest operation an asynchronous writer (engine
+ * sink, write-behind) has accepted without writing its row yet, however long the database makes it wait.
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class BalanceCheckpointService {
+
+    /**
+     * Lower bound of the first checkpoint run, before any operation.
+     */
+    public static final LocalDateTime FIRST_CHECKPOINT_FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Distance kept from the oldest pending operation, wider than the precision of stored date-times.
+     */
+    private static final Duration PENDING_OPERATION_MARGIN = Duration.ofMillis(1);
+
+    private final AccountService accountService;
+    private final OperationRepository operationRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final ObjectProvider<PendingOperations> pendingOperations;
+
+    /**
+     * Present unless {@code bank.checkpoint.enabled=false}.
+     */
+    @Autowired(required = false)
+    private BalanceCheckpointProperties balanceCheckpointProperties;
+
+    @Transactional(readOnly = true)
+    public ResponseAccountBalanceDTO retrieveBalanceAsOf(long accountId, LocalDateTime asOf) {
+        log.debug("Retrieving balance from accountId = {} as of {}", accountId, asOf);
+        Account account = accountService.getAccountById(accountId);
+        if (asOf.isBefore(account.getCreationTimestamp())) {
+            log.error(ACCOUNT_NOT_CREATED_AT_ERROR, accountId, asOf);
+            throw new AccountNotFoundException();
+        }
+        Optional<BalanceCheckpoint> checkpoint = balanceCheckpointRepository
+                .findFirstByAccountIdAndCheckpointDateTimeLessThanEqualOrderByCheckpointDateTimeDesc(accountId, asOf);
+        Money base = checkpoint.map(BalanceCheckpoint::getBalance).orElse(account.getInitialDepositAmount());
+        LocalDateTime from = checkpoint.map(BalanceCheckpoint::getCheckpointDateTime).orElse(FIRST_CHECKPOINT_FROM);
+        return ResponseAccountBalanceDTO.builder()
+                .id(accountId)
+                .balance(base.plus(Money.ofMinorUnits(operationRepository.sumBalanceDelta(accountId, from, asOf))))
+                .asOf(asOf)
+                .creationTimestamp(getCurrentTimestamp())
+                .build();
+    }
+
+    @Scheduled(initialDelayString = "${bank.checkpoint.interval:PT5M}", fixedDelayString = "${bank.checkpoint.interval:PT5M}")
+    @Transactional
+    public void scheduledCheckpoint() {
+        if (balanceCheckpointProperties != null) {
+            writeCheckpoints(getCurrentTimestamp().minus(balanceCheckpointProperties.getSettleDelay()));
+        }
+    }
+
+    /**
+     * Checkpoints at {@code upTo} every account with operations since the previous run, or just before the oldest
+     * operation still pending in an asynchronous writer when that is earlier.
+     */
+    @Transactional
+    public int writeCheckpoints(LocalDateTime upTo) {
+        Optional<LocalDateTime> oldestPending = pendingOperations.orderedStream()
+                .map(PendingOperations::oldestPendingOperationDateTime)
+                .flatMap(Optional::stream)
+                .min(Comparator.naturalOrder());
+        if (oldestPending.isPresent() && !oldestPending.get().isAfter(upTo)) {
+            log.info("Holding balance checkpoints back from {} to before the oldest pending operation at {}",
+                    upTo, oldestPending.get());
+            upTo = oldestPending.get().minus(PENDING_OPERATION_MARGIN);
+        }
+        LocalDateTime from = balanceCheckpointRepository.findLastCheckpointDateTime().orElse(FIRST_CHECKPOINT_FROM);
+        if (!upTo.isAfter(from)) {
+            return 0;
+        }
+        int written = balanceCheckpointRepository.writeCheckpoints(from, upTo);
+        log.info("Wrote {} balance checkpoints for operations in ({}, {}]", written, from, upTo);
+        return written;
+    }
+
+    LocalDateTime getCurrentTimestamp() {
+        return LocalDateTime.now();
+    }
+}
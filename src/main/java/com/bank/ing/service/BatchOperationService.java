@@ -0,0 +1,251 @@
+package com.bank.ing.service;
+
+import com.bank.ing.configuration.BatchOperationProperties;
+import com.bank.ing.dto.request.RequestBatchOperationDTO;
+import com.bank.ing.dto.request.RequestBatchOperationItemDTO;
+import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
+import com.bank.ing.dto.response.ResponseBatchOperationItemDTO;
+import com.bank.ing.dto.response.ResponseBatchOperationsDTO;
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.exception.AccountNotFoundException;
+import com.bank.ing.exception.BankException;
+import com.bank.ing.exception.InsufficientBalanceException;
+import com.bank.ing.exception.InvalidRequestOperationException;
+import com.bank.ing.exception.LedgerUnavailableException;
+import com.bank.ing.exception.TransferNotAllowedException;
+import com.bank.ing.ledger.LedgerEngine;
+import com.bank.ing.money.Money;
+import com.bank.ing.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.ing.utils.OperationType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.Valid;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.bank.ing.configuration.Constants.BATCH_TOO_LARGE_ERROR;
+import static com.bank.ing.configuration.Constants.MESSAGE_NULL_REQUEST_OPERATION_DTO_ERROR;
+import static com.bank.ing.dto.response.ResponseBatchOperationItemDTO.STATUS_CREATED;
+import static com.bank.ing.dto.response.ResponseBatchOperationItemDTO.STATUS_REJECTED;
+import static com.bank.ing.exception.Utils.throwsOnCondition;
+import static com.bank.ing.service.mapper.DtoMapper.toResponseDepositWithdrawDTO;
+import static com.bank.ing.service.mapper.DtoMapper.toResponseOperationDTO;
+
+/**
+ * Applies a list of operations with one transaction per chunk of {@code bank.batch.chunk-size} operations: the
+ * operation inserts and account updates of a chunk are flushed as JDBC batches and the operation ids come from the
+ * pooled sequence. A rejected operation (unknown account, insufficient balance...) does not stop the others: each
+ * operation runs after a savepoint of the chunk transaction and a rejected one is rolled back to it.
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class BatchOperationService {
+
+    private final OperationService operationService;
+    private final AccountConcurrencyStrategy accountConcurrencyStrategy;
+    private final BatchOperationProperties batchOperationProperties;
+
+    /**
+     * Present when {@code bank.ledger.mode=engine}, the operations are then pipelined to the engine shards.
+     */
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ResponseBatchOperationsDTO applyOperations(@Valid RequestBatchOperationDTO requestBatchOperationDTO) {
+        throwsOnCondition(Objects.isNull(requestBatchOperationDTO) || Objects.isNull(requestBatchOperationDTO.getOperations()),
+                InvalidRequestOperationException::new, MESSAGE_NULL_REQUEST_OPERATION_DTO_ERROR);
+        List<RequestBatchOperationItemDTO> operations = requestBatchOperationDTO.getOperations();
+        throwsOnCondition(operations.size() > batchOperationProperties.getMaxOperations(),
+                InvalidRequestOperationException::new,
+                BATCH_TOO_LARGE_ERROR, operations.size(), batchOperationProperties.getMaxOperations());
+        if (log.isDebugEnabled()) {
+            log.debug("Applying a batch of {} operations", operations.size());
+        }
+
+        List<ResponseBatchOperationItemDTO> results = ledgerEngine != null
+                ? applyWithLedgerEngine(operations)
+                : applyInChunks(operations);
+        long created = results.stream().filter(result -> STATUS_CREATED.equals(result.getStatus())).count();
+        if (log.isDebugEnabled()) {
+            log.debug("Applied a batch of {} operations, {} rejected", operations.size(), results.size() - created);
+        }
+        return ResponseBatchOperationsDTO.builder()
+                .created(created)
+                .rejected(results.size() - created)
+                .results(results)
+                .creationTimestamp(getCurrentTimestamp())
+                .build();
+    }
+
+    private List<ResponseBatchOperationItemDTO> applyInChunks(List<RequestBatchOperationItemDTO> operations) {
+        List<ResponseBatchOperationItemDTO> results = new ArrayList<>(operations.size());
+        int chunkSize = Math.max(1, batchOperationProperties.getChunkSize());
+        for (int from = 0; from < operations.size(); from += chunkSize) {
+            results.addAll(applyChunk(operations, from, Math.min(from + chunkSize, operations.size())));
+        }
+        return results;
+    }
+
+    /**
+     * One unit of work of the concurrency strategy per chunk: a retried chunk starts over with fresh results.
+     */
+    private List<ResponseBatchOperationItemDTO> applyChunk(List<RequestBatchOperationItemDTO> operations,
+                                                           int from, int to) {
+        List<Long> accountIds = operations.subList(from, to).stream()
+                .flatMap(BatchOperationService::accountIds)
+                .collect(Collectors.toList());
+        return accountConcurrencyStrategy.execute(accountIds, () -> {
+            List<ResponseBatchOperationItemDTO> results = new ArrayList<>(to - from);
+            for (int index = from; index < to; index++) {
+                results.add(applyOperation(index, operations.get(index)));
+            }
+            return results;
+        });
+    }
+
+    /**
+     * The pending changes of the previous operations are flushed before the savepoint, rolling back to it only undoes
+     * the statements of this operation. Its entities are then detached, nothing of it is flushed later on.
+     */
+    private ResponseBatchOperationItemDTO applyOperation(int index, RequestBatchOperationItemDTO operation) {
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        try {
+            ResponseBatchOperationItemDTO result;
+            switch (operation.getType()) {
+                case TRANSFER:
+                    result = created(index, toResponseOperationDTO(operationService.applyTransfer(toTransfer(operation))));
+                    break;
+                case DEPOSIT:
+                    result = created(index, toResponseDepositWithdrawDTO(operationService.applyDeposit(toDeposit(operation))));
+                    break;
+                default:
+                    result = created(index, toResponseDepositWithdrawDTO(operationService.applyWithdraw(toWithdraw(operation))));
+            }
+            session.doWork(connection -> connection.releaseSavepoint(savepoint));
+            return result;
+        } catch (AccountNotFoundException | InsufficientBalanceException | TransferNotAllowedException
+                | InvalidRequestOperationException e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            session.clear();
+            return rejected(index, e);
+        }
+    }
+
+    /**
+     * An operation the engine could not take within its timeout was cancelled without changing any balance, it is
+     * rejected with {@code LEDGER_UNAVAILABLE} like a domain rejection instead of failing the whole batch.
+     */
+    private List<ResponseBatchOperationItemDTO> applyWithLedgerEngine(List<RequestBatchOperationItemDTO> operations) {
+        List<CompletableFuture<Operation>> commands = new ArrayList<>(operations.size());
+        for (RequestBatchOperationItemDTO operation : operations) {
+            commands.add(submitToLedgerEngine(operation));
+        }
+        List<ResponseBatchOperationItemDTO> results = new ArrayList<>(operations.size());
+        for (int index = 0; index < operations.size(); index++) {
+            try {
+                Operation operation = ledgerEngine.await(commands.get(index));
+                operationService.publishOperationEvent(operation);
+                operationService.logOperation(operation);
+                results.add(created(index, OperationType.TRANSFER.name().equals(operation.getType())
+                        ? toResponseOperationDTO(operation)
+                        : toResponseDepositWithdrawDTO(operation)));
+            } catch (AccountNotFoundException | InsufficientBalanceException | TransferNotAllowedException
+                    | InvalidRequestOperationException | LedgerUnavailableException e) {
+                results.add(rejected(index, e));
+            }
+        }
+        return results;
+    }
+
+    private CompletableFuture<Operation> submitToLedgerEngine(RequestBatchOperationItemDTO operation) {
+        try {
+            switch (operation.getType()) {
+                case TRANSFER:
+                    RequestTransferOperationDTO transfer = toTransfer(operation);
+                    return ledgerEngine.transferAsync(transfer.getSenderAccountId(), transfer.getReceiverAccountId(),
+                            Money.of(transfer.getValue()));
+                case DEPOSIT:
+                    return ledgerEngine.depositAsync(toDeposit(operation).getAccountId(), Money.of(operation.getValue()));
+                default:
+                    return ledgerEngine.withdrawAsync(toWithdraw(operation).getAccountId(), Money.of(operation.getValue()));
+            }
+        } catch (InvalidRequestOperationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static RequestTransferOperationDTO toTransfer(RequestBatchOperationItemDTO operation) {
+        throwsOnCondition(Objects.isNull(operation.getSenderAccountId()) || Objects.isNull(operation.getReceiverAccountId()),
+                InvalidRequestOperationException::new);
+        return RequestTransferOperationDTO.builder()
+                .senderAccountId(operation.getSenderAccountId())
+                .receiverAccountId(operation.getReceiverAccountId())
+                .value(operation.getValue())
+                .build();
+    }
+
+    private static RequestDepositAccountDTO toDeposit(RequestBatchOperationItemDTO operation) {
+        throwsOnCondition(Objects.isNull(operation.getAccountId()), InvalidRequestOperationException::new);
+        return RequestDepositAccountDTO.builder()
+                .accountId(operation.getAccountId())
+                .depositAmount(operation.getValue())
+                .build();
+    }
+
+    private static RequestWithdrawAccountDTO toWithdraw(RequestBatchOperationItemDTO operation) {
+        throwsOnCondition(Objects.isNull(operation.getAccountId()), InvalidRequestOperationException::new);
+        return RequestWithdrawAccountDTO.builder()
+                .accountId(operation.getAccountId())
+                .withdrawAmount(operation.getValue())
+                .build();
+    }
+
+    private static Stream<Long> accountIds(RequestBatchOperationItemDTO operation) {
+        return Stream.of(operation.getAccountId(), operation.getSenderAccountId(), operation.getReceiverAccountId())
+                .filter(Objects::nonNull);
+    }
+
+    private static ResponseBatchOperationItemDTO created(int index, ResponseDepositWithdrawTransferDTO operation) {
+        return ResponseBatchOperationItemDTO.builder()
+                .index(index)
+                .status(STATUS_CREATED)
+                .operation(operation)
+                .build();
+    }
+
+    private static ResponseBatchOperationItemDTO rejected(int index, BankException e) {
+        log.debug("Rejected batch operation index={} - {}", index, e.getMessage());
+        return ResponseBatchOperationItemDTO.builder()
+                .index(index)
+                .status(STATUS_REJECTED)
+                .error(e.getMessage())
+                .errorCode(e.getErrorCode())
+                .build();
+    }
+
+    LocalDateTime getCurrentTimestamp() {
+        return LocalDateTime.now();
+    }
+}
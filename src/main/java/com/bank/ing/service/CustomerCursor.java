@@ -0,0 +1,51 @@
+package com.bank.ing.service;
+
+import com.bank.ing.dto.CustomerDTO;
+import com.bank.ing.exception.InvalidRequestCustomerException;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static com.bank.ing.configuration.Constants.INVALID_CUSTOMER_CURSOR;
+
+/**
+ * Position in the customer listing: the id of the last customer of a page. Clients only see it as an opaque token.
+ */
+@Value
+@Log4j2
+public class CustomerCursor {
+
+    /**
+     * Position before the first customer.
+     */
+    public static final CustomerCursor FIRST = new CustomerCursor(Long.MIN_VALUE);
+
+    long customerId;
+
+    public static CustomerCursor after(CustomerDTO customer) {
+        return new CustomerCursor(customer.getId());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(customerId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Position of the token, before the first customer without one.
+     */
+    public static CustomerCursor decode(String token) {
+        if (token == null) {
+            return FIRST;
+        }
+        try {
+            return new CustomerCursor(Long.parseLong(
+                    new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            log.error(INVALID_CUSTOMER_CURSOR, token);
+            throw new InvalidRequestCustomerException();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.bank.ing.service;
+
+import com.bank.ing.dto.CustomerDTO;
+import com.bank.ing.dto.response.ResponseCustomersDTO;
+import com.bank.ing.exception.InvalidRequestCustomerException;
+import com.bank.ing.repository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.bank.ing.configuration.Constants.CUSTOMER_MAX_LIMIT;
+import static com.bank.ing.configuration.Constants.INVALID_CUSTOMER_LIMIT;
+import static com.bank.ing.exception.Utils.throwsOnCondition;
+
+/**
+ * Lists customers by pages following the customer id, or streams them all as NDJSON. Both read the id and name
+ * columns straight into {@link CustomerDTO}s: a page costs the same whatever its depth and the export heap use does
+ * not depend on the number of customers.
+ */
+@Service
+@Log4j2
+public class CustomerService {
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter customerWriter;
+
+    public CustomerService(CustomerRepository customerRepository, PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper) {
+        this.customerRepository = customerRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.customerWriter = objectMapper.writerFor(CustomerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * One page of customers in id order. {@code next} of the response is the cursor of the following page.
+     */
+    public ResponseCustomersDTO customers(int limit, String cursor) {
+        checkLimit(limit);
+        CustomerCursor after = CustomerCursor.decode(cursor);
+        List<CustomerDTO> customers = customerRepository.findPageAfter(after.getCustomerId(),
+                PageRequest.of(0, limit + 1));
+        return page(customers, limit, getCurrentTimestamp());
+    }
+
+    public StreamingResponseBody exportCustomers() {
+        return outputStream -> readOnlyTransactionTemplate.executeWithoutResult(status ->
+                writeCustomers(outputStream));
+    }
+
+    public static void checkLimit(int limit) {
+        throwsOnCondition(limit < 1 || limit > CUSTOMER_MAX_LIMIT, InvalidRequestCustomerException::new,
+                INVALID_CUSTOMER_LIMIT, limit, CUSTOMER_MAX_LIMIT);
+    }
+
+    /**
+     * Page of at most {@code limit} of the customers, which were read with one more row to tell the last page apart.
+     */
+    public static ResponseCustomersDTO page(List<CustomerDTO> customers, int limit, LocalDateTime creationTimestamp) {
+        String next = null;
+        if (customers.size() > limit) {
+            customers = customers.subList(0, limit);
+            next = CustomerCursor.after(customers.get(limit - 1)).encode();
+        }
+        return ResponseCustomersDTO.builder()
+                .customers(customers)
+                .next(next)
+                .creationTimestamp(creationTimestamp)
+                .build();
+    }
+
+    private void writeCustomers(OutputStream outputStream) {
+        long exported = 0;
+        try (Stream<CustomerDTO> customers = customerRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<CustomerDTO> iterator = customers.iterator();
+            while (iterator.hasNext()) {
+                customerWriter.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++exported == 1) {
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Exported {} customers", exported);
+    }
+
+    LocalDateTime getCurrentTimestamp() {
+        return LocalDateTime.now();
+    }
+}
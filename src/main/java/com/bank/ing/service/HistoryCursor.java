@@ -0,0 +1,53 @@
+package com.bank.ing.service;
+
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.exception.InvalidRequestOperationException;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import static com.bank.ing.configuration.Constants.INVALID_HISTORY_CURSOR;
+
+/**
+ * Position in an account history: the {@code (operation_date_time, operation_id)} of the last operation of a page.
+ * Clients only see it as an opaque token.
+ */
+@Value
+@Log4j2
+public class HistoryCursor {
+
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime operationDateTime;
+    long operationId;
+
+    public static HistoryCursor after(Operation operation) {
+        return new HistoryCursor(operation.getOperationDateTime(), operation.getId());
+    }
+
+    public static HistoryCursor after(ResponseDepositWithdrawTransferDTO operation) {
+        return new HistoryCursor(operation.getCreationTimestamp(), operation.getId());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((operationDateTime + SEPARATOR + operationId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistoryCursor decode(String token) {
+        try {
+            String cursor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = cursor.lastIndexOf(SEPARATOR);
+            return new HistoryCursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            log.error(INVALID_HISTORY_CURSOR, token);
+            throw new InvalidRequestOperationException();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.bank.ing.service;
+
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.repository.OperationRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the whole history of an account as NDJSON, one operation per line, most recent first. Rows go from the
+ * database cursor to the response one at a time: heap use does not depend on the history size.
+ */
+@Service
+@Log4j2
+public class OperationExportService {
+
+    private final AccountService accountService;
+    private final OperationRepository operationRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter operationWriter;
+
+    public OperationExportService(AccountService accountService, OperationRepository operationRepository,
+                                  PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.accountService = accountService;
+        this.operationRepository = operationRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.operationWriter = objectMapper.writerFor(ResponseDepositWithdrawTransferDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * The account is checked before the body is returned, an unknown account is still answered with a 404.
+     */
+    public StreamingResponseBody exportHistory(long accountId) {
+        log.debug("Exporting operations accountId - {}", accountId);
+        accountService.checkAccountExists(accountId);
+        return outputStream -> readOnlyTransactionTemplate.executeWithoutResult(status ->
+                writeHistory(accountId, outputStream));
+    }
+
+    private void writeHistory(long accountId, OutputStream outputStream) {
+        long exported = 0;
+        try (Stream<ResponseDepositWithdrawTransferDTO> operations = operationRepository.streamHistory(accountId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<ResponseDepositWithdrawTransferDTO> iterator = operations.iterator();
+            while (iterator.hasNext()) {
+                operationWriter.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++exported == 1) {
+                    // first line out as soon as the first row is read, the generator buffer takes over afterwards
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Exported {} operations accountId - {}", exported, accountId);
+    }
+}
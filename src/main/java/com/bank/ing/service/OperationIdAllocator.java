@@ -0,0 +1,46 @@
+package com.bank.ing.service;
+
+import com.bank.ing.entity.Operation;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Hands out operation ids outside of JPA persists, from the same pooled generator Hibernate uses for
+ * {@link Operation}: the sequence is only called once every {@link Operation#ID_ALLOCATION_SIZE} ids and ids
+ * never collide with the ones assigned by {@code operationRepository.save}. Inside a transaction the sequence is
+ * called on the transaction's connection, a caller never holds a pooled connection while waiting for another one.
+ */
+@Component
+public class OperationIdAllocator {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SessionFactoryImplementor sessionFactory;
+    private final IdentifierGenerator generator;
+
+    public OperationIdAllocator(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.generator = sessionFactory.getMetamodel().entityPersister(Operation.class).getIdentifierGenerator();
+    }
+
+    public long nextId() {
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager != null) {
+            return generate(entityManager.unwrap(SharedSessionContractImplementor.class));
+        }
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return generate((SharedSessionContractImplementor) session);
+        }
+    }
+
+    private long generate(SharedSessionContractImplementor session) {
+        return ((Number) generator.generate(session, null)).longValue();
+    }
+}
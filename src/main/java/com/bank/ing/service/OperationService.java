@@ -6,24 +6,36 @@ import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
 import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
 import com.bank.ing.dto.response.ResponseHistoryOperationsDTO;
 import com.bank.ing.entity.Account;
+import com.bank.ing.entity.AccountHistoryEntry;
 import com.bank.ing.entity.Operation;
 import com.bank.ing.exception.InvalidRequestOperationException;
+import com.bank.ing.ledger.LedgerEngine;
+import com.bank.ing.money.Money;
 import com.bank.ing.repository.OperationRepository;
+import com.bank.ing.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.ing.service.idempotency.IdempotencyKey;
+import com.bank.ing.service.idempotency.IdempotencyService;
 import com.bank.ing.service.mapper.DtoMapper;
+import com.bank.ing.service.metrics.OperationMetrics;
+import com.bank.ing.service.readmodel.AccountReadModel;
+import com.bank.ing.service.readmodel.OperationCommittedEvent;
+import com.bank.ing.service.writebehind.OperationWriteBehind;
 import com.bank.ing.utils.OperationType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import static com.bank.ing.configuration.Constants.MESSAGE_NULL_REQUEST_OPERATION_DTO_ERROR;
+import static com.bank.ing.configuration.Constants.*;
 import static com.bank.ing.exception.Utils.throwsOnCondition;
 import static com.bank.ing.service.mapper.DtoMapper.toResponseDepositWithdrawDTO;
 import static com.bank.ing.service.mapper.DtoMapper.toResponseOperationDTO;
@@ -35,70 +47,304 @@ public class OperationService {
 
     private final AccountService accountService;
     private final OperationRepository operationRepository;
+    private final AccountConcurrencyStrategy accountConcurrencyStrategy;
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Present when {@code bank.ledger.mode=engine}: balances are then owned by the in-memory ledger engine
+     * instead of being read and written through JPA.
+     */
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    /**
+     * Present when {@code bank.operation.write-behind.enabled=true}: operation rows are then written after the
+     * balance change commits, by a background writer.
+     */
+    @Autowired(required = false)
+    private OperationWriteBehind operationWriteBehind;
+
+    @Autowired(required = false)
+    private OperationMetrics operationMetrics;
+
+    /**
+     * Present when {@code bank.read-model.enabled=true}: history pages are then served from the read model while it
+     * is fresh enough.
+     */
+    @Autowired(required = false)
+    private AccountReadModel accountReadModel;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * True when {@code bank.read-model.enabled=true}: every created operation is then published as an
+     * {@link OperationCommittedEvent}, the read model is projected from them.
+     */
+    @Value("${bank.read-model.enabled:false}")
+    private boolean publishOperationEvents;
+
+    /**
+     * True when {@code bank.ledger.mode=atomic}: balances are changed by conditional UPDATE statements
+     * and accounts are only referenced, never loaded.
+     */
+    @Value("#{'${bank.ledger.mode:jpa}' == 'atomic'}")
+    private boolean atomicBalanceUpdates;
 
-    @Transactional
     public ResponseDepositWithdrawTransferDTO transferOperation(@Valid RequestTransferOperationDTO requestTransferOperationDTO) {
+        return transferOperation(requestTransferOperationDTO, null);
+    }
+
+    /**
+     * Same as {@link #transferOperation(RequestTransferOperationDTO)}, recording the created operation under the idempotency key when there is one.
+     */
+    public ResponseDepositWithdrawTransferDTO transferOperation(RequestTransferOperationDTO requestTransferOperationDTO, IdempotencyKey idempotencyKey) {
+        return measured(OperationMetrics.TRANSFER, () -> executeTransfer(requestTransferOperationDTO, idempotencyKey));
+    }
+
+    private ResponseDepositWithdrawTransferDTO executeTransfer(RequestTransferOperationDTO requestTransferOperationDTO, IdempotencyKey idempotencyKey) {
         log.debug("Creating a new operation - {}", requestTransferOperationDTO);
         throwsOnCondition(Objects.isNull(requestTransferOperationDTO), InvalidRequestOperationException::new,
                 MESSAGE_NULL_REQUEST_OPERATION_DTO_ERROR);
-        Operation operation = DtoMapper.toTransferOperationEntity(requestTransferOperationDTO);
-        Account senderAccount = accountService.getAccountById(requestTransferOperationDTO.getSenderAccountId());
-        Account receiverAccount = accountService.getAccountById(requestTransferOperationDTO.getReceiverAccountId());
-        accountService.transfer(senderAccount, receiverAccount, requestTransferOperationDTO.getValue());
-        fillTransferFields(operation, senderAccount, receiverAccount);
-        operation = operationRepository.save(operation);
-        logOperation(operation);
-        return toResponseOperationDTO(operation);
+        if (ledgerEngine != null) {
+            Operation operation = ledgerEngine.transfer(requestTransferOperationDTO.getSenderAccountId(),
+                    requestTransferOperationDTO.getReceiverAccountId(), Money.of(requestTransferOperationDTO.getValue()));
+            ResponseDepositWithdrawTransferDTO response = recordIdempotencyKey(idempotencyKey, toResponseOperationDTO(operation));
+            publishOperationEvent(operation);
+            logOperation(operation);
+            return response;
+        }
+        List<Long> accountIds = List.of(requestTransferOperationDTO.getSenderAccountId(),
+                requestTransferOperationDTO.getReceiverAccountId());
+        return accountConcurrencyStrategy.execute(accountIds,
+                () -> recordIdempotencyKey(idempotencyKey, toResponseOperationDTO(applyTransfer(requestTransferOperationDTO))));
     }
 
-    @Transactional
     public ResponseDepositWithdrawTransferDTO depositMoney(@Valid RequestDepositAccountDTO requestDepositAccountDTO) {
+        return depositMoney(requestDepositAccountDTO, null);
+    }
+
+    /**
+     * Same as {@link #depositMoney(RequestDepositAccountDTO)}, recording the created operation under the idempotency key when there is one.
+     */
+    public ResponseDepositWithdrawTransferDTO depositMoney(RequestDepositAccountDTO requestDepositAccountDTO, IdempotencyKey idempotencyKey) {
+        return measured(OperationMetrics.DEPOSIT, () -> executeDeposit(requestDepositAccountDTO, idempotencyKey));
+    }
+
+    private ResponseDepositWithdrawTransferDTO executeDeposit(RequestDepositAccountDTO requestDepositAccountDTO, IdempotencyKey idempotencyKey) {
         log.debug("Creating a new operation - {}", requestDepositAccountDTO);
         throwsOnCondition(Objects.isNull(requestDepositAccountDTO), InvalidRequestOperationException::new,
                 MESSAGE_NULL_REQUEST_OPERATION_DTO_ERROR);
-        Operation operation = DtoMapper.toDepositOperationEntity(requestDepositAccountDTO);
-        Account account = accountService.getAccountById(requestDepositAccountDTO.getAccountId());
-        accountService.deposit(account, requestDepositAccountDTO.getDepositAmount());
-        fillDepositFields(operation, account);
-        operation = operationRepository.save(operation);
-        logOperation(operation);
-        return toResponseDepositWithdrawDTO(operation);
+        if (ledgerEngine != null) {
+            Operation operation = ledgerEngine.deposit(requestDepositAccountDTO.getAccountId(),
+                    Money.of(requestDepositAccountDTO.getDepositAmount()));
+            ResponseDepositWithdrawTransferDTO response = recordIdempotencyKey(idempotencyKey, toResponseDepositWithdrawDTO(operation));
+            publishOperationEvent(operation);
+            logOperation(operation);
+            return response;
+        }
+        return accountConcurrencyStrategy.execute(List.of(requestDepositAccountDTO.getAccountId()),
+                () -> recordIdempotencyKey(idempotencyKey, toResponseDepositWithdrawDTO(applyDeposit(requestDepositAccountDTO))));
     }
 
 
-    @Transactional
     public ResponseDepositWithdrawTransferDTO withdrawMoney(@Valid RequestWithdrawAccountDTO requestWithdrawAccountDTO) {
+        return withdrawMoney(requestWithdrawAccountDTO, null);
+    }
+
+    /**
+     * Same as {@link #withdrawMoney(RequestWithdrawAccountDTO)}, recording the created operation under the idempotency key when there is one.
+     */
+    public ResponseDepositWithdrawTransferDTO withdrawMoney(RequestWithdrawAccountDTO requestWithdrawAccountDTO, IdempotencyKey idempotencyKey) {
+        return measured(OperationMetrics.WITHDRAW, () -> executeWithdraw(requestWithdrawAccountDTO, idempotencyKey));
+    }
+
+    private ResponseDepositWithdrawTransferDTO executeWithdraw(RequestWithdrawAccountDTO requestWithdrawAccountDTO, IdempotencyKey idempotencyKey) {
         log.debug("Creating a Withdraw Money - {}", requestWithdrawAccountDTO);
         throwsOnCondition(Objects.isNull(requestWithdrawAccountDTO), InvalidRequestOperationException::new,
                 MESSAGE_NULL_REQUEST_OPERATION_DTO_ERROR);
+        if (ledgerEngine != null) {
+            Operation operation = ledgerEngine.withdraw(requestWithdrawAccountDTO.getAccountId(),
+                    Money.of(requestWithdrawAccountDTO.getWithdrawAmount()));
+            ResponseDepositWithdrawTransferDTO response = recordIdempotencyKey(idempotencyKey, toResponseDepositWithdrawDTO(operation));
+            publishOperationEvent(operation);
+            logOperation(operation);
+            return response;
+        }
+        return accountConcurrencyStrategy.execute(List.of(requestWithdrawAccountDTO.getAccountId()),
+                () -> recordIdempotencyKey(idempotencyKey, toResponseDepositWithdrawDTO(applyWithdraw(requestWithdrawAccountDTO))));
+    }
+
+    /**
+     * Applies a transfer inside the caller's transaction and saves its operation.
+     */
+    Operation applyTransfer(RequestTransferOperationDTO requestTransferOperationDTO) {
+        Operation operation = DtoMapper.toTransferOperationEntity(requestTransferOperationDTO);
+        Account senderAccount;
+        Account receiverAccount;
+        if (atomicBalanceUpdates) {
+            accountService.applyTransferAtomically(requestTransferOperationDTO.getSenderAccountId(),
+                    requestTransferOperationDTO.getReceiverAccountId(), operation.getValue());
+            senderAccount = accountService.getAccountReference(requestTransferOperationDTO.getSenderAccountId());
+            receiverAccount = accountService.getAccountReference(requestTransferOperationDTO.getReceiverAccountId());
+        } else {
+            senderAccount = accountService.getAccountById(requestTransferOperationDTO.getSenderAccountId());
+            receiverAccount = accountService.getAccountById(requestTransferOperationDTO.getReceiverAccountId());
+            accountService.applyTransfer(senderAccount, receiverAccount, operation.getValue());
+        }
+        fillTransferFields(operation, senderAccount, receiverAccount);
+        operation = saveOperation(operation);
+        publishOperationEvent(operation);
+        logOperation(operation);
+        return operation;
+    }
+
+    /**
+     * Applies a deposit inside the caller's transaction and saves its operation.
+     */
+    Operation applyDeposit(RequestDepositAccountDTO requestDepositAccountDTO) {
+        Operation operation = DtoMapper.toDepositOperationEntity(requestDepositAccountDTO);
+        Account account;
+        if (atomicBalanceUpdates) {
+            accountService.applyDepositAtomically(requestDepositAccountDTO.getAccountId(), operation.getValue());
+            account = accountService.getAccountReference(requestDepositAccountDTO.getAccountId());
+        } else {
+            account = accountService.getAccountById(requestDepositAccountDTO.getAccountId());
+            accountService.applyDeposit(account, operation.getValue());
+        }
+        fillDepositFields(operation, account);
+        operation = saveOperation(operation);
+        publishOperationEvent(operation);
+        logOperation(operation);
+        return operation;
+    }
+
+    /**
+     * Applies a withdrawal inside the caller's transaction and saves its operation.
+     */
+    Operation applyWithdraw(RequestWithdrawAccountDTO requestWithdrawAccountDTO) {
         Operation operation = DtoMapper.toWithdrawOperationEntity(requestWithdrawAccountDTO);
-        Account account = accountService.getAccountById(requestWithdrawAccountDTO.getAccountId());
-        accountService.withdraw(account, requestWithdrawAccountDTO.getWithdrawAmount());
+        Account account;
+        if (atomicBalanceUpdates) {
+            accountService.applyWithdrawAtomically(requestWithdrawAccountDTO.getAccountId(), operation.getValue());
+            account = accountService.getAccountReference(requestWithdrawAccountDTO.getAccountId());
+        } else {
+            account = accountService.getAccountById(requestWithdrawAccountDTO.getAccountId());
+            accountService.applyWithdraw(account, operation.getValue());
+        }
         fillWithdrawFields(operation, account);
-        operation = operationRepository.save(operation);
+        operation = saveOperation(operation);
+        publishOperationEvent(operation);
         logOperation(operation);
-        return toResponseDepositWithdrawDTO(operation);
+        return operation;
+    }
+
+    private <T> T measured(String operation, Supplier<T> call) {
+        return operationMetrics == null ? call.get() : operationMetrics.record(operation, call);
+    }
+
+    /**
+     * Records the idempotency key with the response of the operation in the transaction of the operation, when the
+     * engine applied the operation in a transaction of its own.
+     */
+    private ResponseDepositWithdrawTransferDTO recordIdempotencyKey(IdempotencyKey idempotencyKey,
+                                                                    ResponseDepositWithdrawTransferDTO response) {
+        if (idempotencyKey != null) {
+            idempotencyService.record(idempotencyKey, response);
+        }
+        return response;
+    }
+
+    private Operation saveOperation(Operation operation) {
+        if (operationWriteBehind != null) {
+            return operationWriteBehind.saveAfterCommit(operation);
+        }
+        return operationRepository.save(operation);
+    }
+
+    /**
+     * Publishes the operation in the current transaction, the read model receives it once the transaction commits, or
+     * right away outside of one (engine mode).
+     */
+    void publishOperationEvent(Operation operation) {
+        if (publishOperationEvents) {
+            applicationEventPublisher.publishEvent(OperationCommittedEvent.of(operation));
+        }
     }
 
     public void logOperation(Operation operation) {
-        log.debug("Created operation - {}", operation);
+        log.debug("Created operation id={} type={}", operation.getId(), operation.getType());
     }
 
     public ResponseHistoryOperationsDTO historyOperations(long accountId) {
-        log.debug("Retrieving operations accountId - {}", accountId);
-        Account account = accountService.getAccountById(accountId);
-        List<ResponseDepositWithdrawTransferDTO> operationDTOList = operationRepository
-                .findAllBySenderAccount_IdOrReceiverAccount_IdOrderByOperationDateTimeDesc(account.getId(), account.getId())
-                .orElse(new ArrayList<>()).stream().map(DtoMapper::toResponseHistoryDTO)
+        return historyOperations(accountId, Integer.parseInt(HISTORY_DEFAULT_LIMIT), null);
+    }
+
+    /**
+     * One page of the account history, most recent first. {@code next} of the response is the cursor of the
+     * following page, it is null on the last page.
+     */
+    public ResponseHistoryOperationsDTO historyOperations(long accountId, int limit, String cursor) {
+        return measured(OperationMetrics.HISTORY, () -> findHistoryOperations(accountId, limit, cursor));
+    }
+
+    private ResponseHistoryOperationsDTO findHistoryOperations(long accountId, int limit, String cursor) {
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieving operations accountId - {} limit - {} cursor - {}", accountId, limit, cursor);
+        }
+        throwsOnCondition(limit < 1 || limit > HISTORY_MAX_LIMIT, InvalidRequestOperationException::new,
+                INVALID_HISTORY_LIMIT, limit, HISTORY_MAX_LIMIT);
+        if (accountReadModel != null) {
+            List<AccountHistoryEntry> entries = accountReadModel.history(accountId, cursor, limit + 1);
+            if (entries != null) {
+                return readModelHistoryOperations(accountId, limit, entries);
+            }
+        }
+        List<ResponseDepositWithdrawTransferDTO> operations;
+        if (Objects.isNull(cursor)) {
+            operations = operationRepository.findHistory(accountId, limit + 1);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            operations = operationRepository.findHistoryAfter(accountId, after.getOperationDateTime(),
+                    after.getOperationId(), limit + 1);
+        }
+        if (operations.isEmpty()) {
+            // an unknown account is only told apart from an empty history when there is nothing to return
+            accountService.checkAccountExists(accountId);
+        }
+        String next = null;
+        if (operations.size() > limit) {
+            operations = operations.subList(0, limit);
+            next = HistoryCursor.after(operations.get(limit - 1)).encode();
+        }
+        // history pages leave the sender out, as the read model pages do
+        operations.forEach(operation -> operation.setSenderAccountId(null));
+        return ResponseHistoryOperationsDTO.builder()
+                .accountId(accountId)
+                .operationDTOList(operations)
+                .next(next)
+                .creationTimestamp(getCurrentTimestamp())
+                .build();
+    }
+
+    private ResponseHistoryOperationsDTO readModelHistoryOperations(long accountId, int limit,
+                                                                    List<AccountHistoryEntry> entries) {
+        String next = null;
+        if (entries.size() > limit) {
+            entries = entries.subList(0, limit);
+            next = AccountReadModel.cursorAfter(entries.get(limit - 1));
+        }
+        List<ResponseDepositWithdrawTransferDTO> operationDTOList = entries.stream()
+                .map(DtoMapper::toResponseHistoryDTO)
                 .collect(Collectors.toList());
         return ResponseHistoryOperationsDTO.builder()
                 .accountId(accountId)
                 .operationDTOList(operationDTOList)
+                .next(next)
                 .creationTimestamp(getCurrentTimestamp())
                 .build();
     }
 
-
     private void fillWithdrawFields(Operation operation, Account account) {
         operation.setSenderAccount(null);
         operation.setReceiverAccount(account);
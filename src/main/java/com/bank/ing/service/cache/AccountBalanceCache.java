@@ -0,0 +1,176 @@
+package com.bank.ing.service.cache;
+
+import com.bank.ing.entity.Account;
+import com.bank.ing.money.Money;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-process cache of committed account balances. Accounts are hashed to segments, each segment is an LRU
+ * map holding at most its share of the maximum size.
+ * <p>
+ * Only committed balances get in: writers update the cache after their commit, never before, and a newer version is
+ * never replaced by an older one. A reader filling the cache after a miss passes the stamp taken before its database
+ * read, the fill is dropped when the account was invalidated in between.
+ */
+public class AccountBalanceCache {
+
+    private final Segment[] segments;
+    private final int maximumSize;
+    private final CacheMetrics metrics = new CacheMetrics();
+
+    public AccountBalanceCache(int maximumSize, int segmentCount) {
+        if (maximumSize < 1 || segmentCount < 1) {
+            throw new IllegalArgumentException("Balance cache size and segments must be positive");
+        }
+        int segmentCapacity = Math.max(1, maximumSize / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        this.maximumSize = segmentCapacity * segmentCount;
+    }
+
+    /**
+     * Cached balance of the account, null on a miss.
+     */
+    public Money get(long accountId) {
+        Segment segment = segmentOf(accountId);
+        CachedBalance cached;
+        synchronized (segment) {
+            cached = segment.get(accountId);
+        }
+        if (cached == null) {
+            metrics.miss();
+            return null;
+        }
+        metrics.hit();
+        return cached.balance;
+    }
+
+    /**
+     * Stamp to take before reading a balance from the database and to pass to {@link #fill}.
+     */
+    public long stamp(long accountId) {
+        Segment segment = segmentOf(accountId);
+        synchronized (segment) {
+            return segment.invalidations;
+        }
+    }
+
+    /**
+     * Caches a balance read from the database after a miss, unless the account was invalidated since {@code stamp}.
+     */
+    public void fill(long accountId, Money balance, long version, long stamp) {
+        Segment segment = segmentOf(accountId);
+        synchronized (segment) {
+            if (segment.invalidations == stamp) {
+                putIfNewer(segment, accountId, balance, version);
+            }
+        }
+    }
+
+    /**
+     * Caches a committed balance unless a newer version is already cached.
+     */
+    public void put(long accountId, Money balance, long version) {
+        Segment segment = segmentOf(accountId);
+        synchronized (segment) {
+            putIfNewer(segment, accountId, balance, version);
+        }
+    }
+
+    public void invalidate(long accountId) {
+        Segment segment = segmentOf(accountId);
+        synchronized (segment) {
+            segment.remove(accountId);
+            segment.invalidations++;
+        }
+    }
+
+    /**
+     * Caches the balance and version the account has once the current transaction commits, nothing happens on
+     * rollback.
+     */
+    public void putAfterCommit(Account account) {
+        afterCommit(() -> put(account.getId(), account.getBalance(), account.getVersion()));
+    }
+
+    /**
+     * Invalidates the account once the current transaction commits, for updates whose new balance is not known.
+     */
+    public void invalidateAfterCommit(long accountId) {
+        afterCommit(() -> invalidate(accountId));
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    public CacheMetrics metrics() {
+        return metrics;
+    }
+
+    private void putIfNewer(Segment segment, long accountId, Money balance, long version) {
+        CachedBalance cached = segment.get(accountId);
+        if (cached == null || cached.version < version) {
+            segment.put(accountId, new CachedBalance(balance, version));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Segment segmentOf(long accountId) {
+        int hash = Long.hashCode(accountId);
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    private static final class CachedBalance {
+        private final Money balance;
+        private final long version;
+
+        private CachedBalance(Money balance, long version) {
+            this.balance = balance;
+            this.version = version;
+        }
+    }
+
+    private final class Segment extends LinkedHashMap<Long, CachedBalance> {
+        private final int capacity;
+        private long invalidations;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedBalance> eldest) {
+            if (size() > capacity) {
+                metrics.eviction();
+                return true;
+            }
+            return false;
+        }
+    }
+}
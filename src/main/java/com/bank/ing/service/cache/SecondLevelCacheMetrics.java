@@ -0,0 +1,45 @@
+package com.bank.ing.service.cache;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Hit, miss and put counters of the Hibernate second-level cache regions, read from the Hibernate statistics. The
+ * statistics are looked up on every read: meters are bound while the session factory is still being built.
+ */
+public class SecondLevelCacheMetrics {
+
+    private final Supplier<Statistics> statistics;
+    private final List<String> regions;
+
+    public SecondLevelCacheMetrics(Supplier<Statistics> statistics, List<String> regions) {
+        this.statistics = statistics;
+        this.regions = regions;
+    }
+
+    public List<String> regions() {
+        return regions;
+    }
+
+    public long getHits(String region) {
+        return statistics.get().getCacheRegionStatistics(region).getHitCount();
+    }
+
+    public long getMisses(String region) {
+        return statistics.get().getCacheRegionStatistics(region).getMissCount();
+    }
+
+    public long getPuts(String region) {
+        return statistics.get().getCacheRegionStatistics(region).getPutCount();
+    }
+
+    public double getHitRatio(String region) {
+        CacheRegionStatistics regionStatistics = statistics.get().getCacheRegionStatistics(region);
+        long hitCount = regionStatistics.getHitCount();
+        long requests = hitCount + regionStatistics.getMissCount();
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+}
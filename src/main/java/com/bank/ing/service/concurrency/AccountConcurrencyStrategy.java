@@ -0,0 +1,21 @@
+package com.bank.ing.service.concurrency;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Protects account balances against lost updates when several requests change the same accounts.
+ * Selected with {@code bank.concurrency.strategy}.
+ */
+public interface AccountConcurrencyStrategy {
+
+    /**
+     * Runs the unit of work in its own transaction, protected against concurrent updates of the given accounts.
+     * The unit of work may be executed more than once, it must not have side effects outside the transaction.
+     */
+    <T> T execute(Collection<Long> accountIds, Supplier<T> unitOfWork);
+
+    String name();
+
+    ContentionMetrics metrics();
+}
@@ -0,0 +1,72 @@
+package com.bank.ing.service.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention counters of an {@link AccountConcurrencyStrategy}. A lock wait is an acquisition of the account locks
+ * that took longer than the lock wait threshold, the time of an uncontended acquisition: the pessimistic strategy
+ * times every {@code SELECT ... FOR UPDATE} round trip and the striped one only the acquisitions it could not make
+ * right away, the threshold gives both the same meaning.
+ */
+public class ContentionMetrics {
+
+    private final long lockWaitThresholdNanos;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+    private final LongAdder lockWaits = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+
+    public ContentionMetrics() {
+        this(Duration.ZERO);
+    }
+
+    public ContentionMetrics(Duration lockWaitThreshold) {
+        this.lockWaitThresholdNanos = lockWaitThreshold.toNanos();
+    }
+
+    void execution() {
+        executions.increment();
+    }
+
+    void retry() {
+        retries.increment();
+    }
+
+    void abort() {
+        aborts.increment();
+    }
+
+    /**
+     * Records the acquisition of the account locks, counted as a wait when it took longer than the threshold.
+     */
+    void lockAcquired(long nanos) {
+        if (nanos > lockWaitThresholdNanos) {
+            lockWaits.increment();
+            lockWaitNanos.add(nanos);
+        }
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getAborts() {
+        return aborts.sum();
+    }
+
+    public long getLockWaits() {
+        return lockWaits.sum();
+    }
+
+    public long getLockWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lockWaitNanos.sum());
+    }
+}
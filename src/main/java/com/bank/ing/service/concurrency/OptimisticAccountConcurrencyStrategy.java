@@ -0,0 +1,75 @@
+package com.bank.ing.service.concurrency;
+
+import com.bank.ing.exception.ConcurrentAccountUpdateException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Relies on the {@code @Version} of {@link com.bank.ing.entity.Account}: a transaction committing a stale account
+ * fails and the whole unit of work is retried after a jittered exponential backoff, up to a bounded number of attempts.
+ * Row lock conflicts raised by the database while flushing are retried the same way.
+ */
+@Log4j2
+public class OptimisticAccountConcurrencyStrategy implements AccountConcurrencyStrategy {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final ContentionMetrics metrics = new ContentionMetrics();
+
+    public OptimisticAccountConcurrencyStrategy(TransactionTemplate transactionTemplate, int maxAttempts,
+                                                Duration initialBackoff, Duration maxBackoff) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    @Override
+    public <T> T execute(Collection<Long> accountIds, Supplier<T> unitOfWork) {
+        metrics.execution();
+        long backoffNanos = initialBackoffNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> unitOfWork.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    metrics.abort();
+                    log.error("Concurrent update of accounts {} still failing after {} attempts", accountIds, attempt);
+                    throw new ConcurrentAccountUpdateException();
+                }
+                metrics.retry();
+                backoff(backoffNanos);
+                backoffNanos = Math.min(backoffNanos * 2, maxBackoffNanos);
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "optimistic";
+    }
+
+    @Override
+    public ContentionMetrics metrics() {
+        return metrics;
+    }
+
+    private void backoff(long backoffNanos) {
+        try {
+            long jitteredNanos = ThreadLocalRandom.current().nextLong(backoffNanos / 2, backoffNanos + 1);
+            Thread.sleep(jitteredNanos / 1_000_000, (int) (jitteredNanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.abort();
+            throw new ConcurrentAccountUpdateException();
+        }
+    }
+}
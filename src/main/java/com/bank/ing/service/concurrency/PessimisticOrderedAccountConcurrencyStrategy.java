@@ -0,0 +1,62 @@
+package com.bank.ing.service.concurrency;
+
+import com.bank.ing.exception.ConcurrentAccountUpdateException;
+import com.bank.ing.repository.AccountRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Locks the account rows with {@code SELECT ... FOR UPDATE} before running the unit of work. Locks are always taken
+ * in ascending account id order, so A to B and B to A transfers queue behind each other instead of deadlocking.
+ * The locked accounts stay in the persistence context, later lookups of the unit of work reuse them.
+ */
+@Log4j2
+public class PessimisticOrderedAccountConcurrencyStrategy implements AccountConcurrencyStrategy {
+
+    private final TransactionTemplate transactionTemplate;
+    private final AccountRepository accountRepository;
+    private final ContentionMetrics metrics;
+
+    public PessimisticOrderedAccountConcurrencyStrategy(TransactionTemplate transactionTemplate,
+                                                        AccountRepository accountRepository,
+                                                        Duration lockWaitThreshold) {
+        this.transactionTemplate = transactionTemplate;
+        this.accountRepository = accountRepository;
+        this.metrics = new ContentionMetrics(lockWaitThreshold);
+    }
+
+    @Override
+    public <T> T execute(Collection<Long> accountIds, Supplier<T> unitOfWork) {
+        metrics.execution();
+        try {
+            return transactionTemplate.execute(status -> {
+                long start = System.nanoTime();
+                for (Long accountId : new TreeSet<>(accountIds)) {
+                    accountRepository.findByIdForUpdate(accountId);
+                }
+                metrics.lockAcquired(System.nanoTime() - start);
+                return unitOfWork.get();
+            });
+        } catch (PessimisticLockingFailureException e) {
+            metrics.abort();
+            log.error("Could not lock accounts {}", accountIds);
+            throw new ConcurrentAccountUpdateException();
+        }
+    }
+
+    @Override
+    public String name() {
+        return "pessimistic";
+    }
+
+    @Override
+    public ContentionMetrics metrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,89 @@
+package com.bank.ing.service.concurrency;
+
+import com.bank.ing.exception.ConcurrentAccountUpdateException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes units of work on the same accounts with an in-JVM table of locks, each account being hashed to a stripe.
+ * Stripes are acquired in ascending order and held until the transaction has committed.
+ * Only correct when a single application instance writes to the database.
+ */
+@Log4j2
+public class StripedLockAccountConcurrencyStrategy implements AccountConcurrencyStrategy {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutNanos;
+    private final ContentionMetrics metrics;
+
+    public StripedLockAccountConcurrencyStrategy(TransactionTemplate transactionTemplate, int stripeCount,
+                                                 Duration lockTimeout, Duration lockWaitThreshold) {
+        this.transactionTemplate = transactionTemplate;
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.lockTimeoutNanos = lockTimeout.toNanos();
+        this.metrics = new ContentionMetrics(lockWaitThreshold);
+    }
+
+    @Override
+    public <T> T execute(Collection<Long> accountIds, Supplier<T> unitOfWork) {
+        metrics.execution();
+        int[] stripeIndexes = accountIds.stream().mapToInt(this::stripeOf).sorted().distinct().toArray();
+        int locked = 0;
+        try {
+            for (int stripeIndex : stripeIndexes) {
+                lock(stripes[stripeIndex], accountIds);
+                locked++;
+            }
+            return transactionTemplate.execute(status -> unitOfWork.get());
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[stripeIndexes[i]].unlock();
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "striped";
+    }
+
+    @Override
+    public ContentionMetrics metrics() {
+        return metrics;
+    }
+
+    int stripeOf(long accountId) {
+        return (int) Math.floorMod(accountId, (long) stripes.length);
+    }
+
+    private void lock(ReentrantLock stripe, Collection<Long> accountIds) {
+        if (stripe.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = stripe.tryLock(lockTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        metrics.lockAcquired(System.nanoTime() - start);
+        if (!acquired) {
+            metrics.abort();
+            log.error("Could not lock accounts {} within {} ms", accountIds,
+                    TimeUnit.NANOSECONDS.toMillis(lockTimeoutNanos));
+            throw new ConcurrentAccountUpdateException();
+        }
+    }
+}
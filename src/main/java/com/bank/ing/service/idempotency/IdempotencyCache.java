@@ -0,0 +1,61 @@
+package com.bank.ing.service.idempotency;
+
+import com.bank.ing.entity.IdempotencyRecord;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory index of the recent idempotency records, bounded in size and in age: records are kept in creation order,
+ * the oldest one is dropped once {@code maximumSize} is reached and a record older than {@code timeToLive} is never
+ * returned. Records dropped here are still found in the {@code idempotency_key} table.
+ */
+public class IdempotencyCache {
+
+    private final int maximumSize;
+    private final Duration timeToLive;
+    private final Map<String, IdempotencyRecord> records;
+
+    public IdempotencyCache(int maximumSize, Duration timeToLive) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Idempotency cache size must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+        this.records = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > IdempotencyCache.this.maximumSize || isExpired(eldest.getValue(), LocalDateTime.now());
+            }
+        };
+    }
+
+    /**
+     * Record of the key, null when it is unknown or expired.
+     */
+    public synchronized IdempotencyRecord get(String key) {
+        IdempotencyRecord record = records.get(key);
+        if (record == null) {
+            return null;
+        }
+        if (isExpired(record, LocalDateTime.now())) {
+            records.remove(key);
+            return null;
+        }
+        return record;
+    }
+
+    public synchronized void put(IdempotencyRecord record) {
+        records.put(record.getKey(), record);
+    }
+
+    public synchronized int size() {
+        return records.size();
+    }
+
+    private boolean isExpired(IdempotencyRecord record, LocalDateTime now) {
+        return record.getCreatedAt().plus(timeToLive).isBefore(now);
+    }
+}
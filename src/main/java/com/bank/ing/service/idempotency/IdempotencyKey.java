@@ -0,0 +1,100 @@
+package com.bank.ing.service.idempotency;
+
+import com.bank.ing.entity.IdempotencyRecord;
+import com.bank.ing.exception.InvalidRequestOperationException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.bank.ing.configuration.Constants.INVALID_IDEMPOTENCY_KEY;
+
+/**
+ * Client supplied {@code Idempotency-Key} with the fingerprint of the request it came with: a key reused for another
+ * endpoint or another request body is rejected instead of replaying an unrelated operation.
+ * <p>
+ * The fingerprint hashes a canonical JSON form of the request: properties sorted by name and numbers without
+ * trailing zeros, so that {@code 10} and {@code 10.00} are the same request.
+ */
+@Value
+@Log4j2
+public class IdempotencyKey {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    String key;
+    String requestHash;
+
+    /**
+     * Key of a request to {@code endpoint}, null when the client sent none.
+     */
+    public static IdempotencyKey of(String key, String endpoint, Object request) {
+        if (key == null) {
+            return null;
+        }
+        if (key.isBlank() || key.length() > IdempotencyRecord.KEY_MAX_LENGTH) {
+            log.error(INVALID_IDEMPOTENCY_KEY, key);
+            throw new InvalidRequestOperationException();
+        }
+        return new IdempotencyKey(key, sha256(endpoint + '\n' + canonicalJson(request)));
+    }
+
+    static String canonicalJson(Object request) {
+        StringBuilder json = new StringBuilder();
+        appendCanonical(OBJECT_MAPPER.valueToTree(request), json);
+        return json.toString();
+    }
+
+    private static void appendCanonical(JsonNode node, StringBuilder json) {
+        if (node.isObject()) {
+            json.append('{');
+            List<String> names = new ArrayList<>();
+            node.fieldNames().forEachRemaining(names::add);
+            Collections.sort(names);
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append(TextNode.valueOf(names.get(i))).append(':');
+                appendCanonical(node.get(names.get(i)), json);
+            }
+            json.append('}');
+        } else if (node.isArray()) {
+            json.append('[');
+            for (int i = 0; i < node.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendCanonical(node.get(i), json);
+            }
+            json.append(']');
+        } else if (node.isNumber()) {
+            json.append(node.decimalValue().stripTrailingZeros().toPlainString());
+        } else {
+            json.append(node);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
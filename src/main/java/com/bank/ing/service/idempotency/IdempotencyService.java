@@ -0,0 +1,159 @@
+package com.bank.ing.service.idempotency;
+
+import com.bank.ing.configuration.IdempotencyProperties;
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.entity.IdempotencyRecord;
+import com.bank.ing.exception.IdempotencyKeyReusedException;
+import com.bank.ing.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static com.bank.ing.configuration.Constants.IDEMPOTENCY_KEY_REUSED_ERROR;
+
+/**
+ * Applies an operation at most once per {@code Idempotency-Key}. A retried request is answered from the in-memory
+ * index, or from the {@code idempotency_key} table once evicted from memory, without touching the ledger. Requests
+ * with the same key running at the same time in this instance wait for the first one instead of running again, the
+ * primary key of the table covers the other instances. The response of the operation is stored with the key and
+ * replayed as it was first returned.
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyCache idempotencyCache;
+    private final IdempotencyProperties idempotencyProperties;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Result of the operation already created for the key, or of {@code operation} which must
+     * {@link #record record} the key when it creates one. Without key the operation is simply applied.
+     */
+    public ResponseDepositWithdrawTransferDTO execute(IdempotencyKey key,
+                                                      Supplier<ResponseDepositWithdrawTransferDTO> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        while (true) {
+            Optional<IdempotencyRecord> stored = findRecord(key.getKey());
+            if (stored.isPresent()) {
+                return replay(key, stored.get());
+            }
+            CompletableFuture<Void> running = new CompletableFuture<>();
+            CompletableFuture<Void> concurrent = inFlight.putIfAbsent(key.getKey(), running);
+            if (concurrent != null) {
+                log.debug("Waiting for the request already running with idempotency key={}", key.getKey());
+                concurrent.join();
+                continue;
+            }
+            try {
+                return operation.get();
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Idempotency key={} recorded concurrently by another instance", key.getKey());
+                return replay(key, idempotencyRecordRepository.findById(key.getKey()).orElseThrow(() -> e));
+            } finally {
+                inFlight.remove(key.getKey(), running);
+                running.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Records the response of the operation created for the key in the current transaction, it is only visible once
+     * committed.
+     */
+    @Transactional
+    public void record(IdempotencyKey key, ResponseDepositWithdrawTransferDTO response) {
+        IdempotencyRecord record = newRecord(key, response);
+        idempotencyRecordRepository.save(record);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                idempotencyCache.put(record);
+            }
+        });
+    }
+
+    /**
+     * Deletes the records older than {@code bank.idempotency.time-to-live}, their keys can then be used again.
+     */
+    @Scheduled(initialDelayString = "${bank.idempotency.cleanup-interval:PT1H}",
+            fixedDelayString = "${bank.idempotency.cleanup-interval:PT1H}")
+    @Transactional
+    public void deleteExpiredRecords() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(
+                getCurrentTimestamp().minus(idempotencyProperties.getTimeToLive()));
+        log.info("Deleted {} expired idempotency keys", deleted);
+    }
+
+    private Optional<IdempotencyRecord> findRecord(String key) {
+        IdempotencyRecord cached = idempotencyCache.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(key);
+        stored.ifPresent(idempotencyCache::put);
+        return stored;
+    }
+
+    /**
+     * Record of the response first returned for the key, shared with the reactive stack.
+     */
+    public IdempotencyRecord newRecord(IdempotencyKey key, ResponseDepositWithdrawTransferDTO response) {
+        return IdempotencyRecord.builder()
+                .key(key.getKey())
+                .requestHash(key.getRequestHash())
+                .operationId(response.getId())
+                .operationType(response.getTypeOperation())
+                .response(toJson(response))
+                .createdAt(getCurrentTimestamp())
+                .build();
+    }
+
+    /**
+     * Response recorded for the key, rejected when the key came with another request. Shared with the reactive
+     * stack.
+     */
+    public ResponseDepositWithdrawTransferDTO replay(IdempotencyKey key, IdempotencyRecord record) {
+        if (!record.getRequestHash().equals(key.getRequestHash())) {
+            log.error(IDEMPOTENCY_KEY_REUSED_ERROR, key.getKey());
+            throw new IdempotencyKeyReusedException();
+        }
+        log.debug("Replaying operation id={} of idempotency key={}", record.getOperationId(), key.getKey());
+        try {
+            return objectMapper.readValue(record.getResponse(), ResponseDepositWithdrawTransferDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable response of idempotency key=" + key.getKey(), e);
+        }
+    }
+
+    private String toJson(ResponseDepositWithdrawTransferDTO response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response of operation id=" + response.getId(), e);
+        }
+    }
+
+    LocalDateTime getCurrentTimestamp() {
+        return LocalDateTime.now();
+    }
+}
@@ -7,16 +7,19 @@ import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
 import com.bank.ing.dto.response.ResponseAccountDTO;
 import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
 import com.bank.ing.entity.Account;
+import com.bank.ing.entity.AccountHistoryEntry;
 import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
 
 public class DtoMapper {
 
 
     public static Account toAccountEntity(RequestCreationAccountDTO requestCreationAccountDTO) {
+        Money initialDepositAmount = Money.of(requestCreationAccountDTO.getInitialDepositAmount());
         return Account
                 .builder()
-                .initialDepositAmount(requestCreationAccountDTO.getInitialDepositAmount())
-                .balance(requestCreationAccountDTO.getInitialDepositAmount())
+                .initialDepositAmount(initialDepositAmount)
+                .balance(initialDepositAmount)
                 .build();
     }
 
@@ -33,14 +36,14 @@ public class DtoMapper {
     public static Operation toTransferOperationEntity(RequestTransferOperationDTO requestTransferOperationDTO) {
         return Operation
                 .builder()
-                .value(requestTransferOperationDTO.getValue())
+                .value(Money.of(requestTransferOperationDTO.getValue()))
                 .build();
     }
 
     public static Operation toDepositOperationEntity(RequestDepositAccountDTO requestOperationDTO) {
         return Operation
                 .builder()
-                .value(requestOperationDTO.getDepositAmount())
+                .value(Money.of(requestOperationDTO.getDepositAmount()))
                 .build();
     }
 
@@ -48,7 +51,7 @@ public class DtoMapper {
     public static Operation toWithdrawOperationEntity(RequestWithdrawAccountDTO requestOperationDTO) {
         return Operation
                 .builder()
-                .value(requestOperationDTO.getWithdrawAmount())
+                .value(Money.of(requestOperationDTO.getWithdrawAmount()))
                 .build();
     }
 
@@ -64,15 +67,15 @@ public class DtoMapper {
                 .build();
     }
 
-    public static ResponseDepositWithdrawTransferDTO toResponseHistoryDTO(Operation operation) {
+    public static ResponseDepositWithdrawTransferDTO toResponseHistoryDTO(AccountHistoryEntry entry) {
         return ResponseDepositWithdrawTransferDTO
                 .builder()
-                .id(operation.getId())
-                .typeOperation(operation.getType())
+                .id(entry.getOperationId())
+                .typeOperation(entry.getType())
                 .senderAccountId(null)
-                .receiverAccountId(operation.getReceiverAccount().getId())
-                .value(operation.getValue())
-                .creationTimestamp(operation.getOperationDateTime())
+                .receiverAccountId(entry.getReceiverAccountId())
+                .value(entry.getValue())
+                .creationTimestamp(entry.getOperationDateTime())
                 .build();
     }
 
@@ -0,0 +1,114 @@
+package com.bank.ing.service.metrics;
+
+import com.bank.ing.exception.AccountNotFoundException;
+import com.bank.ing.exception.ConcurrentAccountUpdateException;
+import com.bank.ing.exception.InsufficientBalanceException;
+import com.bank.ing.exception.InvalidRequestOperationException;
+import com.bank.ing.exception.TransferNotAllowedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation of the ledger operations. Every call is timed with a percentile histogram per
+ * operation, counted per operation and outcome, and tracked while it runs: the active count of
+ * {@value #OPERATION_ACTIVE} is the number of operations in flight, each holding its transaction. Every meter is
+ * registered up front, recording a call only looks its meters up.
+ */
+public class OperationMetrics {
+
+    public static final String OPERATION_TIMER = "bank.operation";
+    public static final String OPERATION_OUTCOMES = "bank.operation.outcomes";
+    public static final String OPERATION_ACTIVE = "bank.operation.active";
+
+    public static final String TRANSFER = "transfer";
+    public static final String DEPOSIT = "deposit";
+    public static final String WITHDRAW = "withdraw";
+    public static final String HISTORY = "history";
+    public static final String BALANCE = "balance";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_INSUFFICIENT_BALANCE = "insufficient_balance";
+    public static final String OUTCOME_NOT_FOUND = "not_found";
+    public static final String OUTCOME_TRANSFER_NOT_ALLOWED = "transfer_not_allowed";
+    public static final String OUTCOME_INVALID_REQUEST = "invalid_request";
+    public static final String OUTCOME_CONFLICT = "conflict";
+    public static final String OUTCOME_ERROR = "error";
+
+    private static final String[] OPERATIONS = {TRANSFER, DEPOSIT, WITHDRAW, HISTORY, BALANCE};
+    private static final String[] OUTCOMES = {OUTCOME_SUCCESS, OUTCOME_INSUFFICIENT_BALANCE, OUTCOME_NOT_FOUND,
+            OUTCOME_TRANSFER_NOT_ALLOWED, OUTCOME_INVALID_REQUEST, OUTCOME_CONFLICT, OUTCOME_ERROR};
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new HashMap<>();
+    private final Map<String, LongTaskTimer> activeTimers = new HashMap<>();
+    private final Map<String, Map<String, Counter>> outcomeCounters = new HashMap<>();
+
+    public OperationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (String operation : OPERATIONS) {
+            timers.put(operation, Timer.builder(OPERATION_TIMER)
+                    .description("Duration of the ledger operations")
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            activeTimers.put(operation, LongTaskTimer.builder(OPERATION_ACTIVE)
+                    .description("Ledger operations in flight")
+                    .tag("operation", operation)
+                    .register(meterRegistry));
+            Map<String, Counter> counters = new HashMap<>();
+            for (String outcome : OUTCOMES) {
+                counters.put(outcome, Counter.builder(OPERATION_OUTCOMES)
+                        .description("Ledger operations per outcome")
+                        .tags("operation", operation, "outcome", outcome)
+                        .register(meterRegistry));
+            }
+            outcomeCounters.put(operation, counters);
+        }
+    }
+
+    /**
+     * Runs {@code call} as the {@code operation}, one of the operation names of this class, and records it.
+     */
+    public <T> T record(String operation, Supplier<T> call) {
+        LongTaskTimer.Sample active = activeTimers.get(operation).start();
+        long start = meterRegistry.config().clock().monotonicTime();
+        String outcome = OUTCOME_SUCCESS;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            timers.get(operation).record(meterRegistry.config().clock().monotonicTime() - start,
+                    TimeUnit.NANOSECONDS);
+            active.stop();
+            outcomeCounters.get(operation).get(outcome).increment();
+        }
+    }
+
+    static String outcomeOf(RuntimeException e) {
+        if (e instanceof InsufficientBalanceException) {
+            return OUTCOME_INSUFFICIENT_BALANCE;
+        }
+        if (e instanceof AccountNotFoundException) {
+            return OUTCOME_NOT_FOUND;
+        }
+        if (e instanceof TransferNotAllowedException) {
+            return OUTCOME_TRANSFER_NOT_ALLOWED;
+        }
+        if (e instanceof InvalidRequestOperationException) {
+            return OUTCOME_INVALID_REQUEST;
+        }
+        if (e instanceof ConcurrentAccountUpdateException) {
+            return OUTCOME_CONFLICT;
+        }
+        return OUTCOME_ERROR;
+    }
+}
@@ -0,0 +1,163 @@
+package com.bank.ing.service.reactive;
+
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.dto.response.ResponseAccountBalanceDTO;
+import com.bank.ing.dto.response.ResponseAccountDTO;
+import com.bank.ing.exception.AccountNotFoundException;
+import com.bank.ing.exception.CustomerNotFoundException;
+import com.bank.ing.money.Money;
+import com.bank.ing.repository.OperationHistoryQueries;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.LocalDateTime;
+
+import static com.bank.ing.configuration.Constants.ACCOUNT_NOT_CREATED_AT_ERROR;
+import static com.bank.ing.configuration.Constants.ACCOUNT_NOT_FOUND_ERROR;
+import static com.bank.ing.configuration.Constants.CUSTOMER_NOT_FOUND_ID;
+import static com.bank.ing.service.BalanceCheckpointService.FIRST_CHECKPOINT_FROM;
+
+/**
+ * Reactive counterpart of the {@code AccountService} and of the balance at a date of the
+ * {@code BalanceCheckpointService}, on R2DBC.
+ */
+@Service
+@Profile(ReactiveConfiguration.PROFILE)
+@RequiredArgsConstructor
+@Log4j2
+public class ReactiveAccountService {
+
+    private static final String CUSTOMER_EXISTS = "SELECT COUNT(*) FROM customer WHERE customer_id = :id";
+
+    /**
+     * Sequence of the Hibernate generated account ids, one id per call.
+     */
+    private static final String NEXT_ACCOUNT_ID = "SELECT NEXT VALUE FOR hibernate_sequence";
+
+    private static final String INSERT_ACCOUNT = "INSERT INTO account (account_id, account_balance, "
+            + "account_creation_timestamp, account_initial_deposit_amount, account_version, account_id_customer) "
+            + "VALUES (:id, :amount, :creationTimestamp, :amount, 0, :customerId)";
+
+    private static final String FIND_BALANCE = "SELECT account_balance FROM account WHERE account_id = :id";
+
+    private static final String FIND_OPENING = "SELECT account_creation_timestamp, account_initial_deposit_amount "
+            + "FROM account WHERE account_id = :id";
+
+    private static final String FIND_LATEST_CHECKPOINT = "SELECT checkpoint_date_time, checkpoint_balance "
+            + "FROM balance_checkpoint WHERE checkpoint_account_id = :accountId AND checkpoint_date_time <= :asOf "
+            + "ORDER BY checkpoint_date_time DESC LIMIT 1";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    public Mono<ResponseAccountDTO> createNewAccount(RequestCreationAccountDTO requestCreationAccountDTO) {
+        long customerId = requestCreationAccountDTO.getCustomerId();
+        Money initialDepositAmount = Money.of(requestCreationAccountDTO.getInitialDepositAmount());
+        LocalDateTime creationTimestamp = getCurrentTimestamp();
+        Mono<ResponseAccountDTO> created = databaseClient.sql(CUSTOMER_EXISTS)
+                .bind("id", customerId)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(count -> count == 0 ? customerNotFound(customerId) : nextAccountId())
+                .flatMap(id -> databaseClient.sql(INSERT_ACCOUNT)
+                        .bind("id", id)
+                        .bind("amount", initialDepositAmount.minorUnits())
+                        .bind("creationTimestamp", creationTimestamp)
+                        .bind("customerId", customerId)
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(ResponseAccountDTO.builder()
+                                .id(id)
+                                .customerId(customerId)
+                                .balance(initialDepositAmount)
+                                .creationTimestamp(creationTimestamp)
+                                .build()));
+        return transactionalOperator.transactional(created);
+    }
+
+    public Mono<ResponseAccountBalanceDTO> retrieveBalance(long accountId) {
+        return databaseClient.sql(FIND_BALANCE)
+                .bind("id", accountId)
+                .map(row -> Money.ofMinorUnits(row.get(0, Long.class)))
+                .one()
+                .switchIfEmpty(accountNotFound(accountId))
+                .map(balance -> ResponseAccountBalanceDTO.builder()
+                        .id(accountId)
+                        .balance(balance)
+                        .creationTimestamp(getCurrentTimestamp())
+                        .build());
+    }
+
+    /**
+     * The latest checkpoint before {@code asOf}, or the initial deposit, plus the operations up to {@code asOf}.
+     */
+    public Mono<ResponseAccountBalanceDTO> retrieveBalanceAsOf(long accountId, LocalDateTime asOf) {
+        Mono<ResponseAccountBalanceDTO> balance = databaseClient.sql(FIND_OPENING)
+                .bind("id", accountId)
+                .map(row -> Tuples.of(row.get(0, LocalDateTime.class), Money.ofMinorUnits(row.get(1, Long.class))))
+                .one()
+                .switchIfEmpty(accountNotFound(accountId))
+                .flatMap(opening -> {
+                    if (asOf.isBefore(opening.getT1())) {
+                        log.error(ACCOUNT_NOT_CREATED_AT_ERROR, accountId, asOf);
+                        return Mono.error(new AccountNotFoundException());
+                    }
+                    return latestCheckpoint(accountId, asOf)
+                            .defaultIfEmpty(Tuples.of(FIRST_CHECKPOINT_FROM, opening.getT2()));
+                })
+                .flatMap(checkpoint -> databaseClient.sql(OperationHistoryQueries.BALANCE_DELTA)
+                        .bind("accountId", accountId)
+                        .bind("from", checkpoint.getT1())
+                        .bind("to", asOf)
+                        // SUM of BIGINT columns is a DECIMAL in H2
+                        .map(row -> ((Number) row.get(0)).longValue())
+                        .one()
+                        .map(delta -> ResponseAccountBalanceDTO.builder()
+                                .id(accountId)
+                                .balance(checkpoint.getT2().plus(Money.ofMinorUnits(delta)))
+                                .asOf(asOf)
+                                .creationTimestamp(getCurrentTimestamp())
+                                .build()));
+        return transactionalOperator.transactional(balance);
+    }
+
+    private Mono<Tuple2<LocalDateTime, Money>> latestCheckpoint(long accountId, LocalDateTime asOf) {
+        return databaseClient.sql(FIND_LATEST_CHECKPOINT)
+                .bind("accountId", accountId)
+                .bind("asOf", asOf)
+                .map(row -> Tuples.of(row.get(0, LocalDateTime.class), Money.ofMinorUnits(row.get(1, Long.class))))
+                .one();
+    }
+
+    private Mono<Long> nextAccountId() {
+        return databaseClient.sql(NEXT_ACCOUNT_ID)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    static <T> Mono<T> accountNotFound(long accountId) {
+        return Mono.defer(() -> {
+            log.error(ACCOUNT_NOT_FOUND_ERROR, accountId);
+            return Mono.error(new AccountNotFoundException());
+        });
+    }
+
+    private static <T> Mono<T> customerNotFound(long customerId) {
+        return Mono.defer(() -> {
+            log.error(CUSTOMER_NOT_FOUND_ID, customerId);
+            return Mono.error(new CustomerNotFoundException());
+        });
+    }
+
+    LocalDateTime getCurrentTimestamp() {
+        return LocalDateTime.now();
+    }
+}
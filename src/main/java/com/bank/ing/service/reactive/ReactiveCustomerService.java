@@ -0,0 +1,63 @@
+package com.bank.ing.service.reactive;
+
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.CustomerDTO;
+import com.bank.ing.dto.response.ResponseCustomersDTO;
+import com.bank.ing.service.CustomerCursor;
+import com.bank.ing.service.CustomerService;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive counterpart of the {@code CustomerService}, on R2DBC.
+ */
+@Service
+@Profile(ReactiveConfiguration.PROFILE)
+@RequiredArgsConstructor
+public class ReactiveCustomerService {
+
+    private static final String CUSTOMER_PAGE = "SELECT customer_id, customer_name FROM customer "
+            + "WHERE customer_id > :after ORDER BY customer_id LIMIT :limit";
+
+    private static final String CUSTOMER_EXPORT = "SELECT customer_id, customer_name FROM customer "
+            + "ORDER BY customer_id";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * One page of customers in id order, see {@code CustomerService#customers}.
+     */
+    public Mono<ResponseCustomersDTO> customers(int limit, String cursor) {
+        return Mono.defer(() -> {
+            CustomerService.checkLimit(limit);
+            return databaseClient.sql(CUSTOMER_PAGE)
+                    .bind("after", CustomerCursor.decode(cursor).getCustomerId())
+                    .bind("limit", limit + 1)
+                    .map((row, metadata) -> toCustomerDTO(row))
+                    .all()
+                    .collectList()
+                    .map(customers -> CustomerService.page(customers, limit, getCurrentTimestamp()));
+        });
+    }
+
+    public Flux<CustomerDTO> exportCustomers() {
+        return databaseClient.sql(CUSTOMER_EXPORT)
+                .map((row, metadata) -> toCustomerDTO(row))
+                .all();
+    }
+
+    private static CustomerDTO toCustomerDTO(Row row) {
+        return new CustomerDTO(row.get("customer_id", Long.class), row.get("customer_name", String.class));
+    }
+
+    LocalDateTime getCurrentTimestamp() {
+        return LocalDateTime.now();
+    }
+}
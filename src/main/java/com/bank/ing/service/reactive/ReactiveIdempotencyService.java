@@ -0,0 +1,97 @@
+package com.bank.ing.service.reactive;
+
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.entity.IdempotencyRecord;
+import com.bank.ing.service.idempotency.IdempotencyKey;
+import com.bank.ing.service.idempotency.IdempotencyService;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive counterpart of the {@code IdempotencyService}, on R2DBC. The key is recorded in the transaction of the
+ * operation and looked up in the {@code idempotency_key} table, whose primary key makes a concurrent request with the
+ * same key fail and replay the operation of the first one. Records are built and replayed as on the servlet stack.
+ */
+@Service
+@Profile(ReactiveConfiguration.PROFILE)
+@RequiredArgsConstructor
+@Log4j2
+public class ReactiveIdempotencyService {
+
+    private static final String FIND_RECORD = "SELECT idempotency_key, idempotency_request_hash, "
+            + "idempotency_operation_id, idempotency_operation_type, idempotency_response, idempotency_created_at "
+            + "FROM idempotency_key WHERE idempotency_key = :key";
+
+    private static final String INSERT_RECORD = "INSERT INTO idempotency_key (idempotency_key, "
+            + "idempotency_request_hash, idempotency_operation_id, idempotency_operation_type, idempotency_response, "
+            + "idempotency_created_at) VALUES (:key, :requestHash, :operationId, :operationType, :response, :createdAt)";
+
+    private final DatabaseClient databaseClient;
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Response of the operation already created for the key, or of {@code operation} which must
+     * {@link #record record} the key when it creates one. Without key the operation is simply applied.
+     */
+    public Mono<ResponseDepositWithdrawTransferDTO> execute(IdempotencyKey key,
+                                                            Mono<ResponseDepositWithdrawTransferDTO> operation) {
+        if (key == null) {
+            return operation;
+        }
+        return findRecord(key.getKey())
+                .map(record -> idempotencyService.replay(key, record))
+                .switchIfEmpty(Mono.defer(() -> operation.onErrorResume(DataIntegrityViolationException.class, e -> {
+                    log.debug("Idempotency key={} recorded concurrently", key.getKey());
+                    return findRecord(key.getKey())
+                            .map(record -> idempotencyService.replay(key, record))
+                            .switchIfEmpty(Mono.error(e));
+                })));
+    }
+
+    /**
+     * Records the response of the operation created for the key, to be run in the transaction of the operation.
+     */
+    public Mono<Void> record(IdempotencyKey key, ResponseDepositWithdrawTransferDTO response) {
+        if (key == null) {
+            return Mono.empty();
+        }
+        IdempotencyRecord record = idempotencyService.newRecord(key, response);
+        return databaseClient.sql(INSERT_RECORD)
+                .bind("key", record.getKey())
+                .bind("requestHash", record.getRequestHash())
+                .bind("operationId", record.getOperationId())
+                .bind("operationType", record.getOperationType())
+                .bind("response", record.getResponse())
+                .bind("createdAt", record.getCreatedAt())
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private Mono<IdempotencyRecord> findRecord(String key) {
+        return databaseClient.sql(FIND_RECORD)
+                .bind("key", key)
+                .map((row, metadata) -> toRecord(row))
+                .one();
+    }
+
+    private static IdempotencyRecord toRecord(Row row) {
+        return IdempotencyRecord.builder()
+                .key(row.get("idempotency_key", String.class))
+                .requestHash(row.get("idempotency_request_hash", String.class))
+                .operationId(row.get("idempotency_operation_id", Long.class))
+                .operationType(row.get("idempotency_operation_type", String.class))
+                .response(row.get("idempotency_response", String.class))
+                .createdAt(row.get("idempotency_created_at", LocalDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.bank.ing.service.reactive;
+
+import com.bank.ing.entity.Operation;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reactive counterpart of the {@code OperationIdAllocator}: a sequence value {@code hi} reserves the ids
+ * {@code (hi - Operation.ID_ALLOCATION_SIZE, hi]}, as for the pooled optimizer of Hibernate, so ids handed out here
+ * and by JPA persists never collide. Callers racing on an exhausted block each fetch their own, the ids left in the
+ * block that is replaced are skipped.
+ */
+class ReactiveOperationIdAllocator {
+
+    private static final String NEXT_BLOCK = "SELECT NEXT VALUE FOR " + Operation.SEQUENCE_NAME;
+
+    private final DatabaseClient databaseClient;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(1, 0));
+
+    ReactiveOperationIdAllocator(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    Mono<Long> nextId() {
+        long id = block.get().next();
+        if (id > 0) {
+            return Mono.just(id);
+        }
+        return databaseClient.sql(NEXT_BLOCK)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(hi -> {
+                    Block fetched = new Block(Math.max(1, hi - Operation.ID_ALLOCATION_SIZE + 1), hi);
+                    long first = fetched.next();
+                    block.set(fetched);
+                    return first;
+                });
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long hi;
+
+        private Block(long lo, long hi) {
+            this.next = new AtomicLong(lo);
+            this.hi = hi;
+        }
+
+        /**
+         * Next id of the block, 0 once it is exhausted.
+         */
+        private long next() {
+            long id = next.getAndIncrement();
+            return id <= hi ? id : 0;
+        }
+    }
+}
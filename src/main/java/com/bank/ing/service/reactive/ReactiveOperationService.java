@@ -0,0 +1,250 @@
+package com.bank.ing.service.reactive;
+
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
+import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.dto.response.ResponseHistoryOperationsDTO;
+import com.bank.ing.exception.InsufficientBalanceException;
+import com.bank.ing.exception.InvalidRequestOperationException;
+import com.bank.ing.exception.TransferNotAllowedException;
+import com.bank.ing.money.Money;
+import com.bank.ing.repository.OperationHistoryQueries;
+import com.bank.ing.service.HistoryCursor;
+import com.bank.ing.service.idempotency.IdempotencyKey;
+import com.bank.ing.utils.OperationType;
+import io.r2dbc.spi.Row;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.bank.ing.configuration.Constants.HISTORY_MAX_LIMIT;
+import static com.bank.ing.configuration.Constants.INSUFFICIENT_BALANCE_ERROR;
+import static com.bank.ing.configuration.Constants.INVALID_HISTORY_LIMIT;
+import static com.bank.ing.service.reactive.ReactiveAccountService.accountNotFound;
+
+/**
+ * Reactive counterpart of the {@code OperationService}, on R2DBC. Balances are changed by the conditional statements
+ * of the atomic ledger mode and every operation runs in one R2DBC transaction: the balance check and the update
+ * cannot interleave with another request, a rejected transfer is rolled back as a whole. The idempotency key of the
+ * request, when there is one, is recorded in the same transaction.
+ */
+@Service
+@Profile(ReactiveConfiguration.PROFILE)
+@Log4j2
+public class ReactiveOperationService {
+
+    private static final String CREDIT = "UPDATE account SET account_balance = account_balance + :value, "
+            + "account_version = account_version + 1 WHERE account_id = :id";
+
+    private static final String DEBIT = "UPDATE account SET account_balance = account_balance - :value, "
+            + "account_version = account_version + 1 WHERE account_id = :id AND account_balance >= :value";
+
+    private static final String ACCOUNT_EXISTS = "SELECT COUNT(*) FROM account WHERE account_id = :id";
+
+    private static final String INSERT_OPERATION = "INSERT INTO operation (operation_id, operation_type, "
+            + "operation_id_sender, operation_id_receiver, operation_value, operation_date_time) "
+            + "VALUES (:id, :type, :senderId, :receiverId, :value, :operationDateTime)";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ReactiveOperationIdAllocator operationIdAllocator;
+    private final ReactiveIdempotencyService reactiveIdempotencyService;
+
+    public ReactiveOperationService(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                                    ReactiveIdempotencyService reactiveIdempotencyService) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.operationIdAllocator = new ReactiveOperationIdAllocator(databaseClient);
+        this.reactiveIdempotencyService = reactiveIdempotencyService;
+    }
+
+    public Mono<ResponseDepositWithdrawTransferDTO> depositMoney(RequestDepositAccountDTO requestDepositAccountDTO,
+                                                                 IdempotencyKey idempotencyKey) {
+        long accountId = requestDepositAccountDTO.getAccountId();
+        Money value = Money.of(requestDepositAccountDTO.getDepositAmount());
+        return transactionalOperator.transactional(credit(accountId, value)
+                .then(insertOperation(OperationType.DEPOSIT, null, accountId, value))
+                .flatMap(response -> recordIdempotencyKey(idempotencyKey, response)));
+    }
+
+    public Mono<ResponseDepositWithdrawTransferDTO> withdrawMoney(RequestWithdrawAccountDTO requestWithdrawAccountDTO,
+                                                                  IdempotencyKey idempotencyKey) {
+        long accountId = requestWithdrawAccountDTO.getAccountId();
+        Money value = Money.of(requestWithdrawAccountDTO.getWithdrawAmount());
+        return transactionalOperator.transactional(debit(accountId, value)
+                .then(insertOperation(OperationType.WITHDRAW, accountId, accountId, value))
+                .flatMap(response -> recordIdempotencyKey(idempotencyKey, response)));
+    }
+
+    /**
+     * Statements run in ascending account id order, opposed transfers lock the two rows in the same order.
+     */
+    public Mono<ResponseDepositWithdrawTransferDTO> transferOperation(RequestTransferOperationDTO requestTransferOperationDTO,
+                                                                      IdempotencyKey idempotencyKey) {
+        long senderAccountId = requestTransferOperationDTO.getSenderAccountId();
+        long receiverAccountId = requestTransferOperationDTO.getReceiverAccountId();
+        if (senderAccountId == receiverAccountId) {
+            return Mono.error(new TransferNotAllowedException());
+        }
+        Money value = Money.of(requestTransferOperationDTO.getValue());
+        Mono<Void> balances = senderAccountId < receiverAccountId
+                ? debit(senderAccountId, value).then(credit(receiverAccountId, value))
+                : credit(receiverAccountId, value).then(debit(senderAccountId, value));
+        return transactionalOperator.transactional(balances
+                .then(insertOperation(OperationType.TRANSFER, senderAccountId, receiverAccountId, value))
+                .flatMap(response -> recordIdempotencyKey(idempotencyKey, response)));
+    }
+
+    /**
+     * One page of the account history, most recent first, see {@code OperationService#historyOperations}.
+     */
+    public Mono<ResponseHistoryOperationsDTO> historyOperations(long accountId, int limit, String cursor) {
+        return Mono.defer(() -> {
+            if (limit < 1 || limit > HISTORY_MAX_LIMIT) {
+                log.error(INVALID_HISTORY_LIMIT, limit, HISTORY_MAX_LIMIT);
+                return Mono.error(new InvalidRequestOperationException());
+            }
+            DatabaseClient.GenericExecuteSpec page;
+            if (cursor == null) {
+                page = databaseClient.sql(OperationHistoryQueries.HISTORY_PAGE);
+            } else {
+                HistoryCursor after = HistoryCursor.decode(cursor);
+                page = databaseClient.sql(OperationHistoryQueries.HISTORY_PAGE_AFTER)
+                        .bind("operationDateTime", after.getOperationDateTime())
+                        .bind("operationId", after.getOperationId());
+            }
+            Flux<ResponseDepositWithdrawTransferDTO> operations = page
+                    .bind("accountId", accountId)
+                    .bind("limit", limit + 1)
+                    .map((row, metadata) -> toResponseOperationDTO(row))
+                    .all();
+            return checkAccount(accountId)
+                    .then(operations.collectList())
+                    .map(rows -> toHistoryPage(accountId, limit, rows));
+        });
+    }
+
+    /**
+     * Every operation of the account, most recent first. The account is checked before the operations are
+     * returned, an unknown account is still answered with a 404.
+     */
+    public Mono<Flux<ResponseDepositWithdrawTransferDTO>> exportHistory(long accountId) {
+        return checkAccount(accountId)
+                .thenReturn(databaseClient.sql(OperationHistoryQueries.HISTORY_EXPORT)
+                        .bind("accountId", accountId)
+                        .map((row, metadata) -> toResponseOperationDTO(row))
+                        .all());
+    }
+
+    private Mono<ResponseDepositWithdrawTransferDTO> recordIdempotencyKey(IdempotencyKey idempotencyKey,
+                                                                          ResponseDepositWithdrawTransferDTO response) {
+        return reactiveIdempotencyService.record(idempotencyKey, response).thenReturn(response);
+    }
+
+    private Mono<Void> credit(long accountId, Money value) {
+        return databaseClient.sql(CREDIT)
+                .bind("id", accountId)
+                .bind("value", value.minorUnits())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0 ? accountNotFound(accountId) : Mono.empty());
+    }
+
+    /**
+     * A debit that updates nothing is told apart as an unknown account or an insufficient balance.
+     */
+    private Mono<Void> debit(long accountId, Money value) {
+        return databaseClient.sql(DEBIT)
+                .bind("id", accountId)
+                .bind("value", value.minorUnits())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0 ? checkAccount(accountId).then(insufficientBalance(accountId)) : Mono.empty());
+    }
+
+    private Mono<Void> checkAccount(long accountId) {
+        return databaseClient.sql(ACCOUNT_EXISTS)
+                .bind("id", accountId)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(count -> count == 0 ? accountNotFound(accountId) : Mono.empty());
+    }
+
+    private Mono<ResponseDepositWithdrawTransferDTO> insertOperation(OperationType type, Long senderAccountId,
+                                                                     long receiverAccountId, Money value) {
+        LocalDateTime operationDateTime = getCurrentTimestamp();
+        return operationIdAllocator.nextId()
+                .flatMap(id -> {
+                    DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_OPERATION)
+                            .bind("id", id)
+                            .bind("type", type.name())
+                            .bind("receiverId", receiverAccountId)
+                            .bind("value", value.minorUnits())
+                            .bind("operationDateTime", operationDateTime);
+                    insert = senderAccountId == null
+                            ? insert.bindNull("senderId", Long.class)
+                            : insert.bind("senderId", senderAccountId);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Created operation id={} type={}", id, type);
+                    }
+                    return insert.fetch()
+                            .rowsUpdated()
+                            .thenReturn(ResponseDepositWithdrawTransferDTO.builder()
+                                    .id(id)
+                                    .typeOperation(type.name())
+                                    .senderAccountId(type == OperationType.TRANSFER ? senderAccountId : null)
+                                    .receiverAccountId(receiverAccountId)
+                                    .value(value)
+                                    .creationTimestamp(operationDateTime)
+                                    .build());
+                });
+    }
+
+    private ResponseHistoryOperationsDTO toHistoryPage(long accountId, int limit,
+                                                       List<ResponseDepositWithdrawTransferDTO> operations) {
+        String next = null;
+        if (operations.size() > limit) {
+            operations = operations.subList(0, limit);
+            ResponseDepositWithdrawTransferDTO last = operations.get(limit - 1);
+            next = new HistoryCursor(last.getCreationTimestamp(), last.getId()).encode();
+        }
+        // history pages leave the sender out, as the servlet ones do
+        operations.forEach(operation -> operation.setSenderAccountId(null));
+        return ResponseHistoryOperationsDTO.builder()
+                .accountId(accountId)
+                .operationDTOList(operations)
+                .next(next)
+                .creationTimestamp(getCurrentTimestamp())
+                .build();
+    }
+
+    private static ResponseDepositWithdrawTransferDTO toResponseOperationDTO(Row row) {
+        return new ResponseDepositWithdrawTransferDTO(
+                row.get("operation_id", Long.class),
+                row.get("operation_type", String.class),
+                row.get("operation_id_sender", Long.class),
+                row.get("operation_id_receiver", Long.class),
+                row.get("operation_value", Long.class),
+                row.get("operation_date_time", LocalDateTime.class));
+    }
+
+    private static <T> Mono<T> insufficientBalance(long accountId) {
+        return Mono.defer(() -> {
+            log.error(INSUFFICIENT_BALANCE_ERROR, accountId);
+            return Mono.error(new InsufficientBalanceException());
+        });
+    }
+
+    LocalDateTime getCurrentTimestamp() {
+        return LocalDateTime.now();
+    }
+}
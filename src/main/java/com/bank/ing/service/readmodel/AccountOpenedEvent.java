@@ -0,0 +1,18 @@
+package com.bank.ing.service.readmodel;
+
+import com.bank.ing.money.Money;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * An account created with its initial deposit, published once the account is saved.
+ */
+@Value
+public class AccountOpenedEvent {
+
+    long accountId;
+    long customerId;
+    Money initialBalance;
+    LocalDateTime creationTimestamp;
+}
@@ -0,0 +1,125 @@
+package com.bank.ing.service.readmodel;
+
+import com.bank.ing.entity.AccountHistoryEntry;
+import com.bank.ing.exception.InvalidRequestOperationException;
+import com.bank.ing.money.Money;
+import com.bank.ing.repository.AccountHistoryRepository;
+import com.bank.ing.repository.AccountSummaryRepository;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.bank.ing.configuration.Constants.INVALID_HISTORY_CURSOR;
+
+/**
+ * Balances and history pages served from the read model: a primary key lookup of {@code account_summary} and a
+ * range scan of the {@code account_history} sequence index, the account and operation tables are never read. The
+ * read model only serves reads while the projection lags by at most {@code maxLag}, a null result sends the caller
+ * to the write tables, as it does for an account whose opening is not projected yet.
+ * <p>
+ * Read model history cursors hold the sequence number of the last entry of a page: once paging started on the read
+ * model it goes on there, whatever the lag, and write table cursors keep paging on the write tables.
+ */
+@Log4j2
+public class AccountReadModel {
+
+    private static final String CURSOR_PREFIX = "seq|";
+
+    private final AccountSummaryRepository accountSummaryRepository;
+    private final AccountHistoryRepository accountHistoryRepository;
+    private final ReadModelProjector projector;
+    private final long maxLagNanos;
+    private final LongAdder fallbacks = new LongAdder();
+
+    public AccountReadModel(AccountSummaryRepository accountSummaryRepository,
+                            AccountHistoryRepository accountHistoryRepository, ReadModelProjector projector,
+                            Duration maxLag) {
+        this.accountSummaryRepository = accountSummaryRepository;
+        this.accountHistoryRepository = accountHistoryRepository;
+        this.projector = projector;
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    /**
+     * Read model balance of the account, null when the write tables must serve it.
+     */
+    public Money balance(long accountId) {
+        if (!isServing()) {
+            fallbacks.increment();
+            return null;
+        }
+        Money balance = accountSummaryRepository.findBalance(accountId).orElse(null);
+        if (balance == null) {
+            fallbacks.increment();
+        }
+        return balance;
+    }
+
+    /**
+     * Up to {@code limit} history entries of the account, most recent first, following the read model cursor when
+     * there is one. Null when the write tables must serve the page.
+     */
+    public List<AccountHistoryEntry> history(long accountId, String cursor, int limit) {
+        if (cursor != null) {
+            Long seq = decodeCursor(cursor);
+            return seq == null ? null : accountHistoryRepository.findHistoryBefore(accountId, seq, limit);
+        }
+        if (!isServing()) {
+            fallbacks.increment();
+            return null;
+        }
+        List<AccountHistoryEntry> entries = accountHistoryRepository.findHistory(accountId, limit);
+        if (entries.isEmpty() && !accountSummaryRepository.existsById(accountId)) {
+            fallbacks.increment();
+            return null;
+        }
+        return entries;
+    }
+
+    /**
+     * Cursor of the page following the entry.
+     */
+    public static String cursorAfter(AccountHistoryEntry entry) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + entry.getSeq()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Whether reads are served from the read model: it is in sync and lags by at most the maximum lag.
+     */
+    public boolean isServing() {
+        return !projector.isOutOfSync() && projector.lagNanos() <= maxLagNanos;
+    }
+
+    /**
+     * Reads sent to the write tables, because of the lag or of an account not projected yet.
+     */
+    public long fallbacks() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * Sequence number held by a read model cursor, null for any other token.
+     */
+    private static Long decodeCursor(String token) {
+        String cursor;
+        try {
+            cursor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!cursor.startsWith(CURSOR_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor.substring(CURSOR_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            log.error(INVALID_HISTORY_CURSOR, token);
+            throw new InvalidRequestOperationException();
+        }
+    }
+}
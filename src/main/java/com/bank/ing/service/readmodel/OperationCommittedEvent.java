@@ -0,0 +1,28 @@
+package com.bank.ing.service.readmodel;
+
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * An operation created by a deposit, withdraw or transfer. Published in the transaction that creates the operation,
+ * transactional listeners only receive it once that transaction commits.
+ */
+@Value
+public class OperationCommittedEvent {
+
+    long operationId;
+    String type;
+    Long senderAccountId;
+    long receiverAccountId;
+    Money value;
+    LocalDateTime operationDateTime;
+
+    public static OperationCommittedEvent of(Operation operation) {
+        return new OperationCommittedEvent(operation.getId(), operation.getType(),
+                operation.getSenderAccount() == null ? null : operation.getSenderAccount().getId(),
+                operation.getReceiverAccount().getId(), operation.getValue(), operation.getOperationDateTime());
+    }
+}
@@ -0,0 +1,327 @@
+package com.bank.ing.service.readmodel;
+
+import com.bank.ing.entity.AccountHistoryEntry;
+import com.bank.ing.entity.AccountSummary;
+import com.bank.ing.money.Money;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Projects the committed operations into the read model: the {@code account_summary} row of every account and its
+ * {@code account_history} entries. The transactional listeners queue the events of committed transactions without
+ * waiting, a background writer applies them in batches of up to {@code batchSize} events, one transaction per
+ * batch: every account of an operation gets the next sequence number of its history and its summary balance moves
+ * by the operation value.
+ * <p>
+ * The writer is the only one writing the read model, sequence numbers need no coordination. Two operations of one
+ * account committing at the same time may be numbered in either order, the balance ends the same. The lag is the
+ * age of the oldest committed event not applied yet. An event that cannot be queued, or a batch that cannot be
+ * written, leaves the read model out of sync: it is no longer written and readers keep using the write tables.
+ */
+@Log4j2
+public class ReadModelProjector implements AutoCloseable {
+
+    static final String SELECT_SUMMARIES_SQL = "SELECT summary_account_id, summary_balance, summary_last_seq "
+            + "FROM account_summary WHERE summary_account_id IN (:accountIds)";
+    static final String INSERT_SUMMARY_SQL = "INSERT INTO account_summary (summary_account_id, summary_customer_id, "
+            + "summary_balance, summary_last_seq, summary_last_operation_date_time) VALUES (?, ?, ?, ?, ?)";
+    static final String UPDATE_SUMMARY_SQL = "UPDATE account_summary SET summary_balance = ?, summary_last_seq = ?, "
+            + "summary_last_operation_date_time = ? WHERE summary_account_id = ?";
+    static final String INSERT_HISTORY_SQL = "INSERT INTO account_history (history_account_id, history_seq, "
+            + "history_operation_id, history_operation_type, history_sender_account_id, history_receiver_account_id, "
+            + "history_value, history_balance, history_operation_date_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Committed> queue;
+    private final int batchSize;
+    private final AtomicLong projected = new AtomicLong();
+    private final Thread writer;
+    private volatile int inFlight;
+    private volatile long inFlightSince;
+    private volatile boolean outOfSync;
+    private volatile boolean running = true;
+
+    public ReadModelProjector(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int capacity,
+                              int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.writer = new Thread(this::run, "read-model-projector");
+        this.writer.start();
+    }
+
+    /**
+     * Queues the operation once its transaction commits, right away for the engine mode which has none.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOperationCommitted(OperationCommittedEvent event) {
+        enqueue(event);
+    }
+
+    /**
+     * Accounts are saved in a transaction of their own, the event is published after it committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountOpened(AccountOpenedEvent event) {
+        enqueue(event);
+    }
+
+    /**
+     * Age of the oldest committed event not applied to the read model yet, zero when it is up to date.
+     */
+    public long lagNanos() {
+        long now = System.nanoTime();
+        if (inFlight > 0) {
+            return now - inFlightSince;
+        }
+        Committed oldest = queue.peek();
+        return oldest == null ? 0 : now - oldest.committedNanos;
+    }
+
+    /**
+     * Events queued or being written.
+     */
+    public int pending() {
+        return queue.size() + inFlight;
+    }
+
+    /**
+     * Events applied to the read model.
+     */
+    public long projected() {
+        return projected.get();
+    }
+
+    public boolean isOutOfSync() {
+        return outOfSync;
+    }
+
+    /**
+     * Stops the writer once every queued event has been applied.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join();
+        log.info("Read model projector stopped, {} events projected", projected.get());
+    }
+
+    private void enqueue(Object event) {
+        if (outOfSync) {
+            return;
+        }
+        if (!running || !queue.offer(new Committed(event, System.nanoTime()))) {
+            markOutOfSync("could not queue " + event);
+        }
+    }
+
+    private void markOutOfSync(String reason) {
+        if (!outOfSync) {
+            outOfSync = true;
+            log.error("Read model out of sync, reads are served from the write tables: {}", reason);
+        }
+    }
+
+    private void run() {
+        List<Committed> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Committed first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                inFlightSince = first.committedNanos;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                inFlight = batch.size();
+                if (!outOfSync) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+                inFlight = 0;
+            }
+        }
+    }
+
+    private void flush(List<Committed> batch) {
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            try {
+                Integer entries = transactionTemplate.execute(status -> apply(batch));
+                projected.addAndGet(batch.size());
+                log.debug("Projected {} events into {} history entries", batch.size(), entries);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Could not project {} events, attempt {}/{}", batch.size(), attempt, MAX_FLUSH_ATTEMPTS, e);
+            }
+        }
+        markOutOfSync(batch.size() + " events could not be written");
+    }
+
+    /**
+     * Applies the batch in queue order and returns the number of history entries written.
+     */
+    private int apply(List<Committed> batch) {
+        Map<Long, AccountSummary> summaries = loadSummaries(batch);
+        Set<Long> opened = new HashSet<>();
+        Set<Long> changed = new HashSet<>();
+        List<AccountHistoryEntry> entries = new ArrayList<>(batch.size() * 2);
+        for (Committed committed : batch) {
+            if (committed.event instanceof AccountOpenedEvent) {
+                AccountOpenedEvent account = (AccountOpenedEvent) committed.event;
+                summaries.put(account.getAccountId(), AccountSummary.builder()
+                        .accountId(account.getAccountId())
+                        .customerId(account.getCustomerId())
+                        .balance(account.getInitialBalance())
+                        .lastSeq(0L)
+                        .build());
+                opened.add(account.getAccountId());
+                continue;
+            }
+            OperationCommittedEvent operation = (OperationCommittedEvent) committed.event;
+            Long sender = operation.getSenderAccountId();
+            long receiver = operation.getReceiverAccountId();
+            if (sender == null) {
+                append(summaries, changed, entries, receiver, operation, operation.getValue());
+            } else if (sender == receiver) {
+                append(summaries, changed, entries, receiver, operation, operation.getValue().negate());
+            } else {
+                append(summaries, changed, entries, sender, operation, operation.getValue().negate());
+                append(summaries, changed, entries, receiver, operation, operation.getValue());
+            }
+        }
+        List<AccountSummary> inserts = new ArrayList<>(opened.size());
+        List<AccountSummary> updates = new ArrayList<>(changed.size());
+        for (AccountSummary summary : summaries.values()) {
+            if (opened.contains(summary.getAccountId())) {
+                inserts.add(summary);
+            } else if (changed.contains(summary.getAccountId())) {
+                updates.add(summary);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SUMMARY_SQL, inserts, inserts.size(), (ps, summary) -> {
+            ps.setLong(1, summary.getAccountId());
+            ps.setLong(2, summary.getCustomerId());
+            ps.setLong(3, summary.getBalance().minorUnits());
+            ps.setLong(4, summary.getLastSeq());
+            ps.setTimestamp(5, timestamp(summary.getLastOperationDateTime()));
+        });
+        jdbcTemplate.batchUpdate(UPDATE_SUMMARY_SQL, updates, updates.size(), (ps, summary) -> {
+            ps.setLong(1, summary.getBalance().minorUnits());
+            ps.setLong(2, summary.getLastSeq());
+            ps.setTimestamp(3, timestamp(summary.getLastOperationDateTime()));
+            ps.setLong(4, summary.getAccountId());
+        });
+        jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getAccountId());
+            ps.setLong(2, entry.getSeq());
+            ps.setLong(3, entry.getOperationId());
+            ps.setString(4, entry.getType());
+            ps.setObject(5, entry.getSenderAccountId());
+            ps.setLong(6, entry.getReceiverAccountId());
+            ps.setLong(7, entry.getValue().minorUnits());
+            ps.setLong(8, entry.getBalance().minorUnits());
+            ps.setTimestamp(9, Timestamp.valueOf(entry.getOperationDateTime()));
+        });
+        return entries.size();
+    }
+
+    /**
+     * Current summaries of the accounts the operations of the batch touch, one query for the whole batch.
+     */
+    private Map<Long, AccountSummary> loadSummaries(List<Committed> batch) {
+        Set<Long> accountIds = new HashSet<>();
+        for (Committed committed : batch) {
+            if (committed.event instanceof OperationCommittedEvent) {
+                OperationCommittedEvent operation = (OperationCommittedEvent) committed.event;
+                accountIds.add(operation.getReceiverAccountId());
+                if (operation.getSenderAccountId() != null) {
+                    accountIds.add(operation.getSenderAccountId());
+                }
+            }
+        }
+        Map<Long, AccountSummary> summaries = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return summaries;
+        }
+        namedParameterJdbcTemplate.query(SELECT_SUMMARIES_SQL, Map.of("accountIds", accountIds), rs -> {
+            long accountId = rs.getLong(1);
+            summaries.put(accountId, AccountSummary.builder()
+                    .accountId(accountId)
+                    .balance(Money.ofMinorUnits(rs.getLong(2)))
+                    .lastSeq(rs.getLong(3))
+                    .build());
+        });
+        return summaries;
+    }
+
+    /**
+     * Appends the operation to the history of the account. An account the read model has never seen is skipped, its
+     * reads keep being served from the write tables.
+     */
+    private static void append(Map<Long, AccountSummary> summaries, Set<Long> changed,
+                               List<AccountHistoryEntry> entries, long accountId, OperationCommittedEvent operation,
+                               Money change) {
+        AccountSummary summary = summaries.get(accountId);
+        if (summary == null) {
+            log.warn("No read model summary of account id={}, operation id={} not projected", accountId,
+                    operation.getOperationId());
+            return;
+        }
+        summary.setBalance(summary.getBalance().plus(change));
+        summary.setLastSeq(summary.getLastSeq() + 1);
+        summary.setLastOperationDateTime(operation.getOperationDateTime());
+        changed.add(accountId);
+        entries.add(AccountHistoryEntry.builder()
+                .accountId(accountId)
+                .seq(summary.getLastSeq())
+                .operationId(operation.getOperationId())
+                .type(operation.getType())
+                .senderAccountId(operation.getSenderAccountId())
+                .receiverAccountId(operation.getReceiverAccountId())
+                .value(operation.getValue())
+                .balance(summary.getBalance())
+                .operationDateTime(operation.getOperationDateTime())
+                .build());
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+
+    private static final class Committed {
+
+        private final Object event;
+        private final long committedNanos;
+
+        private Committed(Object event, long committedNanos) {
+            this.event = event;
+            this.committedNanos = committedNanos;
+        }
+    }
+}
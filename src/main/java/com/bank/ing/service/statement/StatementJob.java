@@ -0,0 +1,456 @@
+package com.bank.ing.service.statement;
+
+import com.bank.ing.configuration.StatementProperties;
+import com.bank.ing.dto.response.ResponseStatementJobDTO;
+import com.bank.ing.exception.InvalidRequestStatementException;
+import com.bank.ing.money.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.bank.ing.configuration.Constants.INVALID_STATEMENT_MONTH;
+import static com.bank.ing.exception.Utils.throwsOnCondition;
+
+/**
+ * Monthly statements of every account: opening balance, operations of the month with the balance after each, closing
+ * balance. Accounts are partitioned into ranges of {@code bank.statement.range-size} ids, written in parallel on a
+ * fork-join pool of {@code bank.statement.parallelism} workers. A range is read with two queries, its accounts with
+ * their opening balances then the stream of its operations in account order, and written as one NDJSON file, one
+ * statement per line, through a buffered file channel.
+ * <p>
+ * A range file is written to a temporary file, synced, then atomically renamed: a run that fails or is stopped keeps
+ * the ranges it finished, running the month again only writes the missing ones. Opening balances are the current
+ * balances minus the operations since the start of the month, in the engine mode and with operation write-behind
+ * run the job once the operation rows are written.
+ */
+@Service
+@Log4j2
+public class StatementJob {
+
+    static final String ACCOUNT_BOUNDS_SQL = "SELECT MIN(account_id), MAX(account_id) FROM account "
+            + "WHERE account_creation_timestamp < :monthEnd";
+
+    /**
+     * Accounts of the range with their balance at the start of the month, in one statement so that the balances and
+     * the operations they are corrected with are read from the same snapshot.
+     */
+    static final String SELECT_ACCOUNTS_SQL = "SELECT account.account_id, account.account_id_customer, "
+            + "account.account_balance - COALESCE(delta.balance_delta, 0) FROM account LEFT JOIN ("
+            + "SELECT account_id, SUM(balance_delta) AS balance_delta FROM ("
+            + "SELECT operation_id_receiver AS account_id, operation_value AS balance_delta FROM operation "
+            + "WHERE operation_id_receiver BETWEEN :from AND :to AND operation_date_time >= :monthStart "
+            + "AND (operation_id_sender IS NULL OR operation_id_sender <> operation_id_receiver) "
+            + "UNION ALL "
+            + "SELECT operation_id_sender AS account_id, -operation_value AS balance_delta FROM operation "
+            + "WHERE operation_id_sender BETWEEN :from AND :to AND operation_date_time >= :monthStart"
+            + ") operations GROUP BY account_id) delta ON delta.account_id = account.account_id "
+            + "WHERE account.account_id BETWEEN :from AND :to AND account.account_creation_timestamp < :monthEnd "
+            + "ORDER BY account.account_id";
+
+    /**
+     * Operations of the month of the range, once per account they move: a transfer between two accounts of the range
+     * is returned for both. The receiver branch skips withdrawals, they are returned by the sender branch.
+     */
+    static final String SELECT_OPERATIONS_SQL = "SELECT account_id, operation_id, operation_type, operation_id_sender, "
+            + "operation_id_receiver, operation_value, operation_date_time FROM ("
+            + "SELECT operation_id_sender AS account_id, operation_id, operation_type, operation_id_sender, "
+            + "operation_id_receiver, operation_value, operation_date_time FROM operation "
+            + "WHERE operation_id_sender BETWEEN :from AND :to "
+            + "AND operation_date_time >= :monthStart AND operation_date_time < :monthEnd "
+            + "UNION ALL "
+            + "SELECT operation_id_receiver AS account_id, operation_id, operation_type, operation_id_sender, "
+            + "operation_id_receiver, operation_value, operation_date_time FROM operation "
+            + "WHERE operation_id_receiver BETWEEN :from AND :to "
+            + "AND operation_date_time >= :monthStart AND operation_date_time < :monthEnd "
+            + "AND (operation_id_sender IS NULL OR operation_id_sender <> operation_id_receiver)"
+            + ") operations ORDER BY account_id, operation_date_time, operation_id";
+
+    static final String RANGE_PREFIX = "statements-";
+    static final String RANGE_SUFFIX = ".ndjson";
+    /**
+     * Range size of the first run of a month, kept by the following runs so that their ranges match the files
+     * already written.
+     */
+    static final String JOB_FILE = "statements.properties";
+    private static final String RANGE_SIZE_PROPERTY = "range-size";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final StatementProperties statementProperties;
+    /**
+     * Serializes the runs without pinning the carrier thread of a virtual thread, as a monitor would.
+     */
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public StatementJob(DataSource dataSource, PlatformTransactionManager transactionManager,
+                        ObjectMapper objectMapper, StatementProperties statementProperties) {
+        JdbcTemplate streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate.setFetchSize(statementProperties.getFetchSize());
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(streamingJdbcTemplate);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.statementProperties = statementProperties;
+    }
+
+    @Scheduled(cron = "${bank.statement.cron:-}")
+    public void scheduledRun() {
+        run(YearMonth.from(getCurrentTimestamp()).minusMonths(1));
+    }
+
+    /**
+     * Writes the statements of a past month. Runs of the job are serialized, a second run of the same month only
+     * writes the ranges the first one left.
+     */
+    public ResponseStatementJobDTO run(YearMonth month) {
+        throwsOnCondition(!month.isBefore(YearMonth.from(getCurrentTimestamp())),
+                InvalidRequestStatementException::new, INVALID_STATEMENT_MONTH, month);
+        runLock.lock();
+        try {
+            return runSerialized(month);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private ResponseStatementJobDTO runSerialized(YearMonth month) {
+        long start = System.nanoTime();
+        StatementRun run = prepare(month);
+        RangeTask task = jdbcTemplate.query(ACCOUNT_BOUNDS_SQL, Map.of("monthEnd", run.monthEnd), resultSet -> {
+            resultSet.next();
+            return resultSet.getObject(1) == null ? null : new RangeTask(run,
+                    resultSet.getLong(1) / run.rangeSize, resultSet.getLong(2) / run.rangeSize);
+        });
+        RangeResult result = task == null ? RangeResult.EMPTY : invoke(task);
+        long nanos = Math.max(1, System.nanoTime() - start);
+        double accountsPerSecond = result.accounts * 1e9 / nanos;
+        double rowsPerSecond = result.operations * 1e9 / nanos;
+        log.info("Wrote the {} statements of {} accounts and {} operations in {} ms, {} accounts/s, {} rows/s, "
+                        + "{} of {} ranges skipped, {} failed", month, result.accounts, result.operations,
+                nanos / 1_000_000, (long) accountsPerSecond, (long) rowsPerSecond, result.skipped, result.ranges,
+                result.failed);
+        return ResponseStatementJobDTO.builder()
+                .month(month)
+                .ranges(result.ranges)
+                .skippedRanges(result.skipped)
+                .failedRanges(result.failed)
+                .accounts(result.accounts)
+                .operations(result.operations)
+                .durationMillis(nanos / 1_000_000)
+                .accountsPerSecond(accountsPerSecond)
+                .rowsPerSecond(rowsPerSecond)
+                .creationTimestamp(getCurrentTimestamp())
+                .build();
+    }
+
+    private RangeResult invoke(RangeTask task) {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, statementProperties.getParallelism()));
+        try {
+            return pool.invoke(task);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates the directory of the month and pins its range size.
+     */
+    private StatementRun prepare(YearMonth month) {
+        Path directory = Paths.get(statementProperties.getDirectory()).resolve(month.toString());
+        Path jobFile = directory.resolve(JOB_FILE);
+        long rangeSize = Math.max(1, statementProperties.getRangeSize());
+        try {
+            Files.createDirectories(directory);
+            Properties job = new Properties();
+            if (Files.exists(jobFile)) {
+                try (InputStream input = Files.newInputStream(jobFile)) {
+                    job.load(input);
+                }
+                long previousRangeSize = Long.parseLong(job.getProperty(RANGE_SIZE_PROPERTY));
+                if (previousRangeSize != rangeSize) {
+                    log.info("Resuming the {} statements with the range size {} of the previous run", month,
+                            previousRangeSize);
+                    rangeSize = previousRangeSize;
+                }
+            } else {
+                job.setProperty(RANGE_SIZE_PROPERTY, Long.toString(rangeSize));
+                try (OutputStream output = Files.newOutputStream(jobFile)) {
+                    job.store(output, null);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new StatementRun(month, directory, rangeSize);
+    }
+
+    /**
+     * Writes the statements of the accounts {@code [range * rangeSize, (range + 1) * rangeSize)}, unless a previous
+     * run already did. A failed range is logged and left for the next run, the other ranges go on.
+     */
+    private RangeResult writeRange(StatementRun run, long range) {
+        long from = range * run.rangeSize;
+        long to = from + run.rangeSize - 1;
+        Path target = run.directory.resolve(String.format("%s%020d-%020d%s", RANGE_PREFIX, from, to, RANGE_SUFFIX));
+        if (Files.exists(target)) {
+            return RangeResult.SKIPPED;
+        }
+        Path temporary = run.directory.resolve(target.getFileName() + ".tmp");
+        try {
+            RangeResult result = readOnlyTransactionTemplate.execute(status -> write(run, from, to, temporary));
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote the {} statements of accounts {} to {}", run.month, from, to);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            log.error("Statements of {} not written for accounts {} to {} - {}", run.month, from, to, e.getMessage());
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException deleteFailure) {
+                log.warn("Could not delete {} - {}", temporary, deleteFailure.getMessage());
+            }
+            return RangeResult.FAILED;
+        }
+    }
+
+    private RangeResult write(StatementRun run, long from, long to, Path temporary) {
+        Map<String, Object> parameters = Map.of("from", from, "to", to,
+                "monthStart", run.monthStart, "monthEnd", run.monthEnd);
+        List<StatementAccount> accounts = jdbcTemplate.query(SELECT_ACCOUNTS_SQL, parameters, (resultSet, row) ->
+                new StatementAccount(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3)));
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE))) {
+            generator.setRootValueSeparator(null);
+            RangeWriter writer = new RangeWriter(run.month, accounts, generator);
+            jdbcTemplate.query(SELECT_OPERATIONS_SQL, parameters, writer::operation);
+            writer.finish();
+            generator.flush();
+            channel.force(false);
+            return new RangeResult(1, 0, 0, accounts.size(), writer.operations);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    LocalDateTime getCurrentTimestamp() {
+        return LocalDateTime.now();
+    }
+
+    private static final class StatementRun {
+
+        private final YearMonth month;
+        private final Path directory;
+        private final long rangeSize;
+        private final Timestamp monthStart;
+        private final Timestamp monthEnd;
+
+        private StatementRun(YearMonth month, Path directory, long rangeSize) {
+            this.month = month;
+            this.directory = directory;
+            this.rangeSize = rangeSize;
+            this.monthStart = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+            this.monthEnd = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        }
+    }
+
+    /**
+     * Ranges {@code [firstRange, lastRange]}, halved until a task holds one range.
+     */
+    private final class RangeTask extends RecursiveTask<RangeResult> {
+
+        private final StatementRun run;
+        private final long firstRange;
+        private final long lastRange;
+
+        private RangeTask(StatementRun run, long firstRange, long lastRange) {
+            this.run = run;
+            this.firstRange = firstRange;
+            this.lastRange = lastRange;
+        }
+
+        @Override
+        protected RangeResult compute() {
+            if (firstRange == lastRange) {
+                return writeRange(run, firstRange);
+            }
+            long middle = firstRange + (lastRange - firstRange) / 2;
+            RangeTask upper = new RangeTask(run, middle + 1, lastRange);
+            upper.fork();
+            RangeResult lower = new RangeTask(run, firstRange, middle).compute();
+            return lower.plus(upper.join());
+        }
+    }
+
+    private static final class RangeResult {
+
+        private static final RangeResult EMPTY = new RangeResult(0, 0, 0, 0, 0);
+        private static final RangeResult SKIPPED = new RangeResult(1, 1, 0, 0, 0);
+        private static final RangeResult FAILED = new RangeResult(1, 0, 1, 0, 0);
+
+        private final long ranges;
+        private final long skipped;
+        private final long failed;
+        private final long accounts;
+        private final long operations;
+
+        private RangeResult(long ranges, long skipped, long failed, long accounts, long operations) {
+            this.ranges = ranges;
+            this.skipped = skipped;
+            this.failed = failed;
+            this.accounts = accounts;
+            this.operations = operations;
+        }
+
+        private RangeResult plus(RangeResult other) {
+            return new RangeResult(ranges + other.ranges, skipped + other.skipped, failed + other.failed,
+                    accounts + other.accounts, operations + other.operations);
+        }
+    }
+
+    private static final class StatementAccount {
+
+        private final long id;
+        private final long customerId;
+        private final long openingBalance;
+
+        private StatementAccount(long id, long customerId, long openingBalance) {
+            this.id = id;
+            this.customerId = customerId;
+            this.openingBalance = openingBalance;
+        }
+    }
+
+    /**
+     * Merges the accounts of a range with the stream of their operations, both in account order: every account gets
+     * a statement line, with or without operations. Balances are longs of minor units.
+     */
+    private static final class RangeWriter {
+
+        private final YearMonth month;
+        private final List<StatementAccount> accounts;
+        private final JsonGenerator generator;
+        private int nextAccount;
+        private StatementAccount current;
+        private long balance;
+        private long operations;
+
+        private RangeWriter(YearMonth month, List<StatementAccount> accounts, JsonGenerator generator) {
+            this.month = month;
+            this.accounts = accounts;
+            this.generator = generator;
+        }
+
+        private void operation(ResultSet resultSet) throws SQLException {
+            long accountId = resultSet.getLong(1);
+            try {
+                if (current == null || current.id != accountId) {
+                    endStatement();
+                    while (nextAccount < accounts.size() && accounts.get(nextAccount).id < accountId) {
+                        startStatement(accounts.get(nextAccount++));
+                        endStatement();
+                    }
+                    if (nextAccount == accounts.size() || accounts.get(nextAccount).id != accountId) {
+                        // operation of an account created after the month, it has no statement
+                        return;
+                    }
+                    startStatement(accounts.get(nextAccount++));
+                }
+                long senderAccountId = resultSet.getLong(4);
+                boolean deposit = resultSet.wasNull();
+                long receiverAccountId = resultSet.getLong(5);
+                long value = resultSet.getLong(6);
+                boolean credit = receiverAccountId == accountId && (deposit || senderAccountId != accountId);
+                balance = credit ? Math.addExact(balance, value) : Math.subtractExact(balance, value);
+                operations++;
+                generator.writeStartObject();
+                generator.writeNumberField("operation_id", resultSet.getLong(2));
+                generator.writeStringField("type_operation", resultSet.getString(3));
+                generator.writeFieldName("sender_account_id");
+                if (deposit) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(senderAccountId);
+                }
+                generator.writeNumberField("receiver_account_id", receiverAccountId);
+                writeMoneyField("value", value);
+                writeMoneyField("balance", balance);
+                generator.writeStringField("created_at", DateTimeFormatter.ISO_LOCAL_DATE_TIME
+                        .format(resultSet.getTimestamp(7).toLocalDateTime()));
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finish() throws IOException {
+            endStatement();
+            while (nextAccount < accounts.size()) {
+                startStatement(accounts.get(nextAccount++));
+                endStatement();
+            }
+        }
+
+        private void startStatement(StatementAccount account) throws IOException {
+            current = account;
+            balance = account.openingBalance;
+            generator.writeStartObject();
+            generator.writeNumberField("account_id", account.id);
+            generator.writeNumberField("customer_id", account.customerId);
+            generator.writeStringField("month", month.toString());
+            writeMoneyField("opening_balance", balance);
+            generator.writeArrayFieldStart("operations");
+        }
+
+        private void endStatement() throws IOException {
+            if (current == null) {
+                return;
+            }
+            generator.writeEndArray();
+            writeMoneyField("closing_balance", balance);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            current = null;
+        }
+
+        private void writeMoneyField(String name, long minorUnits) throws IOException {
+            generator.writeFieldName(name);
+            generator.writeNumber(Money.ofMinorUnits(minorUnits).toString());
+        }
+    }
+}
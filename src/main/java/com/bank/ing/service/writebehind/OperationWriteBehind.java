@@ -0,0 +1,266 @@
+package com.bank.ing.service.writebehind;
+
+import com.bank.ing.entity.Operation;
+import com.bank.ing.ledger.JdbcLedgerSink;
+import com.bank.ing.ledger.PendingOperationTracker;
+import com.bank.ing.ledger.PendingOperations;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind persistence of operation rows. The balance change commits in the request transaction, the operation
+ * gets its id from the pooled sequence right away and is put into a bounded ring buffer once that transaction
+ * commits. A background writer inserts the buffered operations in JDBC batches of up to {@code flushSize} rows,
+ * waiting at most {@code flushInterval} for a batch to fill up.
+ * <p>
+ * A slot of the buffer is reserved inside the request transaction and given back on rollback, so the after-commit
+ * hand-off never waits. When no slot is left the request inserts its operation itself, in its transaction:
+ * producers are slowed down to the pace of the database instead of losing history, and a request never waits on
+ * the writer while holding a pooled connection the writer may need. On shutdown the writer drains the buffer before
+ * stopping. History reads may lag the balances by up to one flush.
+ * <p>
+ * The balance changes of buffered operations are already committed, a batch is therefore never dropped: a failed
+ * write is retried with exponential backoff until the database accepts it. The slots of a batch are only given back
+ * once it is written, so while the database is unavailable the buffer fills up and requests fall back to writing
+ * their operation themselves, failing with it instead of piling up history that cannot be written.
+ * <p>
+ * Hand-offs and {@link #close()} are ordered by a read-write lock: once closing, nothing enters the buffer, an
+ * operation whose transaction commits afterwards is inserted synchronously in a new transaction.
+ * <p>
+ * Operations holding a slot are tracked from their reservation to their write, so that balance checkpoints stop
+ * before the oldest of them.
+ */
+@Log4j2
+public class OperationWriteBehind implements PendingOperations, AutoCloseable {
+
+    private static final long INITIAL_RETRY_BACKOFF_MILLIS = 50;
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate afterCommitTransactionTemplate;
+    private final LongSupplier operationIds;
+    private final BlockingQueue<Operation> buffer;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final Semaphore slots;
+    private final PendingOperationTracker pendingOperations = new PendingOperationTracker();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writtenByCallers = new AtomicLong();
+    private final Thread writer;
+    private final ReentrantReadWriteLock closing = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    public OperationWriteBehind(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                LongSupplier operationIds, int capacity, int flushSize, Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.afterCommitTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.afterCommitTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.operationIds = operationIds;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.slots = new Semaphore(capacity);
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.writer = new Thread(this::run, "operation-write-behind");
+        this.writer.start();
+    }
+
+    /**
+     * Assigns the operation id and schedules the row to be written once the current transaction commits, nothing is
+     * written on rollback. The row is written right away when the buffer is full.
+     */
+    public Operation saveAfterCommit(Operation operation) {
+        operation.setId(operationIds.getAsLong());
+        if (!running || !slots.tryAcquire()) {
+            insert(operation);
+            return operation;
+        }
+        pendingOperations.add(operation);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            handOff(operation);
+            return operation;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    handOff(operation);
+                } else {
+                    pendingOperations.remove(operation);
+                    slots.release();
+                }
+            }
+        });
+        return operation;
+    }
+
+    /**
+     * Operations waiting in the buffer.
+     */
+    public int pending() {
+        return buffer.size();
+    }
+
+    /**
+     * Operations written by the background writer, and by request threads when the buffer was full.
+     */
+    public long written() {
+        return written.get();
+    }
+
+    public long writtenByCallers() {
+        return writtenByCallers.get();
+    }
+
+    @Override
+    public Optional<LocalDateTime> oldestPendingOperationDateTime() {
+        return pendingOperations.oldestPendingOperationDateTime();
+    }
+
+    /**
+     * Stops accepting operations into the buffer, then stops the writer once every buffered operation has been
+     * written. What an interrupted writer left in the buffer is written here.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closing.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        writer.join();
+        List<Operation> left = new ArrayList<>(buffer.size());
+        buffer.drainTo(left);
+        if (!left.isEmpty()) {
+            flush(left);
+            slots.release(left.size());
+        }
+        log.info("Operation write-behind stopped, {} operations written, {} by request threads",
+                written.get(), writtenByCallers.get());
+    }
+
+    /**
+     * Puts the operation of a committed transaction into the buffer, or inserts it in a new transaction once closing:
+     * the transaction it was reserved in has completed, the insert cannot join it.
+     */
+    private void handOff(Operation operation) {
+        closing.readLock().lock();
+        try {
+            if (running) {
+                buffer.add(operation);
+                return;
+            }
+        } finally {
+            closing.readLock().unlock();
+        }
+        afterCommitTransactionTemplate.executeWithoutResult(status -> insert(operation));
+        pendingOperations.remove(operation);
+        slots.release();
+    }
+
+    /**
+     * Inserts the operation in the caller's transaction, or in its own when there is none.
+     */
+    private void insert(Operation operation) {
+        log.debug("Operation write-behind buffer full or closed, writing operation id={} synchronously",
+                operation.getId());
+        jdbcTemplate.update(JdbcLedgerSink.INSERT_OPERATION_SQL, ps -> JdbcLedgerSink.setOperation(ps, operation));
+        writtenByCallers.incrementAndGet();
+        written.incrementAndGet();
+    }
+
+    private void run() {
+        List<Operation> batch = new ArrayList<>(flushSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                fill(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                buffer.drainTo(batch, flushSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                slots.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Waits for a first operation, then for the batch to fill up until the flush interval elapses. A stopping writer
+     * does not wait, it drains what is left.
+     */
+    private void fill(List<Operation> batch) throws InterruptedException {
+        Operation first = buffer.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < flushSize) {
+            buffer.drainTo(batch, flushSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || remaining <= 0 || !running) {
+                return;
+            }
+            Operation next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Writes the batch, retrying until it succeeds. An interrupt does not stop the retries, it is restored once the
+     * batch is written.
+     */
+    private void flush(List<Operation> batch) {
+        long backoffMillis = INITIAL_RETRY_BACKOFF_MILLIS;
+        boolean interrupted = false;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        JdbcLedgerSink.INSERT_OPERATION_SQL, batch, batch.size(), JdbcLedgerSink::setOperation));
+                written.addAndGet(batch.size());
+                pendingOperations.removeAll(batch);
+                log.debug("Wrote {} buffered operations", batch.size());
+                break;
+            } catch (RuntimeException e) {
+                log.error("Could not write {} buffered operations, attempt {}, retrying in {} ms, ids={}",
+                        batch.size(), attempt, backoffMillis,
+                        batch.stream().map(Operation::getId).collect(Collectors.toList()), e);
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            backoffMillis = Math.min(MAX_RETRY_BACKOFF_MILLIS, backoffMillis * 2);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.bank.ing.controller;
 
 import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
 import com.bank.ing.dto.response.ResponseAccountBalanceDTO;
+import com.bank.ing.dto.response.ResponseAccountImportDTO;
+import com.bank.ing.dto.response.ResponseAccountImportErrorDTO;
 import com.bank.ing.entity.Account;
 import com.bank.ing.entity.Customer;
+import com.bank.ing.exception.ErrorCode;
+import com.bank.ing.money.Money;
 import com.bank.ing.repository.AccountRepository;
 import com.bank.ing.repository.CustomerRepository;
+import com.bank.ing.service.BalanceCheckpointService;
+import com.bank.ing.service.OperationService;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +24,7 @@ import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -26,8 +35,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
+import static com.bank.ing.controller.AccountController.ACCOUNT_BALANCE_AS_OF_GET_END_POINT_V1;
 import static com.bank.ing.controller.AccountController.ACCOUNT_BALANCE_GET_END_POINT_V1;
 import static com.bank.ing.controller.AccountController.ACCOUNT_CREATION_END_POINT_V1;
+import static com.bank.ing.controller.AccountController.ACCOUNT_IMPORT_END_POINT_V1;
+import static com.bank.ing.controller.AccountController.TEXT_CSV_VALUE;
 
 @SpringBootTest(webEnvironment= SpringBootTest.WebEnvironment.RANDOM_PORT)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
@@ -44,6 +56,12 @@ class AccountControllerTest {
     private CustomerRepository customerRepository;
 
 
+    @Autowired
+    private OperationService operationService;
+
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+
     @LocalServerPort
     private int randomServerPort = 0;
 
@@ -53,6 +71,35 @@ class AccountControllerTest {
         url = "http://localhost:" +  randomServerPort;
     }
 
+    @Test
+    void balanceAsOfReplaysOperationsAfterLatestCheckpointTest() {
+        Customer customer = customerRepository.findById(1L).get();
+        LocalDateTime creation = LocalDateTime.now().minusHours(1);
+        Account account = accountRepository.save(Account.builder()
+                .customer(customer)
+                .initialDepositAmount(Money.parse("100"))
+                .balance(Money.parse("100"))
+                .creationTimestamp(creation)
+                .build());
+        operationService.depositMoney(RequestDepositAccountDTO.builder()
+                .accountId(account.getId()).depositAmount(BigDecimal.TEN).build());
+        LocalDateTime checkpoint = LocalDateTime.now();
+        Assertions.assertThat(balanceCheckpointService.writeCheckpoints(checkpoint)).isEqualTo(1);
+        operationService.withdrawMoney(RequestWithdrawAccountDTO.builder()
+                .accountId(account.getId()).withdrawAmount(BigDecimal.valueOf(30)).build());
+
+        Assertions.assertThat(balanceAsOf(account.getId(), creation.plusSeconds(1))).isEqualTo(Money.parse("100"));
+        Assertions.assertThat(balanceAsOf(account.getId(), checkpoint)).isEqualTo(Money.parse("110"));
+        Assertions.assertThat(balanceAsOf(account.getId(), LocalDateTime.now())).isEqualTo(Money.parse("80"));
+        Throwable throwable = Assertions.catchThrowable(() -> balanceAsOf(account.getId(), creation.minusSeconds(1)));
+        Assertions.assertThat(((HttpClientErrorException) throwable).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private Money balanceAsOf(long accountId, LocalDateTime asOf) {
+        return restTemplate.getForObject(url + ACCOUNT_BALANCE_AS_OF_GET_END_POINT_V1 + "?asOf={asOf}",
+                ResponseAccountBalanceDTO.class, accountId, asOf).getBalance();
+    }
+
     @Test
     void createNewAccountValidTest() {
         LocalDateTime current = LocalDateTime.now();
@@ -115,9 +162,9 @@ class AccountControllerTest {
 
     @Test
     void getAccountBalanceSuccessfulTest() {
-        BigDecimal someBalance = BigDecimal.valueOf(0.01);
+        Money someBalance = Money.parse("0.01");
         Customer customer = customerRepository.findById(1L).get();
-        Account account = createAccount(customer, BigDecimal.valueOf(100), someBalance);
+        Account account = createAccount(customer, Money.parse("100"), someBalance);
         ResponseAccountBalanceDTO expectedResponse =
                 ResponseAccountBalanceDTO.builder()
                         .id(account.getId())
@@ -141,7 +188,38 @@ class AccountControllerTest {
 
     }
 
-    public Account createAccount(Customer user, BigDecimal initialDepositAmount, BigDecimal balance) {
+    @Test
+    void importAccountsReportsRejectedLinesTest() {
+        HttpHeaders csvHeaders = new HttpHeaders();
+        csvHeaders.setContentType(MediaType.parseMediaType(TEXT_CSV_VALUE));
+        String csv = "customer_id,initial_amount\n1,100.50\n2,abc\n\n99,10\n3,0\n4,20\n";
+        HttpHeaders ndjsonHeaders = new HttpHeaders();
+        ndjsonHeaders.setContentType(MediaType.APPLICATION_NDJSON);
+        String ndjson = "{\"customer_id\":2,\"initial_amount\":30}\n{\"customer_id\":1\nnull\n[1,2]\n42\n\"text\"\n";
+
+        ResponseAccountImportDTO csvImport = restTemplate.postForObject(url + ACCOUNT_IMPORT_END_POINT_V1,
+                new HttpEntity<>(csv, csvHeaders), ResponseAccountImportDTO.class);
+        ResponseAccountImportDTO ndjsonImport = restTemplate.postForObject(url + ACCOUNT_IMPORT_END_POINT_V1,
+                new HttpEntity<>(ndjson, ndjsonHeaders), ResponseAccountImportDTO.class);
+
+        Assertions.assertThat(csvImport.getCreated()).isEqualTo(2);
+        Assertions.assertThat(csvImport.getRejected()).isEqualTo(3);
+        Assertions.assertThat(csvImport.getErrors())
+                .extracting(ResponseAccountImportErrorDTO::getLine, ResponseAccountImportErrorDTO::getErrorCode)
+                .containsExactly(Assertions.tuple(3L, ErrorCode.INVALID_REQUEST_ACCOUNT),
+                        Assertions.tuple(5L, ErrorCode.CUSTOMER_NOT_FOUND),
+                        Assertions.tuple(6L, ErrorCode.INVALID_REQUEST_ACCOUNT));
+        Assertions.assertThat(ndjsonImport.getCreated()).isEqualTo(1);
+        Assertions.assertThat(ndjsonImport.getErrors())
+                .extracting(ResponseAccountImportErrorDTO::getLine)
+                .containsExactly(2L, 3L, 4L, 5L, 6L);
+        Assertions.assertThat(accountRepository.findAll())
+                .extracting(account -> account.getCustomer().getId(), Account::getBalance)
+                .containsExactlyInAnyOrder(Assertions.tuple(1L, Money.parse("100.50")),
+                        Assertions.tuple(4L, Money.parse("20")), Assertions.tuple(2L, Money.parse("30")));
+    }
+
+    public Account createAccount(Customer user, Money initialDepositAmount, Money balance) {
         Account account =
                 Account.builder()
                         .initialDepositAmount(initialDepositAmount)
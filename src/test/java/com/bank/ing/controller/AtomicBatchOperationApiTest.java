@@ -0,0 +1,92 @@
+package com.bank.ing.controller;
+
+import com.bank.ing.dto.request.RequestBatchOperationDTO;
+import com.bank.ing.dto.request.RequestBatchOperationItemDTO;
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.dto.response.ResponseAccountBalanceDTO;
+import com.bank.ing.dto.response.ResponseBatchOperationItemDTO;
+import com.bank.ing.dto.response.ResponseBatchOperationsDTO;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.List;
+
+import static com.bank.ing.controller.AccountController.ACCOUNT_BALANCE_GET_END_POINT_V1;
+import static com.bank.ing.controller.AccountController.ACCOUNT_CREATION_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.BATCH_POST_END_POINT_V1;
+import static com.bank.ing.dto.response.ResponseBatchOperationItemDTO.STATUS_CREATED;
+import static com.bank.ing.dto.response.ResponseBatchOperationItemDTO.STATUS_REJECTED;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"bank.ledger.mode=atomic"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@ExtendWith(SpringExtension.class)
+class AtomicBatchOperationApiTest {
+
+    private RestTemplate restTemplate;
+    private String url;
+
+    @LocalServerPort
+    private int randomServerPort = 0;
+
+    @BeforeEach
+    public void beforeTest() {
+        restTemplate = new RestTemplate();
+        url = "http://localhost:" + randomServerPort;
+    }
+
+    @Test
+    void rejectedTransferLeavesNoPartialUpdateBehindTest() {
+        long sender = createAccount("100");
+        long receiver = createAccount("10");
+        RequestBatchOperationDTO requestBatchOperationDTO = RequestBatchOperationDTO.builder()
+                .operations(List.of(
+                        RequestBatchOperationItemDTO.builder().type(OperationType.TRANSFER)
+                                .senderAccountId(sender).receiverAccountId(receiver)
+                                .value(BigDecimal.valueOf(30)).build(),
+                        RequestBatchOperationItemDTO.builder().type(OperationType.TRANSFER)
+                                .senderAccountId(sender).receiverAccountId(999_999L)
+                                .value(BigDecimal.valueOf(1)).build(),
+                        RequestBatchOperationItemDTO.builder().type(OperationType.TRANSFER)
+                                .senderAccountId(999_999L).receiverAccountId(receiver)
+                                .value(BigDecimal.valueOf(1)).build(),
+                        RequestBatchOperationItemDTO.builder().type(OperationType.DEPOSIT)
+                                .accountId(receiver).value(BigDecimal.valueOf(10)).build()))
+                .build();
+
+        ResponseBatchOperationsDTO response = restTemplate.postForObject(url + BATCH_POST_END_POINT_V1,
+                requestBatchOperationDTO, ResponseBatchOperationsDTO.class);
+
+        Assertions.assertThat(response.getResults())
+                .extracting(ResponseBatchOperationItemDTO::getStatus)
+                .containsExactly(STATUS_CREATED, STATUS_REJECTED, STATUS_REJECTED, STATUS_CREATED);
+        Assertions.assertThat(balance(sender)).isEqualTo(Money.parse("70"));
+        Assertions.assertThat(balance(receiver)).isEqualTo(Money.parse("50"));
+    }
+
+    private long createAccount(String initialAmount) {
+        URI location = restTemplate.postForLocation(url + ACCOUNT_CREATION_END_POINT_V1,
+                RequestCreationAccountDTO.builder()
+                        .customerId(1L)
+                        .initialDepositAmount(new BigDecimal(initialAmount))
+                        .build());
+        String path = location.getPath();
+        return Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    private Money balance(long accountId) {
+        return restTemplate.getForObject(url + ACCOUNT_BALANCE_GET_END_POINT_V1, ResponseAccountBalanceDTO.class,
+                accountId).getBalance();
+    }
+}
@@ -0,0 +1,106 @@
+package com.bank.ing.controller;
+
+import com.bank.ing.dto.CustomerDTO;
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.dto.response.ResponseCustomersDTO;
+import com.bank.ing.entity.Customer;
+import com.bank.ing.service.cache.SecondLevelCacheMetrics;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+
+import static com.bank.ing.controller.AccountController.ACCOUNT_CREATION_END_POINT_V1;
+import static com.bank.ing.controller.CustomerController.CUSTOMER_EXPORT_GET_END_POINT_V1;
+import static com.bank.ing.controller.CustomerController.OPERATION_END_POINT_V1;
+
+@SpringBootTest(webEnvironment= SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"bank.cache.second-level.statistics-enabled=true"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@ExtendWith(SpringExtension.class)
+class CustomerControllerTest {
+
+    private RestTemplate restTemplate;
+    private String url;
+
+    @LocalServerPort
+    private int randomServerPort = 0;
+
+    @Autowired
+    private SecondLevelCacheMetrics secondLevelCacheMetrics;
+
+    @BeforeEach
+    public void beforeTest() {
+        restTemplate = new RestTemplate();
+        url = "http://localhost:" + randomServerPort;
+    }
+
+    @Test
+    void customerPagesReturnEachCustomerOnceTest() {
+        ResponseCustomersDTO firstPage = restTemplate.getForObject(url + OPERATION_END_POINT_V1 + "?limit=3",
+                ResponseCustomersDTO.class);
+        ResponseCustomersDTO lastPage = restTemplate.getForObject(url + OPERATION_END_POINT_V1 + "?limit=3&cursor={cursor}",
+                ResponseCustomersDTO.class, firstPage.getNext());
+
+        Assertions.assertThat(firstPage.getCustomers())
+                .extracting(CustomerDTO::getId)
+                .containsExactly(1L, 2L, 3L);
+        Assertions.assertThat(firstPage.getNext()).isNotNull();
+        Assertions.assertThat(lastPage.getCustomers())
+                .containsExactly(new CustomerDTO(4L, "SIMO HAMZA"));
+        Assertions.assertThat(lastPage.getNext()).isNull();
+    }
+
+    @Test
+    void invalidLimitOrCursorIsBadRequestTest() {
+        Throwable invalidLimit = Assertions.catchThrowable(() ->
+                restTemplate.getForObject(url + OPERATION_END_POINT_V1 + "?limit=0", ResponseCustomersDTO.class));
+        Throwable invalidCursor = Assertions.catchThrowable(() ->
+                restTemplate.getForObject(url + OPERATION_END_POINT_V1 + "?cursor=@@", ResponseCustomersDTO.class));
+
+        Assertions.assertThat(invalidLimit).isInstanceOf(HttpClientErrorException.class);
+        Assertions.assertThat(((HttpClientErrorException) invalidLimit).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(invalidCursor).isInstanceOf(HttpClientErrorException.class);
+        Assertions.assertThat(((HttpClientErrorException) invalidCursor).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void exportCustomersStreamsOneLinePerCustomerTest() {
+        ResponseEntity<String> response = restTemplate.getForEntity(url + CUSTOMER_EXPORT_GET_END_POINT_V1, String.class);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        Assertions.assertThat(response.getBody().split("\n"))
+                .containsExactly("{\"id\":1,\"name\":\"KIT TOTO\"}", "{\"id\":2,\"name\":\"SALIM GIBSON\"}",
+                        "{\"id\":3,\"name\":\"MARTIN DONA\"}", "{\"id\":4,\"name\":\"SIMO HAMZA\"}");
+    }
+
+    @Test
+    void customersAreServedFromSecondLevelCacheTest() {
+        for (int i = 0; i < 3; i++) {
+            restTemplate.postForLocation(url + ACCOUNT_CREATION_END_POINT_V1, RequestCreationAccountDTO.builder()
+                    .customerId(1L)
+                    .initialDepositAmount(BigDecimal.TEN)
+                    .build());
+            restTemplate.getForObject(url + OPERATION_END_POINT_V1 + "?limit=2", ResponseCustomersDTO.class);
+        }
+
+        Assertions.assertThat(secondLevelCacheMetrics.getMisses(Customer.CACHE_REGION)).isEqualTo(1);
+        Assertions.assertThat(secondLevelCacheMetrics.getHits(Customer.CACHE_REGION)).isEqualTo(2);
+        Assertions.assertThat(secondLevelCacheMetrics.getMisses(Customer.QUERY_CACHE_REGION)).isEqualTo(1);
+        Assertions.assertThat(secondLevelCacheMetrics.getHits(Customer.QUERY_CACHE_REGION)).isEqualTo(2);
+        Assertions.assertThat(secondLevelCacheMetrics.getHitRatio(Customer.QUERY_CACHE_REGION)).isEqualTo(2.0 / 3);
+    }
+}
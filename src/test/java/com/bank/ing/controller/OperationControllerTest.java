@@ -1,13 +1,24 @@
 package com.bank.ing.controller;
 
+import com.bank.ing.dto.request.RequestBatchOperationDTO;
+import com.bank.ing.dto.request.RequestBatchOperationItemDTO;
 import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
+import com.bank.ing.dto.response.ResponseBatchOperationItemDTO;
+import com.bank.ing.dto.response.ResponseBatchOperationsDTO;
 import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
+import com.bank.ing.dto.response.ResponseHistoryOperationsDTO;
 import com.bank.ing.entity.Account;
 import com.bank.ing.entity.Customer;
+import com.bank.ing.money.Money;
 import com.bank.ing.repository.AccountRepository;
 import com.bank.ing.repository.CustomerRepository;
 import com.bank.ing.repository.OperationRepository;
 import com.bank.ing.service.OperationService;
+import com.bank.ing.service.idempotency.IdempotencyKey;
+import com.bank.ing.service.idempotency.IdempotencyService;
+import com.bank.ing.utils.OperationType;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,7 +29,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -27,9 +40,17 @@ import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static com.bank.ing.controller.TransactionController.BATCH_POST_END_POINT_V1;
 import static com.bank.ing.controller.TransactionController.DEPOSIT_POST_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.HISTORY_EXPORT_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.HISTORY_OPERATION_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.IDEMPOTENCY_KEY_HEADER;
 import static com.bank.ing.controller.TransactionController.TRANSFER_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.WITHDRAW_POST_END_POINT_V1;
+import static com.bank.ing.dto.response.ResponseBatchOperationItemDTO.STATUS_CREATED;
+import static com.bank.ing.dto.response.ResponseBatchOperationItemDTO.STATUS_REJECTED;
 
 @SpringBootTest(webEnvironment= SpringBootTest.WebEnvironment.RANDOM_PORT)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
@@ -53,6 +74,9 @@ class OperationControllerTest {
     @Autowired
     private OperationService operationService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @LocalServerPort
     private int randomServerPort = 0;
 
@@ -83,6 +107,26 @@ class OperationControllerTest {
 
 
 
+    @Test
+    void createWithdrawInsufficientBalanceReturnsErrorCodeTest() {
+        Customer customer = customerRepository.findById(1L).get();
+        Account account = createAccount(customer, BigDecimal.valueOf(10));
+        RequestWithdrawAccountDTO requestOperationDTO =
+                RequestWithdrawAccountDTO.builder()
+                        .accountId(account.getId())
+                        .withdrawAmount(BigDecimal.valueOf(20))
+                        .build();
+
+        HttpEntity<RequestWithdrawAccountDTO> request = new HttpEntity<>(requestOperationDTO);
+        Throwable throwable = Assertions.catchThrowable(() -> restTemplate.postForEntity(url + WITHDRAW_POST_END_POINT_V1, request, Void.class, account.getId()));
+        Assertions.assertThat(throwable).isInstanceOf(HttpClientErrorException.class);
+        HttpClientErrorException error = (HttpClientErrorException) throwable;
+        Assertions.assertThat(error.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(error.getResponseBodyAsString())
+                .contains("\"code\":\"INSUFFICIENT_BALANCE\"")
+                .contains("\"message\":\"Insufficient");
+    }
+
     @Test
     void createDepositSuccessfulTest() {
         Customer customer = customerRepository.findById(1L).get();
@@ -100,13 +144,162 @@ class OperationControllerTest {
 
     }
 
+    @Test
+    void createBatchAppliesValidOperationsAndRejectsOthersTest() {
+        Customer customer = customerRepository.findById(1L).get();
+        Account senderAccount = createAccount(customer, BigDecimal.valueOf(100));
+        Account receiverAccount = createAccount(customer, BigDecimal.ZERO);
+        RequestBatchOperationDTO requestBatchOperationDTO = RequestBatchOperationDTO.builder()
+                .operations(List.of(
+                        RequestBatchOperationItemDTO.builder().type(OperationType.TRANSFER)
+                                .senderAccountId(senderAccount.getId()).receiverAccountId(receiverAccount.getId())
+                                .value(BigDecimal.valueOf(30)).build(),
+                        RequestBatchOperationItemDTO.builder().type(OperationType.WITHDRAW)
+                                .accountId(senderAccount.getId()).value(BigDecimal.valueOf(500)).build(),
+                        RequestBatchOperationItemDTO.builder().type(OperationType.DEPOSIT)
+                                .accountId(receiverAccount.getId()).value(BigDecimal.valueOf(10)).build(),
+                        RequestBatchOperationItemDTO.builder().type(OperationType.TRANSFER)
+                                .senderAccountId(senderAccount.getId()).receiverAccountId(999_999L)
+                                .value(BigDecimal.valueOf(1)).build()))
+                .build();
+
+        ResponseEntity<ResponseBatchOperationsDTO> response = restTemplate.postForEntity(url + BATCH_POST_END_POINT_V1,
+                new HttpEntity<>(requestBatchOperationDTO), ResponseBatchOperationsDTO.class);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(response.getBody().getCreated()).isEqualTo(2);
+        Assertions.assertThat(response.getBody().getRejected()).isEqualTo(2);
+        Assertions.assertThat(response.getBody().getResults())
+                .extracting(ResponseBatchOperationItemDTO::getStatus)
+                .containsExactly(STATUS_CREATED, STATUS_REJECTED, STATUS_CREATED, STATUS_REJECTED);
+        Assertions.assertThat(accountRepository.findById(senderAccount.getId()).get().getBalance())
+                .isEqualTo(Money.parse("70"));
+        Assertions.assertThat(accountRepository.findById(receiverAccount.getId()).get().getBalance())
+                .isEqualTo(Money.parse("40"));
+    }
+
+    @Test
+    void exportHistoryStreamsOneLinePerOperationTest() {
+        Customer customer = customerRepository.findById(1L).get();
+        Account account = createAccount(customer, BigDecimal.valueOf(10));
+        for (int i = 0; i < 3; i++) {
+            RequestDepositAccountDTO requestOperationDTO = RequestDepositAccountDTO.builder()
+                    .accountId(account.getId())
+                    .depositAmount(BigDecimal.valueOf(100))
+                    .build();
+            restTemplate.postForEntity(url + DEPOSIT_POST_END_POINT_V1, new HttpEntity<>(requestOperationDTO), Void.class, account.getId());
+        }
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url + HISTORY_EXPORT_GET_END_POINT_V1, String.class, account.getId());
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        Assertions.assertThat(response.getBody().split("\n"))
+                .hasSize(3)
+                .allMatch(line -> line.contains("\"type_operation\":\"DEPOSIT\""));
+    }
+
+    @Test
+    void historyPagesReturnEachOperationOnceTest() {
+        Customer customer = customerRepository.findById(1L).get();
+        Account account = createAccount(customer, BigDecimal.valueOf(10));
+        RequestWithdrawAccountDTO requestWithdrawAccountDTO = RequestWithdrawAccountDTO.builder()
+                .accountId(account.getId())
+                .withdrawAmount(BigDecimal.ONE)
+                .build();
+        for (int i = 0; i < 3; i++) {
+            restTemplate.postForEntity(url + WITHDRAW_POST_END_POINT_V1, new HttpEntity<>(requestWithdrawAccountDTO), Void.class, account.getId());
+        }
+
+        ResponseHistoryOperationsDTO firstPage = restTemplate.getForObject(url + HISTORY_OPERATION_GET_END_POINT_V1 + "?limit=2",
+                ResponseHistoryOperationsDTO.class, account.getId());
+        ResponseHistoryOperationsDTO lastPage = restTemplate.getForObject(url + HISTORY_OPERATION_GET_END_POINT_V1 + "?limit=2&cursor={cursor}",
+                ResponseHistoryOperationsDTO.class, account.getId(), firstPage.getNext());
+
+        Assertions.assertThat(firstPage.getOperationDTOList()).hasSize(2);
+        Assertions.assertThat(lastPage.getOperationDTOList()).hasSize(1);
+        Assertions.assertThat(lastPage.getNext()).isNull();
+    }
+
+    @Test
+    void retriedDepositWithSameIdempotencyKeyIsAppliedOnceTest() {
+        Customer customer = customerRepository.findById(1L).get();
+        Account account = createAccount(customer, BigDecimal.valueOf(10));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IDEMPOTENCY_KEY_HEADER, "deposit-" + account.getId());
+        RequestDepositAccountDTO requestOperationDTO = RequestDepositAccountDTO.builder()
+                .accountId(account.getId())
+                .depositAmount(BigDecimal.valueOf(100))
+                .build();
+
+        ResponseEntity<Void> first = restTemplate.postForEntity(url + DEPOSIT_POST_END_POINT_V1,
+                new HttpEntity<>(requestOperationDTO, headers), Void.class, account.getId());
+        ResponseEntity<Void> retried = restTemplate.postForEntity(url + DEPOSIT_POST_END_POINT_V1,
+                new HttpEntity<>(requestOperationDTO, headers), Void.class, account.getId());
+
+        Assertions.assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(retried.getHeaders().getLocation()).isEqualTo(first.getHeaders().getLocation());
+        Assertions.assertThat(accountRepository.findById(account.getId()).get().getBalance())
+                .isEqualTo(Money.parse("110"));
+
+        RequestDepositAccountDTO otherRequestOperationDTO = RequestDepositAccountDTO.builder()
+                .accountId(account.getId())
+                .depositAmount(BigDecimal.valueOf(50))
+                .build();
+        Throwable throwable = Assertions.catchThrowable(() -> restTemplate.postForEntity(url + DEPOSIT_POST_END_POINT_V1,
+                new HttpEntity<>(otherRequestOperationDTO, headers), Void.class, account.getId()));
+        Assertions.assertThat(throwable).isInstanceOf(HttpClientErrorException.class);
+        Assertions.assertThat(((HttpClientErrorException) throwable).getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void replayedOperationReturnsTheOriginalResponseTest() {
+        Customer customer = customerRepository.findById(1L).get();
+        Account sender = createAccount(customer, BigDecimal.valueOf(10));
+        Account receiver = createAccount(customer, BigDecimal.valueOf(10));
+        RequestTransferOperationDTO requestTransferOperationDTO = RequestTransferOperationDTO.builder()
+                .senderAccountId(sender.getId())
+                .receiverAccountId(receiver.getId())
+                .value(new BigDecimal("2.50"))
+                .build();
+        IdempotencyKey key = IdempotencyKey.of("transfer-" + sender.getId(), TRANSFER_GET_END_POINT_V1,
+                requestTransferOperationDTO);
+
+        ResponseDepositWithdrawTransferDTO first = idempotencyService.execute(key,
+                () -> operationService.transferOperation(requestTransferOperationDTO, key));
+        ResponseDepositWithdrawTransferDTO replayed = idempotencyService.execute(key,
+                () -> operationService.transferOperation(requestTransferOperationDTO, key));
+
+        Assertions.assertThat(replayed).isEqualTo(first);
+        Assertions.assertThat(replayed.getSenderAccountId()).isEqualTo(sender.getId());
+        Assertions.assertThat(replayed.getValue()).isEqualTo(Money.parse("2.5"));
+    }
+
+    @Test
+    void operationsAreExposedAsMetricsTest() {
+        Customer customer = customerRepository.findById(1L).get();
+        Account account = createAccount(customer, BigDecimal.valueOf(10));
+        RequestWithdrawAccountDTO requestWithdrawAccountDTO = RequestWithdrawAccountDTO.builder()
+                .accountId(account.getId())
+                .withdrawAmount(BigDecimal.ONE)
+                .build();
+        restTemplate.postForEntity(url + WITHDRAW_POST_END_POINT_V1, new HttpEntity<>(requestWithdrawAccountDTO), Void.class, account.getId());
+
+        String outcomes = restTemplate.getForObject(url + "/actuator/metrics/bank.operation.outcomes?tag=operation:withdraw&tag=outcome:success",
+                String.class);
+        ResponseEntity<String> pool = restTemplate.getForEntity(url + "/actuator/metrics/hikaricp.connections.active", String.class);
+
+        Assertions.assertThat(outcomes).contains("\"statistic\":\"COUNT\"");
+        Assertions.assertThat(pool.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
     @Test
     public Account createAccount(Customer customer, BigDecimal initialDepositAmount) {
         Account account =
                 Account.builder()
-                        .initialDepositAmount(initialDepositAmount)
+                        .initialDepositAmount(Money.of(initialDepositAmount))
                         .creationTimestamp(LocalDateTime.now())
-                        .balance(initialDepositAmount)
+                        .balance(Money.of(initialDepositAmount))
                         .customer(customer)
                         .build();
         accountRepository.save(account);
@@ -0,0 +1,154 @@
+package com.bank.ing.controller;
+
+import com.bank.ing.configuration.ReactiveConfiguration;
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import com.bank.ing.dto.request.RequestWithdrawAccountDTO;
+import com.bank.ing.dto.response.ResponseAccountBalanceDTO;
+import com.bank.ing.dto.response.ResponseHistoryOperationsDTO;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+
+import static com.bank.ing.controller.AccountController.ACCOUNT_BALANCE_GET_END_POINT_V1;
+import static com.bank.ing.controller.AccountController.ACCOUNT_CREATION_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.DEPOSIT_POST_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.HISTORY_EXPORT_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.HISTORY_OPERATION_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.IDEMPOTENCY_KEY_HEADER;
+import static com.bank.ing.controller.TransactionController.TRANSFER_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.WITHDRAW_POST_END_POINT_V1;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(ReactiveConfiguration.PROFILE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@ExtendWith(SpringExtension.class)
+class ReactiveOperationApiTest {
+
+    private RestTemplate restTemplate;
+    private String url;
+
+    @LocalServerPort
+    private int randomServerPort = 0;
+
+    @BeforeEach
+    public void beforeTest() {
+        restTemplate = new RestTemplate();
+        url = "http://localhost:" + randomServerPort;
+    }
+
+    @Test
+    void operationsChangeBalancesAndHistoryTest() {
+        long sender = createAccount(1L, "100");
+        long receiver = createAccount(2L, "10");
+
+        restTemplate.postForEntity(url + DEPOSIT_POST_END_POINT_V1, RequestDepositAccountDTO.builder()
+                .accountId(sender).depositAmount(new BigDecimal("0.50")).build(), Void.class, sender);
+        restTemplate.postForEntity(url + WITHDRAW_POST_END_POINT_V1, RequestWithdrawAccountDTO.builder()
+                .accountId(sender).withdrawAmount(new BigDecimal("20")).build(), Void.class, sender);
+        ResponseEntity<Void> transfer = restTemplate.postForEntity(url + TRANSFER_GET_END_POINT_V1,
+                RequestTransferOperationDTO.builder().senderAccountId(sender).receiverAccountId(receiver)
+                        .value(new BigDecimal("30.25")).build(), Void.class);
+
+        Assertions.assertThat(transfer.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(balance(sender)).isEqualTo(Money.parse("50.25"));
+        Assertions.assertThat(balance(receiver)).isEqualTo(Money.parse("40.25"));
+
+        ResponseHistoryOperationsDTO firstPage = restTemplate.getForObject(
+                url + HISTORY_OPERATION_GET_END_POINT_V1 + "?limit=2", ResponseHistoryOperationsDTO.class, sender);
+        Assertions.assertThat(firstPage.getOperationDTOList())
+                .extracting("typeOperation")
+                .containsExactly(OperationType.TRANSFER.name(), OperationType.WITHDRAW.name());
+        ResponseHistoryOperationsDTO lastPage = restTemplate.getForObject(
+                url + HISTORY_OPERATION_GET_END_POINT_V1 + "?limit=2&cursor={cursor}",
+                ResponseHistoryOperationsDTO.class, sender, firstPage.getNext());
+        Assertions.assertThat(lastPage.getOperationDTOList())
+                .extracting("typeOperation")
+                .containsExactly(OperationType.DEPOSIT.name());
+        Assertions.assertThat(lastPage.getNext()).isNull();
+
+        String export = restTemplate.getForObject(url + HISTORY_EXPORT_GET_END_POINT_V1, String.class, receiver);
+        Assertions.assertThat(export.split("\n")).hasSize(1);
+        Assertions.assertThat(export).contains("\"sender_account_id\":" + sender, "\"value\":30.25");
+    }
+
+    @Test
+    void rejectedTransferLeavesBalancesUnchangedTest() {
+        long sender = createAccount(1L, "10");
+        long receiver = createAccount(2L, "10");
+        RequestTransferOperationDTO transfer = RequestTransferOperationDTO.builder()
+                .senderAccountId(receiver).receiverAccountId(sender).value(new BigDecimal("10.01")).build();
+
+        Throwable throwable = Assertions.catchThrowable(() ->
+                restTemplate.postForEntity(url + TRANSFER_GET_END_POINT_V1, transfer, Void.class));
+
+        Assertions.assertThat(throwable).isInstanceOf(HttpClientErrorException.class);
+        HttpClientErrorException error = (HttpClientErrorException) throwable;
+        Assertions.assertThat(error.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(error.getResponseBodyAsString()).contains("\"code\":\"INSUFFICIENT_BALANCE\"");
+        Assertions.assertThat(balance(sender)).isEqualTo(Money.parse("10"));
+        Assertions.assertThat(balance(receiver)).isEqualTo(Money.parse("10"));
+
+        Throwable unknown = Assertions.catchThrowable(() ->
+                restTemplate.getForObject(url + ACCOUNT_BALANCE_GET_END_POINT_V1, String.class, 999_999L));
+        Assertions.assertThat(((HttpClientErrorException) unknown).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void retriedDepositWithSameIdempotencyKeyIsAppliedOnceTest() {
+        long account = createAccount(1L, "10");
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IDEMPOTENCY_KEY_HEADER, "deposit-" + account);
+
+        ResponseEntity<Void> first = restTemplate.postForEntity(url + DEPOSIT_POST_END_POINT_V1, new HttpEntity<>(
+                RequestDepositAccountDTO.builder().accountId(account).depositAmount(new BigDecimal("100")).build(),
+                headers), Void.class, account);
+        ResponseEntity<Void> retried = restTemplate.postForEntity(url + DEPOSIT_POST_END_POINT_V1, new HttpEntity<>(
+                RequestDepositAccountDTO.builder().accountId(account).depositAmount(new BigDecimal("100.00")).build(),
+                headers), Void.class, account);
+
+        Assertions.assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(retried.getHeaders().getLocation()).isEqualTo(first.getHeaders().getLocation());
+        Assertions.assertThat(balance(account)).isEqualTo(Money.parse("110"));
+
+        Throwable throwable = Assertions.catchThrowable(() -> restTemplate.postForEntity(url + DEPOSIT_POST_END_POINT_V1,
+                new HttpEntity<>(RequestDepositAccountDTO.builder().accountId(account)
+                        .depositAmount(new BigDecimal("50")).build(), headers), Void.class, account));
+        Assertions.assertThat(((HttpClientErrorException) throwable).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        Assertions.assertThat(balance(account)).isEqualTo(Money.parse("110"));
+    }
+
+    private long createAccount(long customerId, String initialAmount) {
+        URI location = restTemplate.postForLocation(url + ACCOUNT_CREATION_END_POINT_V1,
+                RequestCreationAccountDTO.builder()
+                        .customerId(customerId)
+                        .initialDepositAmount(new BigDecimal(initialAmount))
+                        .build());
+        String path = location.getPath();
+        return Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    private Money balance(long accountId) {
+        return restTemplate.getForObject(url + ACCOUNT_BALANCE_GET_END_POINT_V1, ResponseAccountBalanceDTO.class,
+                accountId).getBalance();
+    }
+}
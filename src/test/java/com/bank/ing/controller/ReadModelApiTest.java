@@ -0,0 +1,112 @@
+package com.bank.ing.controller;
+
+import com.bank.ing.dto.request.RequestCreationAccountDTO;
+import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import com.bank.ing.dto.response.ResponseAccountBalanceDTO;
+import com.bank.ing.dto.response.ResponseHistoryOperationsDTO;
+import com.bank.ing.money.Money;
+import com.bank.ing.service.readmodel.AccountReadModel;
+import com.bank.ing.service.readmodel.ReadModelProjector;
+import com.bank.ing.utils.OperationType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+
+import static com.bank.ing.controller.AccountController.ACCOUNT_BALANCE_GET_END_POINT_V1;
+import static com.bank.ing.controller.AccountController.ACCOUNT_CREATION_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.DEPOSIT_POST_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.HISTORY_OPERATION_GET_END_POINT_V1;
+import static com.bank.ing.controller.TransactionController.TRANSFER_GET_END_POINT_V1;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"bank.read-model.enabled=true", "bank.read-model.max-lag=1m"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@ExtendWith(SpringExtension.class)
+class ReadModelApiTest {
+
+    private RestTemplate restTemplate;
+    private String url;
+
+    @LocalServerPort
+    private int randomServerPort = 0;
+
+    @Autowired
+    private ReadModelProjector readModelProjector;
+
+    @Autowired
+    private AccountReadModel accountReadModel;
+
+    @BeforeEach
+    public void beforeTest() {
+        restTemplate = new RestTemplate();
+        url = "http://localhost:" + randomServerPort;
+    }
+
+    @Test
+    void committedOperationsAreServedFromReadModelTest() throws InterruptedException {
+        long sender = createAccount(1L, "100");
+        long receiver = createAccount(2L, "10");
+        restTemplate.postForEntity(url + DEPOSIT_POST_END_POINT_V1, RequestDepositAccountDTO.builder()
+                .accountId(sender).depositAmount(new BigDecimal("0.50")).build(), Void.class, sender);
+        transfer(sender, receiver, "30.25");
+        Throwable rejected = Assertions.catchThrowable(() -> transfer(receiver, sender, "1000"));
+        transfer(receiver, sender, "5");
+
+        awaitProjected(5);
+
+        Assertions.assertThat(rejected).isNotNull();
+        Assertions.assertThat(balance(sender)).isEqualTo(Money.parse("75.25"));
+        Assertions.assertThat(balance(receiver)).isEqualTo(Money.parse("35.25"));
+        ResponseHistoryOperationsDTO firstPage = restTemplate.getForObject(
+                url + HISTORY_OPERATION_GET_END_POINT_V1 + "?limit=2", ResponseHistoryOperationsDTO.class, sender);
+        Assertions.assertThat(firstPage.getOperationDTOList())
+                .extracting("typeOperation")
+                .containsExactly(OperationType.TRANSFER.name(), OperationType.TRANSFER.name());
+        ResponseHistoryOperationsDTO lastPage = restTemplate.getForObject(
+                url + HISTORY_OPERATION_GET_END_POINT_V1 + "?limit=2&cursor={cursor}",
+                ResponseHistoryOperationsDTO.class, sender, firstPage.getNext());
+        Assertions.assertThat(lastPage.getOperationDTOList())
+                .extracting("typeOperation")
+                .containsExactly(OperationType.DEPOSIT.name());
+        Assertions.assertThat(lastPage.getNext()).isNull();
+        Assertions.assertThat(accountReadModel.fallbacks()).isZero();
+    }
+
+    private void awaitProjected(long events) throws InterruptedException {
+        for (int i = 0; i < 100 && readModelProjector.projected() < events; i++) {
+            Thread.sleep(50);
+        }
+        Assertions.assertThat(readModelProjector.projected()).isEqualTo(events);
+    }
+
+    private void transfer(long sender, long receiver, String value) {
+        restTemplate.postForEntity(url + TRANSFER_GET_END_POINT_V1, RequestTransferOperationDTO.builder()
+                .senderAccountId(sender).receiverAccountId(receiver).value(new BigDecimal(value)).build(), Void.class);
+    }
+
+    private long createAccount(long customerId, String initialAmount) {
+        URI location = restTemplate.postForLocation(url + ACCOUNT_CREATION_END_POINT_V1,
+                RequestCreationAccountDTO.builder()
+                        .customerId(customerId)
+                        .initialDepositAmount(new BigDecimal(initialAmount))
+                        .build());
+        String path = location.getPath();
+        return Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    private Money balance(long accountId) {
+        return restTemplate.getForObject(url + ACCOUNT_BALANCE_GET_END_POINT_V1, ResponseAccountBalanceDTO.class,
+                accountId).getBalance();
+    }
+}
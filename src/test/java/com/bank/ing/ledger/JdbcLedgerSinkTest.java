@@ -0,0 +1,198 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class JdbcLedgerSinkTest {
+
+    private static final String EPOCH = "epoch-1";
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private FlakyJdbcTemplate sinkJdbcTemplate;
+    private JdbcLedgerSink sink;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:ledger-sink", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        sinkJdbcTemplate = new FlakyJdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE account (account_id BIGINT PRIMARY KEY, account_balance BIGINT, "
+                + "account_version BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE operation (operation_id BIGINT PRIMARY KEY, operation_type VARCHAR(255), "
+                + "operation_id_sender BIGINT, operation_id_receiver BIGINT, operation_value BIGINT, "
+                + "operation_date_time TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE ledger_journal_epoch (journal_epoch VARCHAR(36) PRIMARY KEY, "
+                + "journal_projected_sequence BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO account VALUES (1, 10000, 0)");
+        jdbcTemplate.update("INSERT INTO ledger_journal_epoch VALUES (?, 0)", EPOCH);
+        sink = newSink();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sink.close();
+        dataSource.destroy();
+    }
+
+    @Test
+    void testTransientFailureIsRetriedUntilTheDatabaseAcceptsTheBatch() throws InterruptedException {
+        sinkJdbcTemplate.failures.set(3);
+        Operation operation = deposit(1L, 1L, "5");
+        sink.append(new LedgerEntry(1L, Money.parse("105"), operation));
+        Thread.sleep(100);
+        Assertions.assertThat(sink.oldestPendingOperationDateTime()).contains(operation.getOperationDateTime());
+
+        sink.close();
+
+        Assertions.assertThat(sink.isHealthy()).isTrue();
+        Assertions.assertThat(sink.oldestPendingOperationDateTime()).isEmpty();
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT account_balance FROM account WHERE account_id = 1",
+                Long.class)).isEqualTo(10500L);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT operation_id FROM operation", Long.class))
+                .containsExactly(1L);
+    }
+
+    @Test
+    void testPermanentFailureIsDeadLetteredWithoutBlockingTheSink() throws InterruptedException {
+        jdbcTemplate.execute("ALTER TABLE operation RENAME TO operation_offline");
+        Operation rejected = deposit(1L, 1L, "5");
+        sink.append(new LedgerEntry(1L, Money.parse("105"), rejected));
+        for (int i = 0; i < 100 && sink.isHealthy(); i++) {
+            Thread.sleep(10);
+        }
+        jdbcTemplate.execute("ALTER TABLE operation_offline RENAME TO operation");
+        sink.append(new LedgerEntry(1L, Money.parse("107"), deposit(2L, 1L, "2")));
+
+        sink.close();
+
+        Assertions.assertThat(sink.isHealthy()).isFalse();
+        Assertions.assertThat(sink.deadLetteredBatches()).isEqualTo(1);
+        Assertions.assertThat(sink.oldestPendingOperationDateTime()).contains(rejected.getOperationDateTime());
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT account_balance FROM account WHERE account_id = 1",
+                Long.class)).isEqualTo(10700L);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT operation_id FROM operation", Long.class))
+                .containsExactly(2L);
+    }
+
+    @Test
+    void testJournaledEntriesLostWithTheQueueAreProjectedAfterARestart(@TempDir Path directory) throws Exception {
+        KilledProjection projection = new KilledProjection(sink);
+        try (JournalLedgerSink journal = openJournal(directory, projection)) {
+            journal.append(new LedgerEntry(1L, Money.parse("105"), deposit(1L, 1L, "5")));
+            sink.close();
+            projection.kill();
+            journal.append(new LedgerEntry(1L, Money.parse("107"), deposit(2L, 1L, "2")));
+            journal.append(new LedgerEntry(1L, Money.parse("110"), deposit(3L, 1L, "3")));
+        }
+        Assertions.assertThat(projection.lost).hasSize(2);
+        Assertions.assertThat(sink.projectedSequence()).isEqualTo(1L);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT operation_id FROM operation", Long.class))
+                .containsExactly(1L);
+
+        sink = newSink();
+        try (JournalLedgerSink journal = openJournal(directory, sink)) {
+            sink.close();
+        }
+
+        Assertions.assertThat(sink.projectedSequence()).isEqualTo(3L);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT account_balance FROM account WHERE account_id = 1",
+                Long.class)).isEqualTo(11000L);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT operation_id FROM operation ORDER BY operation_id",
+                Long.class)).containsExactly(1L, 2L, 3L);
+    }
+
+    private JdbcLedgerSink newSink() {
+        return new JdbcLedgerSink(sinkJdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                1024, 100);
+    }
+
+    private static JournalLedgerSink openJournal(Path directory, JournalProjection projection) throws Exception {
+        return new JournalLedgerSink(directory, EPOCH, 1024, Duration.ofMillis(50), Duration.ofHours(1), projection);
+    }
+
+    /**
+     * Fails the next {@code failures} batches with a transient error, as a lock timeout would.
+     */
+    private static final class FlakyJdbcTemplate extends JdbcTemplate {
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private FlakyJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            if (failures.getAndDecrement() > 0) {
+                throw new TransientDataAccessResourceException("Lock wait timeout");
+            }
+            return super.batchUpdate(sql, batchArgs, batchSize, pss);
+        }
+    }
+
+    /**
+     * Projection whose queued entries die with the process once killed.
+     */
+    private static final class KilledProjection implements JournalProjection {
+
+        private final JournalProjection delegate;
+        private final List<LedgerEntry> lost = new ArrayList<>();
+        private boolean killed;
+
+        private KilledProjection(JournalProjection delegate) {
+            this.delegate = delegate;
+        }
+
+        void kill() {
+            killed = true;
+        }
+
+        @Override
+        public void project(LedgerEntry entry, long sequence) {
+            if (killed) {
+                lost.add(entry);
+            } else {
+                delegate.project(entry, sequence);
+            }
+        }
+
+        @Override
+        public long projectedSequence() {
+            return delegate.projectedSequence();
+        }
+    }
+
+    private static Operation deposit(long id, long accountId, String value) {
+        return Operation.builder()
+                .id(id)
+                .type(OperationType.DEPOSIT.name())
+                .receiverAccount(Account.builder().id(accountId).build())
+                .value(Money.parse(value))
+                .operationDateTime(LocalDateTime.now())
+                .build();
+    }
+}
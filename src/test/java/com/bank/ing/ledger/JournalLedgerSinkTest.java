@@ -0,0 +1,224 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class JournalLedgerSinkTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+    private static final String EPOCH = "epoch-1";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEntriesAreReplayedAfterRestart() throws Exception {
+        LocalDateTime operationDateTime = LocalDateTime.of(2021, 4, 1, 10, 30, 15, 123_456_789);
+        try (JournalLedgerSink journal = open()) {
+            journal.append(new LedgerEntry(1L, Money.ofMinorUnits(10050), deposit(7L, 1L, "0.50", operationDateTime)));
+            journal.append(new LedgerEntry(2L, Money.parse("49.99"), null));
+        }
+
+        try (JournalLedgerSink journal = open()) {
+            List<LedgerEntry> replayed = new ArrayList<>();
+            journal.replay(0, (entry, sequence) -> replayed.add(entry));
+
+            Assertions.assertThat(journal.lastSequence()).isEqualTo(2);
+            Assertions.assertThat(journal.balanceOf(1L)).contains(Money.parse("100.50"));
+            Assertions.assertThat(journal.balanceOf(2L)).contains(Money.parse("49.99"));
+            Assertions.assertThat(journal.balanceOf(3L)).isEmpty();
+            Assertions.assertThat(replayed).hasSize(2);
+            Operation operation = replayed.get(0).getOperation();
+            Assertions.assertThat(operation.getId()).isEqualTo(7L);
+            Assertions.assertThat(operation.getType()).isEqualTo(OperationType.DEPOSIT.name());
+            Assertions.assertThat(operation.getSenderAccount()).isNull();
+            Assertions.assertThat(operation.getReceiverAccount().getId()).isEqualTo(1L);
+            Assertions.assertThat(operation.getValue()).isEqualTo(Money.parse("0.50"));
+            Assertions.assertThat(operation.getOperationDateTime()).isEqualTo(operationDateTime);
+            Assertions.assertThat(replayed.get(1).getOperation()).isNull();
+        }
+    }
+
+    @Test
+    void testRestartReplaysOnlyTheSegmentsAfterTheSnapshot() throws Exception {
+        try (JournalLedgerSink journal = open()) {
+            for (int i = 1; i <= 100; i++) {
+                journal.append(new LedgerEntry(i % 5, Money.ofMinorUnits(i * 100L), null));
+            }
+            journal.snapshot();
+            for (int i = 101; i <= 120; i++) {
+                journal.append(new LedgerEntry(1L, Money.ofMinorUnits(i * 100L), null));
+            }
+            Files.delete(segments().get(0));
+            Assertions.assertThat(segments()).hasSizeGreaterThan(2);
+        }
+        Files.delete(snapshots().get(0));
+        Assertions.assertThat(snapshots()).hasSize(1);
+
+        try (JournalLedgerSink journal = open()) {
+            Assertions.assertThat(journal.lastSequence()).isEqualTo(120);
+            Assertions.assertThat(journal.balanceOf(1L)).contains(Money.parse("120"));
+            Assertions.assertThat(journal.balanceOf(0L)).contains(Money.parse("100"));
+            Assertions.assertThat(journal.balanceOf(4L)).contains(Money.parse("99"));
+        }
+    }
+
+    @Test
+    void testTornRecordIsDroppedAndOverwritten() throws Exception {
+        try (JournalLedgerSink journal = open()) {
+            journal.append(new LedgerEntry(1L, Money.parse("10"), null));
+            journal.append(new LedgerEntry(1L, Money.parse("20"), null));
+        }
+        deleteSnapshots();
+        corruptLastRecordOf(segments().get(0));
+
+        try (JournalLedgerSink journal = open()) {
+            Assertions.assertThat(journal.lastSequence()).isEqualTo(1);
+            Assertions.assertThat(journal.balanceOf(1L)).contains(Money.parse("10"));
+            journal.append(new LedgerEntry(1L, Money.parse("30"), null));
+        }
+        deleteSnapshots();
+
+        try (JournalLedgerSink journal = open()) {
+            Assertions.assertThat(journal.lastSequence()).isEqualTo(2);
+            Assertions.assertThat(journal.balanceOf(1L)).contains(Money.parse("30"));
+        }
+    }
+
+    @Test
+    void testTransferDebitedWithoutCreditIsPendingAfterRestart() throws Exception {
+        LocalDateTime operationDateTime = LocalDateTime.of(2021, 4, 1, 10, 30);
+        try (JournalLedgerSink journal = open()) {
+            Operation completed = transfer(8L, 1L, 2L, "5", operationDateTime);
+            journal.append(new LedgerEntry(1L, Money.parse("95"), completed, true));
+            journal.append(new LedgerEntry(2L, Money.parse("55"), completed));
+            journal.append(new LedgerEntry(1L, Money.parse("85"), transfer(9L, 1L, 3L, "10", operationDateTime), true));
+        }
+        deleteSnapshots();
+
+        try (JournalLedgerSink journal = open()) {
+            Assertions.assertThat(journal.pendingTransfers()).extracting(Operation::getId).containsExactly(9L);
+        }
+
+        try (JournalLedgerSink journal = open()) {
+            List<Operation> pending = journal.pendingTransfers();
+            Assertions.assertThat(pending).extracting(Operation::getId).containsExactly(9L);
+            Assertions.assertThat(pending.get(0).getReceiverAccount().getId()).isEqualTo(3L);
+            Assertions.assertThat(pending.get(0).getValue()).isEqualTo(Money.parse("10"));
+            Assertions.assertThat(pending.get(0).getOperationDateTime()).isEqualTo(operationDateTime);
+            journal.append(new LedgerEntry(3L, Money.parse("20"), pending.get(0)));
+        }
+
+        try (JournalLedgerSink journal = open()) {
+            Assertions.assertThat(journal.pendingTransfers()).isEmpty();
+        }
+    }
+
+    @Test
+    void testJournalOfAnotherDatabaseIsRetired() throws Exception {
+        try (JournalLedgerSink journal = open()) {
+            journal.append(new LedgerEntry(1L, Money.parse("10"), null));
+        }
+
+        try (JournalLedgerSink journal = open("epoch-2")) {
+            Assertions.assertThat(journal.lastSequence()).isZero();
+            Assertions.assertThat(journal.balanceOf(1L)).isEmpty();
+            journal.append(new LedgerEntry(1L, Money.parse("20"), null));
+        }
+
+        try (JournalLedgerSink journal = open("epoch-2")) {
+            Assertions.assertThat(journal.lastSequence()).isEqualTo(1);
+            Assertions.assertThat(journal.balanceOf(1L)).contains(Money.parse("20"));
+        }
+        Assertions.assertThat(directory.resolve(JournalLedgerSink.RETIRED_PREFIX + EPOCH)).isDirectory();
+    }
+
+    private JournalLedgerSink open() throws IOException {
+        return open(EPOCH);
+    }
+
+    private JournalLedgerSink open(String epoch) throws IOException {
+        return new JournalLedgerSink(directory, epoch, SEGMENT_SIZE, Duration.ofMillis(50), Duration.ofHours(1), null);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Snapshots, latest first.
+     */
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".snapshot"))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void deleteSnapshots() throws IOException {
+        for (Path snapshot : snapshots()) {
+            Files.delete(snapshot);
+        }
+    }
+
+    /**
+     * Flips the last payload byte of the second record, as a crash in the middle of its write would.
+     */
+    private static void corruptLastRecordOf(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(header, 0);
+            int secondRecord = JournalCodec.HEADER_SIZE + header.flip().getInt();
+            header.clear();
+            channel.read(header, secondRecord);
+            int lastByte = secondRecord + JournalCodec.HEADER_SIZE + header.flip().getInt() - 1;
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, lastByte);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~value.get(0)}), lastByte);
+        }
+    }
+
+    private static Operation transfer(long id, long senderAccountId, long receiverAccountId, String value,
+                                      LocalDateTime operationDateTime) {
+        return Operation.builder()
+                .id(id)
+                .type(OperationType.TRANSFER.name())
+                .senderAccount(Account.builder().id(senderAccountId).build())
+                .receiverAccount(Account.builder().id(receiverAccountId).build())
+                .value(Money.parse(value))
+                .operationDateTime(operationDateTime)
+                .build();
+    }
+
+    private static Operation deposit(long id, long accountId, String value, LocalDateTime operationDateTime) {
+        return Operation.builder()
+                .id(id)
+                .type(OperationType.DEPOSIT.name())
+                .receiverAccount(Account.builder().id(accountId).build())
+                .value(Money.parse(value))
+                .operationDateTime(operationDateTime)
+                .build();
+    }
+}
@@ -0,0 +1,205 @@
+package com.bank.ing.ledger;
+
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.exception.AccountNotFoundException;
+import com.bank.ing.exception.InsufficientBalanceException;
+import com.bank.ing.exception.LedgerUnavailableException;
+import com.bank.ing.exception.TransferNotAllowedException;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LedgerEngineTest {
+
+    private final Map<Long, Money> database = new ConcurrentHashMap<>();
+    private final List<LedgerEntry> persisted = new CopyOnWriteArrayList<>();
+    private LedgerEngine ledgerEngine;
+
+    @BeforeEach
+    void setUp() {
+        database.put(1L, Money.parse("100"));
+        database.put(2L, Money.parse("50"));
+        database.put(3L, Money.parse("10"));
+        AtomicLong operationIds = new AtomicLong();
+        ledgerEngine = new LedgerEngine(2, 1024, Duration.ofSeconds(5),
+                accountId -> Optional.ofNullable(database.get(accountId)), persisted::add,
+                operationIds::incrementAndGet);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ledgerEngine.close();
+    }
+
+    @Test
+    void testDepositSuccessfully() {
+        Operation operation = ledgerEngine.deposit(1L, Money.parse("0.5"));
+
+        Assertions.assertThat(operation.getType()).isEqualTo(OperationType.DEPOSIT.name());
+        Assertions.assertThat(operation.getSenderAccount()).isNull();
+        Assertions.assertThat(operation.getReceiverAccount().getId()).isEqualTo(1L);
+        Assertions.assertThat(ledgerEngine.balance(1L)).isEqualTo(Money.parse("100.5"));
+        Assertions.assertThat(persisted).hasSize(1);
+    }
+
+    @Test
+    void testWithdrawInsufficientBalance() {
+        Throwable throwable = Assertions.catchThrowable(() -> ledgerEngine.withdraw(3L, Money.parse("10.01")));
+
+        Assertions.assertThat(throwable).isInstanceOf(InsufficientBalanceException.class);
+        Assertions.assertThat(ledgerEngine.balance(3L)).isEqualTo(Money.parse("10"));
+        Assertions.assertThat(persisted).isEmpty();
+    }
+
+    @Test
+    void testAccountNotFound() {
+        Throwable throwable = Assertions.catchThrowable(() -> ledgerEngine.deposit(Long.MAX_VALUE, Money.parse("1")));
+        Assertions.assertThat(throwable).isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    void testTransferToUnknownAccountDoesNotDebitSender() {
+        Throwable throwable = Assertions.catchThrowable(() -> ledgerEngine.transfer(1L, 4L, Money.parse("1")));
+
+        Assertions.assertThat(throwable).isInstanceOf(AccountNotFoundException.class);
+        Assertions.assertThat(ledgerEngine.balance(1L)).isEqualTo(Money.parse("100"));
+    }
+
+    @Test
+    void testNotAllowedSameAccountTransfer() {
+        Throwable throwable = Assertions.catchThrowable(() -> ledgerEngine.transfer(1L, 1L, Money.parse("1")));
+        Assertions.assertThat(throwable).isInstanceOf(TransferNotAllowedException.class);
+    }
+
+    @Test
+    void testConcurrentCrossShardTransfersKeepTotalBalance() {
+        List<CompletableFuture<Operation>> transfers = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            transfers.add(ledgerEngine.transferAsync(1L, 2L, Money.parse("1")));
+            transfers.add(ledgerEngine.transferAsync(2L, 1L, Money.parse("1")));
+            transfers.add(ledgerEngine.transferAsync(2L, 3L, Money.parse("1")));
+        }
+        transfers.forEach(transfer -> transfer.handle((operation, error) -> operation).join());
+
+        Money total = ledgerEngine.balance(1L).plus(ledgerEngine.balance(2L)).plus(ledgerEngine.balance(3L));
+        Assertions.assertThat(total).isEqualTo(Money.parse("160"));
+        Assertions.assertThat(ledgerEngine.balance(2L).isNegative()).isFalse();
+    }
+
+    @Test
+    void testEveryCommandSubmittedWhileClosingCompletes() throws InterruptedException {
+        LedgerShard shard = new LedgerShard(0, 1024, accountId -> Optional.of(Money.parse("1")), persisted::add);
+        List<CompletableFuture<Money>> commands = new CopyOnWriteArrayList<>();
+        List<Thread> submitters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread submitter = new Thread(() -> {
+                for (int j = 0; j < 2_000; j++) {
+                    commands.add(shard.submitContinuation(s -> s.balanceOf(1L)));
+                }
+            });
+            submitters.add(submitter);
+            submitter.start();
+        }
+
+        shard.close();
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        Assertions.assertThat(commands).hasSize(8_000).allMatch(CompletableFuture::isDone);
+    }
+
+    @Test
+    void testPendingTransferIsCreditedToItsReceiver() {
+        Operation transfer = Operation.builder()
+                .id(42L)
+                .type(OperationType.TRANSFER.name())
+                .senderAccount(Account.builder().id(1L).build())
+                .receiverAccount(Account.builder().id(2L).build())
+                .value(Money.parse("7"))
+                .operationDateTime(LocalDateTime.now())
+                .build();
+
+        ledgerEngine.completeTransfers(List.of(transfer));
+
+        Assertions.assertThat(ledgerEngine.balance(2L)).isEqualTo(Money.parse("57"));
+        Assertions.assertThat(persisted).extracting(LedgerEntry::completedOperation).containsExactly(transfer);
+    }
+
+    @Test
+    void testTransferDebitCarriesTheTransfer() {
+        Operation operation = ledgerEngine.transfer(1L, 2L, Money.parse("1"));
+
+        Assertions.assertThat(persisted).extracting(LedgerEntry::isTransferDebit).containsExactlyInAnyOrder(true, false);
+        Assertions.assertThat(persisted).extracting(LedgerEntry::getOperation).containsOnly(operation);
+    }
+
+    @Test
+    void testCommandTimingOutBeforeItsShardRunsItIsCancelled() throws InterruptedException {
+        CountDownLatch loaderReleased = new CountDownLatch(1);
+        LedgerEngine slowEngine = new LedgerEngine(1, 1024, Duration.ofMillis(200), accountId -> {
+            if (accountId == 1L) {
+                awaitQuietly(loaderReleased);
+            }
+            return Optional.ofNullable(database.get(accountId));
+        }, persisted::add, new AtomicLong()::incrementAndGet);
+        try {
+            CompletableFuture<Operation> blocking = slowEngine.depositAsync(1L, Money.parse("1"));
+
+            Throwable throwable = Assertions.catchThrowable(() -> slowEngine.deposit(2L, Money.parse("5")));
+            loaderReleased.countDown();
+            blocking.join();
+
+            Assertions.assertThat(throwable).isInstanceOf(LedgerUnavailableException.class);
+            Assertions.assertThat(slowEngine.balance(2L)).isEqualTo(Money.parse("50"));
+            Assertions.assertThat(persisted).extracting(LedgerEntry::getOperation).containsOnly(blocking.join());
+        } finally {
+            slowEngine.close();
+        }
+    }
+
+    @Test
+    void testCommandTimingOutAfterItStartedIsWaitedFor() throws InterruptedException {
+        CountDownLatch sinkReleased = new CountDownLatch(1);
+        LedgerEngine slowEngine = new LedgerEngine(1, 1024, Duration.ofMillis(200),
+                accountId -> Optional.ofNullable(database.get(accountId)), entry -> {
+                    awaitQuietly(sinkReleased);
+                    persisted.add(entry);
+                }, new AtomicLong()::incrementAndGet);
+        try {
+            CompletableFuture.delayedExecutor(500, TimeUnit.MILLISECONDS).execute(sinkReleased::countDown);
+
+            Operation operation = slowEngine.deposit(2L, Money.parse("5"));
+
+            Assertions.assertThat(slowEngine.balance(2L)).isEqualTo(Money.parse("55"));
+            Assertions.assertThat(persisted).extracting(LedgerEntry::getOperation).containsExactly(operation);
+        } finally {
+            slowEngine.close();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.bank.ing.money;
+
+import com.bank.ing.dto.response.ResponseAccountBalanceDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testArithmeticIsExactAndFailsOnOverflow() {
+        Assertions.assertThat(Money.parse("10.01").plus(Money.parse("0.99"))).isEqualTo(Money.parse("11"));
+        Assertions.assertThat(Money.parse("1").minus(Money.parse("1.05"))).hasToString("-0.05");
+        Assertions.assertThat(Money.of(new BigDecimal("12.50")).minorUnits()).isEqualTo(1250);
+
+        Throwable overflow = Assertions.catchThrowable(() -> Money.ofMinorUnits(Long.MAX_VALUE).plus(Money.ofMinorUnits(1)));
+        Assertions.assertThat(overflow).isInstanceOf(ArithmeticException.class);
+        Throwable tooPrecise = Assertions.catchThrowable(() -> Money.parse("0.001"));
+        Assertions.assertThat(tooPrecise).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void testJsonKeepsTwoFractionDigits() throws Exception {
+        ResponseAccountBalanceDTO balance = ResponseAccountBalanceDTO.builder().id(1L).balance(Money.parse("100.5")).build();
+
+        String json = objectMapper.writeValueAsString(balance);
+
+        Assertions.assertThat(json).contains("\"balance\":100.50");
+        Assertions.assertThat(objectMapper.readValue(json, ResponseAccountBalanceDTO.class).getBalance())
+                .isEqualTo(Money.parse("100.50"));
+        Assertions.assertThat(objectMapper.readValue("\"-3\"", Money.class)).isEqualTo(Money.ofMinorUnits(-300));
+        Throwable tooPrecise = Assertions.catchThrowable(() -> objectMapper.readValue("0.001", Money.class));
+        Assertions.assertThat(tooPrecise).isInstanceOf(InvalidFormatException.class);
+    }
+}
@@ -6,21 +6,24 @@ import com.bank.ing.dto.response.ResponseAccountDTO;
 import com.bank.ing.entity.Account;
 import com.bank.ing.entity.Customer;
 import com.bank.ing.exception.*;
+import com.bank.ing.money.Money;
 import com.bank.ing.repository.AccountRepository;
 import com.bank.ing.repository.CustomerRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -40,11 +43,11 @@ class AccountServiceTest {
         Long someUserID = 1L;
         String someUserName = "someUserName";
         Long someAccountID = 2L;
-        BigDecimal initialAmount = BigDecimal.valueOf(10.01);
+        Money initialAmount = Money.parse("10.01");
         RequestCreationAccountDTO requestAccountDTO =
                 RequestCreationAccountDTO.builder()
                         .customerId(someUserID)
-                        .initialDepositAmount(initialAmount)
+                        .initialDepositAmount(initialAmount.toBigDecimal())
                         .build();
         Customer customer =
                 Customer.builder()
@@ -117,16 +120,16 @@ class AccountServiceTest {
         Account sender =
                 Account.builder()
                         .id(1L)
-                        .balance(BigDecimal.valueOf(0.01))
+                        .balance(Money.parse("0.01"))
                         .build();
         Account receiver =
                 Account.builder()
                         .id(2L)
-                        .balance(BigDecimal.valueOf(0.99))
+                        .balance(Money.parse("0.99"))
                         .build();
-        accountService.transfer(sender, receiver, BigDecimal.valueOf(0.01));
-        Assertions.assertThat(sender.getBalance()).isEqualTo("0.00");
-        Assertions.assertThat(receiver.getBalance()).isEqualTo("1.00");
+        accountService.transfer(sender, receiver, Money.parse("0.01"));
+        Assertions.assertThat(sender.getBalance()).isEqualTo(Money.parse("0.00"));
+        Assertions.assertThat(receiver.getBalance()).isEqualTo(Money.parse("1.00"));
     }
 
     @Test
@@ -134,14 +137,14 @@ class AccountServiceTest {
         Account sender =
                 Account.builder()
                         .id(1L)
-                        .balance(BigDecimal.valueOf(0.00))
+                        .balance(Money.parse("0.00"))
                         .build();
         Account receiver =
                 Account.builder()
                         .id(2L)
-                        .balance(BigDecimal.valueOf(1.00))
+                        .balance(Money.parse("1.00"))
                         .build();
-        Throwable throwable = Assertions.catchThrowable(() ->accountService.transfer(sender, receiver, BigDecimal.valueOf(0.01)));
+        Throwable throwable = Assertions.catchThrowable(() ->accountService.transfer(sender, receiver, Money.parse("0.01")));
         Assertions.assertThat(throwable).isInstanceOf(InsufficientBalanceException.class);
     }
 
@@ -150,16 +153,16 @@ class AccountServiceTest {
         Account sender =
                 Account.builder()
                         .id(1L)
-                        .balance(BigDecimal.valueOf(1.00))
+                        .balance(Money.parse("1.00"))
                         .build();
-        Throwable throwable = Assertions.catchThrowable(() ->accountService.transfer(sender, sender, BigDecimal.valueOf(0.01)));
+        Throwable throwable = Assertions.catchThrowable(() ->accountService.transfer(sender, sender, Money.parse("0.01")));
         Assertions.assertThat(throwable).isInstanceOf(TransferNotAllowedException.class);
     }
 
     @Test
     void testRetrieveBalanceSuccessful() {
         Long someAccountId = 2L;
-        BigDecimal someBalance = BigDecimal.valueOf(1.11);
+        Money someBalance = Money.parse("1.11");
         Customer customer =
                 Customer.builder()
                         .id(1L)
@@ -168,7 +171,7 @@ class AccountServiceTest {
         Account account =
                 Account.builder()
                         .id(someAccountId)
-                        .initialDepositAmount(BigDecimal.valueOf(100))
+                        .initialDepositAmount(Money.parse("100"))
                         .creationTimestamp(LocalDateTime.now())
                         .balance(someBalance)
                         .customer(customer)
@@ -188,4 +191,46 @@ class AccountServiceTest {
 
         Assertions.assertThat(actualResponse).isEqualTo(expectedResponse);
     }
+
+    @Test
+    void testWithdrawAtomicallyInsufficientBalance() {
+        Long someAccountId = 2L;
+        Money someValue = Money.parse("10.01");
+        when(accountRepository.debit(someAccountId, someValue)).thenReturn(0);
+        when(accountRepository.existsById(someAccountId)).thenReturn(true);
+
+        Throwable throwable = Assertions.catchThrowable(() -> accountService.withdrawAtomically(someAccountId, someValue));
+        Assertions.assertThat(throwable).isInstanceOf(InsufficientBalanceException.class);
+    }
+
+    @Test
+    void testWithdrawAtomicallyAccountNotFound() {
+        Long someAccountId = 2L;
+        Money someValue = Money.parse("10.01");
+        when(accountRepository.debit(someAccountId, someValue)).thenReturn(0);
+        when(accountRepository.existsById(someAccountId)).thenReturn(false);
+
+        Throwable throwable = Assertions.catchThrowable(() -> accountService.withdrawAtomically(someAccountId, someValue));
+        Assertions.assertThat(throwable).isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    void testTransferAtomicallyUpdatesAccountsInIdOrder() {
+        Money someValue = Money.parse("0.01");
+        when(accountRepository.debit(Mockito.anyLong(), Mockito.eq(someValue))).thenReturn(1);
+        when(accountRepository.credit(Mockito.anyLong(), Mockito.eq(someValue))).thenReturn(1);
+
+        accountService.transferAtomically(2L, 1L, someValue);
+
+        InOrder inOrder = Mockito.inOrder(accountRepository);
+        inOrder.verify(accountRepository).credit(1L, someValue);
+        inOrder.verify(accountRepository).debit(2L, someValue);
+    }
+
+    @Test
+    void testNotAllowedSameAccountAtomicTransfer() {
+        Throwable throwable = Assertions.catchThrowable(() -> accountService.transferAtomically(1L, 1L, Money.parse("1")));
+        Assertions.assertThat(throwable).isInstanceOf(TransferNotAllowedException.class);
+        verify(accountRepository, Mockito.never()).debit(Mockito.anyLong(), Mockito.any());
+    }
 }
@@ -0,0 +1,51 @@
+package com.bank.ing.service;
+
+import com.bank.ing.configuration.BatchOperationProperties;
+import com.bank.ing.dto.request.RequestBatchOperationDTO;
+import com.bank.ing.dto.request.RequestBatchOperationItemDTO;
+import com.bank.ing.dto.response.ResponseBatchOperationItemDTO;
+import com.bank.ing.dto.response.ResponseBatchOperationsDTO;
+import com.bank.ing.exception.ErrorCode;
+import com.bank.ing.ledger.LedgerEngine;
+import com.bank.ing.money.Money;
+import com.bank.ing.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.ing.utils.OperationType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.bank.ing.dto.response.ResponseBatchOperationItemDTO.STATUS_REJECTED;
+
+class BatchOperationServiceTest {
+
+    @Test
+    void testOperationsTheLedgerEngineCannotTakeAreRejectedOneByOne() throws InterruptedException {
+        LedgerEngine ledgerEngine = new LedgerEngine(1, 16, Duration.ofSeconds(5),
+                accountId -> Optional.of(Money.parse("100")), entry -> { }, new AtomicLong()::incrementAndGet);
+        BatchOperationService batchOperationService = new BatchOperationService(Mockito.mock(OperationService.class),
+                Mockito.mock(AccountConcurrencyStrategy.class), new BatchOperationProperties());
+        ReflectionTestUtils.setField(batchOperationService, "ledgerEngine", ledgerEngine);
+        ledgerEngine.close();
+
+        ResponseBatchOperationsDTO response = batchOperationService.applyOperations(RequestBatchOperationDTO.builder()
+                .operations(List.of(
+                        RequestBatchOperationItemDTO.builder().type(OperationType.DEPOSIT)
+                                .accountId(1L).value(BigDecimal.ONE).build(),
+                        RequestBatchOperationItemDTO.builder().type(OperationType.WITHDRAW)
+                                .accountId(2L).value(BigDecimal.ONE).build()))
+                .build());
+
+        Assertions.assertThat(response.getCreated()).isZero();
+        Assertions.assertThat(response.getResults())
+                .extracting(ResponseBatchOperationItemDTO::getStatus, ResponseBatchOperationItemDTO::getErrorCode)
+                .containsOnly(Assertions.tuple(STATUS_REJECTED, ErrorCode.LEDGER_UNAVAILABLE))
+                .hasSize(2);
+    }
+}
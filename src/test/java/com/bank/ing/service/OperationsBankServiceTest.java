@@ -7,10 +7,14 @@ import com.bank.ing.dto.response.ResponseDepositWithdrawTransferDTO;
 import com.bank.ing.dto.response.ResponseHistoryOperationsDTO;
 import com.bank.ing.entity.Account;
 import com.bank.ing.entity.Operation;
+import com.bank.ing.exception.AccountNotFoundException;
 import com.bank.ing.exception.InvalidRequestOperationException;
+import com.bank.ing.money.Money;
 import com.bank.ing.repository.OperationRepository;
+import com.bank.ing.service.concurrency.AccountConcurrencyStrategy;
 import com.bank.ing.utils.OperationType;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -18,10 +22,11 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.Mockito.when;
 
@@ -34,21 +39,30 @@ class OperationsBankServiceTest {
     @Mock
     private OperationRepository operationRepository;
 
+    @Mock
+    private AccountConcurrencyStrategy accountConcurrencyStrategy;
+
     @Spy
     @InjectMocks
     private OperationService operationService;
 
+    @BeforeEach
+    void setUp() {
+        when(accountConcurrencyStrategy.execute(Mockito.anyCollection(), Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
 
     @Test
     void testDepositOperationSuccessfully() {
-        BigDecimal someValue = BigDecimal.valueOf(0.2);
+        Money someValue = Money.parse("0.2");
 
-        Account receiver = Account.builder().id(2L).balance(BigDecimal.valueOf(0.99)).build();
+        Account receiver = Account.builder().id(2L).balance(Money.parse("0.99")).build();
 
         RequestDepositAccountDTO requestOperationDTO =
                 RequestDepositAccountDTO.builder()
                         .accountId(receiver.getId())
-                        .depositAmount(someValue).build();
+                        .depositAmount(someValue.toBigDecimal()).build();
 
         Operation operationResult =
                 Operation.builder().id(3L).senderAccount(null).receiverAccount(receiver).value(someValue)
@@ -75,14 +89,14 @@ class OperationsBankServiceTest {
 
     @Test
     void testWithdrawOperationSuccessfully() {
-        BigDecimal someValue = BigDecimal.valueOf(0.2);
+        Money someValue = Money.parse("0.2");
 
-        Account account = Account.builder().id(2L).balance(BigDecimal.valueOf(0.99)).build();
+        Account account = Account.builder().id(2L).balance(Money.parse("0.99")).build();
 
         RequestWithdrawAccountDTO requestOperationDTO =
                 RequestWithdrawAccountDTO.builder()
                         .accountId(account.getId())
-                        .withdrawAmount(someValue).build();
+                        .withdrawAmount(someValue.toBigDecimal()).build();
 
         Operation operationResult =
                 Operation.builder().id(3L).senderAccount(null).receiverAccount(account).value(someValue)
@@ -108,16 +122,16 @@ class OperationsBankServiceTest {
 
     @Test
     void testTransferOperationSuccessfully() {
-        BigDecimal someValue = BigDecimal.valueOf(0.2);
+        Money someValue = Money.parse("0.2");
 
-        Account sender = Account.builder().id(1L).balance(BigDecimal.valueOf(1.01)).build();
-        Account receiver = Account.builder().id(2L).balance(BigDecimal.valueOf(0.99)).build();
+        Account sender = Account.builder().id(1L).balance(Money.parse("1.01")).build();
+        Account receiver = Account.builder().id(2L).balance(Money.parse("0.99")).build();
 
         RequestTransferOperationDTO requestOperationDTO =
                 RequestTransferOperationDTO.builder()
                         .senderAccountId(sender.getId())
                         .receiverAccountId(receiver.getId())
-                        .value(someValue).build();
+                        .value(someValue.toBigDecimal()).build();
 
         Operation operationResult =
                 Operation.builder().id(3L).senderAccount(sender).receiverAccount(receiver).value(someValue)
@@ -142,6 +156,32 @@ class OperationsBankServiceTest {
         Assertions.assertThat(actualResponseOperationDTO).isEqualTo(expectedResponseOperationDTO);
     }
 
+    @Test
+    void testAtomicDepositOperationDoesNotLoadAccount() {
+        Money someValue = Money.parse("0.2");
+        Account receiver = Account.builder().id(2L).build();
+
+        RequestDepositAccountDTO requestOperationDTO =
+                RequestDepositAccountDTO.builder()
+                        .accountId(receiver.getId())
+                        .depositAmount(someValue.toBigDecimal()).build();
+
+        Operation operationResult =
+                Operation.builder().id(3L).senderAccount(null).receiverAccount(receiver).value(someValue)
+                        .type(OperationType.DEPOSIT.name())
+                        .operationDateTime(LocalDateTime.MIN).build();
+
+        ReflectionTestUtils.setField(operationService, "atomicBalanceUpdates", true);
+        when(accountService.getAccountReference(receiver.getId())).thenReturn(receiver);
+        when(operationRepository.save(Mockito.any(Operation.class))).thenReturn(operationResult);
+
+        ResponseDepositWithdrawTransferDTO actualResponseOperationDTO = operationService.depositMoney(requestOperationDTO);
+
+        Mockito.verify(accountService).applyDepositAtomically(receiver.getId(), someValue);
+        Mockito.verify(accountService, Mockito.never()).getAccountById(Mockito.anyLong());
+        Assertions.assertThat(actualResponseOperationDTO.getReceiverAccountId()).isEqualTo(receiver.getId());
+    }
+
     @Test
     void testWithdrawMoneyWithNullRequest() {
         Throwable throwable = Assertions.catchThrowable(() ->operationService.withdrawMoney(null));
@@ -152,13 +192,53 @@ class OperationsBankServiceTest {
     void testHistoryOperationsEmpty() {
         Account sender = Account.builder().id(1L).build();
 
-        when(operationRepository
-                        .findAllBySenderAccount_IdOrReceiverAccount_IdOrderByOperationDateTimeDesc(
-                                sender.getId(), sender.getId())).thenReturn(Optional.empty());
-        when(accountService.getAccountById(sender.getId())).thenReturn(sender);
+        when(operationRepository.findHistory(Mockito.eq(sender.getId()), Mockito.anyInt()))
+                .thenReturn(List.of());
 
         ResponseHistoryOperationsDTO operations = operationService.historyOperations(sender.getId());
+        Mockito.verify(accountService).checkAccountExists(sender.getId());
         Assertions.assertThat(operations.getAccountId()).isEqualTo(sender.getId());
         Assertions.assertThat(operations.getOperationDTOList().isEmpty()).isTrue();
     }
+
+    @Test
+    void testHistoryOperationsOfUnknownAccount() {
+        when(operationRepository.findHistory(Mockito.eq(1L), Mockito.anyInt())).thenReturn(List.of());
+        Mockito.doThrow(new AccountNotFoundException()).when(accountService).checkAccountExists(1L);
+
+        Throwable throwable = Assertions.catchThrowable(() -> operationService.historyOperations(1L));
+        Assertions.assertThat(throwable).isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    void testHistoryOperationsReturnsCursorOfNextPage() {
+        Account account = Account.builder().id(1L).build();
+        LocalDateTime now = LocalDateTime.of(2021, 4, 1, 10, 0);
+        List<ResponseDepositWithdrawTransferDTO> operations = List.of(
+                ResponseDepositWithdrawTransferDTO.builder().id(9L).receiverAccountId(account.getId()).creationTimestamp(now).build(),
+                ResponseDepositWithdrawTransferDTO.builder().id(8L).receiverAccountId(account.getId()).creationTimestamp(now).build(),
+                ResponseDepositWithdrawTransferDTO.builder().id(7L).receiverAccountId(account.getId()).creationTimestamp(now.minusDays(1)).build());
+        when(operationRepository.findHistory(account.getId(), 3)).thenReturn(operations);
+        when(operationRepository.findHistoryAfter(account.getId(), now, 8L, 3))
+                .thenReturn(operations.subList(2, 3));
+
+        ResponseHistoryOperationsDTO firstPage = operationService.historyOperations(account.getId(), 2, null);
+        ResponseHistoryOperationsDTO lastPage = operationService.historyOperations(account.getId(), 2, firstPage.getNext());
+
+        Assertions.assertThat(firstPage.getOperationDTOList())
+                .extracting(ResponseDepositWithdrawTransferDTO::getId).containsExactly(9L, 8L);
+        Assertions.assertThat(firstPage.getNext()).isNotNull();
+        Assertions.assertThat(lastPage.getOperationDTOList())
+                .extracting(ResponseDepositWithdrawTransferDTO::getId).containsExactly(7L);
+        Assertions.assertThat(lastPage.getNext()).isNull();
+    }
+
+    @Test
+    void testHistoryOperationsWithInvalidCursor() {
+        Account account = Account.builder().id(1L).build();
+
+        Throwable throwable = Assertions.catchThrowable(() -> operationService.historyOperations(account.getId(), 2, "not-a-cursor"));
+        Assertions.assertThat(throwable).isInstanceOf(InvalidRequestOperationException.class);
+        Assertions.assertThat(throwable.getStackTrace()).isEmpty();
+    }
 }
@@ -0,0 +1,48 @@
+package com.bank.ing.service.cache;
+
+import com.bank.ing.money.Money;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AccountBalanceCacheTest {
+
+    @Test
+    void testLeastRecentlyReadBalanceIsEvicted() {
+        AccountBalanceCache cache = new AccountBalanceCache(2, 1);
+        cache.put(1L, Money.parse("1"), 0);
+        cache.put(2L, Money.parse("10"), 0);
+        cache.get(1L);
+
+        cache.put(3L, Money.ZERO, 0);
+
+        Assertions.assertThat(cache.get(1L)).isEqualTo(Money.parse("1"));
+        Assertions.assertThat(cache.get(2L)).isNull();
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+        Assertions.assertThat(cache.metrics().getEvictions()).isEqualTo(1);
+        Assertions.assertThat(cache.metrics().getHits()).isEqualTo(2);
+        Assertions.assertThat(cache.metrics().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void testOlderVersionDoesNotReplaceNewerOne() {
+        AccountBalanceCache cache = new AccountBalanceCache(10, 2);
+        cache.put(1L, Money.parse("10"), 3);
+
+        cache.put(1L, Money.parse("1"), 2);
+
+        Assertions.assertThat(cache.get(1L)).isEqualTo(Money.parse("10"));
+    }
+
+    @Test
+    void testFillIsDroppedWhenAccountWasInvalidatedSinceTheRead() {
+        AccountBalanceCache cache = new AccountBalanceCache(10, 2);
+        long stamp = cache.stamp(1L);
+
+        cache.invalidate(1L);
+        cache.fill(1L, Money.parse("1"), 0, stamp);
+
+        Assertions.assertThat(cache.get(1L)).isNull();
+        cache.fill(1L, Money.parse("10"), 1, cache.stamp(1L));
+        Assertions.assertThat(cache.get(1L)).isEqualTo(Money.parse("10"));
+    }
+}
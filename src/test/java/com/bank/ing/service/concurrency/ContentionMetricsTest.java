@@ -0,0 +1,20 @@
+package com.bank.ing.service.concurrency;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class ContentionMetricsTest {
+
+    @Test
+    void testOnlyAcquisitionsSlowerThanTheThresholdAreWaits() {
+        ContentionMetrics metrics = new ContentionMetrics(Duration.ofMillis(1));
+
+        metrics.lockAcquired(Duration.ofMillis(1).toNanos());
+        metrics.lockAcquired(Duration.ofMillis(5).toNanos());
+
+        Assertions.assertThat(metrics.getLockWaits()).isEqualTo(1);
+        Assertions.assertThat(metrics.getLockWaitMillis()).isEqualTo(5);
+    }
+}
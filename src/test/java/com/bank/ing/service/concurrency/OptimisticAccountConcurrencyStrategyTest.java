@@ -0,0 +1,63 @@
+package com.bank.ing.service.concurrency;
+
+import com.bank.ing.exception.ConcurrentAccountUpdateException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class OptimisticAccountConcurrencyStrategyTest {
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OptimisticAccountConcurrencyStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new OptimisticAccountConcurrencyStrategy(transactionTemplate, 3,
+                Duration.ofMillis(1), Duration.ofMillis(2));
+    }
+
+    @Test
+    void testRetriesStaleUnitOfWork() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(transactionTemplate.execute(Mockito.any())).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Account", 1L);
+            }
+            return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        });
+
+        String result = strategy.execute(List.of(1L), () -> "committed");
+
+        Assertions.assertThat(result).isEqualTo("committed");
+        Assertions.assertThat(strategy.metrics().getRetries()).isEqualTo(2);
+        Assertions.assertThat(strategy.metrics().getAborts()).isZero();
+    }
+
+    @Test
+    void testAbortsAfterMaxAttempts() {
+        when(transactionTemplate.execute(Mockito.any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException("Account", 1L));
+
+        Throwable throwable = Assertions.catchThrowable(() -> strategy.execute(List.of(1L, 2L), () -> "committed"));
+
+        Assertions.assertThat(throwable).isInstanceOf(ConcurrentAccountUpdateException.class);
+        Assertions.assertThat(strategy.metrics().getRetries()).isEqualTo(2);
+        Assertions.assertThat(strategy.metrics().getAborts()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bank.ing.service.concurrency;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class StripedLockAccountConcurrencyStrategyTest {
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private StripedLockAccountConcurrencyStrategy strategy;
+
+    private long balanceA = 1_000;
+    private long balanceB = 1_000;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new StripedLockAccountConcurrencyStrategy(transactionTemplate, 16, Duration.ofSeconds(5),
+                Duration.ofMillis(1));
+        when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testOpposedTransfersNeitherDeadlockNorLoseUpdates() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Void>> transfers = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            boolean aToB = i % 2 == 0;
+            transfers.add(CompletableFuture.runAsync(() -> strategy.execute(aToB ? List.of(1L, 2L) : List.of(2L, 1L), () -> {
+                long amount = aToB ? 1 : -1;
+                balanceA -= amount;
+                balanceB += amount;
+                return null;
+            }), executor));
+        }
+        transfers.forEach(CompletableFuture::join);
+        executor.shutdown();
+
+        Assertions.assertThat(balanceA).isEqualTo(1_000);
+        Assertions.assertThat(balanceB).isEqualTo(1_000);
+        Assertions.assertThat(strategy.metrics().getExecutions()).isEqualTo(2_000);
+        Assertions.assertThat(strategy.metrics().getAborts()).isZero();
+    }
+
+    @Test
+    void testAccountsOfSameStripeAreLockedOnce() {
+        String result = strategy.execute(List.of(1L, 17L), () -> "committed");
+        Assertions.assertThat(strategy.stripeOf(1L)).isEqualTo(strategy.stripeOf(17L));
+        Assertions.assertThat(result).isEqualTo("committed");
+    }
+}
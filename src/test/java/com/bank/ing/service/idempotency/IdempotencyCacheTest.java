@@ -0,0 +1,45 @@
+package com.bank.ing.service.idempotency;
+
+import com.bank.ing.entity.IdempotencyRecord;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void testOldestRecordIsEvictedWhenFull() {
+        IdempotencyCache cache = new IdempotencyCache(2, Duration.ofHours(1));
+        cache.put(record("a", LocalDateTime.now()));
+        cache.put(record("b", LocalDateTime.now()));
+        cache.get("a");
+
+        cache.put(record("c", LocalDateTime.now()));
+
+        Assertions.assertThat(cache.get("a")).isNull();
+        Assertions.assertThat(cache.get("b")).isNotNull();
+        Assertions.assertThat(cache.get("c")).isNotNull();
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testExpiredRecordIsNotReturned() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1));
+        cache.put(record("a", LocalDateTime.now().minusMinutes(2)));
+
+        Assertions.assertThat(cache.get("a")).isNull();
+        Assertions.assertThat(cache.size()).isZero();
+    }
+
+    private IdempotencyRecord record(String key, LocalDateTime createdAt) {
+        return IdempotencyRecord.builder()
+                .key(key)
+                .requestHash("hash")
+                .operationId(1L)
+                .operationType("DEPOSIT")
+                .createdAt(createdAt)
+                .build();
+    }
+}
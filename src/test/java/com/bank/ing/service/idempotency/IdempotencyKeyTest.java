@@ -0,0 +1,37 @@
+package com.bank.ing.service.idempotency;
+
+import com.bank.ing.dto.request.RequestDepositAccountDTO;
+import com.bank.ing.dto.request.RequestTransferOperationDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+class IdempotencyKeyTest {
+
+    @Test
+    void testAmountScaleDoesNotChangeTheRequestHash() {
+        IdempotencyKey key = IdempotencyKey.of("k", "/deposit", deposit(1L, new BigDecimal("10")));
+        IdempotencyKey sameRequest = IdempotencyKey.of("k", "/deposit", deposit(1L, new BigDecimal("10.00")));
+        IdempotencyKey otherRequest = IdempotencyKey.of("k", "/deposit", deposit(1L, new BigDecimal("10.01")));
+
+        Assertions.assertThat(sameRequest.getRequestHash()).isEqualTo(key.getRequestHash());
+        Assertions.assertThat(otherRequest.getRequestHash()).isNotEqualTo(key.getRequestHash());
+    }
+
+    @Test
+    void testRequestIsHashedAsCanonicalJson() {
+        RequestTransferOperationDTO transfer = RequestTransferOperationDTO.builder()
+                .senderAccountId(2L)
+                .receiverAccountId(1L)
+                .value(new BigDecimal("7.50"))
+                .build();
+
+        Assertions.assertThat(IdempotencyKey.canonicalJson(transfer))
+                .isEqualTo("{\"receiver_account_id\":1,\"sender_account_id\":2,\"value\":7.5}");
+    }
+
+    private static RequestDepositAccountDTO deposit(long accountId, BigDecimal amount) {
+        return RequestDepositAccountDTO.builder().accountId(accountId).depositAmount(amount).build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.bank.ing.service.metrics;
+
+import com.bank.ing.exception.InsufficientBalanceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static com.bank.ing.service.metrics.OperationMetrics.*;
+
+class OperationMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OperationMetrics operationMetrics = new OperationMetrics(meterRegistry);
+
+    @Test
+    void testOperationsAreTimedAndCountedPerOutcome() {
+        operationMetrics.record(WITHDRAW, () -> "done");
+        Throwable throwable = Assertions.catchThrowable(() -> operationMetrics.record(WITHDRAW, () -> {
+            throw new InsufficientBalanceException();
+        }));
+
+        Assertions.assertThat(throwable).isInstanceOf(InsufficientBalanceException.class);
+        Assertions.assertThat(meterRegistry.get(OPERATION_TIMER).tag("operation", WITHDRAW).timer().count())
+                .isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get(OPERATION_OUTCOMES)
+                .tags("operation", WITHDRAW, "outcome", OUTCOME_SUCCESS).counter().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get(OPERATION_OUTCOMES)
+                .tags("operation", WITHDRAW, "outcome", OUTCOME_INSUFFICIENT_BALANCE).counter().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get(OPERATION_OUTCOMES)
+                .tags("operation", WITHDRAW, "outcome", OUTCOME_CONFLICT).counter().count()).isZero();
+        Assertions.assertThat(meterRegistry.get(OPERATION_ACTIVE).tag("operation", WITHDRAW).longTaskTimer()
+                .activeTasks()).isZero();
+    }
+
+    @Test
+    void testOperationInFlightIsActive() {
+        operationMetrics.record(TRANSFER, () -> {
+            Assertions.assertThat(meterRegistry.get(OPERATION_ACTIVE).tag("operation", TRANSFER).longTaskTimer()
+                    .activeTasks()).isEqualTo(1);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package com.bank.ing.service.readmodel;
+
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ReadModelProjectorTest {
+
+    private final AtomicLong operationIds = new AtomicLong();
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ReadModelProjector projector;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:read-model", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE account_summary (summary_account_id BIGINT PRIMARY KEY, "
+                + "summary_customer_id BIGINT, summary_balance BIGINT, summary_last_seq BIGINT, "
+                + "summary_last_operation_date_time TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE account_history (history_account_id BIGINT, history_seq BIGINT, "
+                + "history_operation_id BIGINT, history_operation_type VARCHAR(255), history_sender_account_id BIGINT, "
+                + "history_receiver_account_id BIGINT, history_value BIGINT, history_balance BIGINT, "
+                + "history_operation_date_time TIMESTAMP, PRIMARY KEY (history_account_id, history_seq))");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        projector = new ReadModelProjector(jdbcTemplate, transactionTemplate, 1024, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        projector.close();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    void testOperationsAreNumberedPerAccountAndMoveSummaryBalances() throws InterruptedException {
+        projector.onAccountOpened(opened(1L, "100"));
+        projector.onAccountOpened(opened(2L, "10"));
+        projector.onOperationCommitted(operation(OperationType.DEPOSIT, null, 1L, "0.50"));
+        projector.onOperationCommitted(operation(OperationType.WITHDRAW, 1L, 1L, "20"));
+        projector.onOperationCommitted(operation(OperationType.TRANSFER, 1L, 2L, "30.25"));
+
+        projector.close();
+
+        Assertions.assertThat(projector.pending()).isZero();
+        Assertions.assertThat(projector.lagNanos()).isZero();
+        Assertions.assertThat(projector.projected()).isEqualTo(5);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT summary_balance FROM account_summary "
+                + "ORDER BY summary_account_id", Long.class)).containsExactly(5025L, 4025L);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT summary_last_seq FROM account_summary "
+                + "ORDER BY summary_account_id", Long.class)).containsExactly(3L, 1L);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT history_operation_type FROM account_history "
+                + "WHERE history_account_id = 1 ORDER BY history_seq", String.class))
+                .containsExactly(OperationType.DEPOSIT.name(), OperationType.WITHDRAW.name(),
+                        OperationType.TRANSFER.name());
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT history_balance FROM account_history "
+                + "WHERE history_account_id = 1 ORDER BY history_seq", Long.class))
+                .containsExactly(10050L, 8050L, 5025L);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT history_operation_id FROM account_history "
+                + "WHERE history_account_id = 2", Long.class)).isEqualTo(3L);
+        Assertions.assertThat(projector.isOutOfSync()).isFalse();
+    }
+
+    @Test
+    void testOperationOfUnknownAccountIsOnlyProjectedForKnownAccounts() throws InterruptedException {
+        projector.onAccountOpened(opened(1L, "100"));
+        projector.onOperationCommitted(operation(OperationType.TRANSFER, 1L, 99L, "40"));
+
+        projector.close();
+
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT summary_balance FROM account_summary "
+                + "WHERE summary_account_id = 1", Long.class)).isEqualTo(6000L);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT history_account_id FROM account_history", Long.class))
+                .containsExactly(1L);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_summary "
+                + "WHERE summary_account_id = 99", Long.class)).isZero();
+    }
+
+    private static AccountOpenedEvent opened(long accountId, String initialBalance) {
+        return new AccountOpenedEvent(accountId, 1L, Money.parse(initialBalance), LocalDateTime.now());
+    }
+
+    private OperationCommittedEvent operation(OperationType type, Long senderAccountId, long receiverAccountId,
+                                              String value) {
+        return new OperationCommittedEvent(operationIds.incrementAndGet(), type.name(), senderAccountId,
+                receiverAccountId, Money.parse(value), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,154 @@
+package com.bank.ing.service.statement;
+
+import com.bank.ing.configuration.StatementProperties;
+import com.bank.ing.dto.response.ResponseStatementJobDTO;
+import com.bank.ing.exception.InvalidRequestStatementException;
+import com.bank.ing.money.Money;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class StatementJobTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private JdbcTemplate jdbcTemplate;
+    private StatementJob statementJob;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE account (account_id BIGINT PRIMARY KEY, account_id_customer BIGINT, "
+                + "account_balance BIGINT, account_creation_timestamp TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE operation (operation_id BIGINT PRIMARY KEY, operation_type VARCHAR(255), "
+                + "operation_id_sender BIGINT, operation_id_receiver BIGINT, operation_value BIGINT, "
+                + "operation_date_time TIMESTAMP)");
+        account(1L, 1L, 13000L, "2024-01-01T10:00:00");
+        account(2L, 2L, 4000L, "2024-02-01T10:00:00");
+        account(3L, 1L, 1000L, "2024-02-10T10:00:00");
+        account(5L, 3L, 500L, "2024-04-05T10:00:00");
+        operation(1L, "DEPOSIT", null, 1L, 2000L, "2024-02-20T10:00:00");
+        operation(2L, "DEPOSIT", null, 1L, 5000L, "2024-03-01T00:00:00");
+        operation(3L, "TRANSFER", 1L, 2L, 3000L, "2024-03-10T10:00:00");
+        operation(4L, "WITHDRAW", 2L, 2L, 500L, "2024-03-15T10:00:00");
+        operation(5L, "TRANSFER", 2L, 1L, 1000L, "2024-04-01T00:00:00");
+        operation(6L, "DEPOSIT", null, 5L, 500L, "2024-04-06T10:00:00");
+        StatementProperties statementProperties = new StatementProperties();
+        statementProperties.setDirectory(directory.toString());
+        statementProperties.setParallelism(2);
+        statementProperties.setRangeSize(2);
+        statementJob = new StatementJob(dataSource, new DataSourceTransactionManager(dataSource), objectMapper,
+                statementProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testStatementsHaveOpeningRunningAndClosingBalancesOfTheMonth() throws IOException {
+        ResponseStatementJobDTO result = statementJob.run(MONTH);
+
+        Assertions.assertThat(result.getRanges()).isEqualTo(2);
+        Assertions.assertThat(result.getAccounts()).isEqualTo(3);
+        Assertions.assertThat(result.getOperations()).isEqualTo(4);
+        Assertions.assertThat(result.getFailedRanges()).isZero();
+        List<JsonNode> statements = statements();
+        Assertions.assertThat(statements).extracting(statement -> statement.get("account_id").asLong())
+                .containsExactly(1L, 2L, 3L);
+        Assertions.assertThat(statements).extracting(statement -> money(statement.get("opening_balance")))
+                .containsExactly(Money.parse("100"), Money.parse("25"), Money.parse("10"));
+        Assertions.assertThat(statements).extracting(statement -> money(statement.get("closing_balance")))
+                .containsExactly(Money.parse("120"), Money.parse("50"), Money.parse("10"));
+        Assertions.assertThat(statements.get(0).get("operations").findValues("balance"))
+                .extracting(StatementJobTest::money)
+                .containsExactly(Money.parse("150"), Money.parse("120"));
+        Assertions.assertThat(statements.get(1).get("operations").findValuesAsText("type_operation"))
+                .containsExactly("TRANSFER", "WITHDRAW");
+        Assertions.assertThat(statements.get(2).get("customer_id").asLong()).isEqualTo(1L);
+        Assertions.assertThat(statements.get(2).get("operations")).isEmpty();
+    }
+
+    @Test
+    void testRunAgainOnlyWritesTheMissingRanges() throws IOException {
+        statementJob.run(MONTH);
+        List<Path> files = rangeFiles();
+        Files.delete(files.get(1));
+
+        ResponseStatementJobDTO resumed = statementJob.run(MONTH);
+
+        Assertions.assertThat(resumed.getRanges()).isEqualTo(2);
+        Assertions.assertThat(resumed.getSkippedRanges()).isEqualTo(1);
+        Assertions.assertThat(resumed.getAccounts()).isEqualTo(2);
+        Assertions.assertThat(rangeFiles()).isEqualTo(files);
+        Assertions.assertThat(statements()).extracting(statement -> statement.get("account_id").asLong())
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void testMonthThatIsNotOverIsRejected() {
+        Throwable rejected = Assertions.catchThrowable(() -> statementJob.run(YearMonth.now()));
+
+        Assertions.assertThat(rejected).isInstanceOf(InvalidRequestStatementException.class);
+    }
+
+    private List<Path> rangeFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve(MONTH.toString()))) {
+            return files.filter(path -> path.getFileName().toString().endsWith(StatementJob.RANGE_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<JsonNode> statements() throws IOException {
+        List<JsonNode> statements = new ArrayList<>();
+        for (Path file : rangeFiles()) {
+            for (String line : Files.readAllLines(file)) {
+                statements.add(objectMapper.readTree(line));
+            }
+        }
+        return statements;
+    }
+
+    private static Money money(JsonNode amount) {
+        return Money.of(amount.decimalValue());
+    }
+
+    private void account(long id, long customerId, long balance, String creationTimestamp) {
+        jdbcTemplate.update("INSERT INTO account VALUES (?, ?, ?, ?)", id, customerId, balance,
+                Timestamp.valueOf(LocalDateTime.parse(creationTimestamp)));
+    }
+
+    private void operation(long id, String type, Long senderAccountId, long receiverAccountId, long value,
+                           String dateTime) {
+        jdbcTemplate.update("INSERT INTO operation VALUES (?, ?, ?, ?, ?, ?)", id, type, senderAccountId,
+                receiverAccountId, value, Timestamp.valueOf(LocalDateTime.parse(dateTime)));
+    }
+}
@@ -0,0 +1,128 @@
+package com.bank.ing.service.writebehind;
+
+import com.bank.ing.entity.Account;
+import com.bank.ing.entity.Operation;
+import com.bank.ing.money.Money;
+import com.bank.ing.utils.OperationType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+class OperationWriteBehindTest {
+
+    private final AtomicLong operationIds = new AtomicLong();
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate requestTransaction;
+    private OperationWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:write-behind", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE operation (operation_id BIGINT PRIMARY KEY, operation_type VARCHAR(255), "
+                + "operation_id_sender BIGINT, operation_id_receiver BIGINT, operation_value DECIMAL(19, 2), "
+                + "operation_date_time TIMESTAMP)");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        requestTransaction = new TransactionTemplate(transactionManager);
+        writeBehind = new OperationWriteBehind(jdbcTemplate, requestTransaction, operationIds::incrementAndGet,
+                1024, 100, Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBehind.close();
+        dataSource.destroy();
+    }
+
+    @Test
+    void testBufferedOperationsAreWrittenBeforeClose() throws InterruptedException {
+        for (int i = 0; i < 250; i++) {
+            requestTransaction.executeWithoutResult(status -> writeBehind.saveAfterCommit(deposit(1L)));
+        }
+
+        writeBehind.close();
+
+        Assertions.assertThat(writeBehind.pending()).isZero();
+        Assertions.assertThat(writeBehind.written()).isEqualTo(250);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM operation", Long.class)).isEqualTo(250);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT MAX(operation_id) FROM operation", Long.class))
+                .isEqualTo(250);
+    }
+
+    @Test
+    void testOperationIsNotWrittenWhenTransactionRollsBack() throws InterruptedException {
+        Operation rolledBack = requestTransaction.execute(status -> {
+            status.setRollbackOnly();
+            return writeBehind.saveAfterCommit(deposit(1L));
+        });
+        requestTransaction.executeWithoutResult(status -> writeBehind.saveAfterCommit(deposit(2L)));
+
+        writeBehind.close();
+
+        Assertions.assertThat(rolledBack.getId()).isEqualTo(1L);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT operation_id_receiver FROM operation", Long.class))
+                .containsExactly(2L);
+    }
+
+    @Test
+    void testFailedWriteIsRetriedUntilTheDatabaseAcceptsIt() throws InterruptedException {
+        jdbcTemplate.execute("ALTER TABLE operation RENAME TO operation_offline");
+        Operation operation = requestTransaction.execute(status -> writeBehind.saveAfterCommit(deposit(1L)));
+        Thread.sleep(300);
+        Assertions.assertThat(writeBehind.oldestPendingOperationDateTime()).contains(operation.getOperationDateTime());
+        jdbcTemplate.execute("ALTER TABLE operation_offline RENAME TO operation");
+
+        writeBehind.close();
+
+        Assertions.assertThat(writeBehind.oldestPendingOperationDateTime()).isEmpty();
+        Assertions.assertThat(writeBehind.written()).isEqualTo(1);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT operation_id_receiver FROM operation", Long.class))
+                .containsExactly(1L);
+    }
+
+    @Test
+    void testOperationCommittedAfterCloseIsWrittenSynchronously() throws InterruptedException {
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        Thread request = new Thread(() -> requestTransaction.executeWithoutResult(status -> {
+            writeBehind.saveAfterCommit(deposit(1L));
+            reserved.countDown();
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        request.start();
+        reserved.await();
+
+        writeBehind.close();
+        closed.countDown();
+        request.join();
+
+        Assertions.assertThat(writeBehind.pending()).isZero();
+        Assertions.assertThat(writeBehind.writtenByCallers()).isEqualTo(1);
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT operation_id_receiver FROM operation", Long.class))
+                .containsExactly(1L);
+    }
+
+    private static Operation deposit(long accountId) {
+        return Operation.builder()
+                .type(OperationType.DEPOSIT.name())
+                .receiverAccount(Account.builder().id(accountId).build())
+                .value(Money.parse("10"))
+                .operationDateTime(LocalDateTime.now())
+                .build();
+    }
+}